@@ -1,6 +1,8 @@
 package org.xvm.api;
 
 
+import java.io.File;
+
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -103,6 +105,39 @@ public abstract class Connector {
      */
     public abstract int join() throws InterruptedException;
 
+    /**
+     * @return true iff this connector supports {@link #startProfiler profiling}
+     */
+    public boolean isProfilerSupported() {
+        return false;
+    }
+
+    /**
+     * Start profiling the execution. This method must not be called unless
+     * {@link #isProfilerSupported()} returns true.
+     *
+     * @param fileOut  the profiler output file
+     * @param cMillis  the sampling interval in milliseconds
+     */
+    public void startProfiler(File fileOut, long cMillis) {
+        throw new UnsupportedOperationException(
+                "Profiling is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Stop profiling the execution and write out the results.
+     */
+    public void stopProfiler() {
+    }
+
+    /**
+     * Select the engine that serves the HTTP requests for the "web" natives.
+     *
+     * @param sEngine  "jdk" or "virtual"
+     */
+    public void setHttpEngine(String sEngine) {
+    }
+
     // ----- data fields ---------------------------------------------------------------------------
 
     /**
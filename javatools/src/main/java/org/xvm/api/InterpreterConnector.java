@@ -1,5 +1,7 @@
 package org.xvm.api;
 
+import java.io.File;
+
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -127,9 +129,31 @@ public class InterpreterConnector
 
         int nResult = m_containerMain.getResult();
         m_containerMain = null;
+
+        f_containerNative.storeTypeRelations();
         return nResult;
     }
 
+    @Override
+    public boolean isProfilerSupported() {
+        return true;
+    }
+
+    @Override
+    public void startProfiler(File fileOut, long cMillis) {
+        f_runtime.startProfiler(fileOut, cMillis);
+    }
+
+    @Override
+    public void stopProfiler() {
+        f_runtime.stopProfiler();
+    }
+
+    @Override
+    public void setHttpEngine(String sEngine) {
+        f_runtime.setHttpEngine(sEngine);
+    }
+
 
     // ----- data fields ---------------------------------------------------------------------------
 
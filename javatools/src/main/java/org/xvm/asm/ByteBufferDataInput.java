@@ -0,0 +1,156 @@
+package org.xvm.asm;
+
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * A DataInput over a ByteBuffer (the content of an ".xtc" file read into the heap, or optionally
+ * memory-mapped), which allows the deserialization to take {@link #slice slices} of the underlying
+ * buffer for the parts of the structure that are deserialized lazily.
+ */
+public class ByteBufferDataInput
+        extends DataInputStream {
+    /**
+     * Construct a ByteBufferDataInput over the remaining content of the specified buffer.
+     *
+     * @param buf  the buffer
+     */
+    public ByteBufferDataInput(ByteBuffer buf) {
+        super(new BufferInputStream(buf));
+    }
+
+    /**
+     * Read the entire content of the specified file into the heap. Unlike a mapping, the content
+     * is not affected by any later change to the file.
+     *
+     * @param file  the file
+     *
+     * @return a DataInput over the file content
+     *
+     * @throws IOException  if the file cannot be read
+     */
+    public static ByteBufferDataInput read(File file)
+            throws IOException {
+        return new ByteBufferDataInput(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+    }
+
+    /**
+     * Map the content of the specified file into memory.
+     * <p>
+     * Note: the mapped content is read lazily, so if the file is truncated while the mapping is
+     * still in use, the subsequent reads fail with an {@link InternalError} (or worse, crash the
+     * process on some platforms).
+     *
+     * @param file  the file
+     *
+     * @return a DataInput over the mapped file content
+     *
+     * @throws IOException  if the file cannot be mapped
+     */
+    public static ByteBufferDataInput map(File file)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new ByteBufferDataInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Take the specified number of bytes as a slice of the underlying buffer, advancing this input
+     * past them.
+     * <p>
+     * A slice of a memory-mapped buffer shares the mapping, so it does not copy anything. A slice
+     * of a heap buffer is a copy of the bytes instead, so that holding on to a small part of the
+     * content (e.g. the children of a single component) does not keep the entire content alive.
+     *
+     * @param cb  the number of bytes
+     *
+     * @return a read-only buffer containing the next {@code cb} bytes
+     *
+     * @throws EOFException  if there are fewer than {@code cb} bytes remaining
+     */
+    public ByteBuffer slice(int cb)
+            throws IOException {
+        return ((BufferInputStream) in).slice(cb);
+    }
+
+
+    // ----- inner class: BufferInputStream --------------------------------------------------------
+
+    /**
+     * An InputStream over a ByteBuffer.
+     */
+    private static class BufferInputStream
+            extends InputStream {
+        BufferInputStream(ByteBuffer buf) {
+            f_buf = buf.slice().asReadOnlyBuffer();
+        }
+
+        @Override
+        public int read() {
+            ByteBuffer buf = f_buf;
+            return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] ab, int of, int cb) {
+            ByteBuffer buf = f_buf;
+            if (cb == 0) {
+                return 0;
+            }
+
+            int cbRead = Math.min(cb, buf.remaining());
+            if (cbRead == 0) {
+                return -1;
+            }
+            buf.get(ab, of, cbRead);
+            return cbRead;
+        }
+
+        @Override
+        public long skip(long cb) {
+            ByteBuffer buf    = f_buf;
+            int        cbSkip = (int) Math.max(0, Math.min(cb, buf.remaining()));
+            buf.position(buf.position() + cbSkip);
+            return cbSkip;
+        }
+
+        @Override
+        public int available() {
+            return f_buf.remaining();
+        }
+
+        ByteBuffer slice(int cb)
+                throws IOException {
+            ByteBuffer buf = f_buf;
+            if (cb < 0 || cb > buf.remaining()) {
+                throw new EOFException();
+            }
+
+            int of = buf.position();
+            ByteBuffer slice;
+            if (buf.isDirect()) {
+                slice = buf.slice(of, cb);
+            } else {
+                byte[] ab = new byte[cb];
+                buf.get(of, ab);
+                slice = ByteBuffer.wrap(ab).asReadOnlyBuffer();
+            }
+            buf.position(of + cb);
+            return slice;
+        }
+
+        private final ByteBuffer f_buf;
+    }
+}
@@ -1,15 +1,15 @@
 package org.xvm.asm;
 
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 
+import java.nio.ByteBuffer;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -750,7 +750,7 @@ public abstract class Component
      * Make sure that any deferred child deserialization is complete
      */
     protected void ensureChildren() {
-        if (m_abChildren != null) {
+        if (m_bufChildren != null) {
             ensureChildrenComplex();
         }
         // else; common path
@@ -760,31 +760,32 @@ public abstract class Component
      * Complex portion of {@link #ensureChildren()} extracted for hot-spotting.
      */
     private void ensureChildrenComplex() {
-        byte[] ab = m_abChildren;
-        if (ab != null) {
+        ByteBuffer buf = m_bufChildren;
+        if (buf != null) {
             // sync on an object shared by all siblings
-            synchronized (ab) {
-                if (ab.length == 0) {
+            synchronized (buf) {
+                if (buf.capacity() == 0) {
                     // we've recursed from disassembleChildren() below, or the deserialization
-                    // thread just released the empty array monitor introduced below
+                    // thread just released the empty buffer monitor introduced below
                     return;
                 }
 
-                if (m_abChildren != null) {
-                    assert ab == m_abChildren;
+                if (m_bufChildren != null) {
+                    assert buf == m_bufChildren;
 
-                    // create an empty array to serve as a marker indicating that we are in the
+                    // create an empty buffer to serve as a marker indicating that we are in the
                     // process of deserialization, so threads would be forced to block on this object
-                    byte[] empty = new byte[0];
+                    ByteBuffer empty = ByteBuffer.allocate(0);
                     synchronized (empty) {
                         // mark all siblings as in active serialization; this blocks other threads
                         // until deserialization is complete
                         for (Iterator<Component> siblings = siblings(); siblings.hasNext(); ) {
-                            siblings.next().m_abChildren = empty;
+                            siblings.next().m_bufChildren = empty;
                         }
 
-                        // now read in the children
-                        DataInput in = new DataInputStream(new ByteArrayInputStream(ab));
+                        // now read in the children; the nested deferred children are sliced out
+                        // of the same buffer
+                        DataInput in = new ByteBufferDataInput(buf.duplicate());
                         try {
                             // this may recurse, hence the complexity of the synchronization above
                             disassembleChildren(in, true);
@@ -795,7 +796,7 @@ public abstract class Component
                         } finally {
                             // mark the deserialization as complete
                             for (Iterator<Component> siblings = siblings(); siblings.hasNext(); ) {
-                                siblings.next().m_abChildren = null;
+                                siblings.next().m_bufChildren = null;
                             }
                         }
                     }
@@ -901,11 +902,11 @@ public abstract class Component
     protected void adoptChildren(Component that) {
         // the child can't have any of its own children; that "merge" functionality is simply
         // not supported by this operation
-        assert m_abChildren       == null;
+        assert m_bufChildren      == null;
         assert m_childByName      == null;
 
         // make sure that the various sibling-shared fields are configured
-        m_abChildren  = that.m_abChildren;
+        m_bufChildren = that.m_bufChildren;
         m_childByName = that.m_childByName;
     }
 
@@ -1678,14 +1679,21 @@ public abstract class Component
             int cb = readMagnitude(in);
             if (cb > 0) {
                 if (fLazy) {
-                    // just read the bytes for the children and store it off for later
-                    byte[] ab = new byte[cb];
-                    in.readFully(ab);
+                    // just take the bytes for the children and store them off for later; if the
+                    // input is a memory-mapped buffer, the bytes are not even copied
+                    ByteBuffer buf;
+                    if (in instanceof ByteBufferDataInput inBuf) {
+                        buf = inBuf.slice(cb);
+                    } else {
+                        byte[] ab = new byte[cb];
+                        in.readFully(ab);
+                        buf = ByteBuffer.wrap(ab);
+                    }
                     for (Component eachSibling = kid; eachSibling != null; eachSibling = eachSibling.getNextSibling()) {
-                        // note that every sibling has a copy of all the children; this is because
-                        // the byte[] serves as both the storage of those children and an indicator that
-                        // the deserialization of the children has been deferred
-                        eachSibling.m_abChildren = ab;
+                        // note that every sibling has a reference to all the children; this is
+                        // because the buffer serves as both the storage of those children and an
+                        // indicator that the deserialization of the children has been deferred
+                        eachSibling.m_bufChildren = buf;
                     }
                 } else {
                     kid.disassembleChildren(in, fLazy);
@@ -1988,7 +1996,7 @@ public abstract class Component
 
         that.m_sibling     = null;
         that.m_childByName = null;
-        that.m_abChildren  = null;
+        that.m_bufChildren = null;
 
         return that;
     }
@@ -3511,9 +3519,9 @@ public abstract class Component
     /**
      * This is a non-deserialized form of all of the children. When a Component is read from disk,
      * it can optionally lazily deserialize its children. This is possible because the "children"
-     * block is length-encoded.
+     * block is length-encoded. For a memory-mapped file, this is a slice of the mapped file.
      */
-    private volatile byte[] m_abChildren;
+    private volatile ByteBuffer m_bufChildren;
 
     /**
      * This holds all of the children of all of the siblings, except for methods (because they are
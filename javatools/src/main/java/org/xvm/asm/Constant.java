@@ -984,7 +984,7 @@ public abstract class Constant
     /**
      * A cached index of the location of the Constant in the pool.
      */
-    private transient int m_iPos = -1;
+    private transient volatile int m_iPos = -1;
 
     /**
      * A calculated number of references to this constant; useful for priority based ordering of the
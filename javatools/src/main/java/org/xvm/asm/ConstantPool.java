@@ -23,10 +23,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.Vector;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.xvm.asm.Constant.Format;
 
@@ -81,7 +83,7 @@ public class ConstantPool
      * @return the Constant at that index
      */
     public Constant getConstant(int i) {
-        return i == -1 ? null : f_listConst.get(i);
+        return i == -1 ? null : lookup(i);
     }
 
     /**
@@ -99,7 +101,7 @@ public class ConstantPool
         if (i == -1) {
             return null;
         }
-        Constant constant = f_listConst.get(i);
+        Constant constant = lookup(i);
         try {
             return type.cast(constant);
         } catch (ClassCastException e) {
@@ -114,7 +116,7 @@ public class ConstantPool
      * @return the count of constants in the pool
      */
     public int size() {
-        return f_listConst.size();
+        return m_cConst;
     }
 
     /**
@@ -129,7 +131,53 @@ public class ConstantPool
      */
     public Constant[] getConstants() {
         // note: this is expensive!!! (but purposeful)
-        return f_listConst.toArray(Constant.NO_CONSTS);
+        int cConst = m_cConst;
+        return Arrays.copyOf(m_aconst, cConst);
+    }
+
+    /**
+     * Obtain the Constant at the specified index without holding the ConstantPool monitor.
+     * <p>
+     * The count of constants is read before the index array, and both are written in the opposite
+     * order by {@link #append}, so the array that is read always holds all of the counted
+     * constants.
+     *
+     * @param i  the index of the constant
+     *
+     * @return the Constant at that index
+     */
+    private Constant lookup(int i) {
+        int cConst = m_cConst;
+        Objects.checkIndex(i, cConst);
+        return m_aconst[i];
+    }
+
+    /**
+     * Append the specified constant to the pool, and publish it to the lock-free readers. Must be
+     * called while holding the ConstantPool monitor, or while no other thread can use the pool.
+     *
+     * @param constant  the constant to append
+     */
+    private void append(Constant constant) {
+        int        cConst = f_listConst.size();
+        Constant[] aconst = m_aconst;
+        if (cConst >= aconst.length) {
+            aconst   = Arrays.copyOf(aconst, Math.max(cConst * 2, 64));
+            m_aconst = aconst;
+        }
+        aconst[cConst] = constant;
+        f_listConst.add(constant);
+        m_cConst = cConst + 1;
+    }
+
+    /**
+     * Rebuild the lock-free index from the list of constants, after the list has been replaced or
+     * re-ordered while no other thread could use the pool.
+     */
+    private void reindex() {
+        m_cConst = 0;
+        m_aconst = f_listConst.toArray(Constant.NO_CONSTS);
+        m_cConst = m_aconst.length;
     }
 
     /**
@@ -199,14 +247,18 @@ public class ConstantPool
                 constant = (T) constant.adoptedBy(this);
             }
 
+            // the position is assigned and the constant is appended to the index before it is
+            // published by the lookup map, so a thread that finds the constant in the lookup map
+            // can also find it by its position
             synchronized (this) {
-                if (mapConstants.containsKey(constant)) {
+                constantOld = (T) mapConstants.get(constant);
+                if (constantOld != null) {
                     // it was concurrently inserted
-                    return (T) mapConstants.get(constant);
+                    return constantOld;
                 }
 
                 constant.setPosition(f_listConst.size());
-                f_listConst.add(constant);
+                append(constant);
                 mapConstants.put(constant, constant);
 
                 // also allow the constant to be looked up by a locator
@@ -2202,6 +2254,7 @@ public class ConstantPool
     public ClassConstant     clzAtomic()         {ClassConstant     c = m_clzAtomic;         if (c == null) {m_clzAtomic         = c = (ClassConstant) getImplicitlyImportedIdentity("Atomic"          );} return c;}
     public ClassConstant     clzConcurrent()     {ClassConstant     c = m_clzConcurrent;     if (c == null) {m_clzConcurrent     = c = (ClassConstant) getImplicitlyImportedIdentity("Concurrent"      );} return c;}
     public ClassConstant     clzSynchronized()   {ClassConstant     c = m_clzSynchronized;   if (c == null) {m_clzSynchronized   = c = (ClassConstant) getImplicitlyImportedIdentity("Synchronized"    );} return c;}
+    public ClassConstant     clzSpecialized()    {ClassConstant     c = m_clzSpecialized;    if (c == null) {m_clzSpecialized    = c = (ClassConstant) getImplicitlyImportedIdentity("Specialized"     );} return c;}
     public ClassConstant     clzFuture()         {ClassConstant     c = m_clzFuture;         if (c == null) {m_clzFuture         = c = (ClassConstant) getImplicitlyImportedIdentity("Future"          );} return c;}
     public ClassConstant     clzOverride()       {ClassConstant     c = m_clzOverride;       if (c == null) {m_clzOverride       = c = (ClassConstant) getImplicitlyImportedIdentity("Override"        );} return c;}
     public ClassConstant     clzLazy()           {ClassConstant     c = m_clzLazy;           if (c == null) {m_clzLazy           = c = (ClassConstant) getImplicitlyImportedIdentity("Lazy"            );} return c;}
@@ -2478,6 +2531,7 @@ public class ConstantPool
                 f_listConst.set(nPos, id);
             }
         }
+        reindex();
     }
 
 
@@ -2515,15 +2569,15 @@ public class ConstantPool
 
             @Override
             public boolean hasNext() {
-                return iNext < f_listConst.size();
+                return iNext < m_cConst;
             }
 
             @Override
             public XvmStructure next() {
-                if (iNext >= f_listConst.size()) {
+                if (iNext >= m_cConst) {
                     throw new NoSuchElementException();
                 }
-                return f_listConst.get(iNext++);
+                return lookup(iNext++);
             }
         };
     }
@@ -2571,6 +2625,7 @@ public class ConstantPool
     protected void disassemble(DataInput in)
             throws IOException {
         f_listConst.clear();
+        reindex();
         m_mapConstants.clear();
         m_mapLocators.clear();
 
@@ -2917,6 +2972,7 @@ public class ConstantPool
             constant.setPosition(i);
             f_listConst.add(constant);
         }
+        reindex();
 
         // convert indexes into constant references
         for (Constant constant : f_listConst) {
@@ -3210,6 +3266,17 @@ public class ConstantPool
         return set;
     }
 
+    /**
+     * Allocate an id for a type of this pool in the "isA" relation matrix (see
+     * {@link TypeConstant#isA}). The ids are only meaningful within this pool, and are discarded
+     * together with it.
+     *
+     * @return a new positive type id
+     */
+    public int allocateTypeId() {
+        return f_cTypeIds.incrementAndGet();
+    }
+
 
     // ----- TypeConstant helpers  -----------------------------------------------------------------
 
@@ -3751,6 +3818,7 @@ public class ConstantPool
         m_clzAtomic         = null;
         m_clzConcurrent     = null;
         m_clzSynchronized   = null;
+        m_clzSpecialized    = null;
         m_clzFuture         = null;
         m_clzOverride       = null;
         m_clzLazy           = null;
@@ -3888,6 +3956,7 @@ public class ConstantPool
             constant.setPosition(i);
             list.add(constant);
         }
+        reindex();
 
         // discard any previous lookup structures, since contents may have changed
         m_mapConstants.clear();
@@ -3950,9 +4019,24 @@ public class ConstantPool
 
     /**
      * Storage of Constant objects by index.
+     * <p>
+     * Registration appends to this list while holding the ConstantPool monitor; the lookups that
+     * may run concurrently with the registration use {@link #m_aconst} instead.
      */
     private final ArrayList<Constant> f_listConst = new ArrayList<>();
 
+    /**
+     * The lock-free index of the constants, holding the same constants as {@link #f_listConst} in
+     * its first {@link #m_cConst} elements; the array is replaced (never shrunk in place) when it
+     * needs to grow.
+     */
+    private volatile Constant[] m_aconst = Constant.NO_CONSTS;
+
+    /**
+     * The number of constants published in {@link #m_aconst}.
+     */
+    private volatile int m_cConst;
+
     /**
      * Reverse lookup structure to find a particular constant by constant.
      * <p>
@@ -3999,6 +4083,11 @@ public class ConstantPool
      */
     private volatile int m_cInvalidated;
 
+    /**
+     * The last type id allocated by {@link #allocateTypeId}.
+     */
+    private final AtomicInteger f_cTypeIds = new AtomicInteger();
+
     /**
      * A cache of TypeInfo for parameterized NakedRef types.
      */
@@ -4062,6 +4151,7 @@ public class ConstantPool
     private transient ClassConstant     m_clzAtomic;
     private transient ClassConstant     m_clzConcurrent;
     private transient ClassConstant     m_clzSynchronized;
+    private transient ClassConstant     m_clzSpecialized;
     private transient ClassConstant     m_clzFuture;
     private transient ClassConstant     m_clzOverride;
     private transient ClassConstant     m_clzLazy;
@@ -9,17 +9,29 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 
+import java.lang.ref.Cleaner;
+
 import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
 
 /**
  * A simple ModuleRepository that manages its contents in a directory.
@@ -58,6 +70,30 @@ public class DirRepository
         return m_fRO;
     }
 
+    /**
+     * @return true iff the directory is being watched for changes
+     */
+    public boolean isWatching() {
+        Watch watch = m_watch;
+        return watch != null && watch.key.isValid();
+    }
+
+    /**
+     * Stop watching the directory for changes; the watch is cancelled once none of the
+     * repositories for the directory is using it. A repository that is garbage collected without
+     * being released is released automatically, and a released repository that is used again
+     * resumes watching.
+     */
+    public synchronized void release() {
+        Cleaner.Cleanable cleanable = m_cleanable;
+        if (cleanable != null) {
+            m_watch     = null;
+            m_cleanable = null;
+            lastScan    = 0;
+            cleanable.clean();
+        }
+    }
+
 
     // ----- ModuleRepository API ------------------------------------------------------------------
 
@@ -67,6 +103,17 @@ public class DirRepository
         return Collections.unmodifiableSet(modulesByName.keySet());
     }
 
+    @Override
+    public VersionTree<Boolean> getAvailableVersions(String sModule) {
+        ensureCache();
+        ModuleInfo info = modulesByName.get(sModule);
+        return info == null
+                ? null
+                : info.versions == null
+                        ? ModuleRepository.super.getAvailableVersions(sModule)
+                        : info.versions;
+    }
+
     @Override
     public ModuleStructure loadModule(String sModule) {
         ensureCache();
@@ -75,7 +122,7 @@ public class DirRepository
     }
 
     @Override
-    public void storeModule(ModuleStructure module)
+    public synchronized void storeModule(ModuleStructure module)
             throws IOException {
         if (m_fRO) {
             throw new IOException("repository is read-only: " + this);
@@ -93,14 +140,19 @@ public class DirRepository
 
         module.getFileStructure().writeTo(file);
 
+        // the maps are replaced rather than modified, so the readers never need to synchronize
+        Map<File  , ModuleInfo> newModulesByFile = new HashMap<>(modulesByFile);
+        Map<String, ModuleInfo> newModulesByName = new TreeMap<>(modulesByName);
         if (file.exists()) {
             info = createModuleInfo(file);
-            modulesByName.put(name, info);
-            modulesByFile.put(file, info);
+            newModulesByName.put(name, info);
+            newModulesByFile.put(file, info);
         } else {
-            modulesByName.remove(name);
-            modulesByFile.remove(file);
+            newModulesByName.remove(name);
+            newModulesByFile.remove(file);
         }
+        modulesByFile = newModulesByFile;
+        modulesByName = newModulesByName;
 
         writeCache();
     }
@@ -135,10 +187,28 @@ public class DirRepository
      * Make sure that the cache is up to date.
      */
     protected void ensureCache() {
+        if (!isCacheValid()) {
+            rescan();
+        }
+    }
+
+    /**
+     * Rebuild the module index from the directory content, re-reading only the module files that
+     * have changed (in parallel, if there are many of them).
+     */
+    private synchronized void rescan() {
         if (isCacheValid()) {
+            // another thread has just done it
             return;
         }
 
+        // start watching before listing the files, so no change could slip in unnoticed
+        Watch watch = m_watch;
+        if (watch == null || watch.cChanges.get() < 0) {
+            watch = startWatching();
+        }
+        long cChangesSeen = watch == null ? 0 : watch.cChanges.get();
+
         Map<File, ModuleInfo> oldModulesByFile = modulesByFile;
         boolean               fWriteCache      = false;
         if (oldModulesByFile.isEmpty()) {
@@ -150,28 +220,45 @@ public class DirRepository
             }
         }
 
-        Map<File, ModuleInfo> newModulesByFile = new HashMap<>();
-
-        modulesByFile = newModulesByFile;
-        modulesByName.clear();
-
         File[] files = m_dir.listFiles(ModulesOnly);
+        if (files == null) {
+            files = new File[0];
+        }
         fWriteCache |= files.length != oldModulesByFile.size();
+
+        Map<File, ModuleInfo> newModulesByFile = new HashMap<>();
+        List<File>            listChanged      = new ArrayList<>();
         for (File file : files) {
             ModuleInfo info = oldModulesByFile.get(file);
             if (info == null || info.timestamp != file.lastModified() || info.size != file.length()) {
-                // build a new one to cache
-                info = createModuleInfo(file);
-                fWriteCache = true;
+                listChanged.add(file);
+            } else {
+                newModulesByFile.put(file, info);
             }
+        }
 
-            newModulesByFile.put(file, info);
+        if (!listChanged.isEmpty()) {
+            // build new ones to cache; reading the module headers is independent per file
+            List<ModuleInfo> listInfo = listChanged.size() >= PARALLEL_SCAN_THRESHOLD
+                    ? listChanged.parallelStream().map(this::createModuleInfo).toList()
+                    : listChanged.stream().map(this::createModuleInfo).toList();
+            for (ModuleInfo info : listInfo) {
+                newModulesByFile.put(info.file, info);
+            }
+            fWriteCache = true;
+        }
+
+        Map<String, ModuleInfo> newModulesByName = new TreeMap<>();
+        for (ModuleInfo info : newModulesByFile.values()) {
             if (!info.err) {
-                modulesByName.put(info.name, info);
+                newModulesByName.put(info.name, info);
             }
         }
 
-        lastScan = System.currentTimeMillis();
+        modulesByFile = newModulesByFile;
+        modulesByName = newModulesByName;
+        m_cChangesSeen = cChangesSeen;
+        lastScan       = System.currentTimeMillis();
         if (fWriteCache) {
             writeCache();
         }
@@ -226,8 +313,23 @@ public class DirRepository
                 boolean err      = in.readBoolean();
                 String name      = err ? null : in.readUTF();
 
+                VersionTree<Boolean> versions = null;
+                if (!err) {
+                    int cVersions = in.readInt();
+                    if (cVersions < 0 || cVersions > MAX_CACHE_VERSIONS) {
+                        return null;
+                    }
+                    if (cVersions > 0) {
+                        // no versions are left as null, so they are resolved by the module itself
+                        versions = new VersionTree<>();
+                        for (int iVer = 0; iVer < cVersions; ++iVer) {
+                            versions.put(new Version(in.readUTF()), Boolean.TRUE);
+                        }
+                    }
+                }
+
                 if (modulesByFile.put(file,
-                        new ModuleInfo(file, name, timestamp, size, err)) != null) {
+                        new ModuleInfo(file, name, versions, timestamp, size, err)) != null) {
                     return null;
                 }
             }
@@ -268,6 +370,15 @@ public class DirRepository
                     out.writeBoolean(info.err);
                     if (!info.err) {
                         out.writeUTF(info.name);
+
+                        // the versions allow resolving the module without opening the file
+                        VersionTree<Boolean> versions = info.versions;
+                        out.writeInt(versions == null ? 0 : versions.size());
+                        if (versions != null) {
+                            for (Version version : versions) {
+                                out.writeUTF(version.toString());
+                            }
+                        }
                     }
                 }
             }
@@ -309,16 +420,27 @@ public class DirRepository
     }
 
     /**
-     * Quick scan to make sure that the cache is still valid.
+     * Quick check to make sure that the cache is still valid.
      *
      * @return true if the cache is still good, or false if it needs to be rebuilt
      */
     private boolean isCacheValid() {
+        if (lastScan == 0) {
+            return false;
+        }
+
+        Watch watch = m_watch;
+        if (watch != null) {
+            // the directory is being watched; nothing to scan
+            return watch.cChanges.get() == m_cChangesSeen;
+        }
+
         // only scan once a second (at the most)
         if (System.currentTimeMillis() < lastScan + 1000) {
             return true;
         }
 
+        Map<File, ModuleInfo> modulesByFile = this.modulesByFile;
         File[] files = m_dir.listFiles(ModulesOnly);
         if (files == null || files.length != modulesByFile.size()) {
             return false;
@@ -334,6 +456,135 @@ public class DirRepository
         return true;
     }
 
+    /**
+     * Start using a watch of the directory, releasing the watch used so far (if any).
+     *
+     * @return the watch, or null if the directory cannot be watched
+     */
+    private synchronized Watch startWatching() {
+        Cleaner.Cleanable cleanable = m_cleanable;
+        if (cleanable != null) {
+            cleanable.clean();
+        }
+
+        Watch watch = watch(m_dir);
+        m_watch     = watch;
+        m_cleanable = watch == null ? null : CLEANER.register(this, () -> unwatch(watch));
+        return watch;
+    }
+
+    /**
+     * Start watching the specified directory for changes (unless it's already being watched) on
+     * behalf of a repository, which must {@link #unwatch release} the watch once it's done.
+     *
+     * @param dir  the directory
+     *
+     * @return the watch of the directory, or null if the directory cannot be watched at all
+     */
+    private static synchronized Watch watch(File dir) {
+        if (!WATCH) {
+            return null;
+        }
+
+        Path  path  = dir.toPath().toAbsolutePath().normalize();
+        Watch watch = s_mapWatched.get(path);
+        if (watch == null) {
+            try {
+                if (s_watcher == null) {
+                    WatchService watcher = FileSystems.getDefault().newWatchService();
+
+                    Thread thread = new Thread(() -> processWatchEvents(watcher),
+                            "XvmRepositoryWatcher");
+                    thread.setDaemon(true);
+                    thread.start();
+                    s_watcher = watcher;
+                }
+
+                WatchKey key = path.register(s_watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                s_mapWatched.put(path, watch = new Watch(path, key));
+            } catch (IOException | RuntimeException e) {
+                // fall back to scanning
+                return null;
+            }
+        }
+
+        ++watch.cRepos;
+        return watch;
+    }
+
+    /**
+     * Release a watch obtained from {@link #watch}, cancelling it once no repository is using it.
+     *
+     * @param watch  the watch
+     */
+    private static synchronized void unwatch(Watch watch) {
+        if (--watch.cRepos == 0) {
+            watch.key.cancel();
+            s_mapWatched.remove(watch.path, watch);
+        }
+    }
+
+    /**
+     * The body of the thread that counts the changes in the watched directories.
+     */
+    private static void processWatchEvents(WatchService watcher) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException | RuntimeException e) {
+                return;
+            }
+
+            key.pollEvents();
+            boolean fValid = key.reset();
+
+            Watch watch = s_mapWatched.get((Path) key.watchable());
+            if (watch == null || watch.key != key) {
+                // the watch has been cancelled
+                continue;
+            }
+
+            if (fValid) {
+                watch.cChanges.incrementAndGet();
+            } else {
+                // the directory is no longer accessible; force the repositories to scan it again
+                synchronized (DirRepository.class) {
+                    s_mapWatched.remove(watch.path, watch);
+                }
+                watch.cChanges.set(Long.MIN_VALUE);
+            }
+        }
+    }
+
+    // ----- inner class: Watch --------------------------------------------------------------------
+
+    /**
+     * The registration of a watched directory, shared by all the repositories for the directory.
+     */
+    private static class Watch {
+        Watch(Path path, WatchKey key) {
+            this.path = path;
+            this.key  = key;
+        }
+
+        public final Path     path;
+        public final WatchKey key;
+
+        /**
+         * The counter of the changes in the directory, which turns negative if the directory can
+         * no longer be watched.
+         */
+        public final AtomicLong cChanges = new AtomicLong();
+
+        /**
+         * The number of the repositories using the watch (guarded by the class monitor).
+         */
+        private int cRepos;
+    }
+
+
     // ----- inner class: ModuleInfo ---------------------------------------------------------------
 
     protected static class ModuleInfo {
@@ -354,10 +605,11 @@ public class DirRepository
             }
         }
 
-        private ModuleInfo(File file, String name, long timestamp, long size, boolean err) {
+        private ModuleInfo(File file, String name, VersionTree<Boolean> versions,
+                           long timestamp, long size, boolean err) {
             this.file      = file;
             this.name      = name;
-            this.versions  = null;
+            this.versions  = versions;
             this.timestamp = timestamp;
             this.size      = size;
             this.err       = err;
@@ -408,19 +660,59 @@ public class DirRepository
             file.exists() && file.isFile() && file.canRead() && file.length() > 0;
 
     private static final int    CACHE_MAGIC           = 0xEC57CA11;
-    private static final int    CACHE_VERSION         = 1;
+    private static final int    CACHE_VERSION         = 2;
+    private static final int    MAX_CACHE_VERSIONS    = 0xFFFF;
     private static final int    MIN_CACHE_HEADER_SIZE = Integer.BYTES * 3 + Short.BYTES;
     private static final int    MIN_CACHE_ENTRY_SIZE  = Long.BYTES * 2 + Short.BYTES + Byte.BYTES;
     private static final String CACHE_DIRECTORY       = "xvm-dir-repository";
     private static final String CACHE_SUFFIX          = ".cache";
 
+    /**
+     * The minimum number of changed module files to read in parallel.
+     */
+    private static final int PARALLEL_SCAN_THRESHOLD = 4;
+
+    /**
+     * Set the "xvm.repo.watch" system property to "false" to detect the directory changes by
+     * scanning instead of using a WatchService.
+     */
+    private static final boolean WATCH =
+            Boolean.parseBoolean(System.getProperty("xvm.repo.watch", "true"));
+
+    /**
+     * The watches of the watched directories.
+     */
+    private static final Map<Path, Watch> s_mapWatched = new ConcurrentHashMap<>();
+
+    /**
+     * The cleaner that releases the watches of the repositories that were never released.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * The WatchService shared by all the repositories (created lazily).
+     */
+    private static WatchService s_watcher;
+
 
     // ----- fields --------------------------------------------------------------------------------
 
     private final File    m_dir;
     private final boolean m_fRO;
 
-    private       Map<File  , ModuleInfo> modulesByFile = new HashMap<>();
-    private final Map<String, ModuleInfo> modulesByName = new TreeMap<>();
-    private       long lastScan;
+    private volatile Map<File  , ModuleInfo> modulesByFile = new HashMap<>();
+    private volatile Map<String, ModuleInfo> modulesByName = new TreeMap<>();
+    private volatile long lastScan;
+
+    /**
+     * The watch of the directory (null if the directory is not being watched) and its change
+     * counter as of the last scan.
+     */
+    private volatile Watch m_watch;
+    private volatile long  m_cChangesSeen;
+
+    /**
+     * The registration of the action that releases the watch.
+     */
+    private Cleaner.Cleanable m_cleanable;
 }
@@ -9,12 +9,16 @@ import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
 import java.time.Instant;
 
 import java.util.ArrayList;
@@ -36,7 +40,6 @@ import org.xvm.asm.constants.TypeConstant;
 
 import static org.xvm.util.Handy.intToHexString;
 import static org.xvm.util.Handy.readIndex;
-import static org.xvm.util.Handy.toInputStream;
 import static org.xvm.util.Handy.writeMagnitude;
 
 
@@ -101,7 +104,8 @@ public class FileStructure
      */
     public FileStructure(File file, boolean fLazy)
             throws IOException {
-        this(toInputStream(file), true, fLazy);
+        this(MAP_FILES ? ByteBufferDataInput.map(file) : ByteBufferDataInput.read(file),
+                true, fLazy);
 
         m_file = file;
     }
@@ -134,7 +138,7 @@ public class FileStructure
 
         m_fLazyDeser = fLazy;
         try {
-            disassemble(new DataInputStream(in));
+            disassemble(in instanceof ByteBufferDataInput inBuf ? inBuf : new DataInputStream(in));
         } finally {
             if (fAutoClose) {
                 try {
@@ -212,6 +216,10 @@ public class FileStructure
 
     /**
      * Write the FileStructure to the specified file.
+     * <p>
+     * The content is written to a temporary file, which then replaces the specified file; this way
+     * the file content is never modified in place, which could break any memory mapping of the
+     * previous content.
      *
      * @param file  the file to write to
      *
@@ -219,19 +227,24 @@ public class FileStructure
      */
     public void writeTo(File file)
             throws IOException {
-        FileOutputStream fos = new FileOutputStream(file);
-
+        Path pathFile = file.toPath().toAbsolutePath();
+        Path pathTemp = pathFile.resolveSibling(file.getName() + ".tmp");
         try {
-            BufferedOutputStream bos = new BufferedOutputStream(fos);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(pathTemp))) {
+                writeTo(out);
+            }
+
             try {
-                writeTo(bos);
-            } finally {
-                bos.flush();
-                bos.close();
+                Files.move(pathTemp, pathFile,
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(pathTemp, pathFile, StandardCopyOption.REPLACE_EXISTING);
             }
+            pathTemp = null;
         } finally {
-            fos.flush();
-            fos.close();
+            if (pathTemp != null) {
+                Files.deleteIfExists(pathTemp);
+            }
         }
     }
 
@@ -1043,6 +1056,15 @@ public class FileStructure
 
     // ----- fields --------------------------------------------------------------------------------
 
+    /**
+     * True to memory-map the ".xtc" files instead of reading them into the heap; the lazily
+     * deserialized components are then held as slices of the mapped file. This is off by default
+     * (and can be turned on by the "xvm.mmap" system property), since the mapped file must not be
+     * truncated or rewritten in place while it is in use, and on Windows it cannot be replaced
+     * until the mapping is garbage-collected.
+     */
+    private static final boolean MAP_FILES = Boolean.getBoolean("xvm.mmap");
+
     /**
      * The file that the file structure was loaded from.
      */
@@ -2244,6 +2244,13 @@ public abstract class Op {
      */
     public static final int R_RESET            = -10;
 
+    /**
+     * Result from process() method: the interpreter loop needs to re-read the debugger state (the
+     * debugger has just been activated); the execution resumes at the address stored in
+     * frame.m_iPC. Used *only* by the debugger.
+     */
+    public static final int R_SAFEPOINT        = -11;
+
 
     // ----- other constants -----------------------------------------------------------------------
 
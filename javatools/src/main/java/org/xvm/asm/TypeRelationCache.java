@@ -0,0 +1,427 @@
+package org.xvm.asm;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.xvm.asm.constants.TypeConstant;
+import org.xvm.asm.constants.TypeConstant.Relation;
+
+import static org.xvm.util.Handy.byteArrayToHexString;
+
+
+/**
+ * A persistent cache of the type relations ({@link TypeConstant#isA} results) calculated for the
+ * types of a ConstantPool that holds only sealed library modules (e.g. the runtime's "root" pool
+ * that merges the Ecstasy, turtle and native modules).
+ * <p>
+ * Since such a pool is always built the same way from the same module files, its constants have
+ * the same positions in every process. The cache is keyed by the content hashes of the module files
+ * (and the version of this tool chain), so it survives the files being copied or touched, but not
+ * being changed; every type it refers to is additionally verified by its value string before any
+ * relation is restored.
+ * <p>
+ * The cache files are kept in a per-user directory that only the user can access, and every file
+ * ends with the hash of its content, so a truncated or corrupted file is ignored.
+ */
+public final class TypeRelationCache {
+    /**
+     * Construct a TypeRelationCache.
+     */
+    private TypeRelationCache(ConstantPool pool, int cBase, File fileCache, String sKey,
+                              int cLoaded) {
+        f_pool      = pool;
+        f_cBase     = cBase;
+        f_fileCache = fileCache;
+        f_sKey      = sKey;
+        f_cLoaded   = cLoaded;
+    }
+
+    /**
+     * Restore the persisted type relations for the specified pool. This must be called right after
+     * the pool has been built (and linked), before any other constants are registered with it.
+     *
+     * @param pool       the ConstantPool
+     * @param listFiles  the module files the pool has been built from
+     *
+     * @return the cache to {@link #store} the relations into at the end of the process, or null if
+     *         the relations cannot be cached for the specified pool
+     */
+    public static TypeRelationCache load(ConstantPool pool, List<File> listFiles) {
+        if (!ENABLED) {
+            return null;
+        }
+
+        int    cBase = pool.size();
+        String sKey  = computeKey(listFiles, cBase);
+        File   dir   = sKey == null ? null : ensureCacheDirectory();
+        if (dir == null) {
+            return null;
+        }
+
+        File fileCache = new File(dir, sKey.substring(0, 16) + CACHE_SUFFIX);
+        int  cLoaded   = 0;
+        if (fileCache.isFile()) {
+            try {
+                cLoaded = read(Files.readAllBytes(fileCache.toPath()), pool, sKey, cBase);
+            } catch (IOException | RuntimeException e) {
+                // a persistent cache is only a performance aid
+            }
+        }
+        return new TypeRelationCache(pool, cBase, fileCache, sKey, cLoaded);
+    }
+
+    /**
+     * Persist the type relations that have been calculated for the pool's types, unless nothing
+     * has been added since they were loaded.
+     */
+    public void store() {
+        List<TypeConstant> listTypes = new ArrayList<>();
+        Map<TypeConstant, Integer> mapIndex = new HashMap<>();
+        List<int[]> listRelations = new ArrayList<>();
+
+        for (int i = 0; i < f_cBase; i++) {
+            if (!(f_pool.getConstant(i) instanceof TypeConstant typeRight) ||
+                    !isCacheable(typeRight)) {
+                continue;
+            }
+
+            for (var entry : typeRight.getCalculatedRelations().entrySet()) {
+                TypeConstant typeLeft = entry.getKey();
+                if (typeLeft.getConstantPool() == f_pool && isCacheable(typeLeft)) {
+                    listRelations.add(new int[] {
+                            mapIndex.computeIfAbsent(typeRight, t -> addType(listTypes, t)),
+                            mapIndex.computeIfAbsent(typeLeft,  t -> addType(listTypes, t)),
+                            entry.getValue().ordinal()});
+                }
+            }
+        }
+
+        if (listRelations.size() <= f_cLoaded) {
+            return;
+        }
+
+        Path pathCache = f_fileCache.toPath();
+        Path pathTemp  = null;
+        try {
+            var outBytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(outBytes)) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_VERSION);
+                out.writeUTF(f_sKey);
+
+                out.writeInt(listTypes.size());
+                for (TypeConstant type : listTypes) {
+                    out.writeInt(type.getPosition());
+                    writeString(out, type.getValueString());
+                }
+
+                out.writeInt(listRelations.size());
+                for (int[] an : listRelations) {
+                    out.writeInt(an[0]);
+                    out.writeInt(an[1]);
+                    out.writeByte(an[2]);
+                }
+            }
+
+            byte[] abData = outBytes.toByteArray();
+            pathTemp = Files.createTempFile(pathCache.getParent(), f_fileCache.getName(), ".tmp");
+            try (var out = Files.newOutputStream(pathTemp)) {
+                out.write(abData);
+                out.write(newDigest().digest(abData));
+            }
+
+            try {
+                Files.move(pathTemp, pathCache,
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(pathTemp, pathCache, StandardCopyOption.REPLACE_EXISTING);
+            }
+            pathTemp = null;
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException ignore) {
+            // a persistent cache is only a performance aid
+        } finally {
+            if (pathTemp != null) {
+                try {
+                    Files.deleteIfExists(pathTemp);
+                } catch (IOException ignore) {}
+            }
+        }
+    }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Read the cache content and prime the relations of the pool's types.
+     *
+     * @param ab  the cache file content, which ends with the hash of the preceding bytes
+     *
+     * @return the number of restored relations
+     */
+    private static int read(byte[] ab, ConstantPool pool, String sKey, int cBase)
+            throws IOException {
+        int cbData = ab.length - HASH_SIZE;
+        try {
+            if (cbData < 0 || !MessageDigest.isEqual(Arrays.copyOfRange(ab, cbData, ab.length),
+                    digest(ab, cbData))) {
+                return 0;
+            }
+        } catch (NoSuchAlgorithmException e) {
+            return 0;
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(ab, 0, cbData));
+        if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION ||
+                !in.readUTF().equals(sKey)) {
+            return 0;
+        }
+
+        // verify all the types before touching any of them
+        int            cTypes = in.readInt();
+        TypeConstant[] aType  = new TypeConstant[cTypes];
+        for (int i = 0; i < cTypes; i++) {
+            int    nPos   = in.readInt();
+            String sValue = readString(in);
+            if (nPos < 0 || nPos >= cBase ||
+                    !(pool.getConstant(nPos) instanceof TypeConstant type) ||
+                    !type.getValueString().equals(sValue)) {
+                return 0;
+            }
+            aType[i] = type;
+        }
+
+        Relation[] aRelation  = Relation.values();
+        int        cRelations = in.readInt();
+        int[]      anRelation = new int[cRelations * 3];
+        for (int i = 0, of = 0; i < cRelations; i++) {
+            int iRight = anRelation[of++] = in.readInt();
+            int iLeft  = anRelation[of++] = in.readInt();
+            int nRel   = anRelation[of++] = in.readUnsignedByte();
+            if (iRight >= cTypes || iLeft >= cTypes || nRel >= aRelation.length) {
+                return 0;
+            }
+        }
+        if (in.read() >= 0) {
+            return 0;
+        }
+
+        for (int of = 0, c = anRelation.length; of < c; of += 3) {
+            aType[anRelation[of]].primeRelation(aType[anRelation[of + 1]],
+                    aRelation[anRelation[of + 2]]);
+        }
+        return cRelations;
+    }
+
+    /**
+     * @return true iff the relations of the specified type could be cached
+     */
+    private boolean isCacheable(TypeConstant type) {
+        int nPos = type.getPosition();
+        return nPos >= 0 && nPos < f_cBase && !type.containsAutoNarrowing(true);
+    }
+
+    /**
+     * Add the type to the type table.
+     *
+     * @return the index of the type in the table
+     */
+    private static int addType(List<TypeConstant> listTypes, TypeConstant type) {
+        listTypes.add(type);
+        return listTypes.size() - 1;
+    }
+
+    /**
+     * Write a string that may be longer than {@link DataOutputStream#writeUTF} allows.
+     */
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        byte[] ab = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(ab.length);
+        out.write(ab);
+    }
+
+    /**
+     * Read a string written by {@link #writeString}.
+     */
+    private static String readString(DataInputStream in)
+            throws IOException {
+        int cb = in.readInt();
+        if (cb < 0 || cb > MAX_STRING_SIZE) {
+            throw new IOException("invalid string length: " + cb);
+        }
+        return new String(in.readNBytes(cb), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the hash of the tool chain version, the pool size and the content of the module
+     *         files; or null if it cannot be computed
+     */
+    private static String computeKey(List<File> listFiles, int cBase) {
+        try {
+            MessageDigest digest = newDigest();
+            digest.update((BuildInfo.getXdkVersion() + '/' + BuildInfo.getGitCommit() + '/' + cBase)
+                    .getBytes(StandardCharsets.UTF_8));
+            for (File file : listFiles) {
+                if (file == null || !file.isFile()) {
+                    return null;
+                }
+                digest.update(digestFile(file));
+            }
+            return byteArrayToHexString(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the SHA-256 hash of the content of the specified file
+     */
+    private static byte[] digestFile(File file)
+            throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] ab = new byte[64 * 1024];
+            for (int cb; (cb = in.read(ab)) > 0; ) {
+                digest.update(ab, 0, cb);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Obtain the per-user cache directory, creating it if necessary. On a POSIX file system, the
+     * directory must be owned by the current user and must not be accessible to anyone else;
+     * otherwise the cache is not used.
+     *
+     * @return the cache directory, or null if there is no usable one
+     */
+    private static File ensureCacheDirectory() {
+        String sTempDir = System.getProperty("java.io.tmpdir");
+        String sUser    = System.getProperty("user.name");
+        if (sTempDir == null || sUser == null) {
+            return null;
+        }
+
+        try {
+            Path    pathDir = Path.of(sTempDir,
+                    CACHE_DIRECTORY + '-' + sUser.replaceAll("[^A-Za-z0-9._-]", "_"));
+            boolean fPosix  = pathDir.getFileSystem().supportedFileAttributeViews()
+                    .contains("posix");
+            try {
+                if (fPosix) {
+                    Files.createDirectory(pathDir,
+                            PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+                } else {
+                    Files.createDirectory(pathDir);
+                }
+            } catch (FileAlreadyExistsException e) {
+                // verified below
+            }
+
+            if (!Files.isDirectory(pathDir, LinkOption.NOFOLLOW_LINKS)) {
+                return null;
+            }
+            if (fPosix) {
+                String sOwner = Files.getOwner(pathDir, LinkOption.NOFOLLOW_LINKS).getName();
+                if (!sOwner.equals(sUser) || !Files.getPosixFilePermissions(pathDir,
+                        LinkOption.NOFOLLOW_LINKS).equals(OWNER_ONLY)) {
+                    return null;
+                }
+            }
+            return pathDir.toFile();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return a new SHA-256 digest
+     */
+    private static MessageDigest newDigest()
+            throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256");
+    }
+
+    /**
+     * @return the SHA-256 hash of the first {@code cb} bytes of the specified array
+     */
+    private static byte[] digest(byte[] ab, int cb)
+            throws NoSuchAlgorithmException {
+        MessageDigest digest = newDigest();
+        digest.update(ab, 0, cb);
+        return digest.digest();
+    }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * Set the "xvm.typecache" system property to "false" to disable the cache.
+     */
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("xvm.typecache", "true"));
+
+    private static final int    CACHE_MAGIC     = 0xEC57CA11;
+    private static final int    CACHE_VERSION   = 3;
+    private static final int    MAX_STRING_SIZE = 1 << 20;
+    private static final int    HASH_SIZE       = 32;
+    private static final String CACHE_DIRECTORY = "xvm-type-relations";
+    private static final String CACHE_SUFFIX    = ".cache";
+
+    private static final Set<PosixFilePermission> OWNER_ONLY =
+            PosixFilePermissions.fromString("rwx------");
+
+    /**
+     * The ConstantPool.
+     */
+    private final ConstantPool f_pool;
+
+    /**
+     * The number of constants in the pool when it was built; only the relations between those
+     * constants are cached.
+     */
+    private final int f_cBase;
+
+    /**
+     * The cache file.
+     */
+    private final File f_fileCache;
+
+    /**
+     * The cache key.
+     */
+    private final String f_sKey;
+
+    /**
+     * The number of relations restored from the cache.
+     */
+    private final int f_cLoaded;
+}
@@ -25,6 +25,8 @@ import org.xvm.asm.ErrorListener;
 import org.xvm.asm.GenericTypeResolver;
 import org.xvm.asm.Register;
 
+import org.xvm.javajit.SpecializationPolicy;
+
 import org.xvm.util.Hash;
 import org.xvm.util.Severity;
 
@@ -845,12 +847,13 @@ public class ParameterizedTypeConstant
 
         TypeConstant typeResolved = typeOrig.getCallableJitType();
         boolean      fTrivial     = true;
+        boolean      fSpecialize  = SpecializationPolicy.INSTANCE.isSpecialized(clz, this);
 
         TypeConstant[] aconstOriginal  = m_atypeParams;
         TypeConstant[] aconstCanonical = aconstOriginal;
         for (int i = 0, c = aconstOriginal.length; i < c; ++i) {
             TypeConstant typeParamOriginal = aconstOriginal[i];
-            if (typeParamOriginal.isJitPrimitive()) {
+            if (fSpecialize && typeParamOriginal.isJitPrimitive()) {
                 aconstCanonical = cow(aconstOriginal, aconstCanonical, i,
                         aconstOriginal[i].getCallableJitType());
                 fTrivial = false;
@@ -14,6 +14,7 @@ import java.lang.constant.MethodTypeDesc;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.HashMap;
@@ -23,8 +24,8 @@ import java.util.Objects;
 import java.util.Set;
 
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import java.util.function.Function;
@@ -1691,7 +1692,13 @@ public abstract class TypeConstant
         return ensureTypeInfo(info, errs);
     }
 
-    private synchronized TypeInfo ensureTypeInfo(TypeInfo info, ErrorListener errs) {
+    /**
+     * Build (or rebuild) the TypeInfo for this type. There is no lock: the readers only see the
+     * TypeInfo objects published via {@link #s_typeinfo}, and concurrent builders of the same type
+     * de-duplicate the result (the first completed TypeInfo to be published is returned by all of
+     * them).
+     */
+    private TypeInfo ensureTypeInfo(TypeInfo info, ErrorListener errs) {
         ConstantPool pool = getConstantPool();
         if (info == null) {
             // validate this TypeConstant (necessary before we build the TypeInfo)
@@ -1729,8 +1736,21 @@ public abstract class TypeConstant
         //    is complete
 
         // there is a place-holder that signifies that a type is busy building a TypeInfo;
-        // mark the type as having its TypeInfo building "in progress"
-        setTypeInfo(pool.infoPlaceholder());
+        // mark the type as having its TypeInfo building "in progress", unless another thread has
+        // already done so (in which case we duplicate its work rather than wait for it) or has
+        // meanwhile published an up-to-date TypeInfo (in which case we simply use it)
+        TypeInfo infoPlaceholder = pool.infoPlaceholder();
+        while (true) {
+            TypeInfo infoCurrent = getTypeInfo();
+            if (isComplete(infoCurrent) && isUpToDate(infoCurrent)) {
+                return infoCurrent;
+            }
+            if (infoCurrent != null && infoCurrent.isPlaceHolder()
+                    || s_typeinfo.compareAndSet(this, infoCurrent, infoPlaceholder)) {
+                break;
+            }
+            // another thread has changed the TypeInfo; re-examine it
+        }
 
         // since this can only be used "from the outside", there should be no deferred TypeInfo
         // objects at this point
@@ -1775,8 +1795,10 @@ public abstract class TypeConstant
                             // infinite recursion, so be very careful about what can allow a
                             // TypeInfo to be built "incomplete" (it needs to be impossible to
                             // rebuild a TypeInfo and have it be incomplete for the second time)
-                            if (m_cRecursiveDepth.getAndIncrement() > 2) {
+                            Map<TypeConstant, Integer> mapDepth = s_tloRecursiveDepth.get();
+                            if (mapDepth.merge(this, 1, Integer::sum) > 3) {
                                 // an infinite loop
+                                mapDepth.merge(this, -1, Integer::sum);
                                 throw new IllegalStateException("Infinite loop while producing a " +
                                         "TypeInfo for " + this + "; deferred type=" + typeDeferred);
                             }
@@ -1784,8 +1806,13 @@ public abstract class TypeConstant
                             // merge the errors only after the completed "buildTypeInfo" run
                             ErrorListener errsTemp = errs.branch(null);
 
-                            infoDeferred = typeDeferred.buildTypeInfo(errsTemp);
-                            m_cRecursiveDepth.getAndDecrement();
+                            try {
+                                infoDeferred = typeDeferred.buildTypeInfo(errsTemp);
+                            } finally {
+                                if (mapDepth.merge(this, -1, Integer::sum) == 0) {
+                                    mapDepth.remove(this);
+                                }
+                            }
 
                             if (isComplete(infoDeferred)) {
                                 if (errsTemp.hasSeriousErrors()) {
@@ -1823,6 +1850,13 @@ public abstract class TypeConstant
             if (setInvalidate != null) {
                 setInvalidate.forEach(TypeConstant::invalidateTypeInfo);
             }
+        } else {
+            // if a concurrent builder has published its TypeInfo first, use that one, so that all
+            // the callers agree on the TypeInfo instance
+            TypeInfo infoPublished = getTypeInfo();
+            if (infoPublished != info && isComplete(infoPublished) && isUpToDate(infoPublished)) {
+                info = infoPublished;
+            }
         }
         errs.merge();
         return info;
@@ -5892,7 +5926,78 @@ public abstract class TypeConstant
      * See Type.x # isA()
      */
     public boolean isA(TypeConstant typeLeft) {
-        return calculateRelation(typeLeft) != Relation.INCOMPATIBLE;
+        // the type ids are only comparable within the same pool
+        int nLeftId = typeLeft.getConstantPool() == getConstantPool()
+                ? typeLeft.ensureTypeId()
+                : 0;
+        if (nLeftId <= 0 || nLeftId >= ISA_MAX_IDS || ensureTypeId() <= 0) {
+            // the relation map still caches the answer
+            return calculateRelation(typeLeft) != Relation.INCOMPATIBLE;
+        }
+
+        // fast path: a bit test in this type's row of the relation matrix
+        AtomicLongArray alRow  = m_alIsA;
+        int             iWord  = nLeftId >>> 5;
+        int             nShift = (nLeftId & 31) << 1;
+        if (alRow != null && iWord < alRow.length()) {
+            long lBits = alRow.get(iWord) >>> nShift;
+            if ((lBits & ISA_KNOWN) != 0) {
+                return (lBits & ISA_TRUE) != 0;
+            }
+        }
+
+        boolean fIsA  = calculateRelation(typeLeft) != Relation.INCOMPATIBLE;
+        long    lBits = (ISA_KNOWN | (fIsA ? ISA_TRUE : 0L)) << nShift;
+        while (true) {
+            alRow = m_alIsA;
+            if (alRow == null || iWord >= alRow.length()) {
+                // grow the row (doubling it, up to the id limit) and retry
+                int cWords = alRow == null ? 0 : alRow.length();
+                var alNew  = new AtomicLongArray(
+                        Math.min(Math.max(iWord + 1, cWords << 1), ISA_MAX_IDS >>> 5));
+                for (int i = 0; i < cWords; i++) {
+                    alNew.set(i, alRow.get(i));
+                }
+                s_alIsA.compareAndSet(this, alRow, alNew);
+                continue;
+            }
+
+            long lOld = alRow.get(iWord);
+            if ((lOld & lBits) == lBits || alRow.compareAndSet(iWord, lOld, lOld | lBits)) {
+                // the bit could have been missed by a concurrent growth of the row; in that case
+                // set it again in the new row (unless the row has been dropped meanwhile)
+                AtomicLongArray alCurrent = m_alIsA;
+                if (alCurrent == alRow || alCurrent == null) {
+                    return fIsA;
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtain the dense integer id of this type in its ConstantPool's "isA" relation matrix. Only
+     * the types whose relations don't depend on the context (i.e. don't contain formal, dynamic or
+     * auto-narrowing types) are assigned an id; all other types always use the full relation
+     * calculation.
+     *
+     * @return a positive id, or zero if this type cannot be represented in the relation matrix
+     */
+    private int ensureTypeId() {
+        int nId = m_nTypeId;
+        if (nId == 0) {
+            if (containsUnresolved()) {
+                // don't cache the answer; the type may get resolved later
+                return 0;
+            }
+
+            nId = containsFormalType(true) || containsDynamicType() || containsAutoNarrowing(true)
+                    ? -1
+                    : getConstantPool().allocateTypeId();
+            if (!s_nTypeId.compareAndSet(this, 0, nId)) {
+                nId = m_nTypeId;
+            }
+        }
+        return Math.max(nId, 0);
     }
 
     /**
@@ -7146,7 +7251,11 @@ public abstract class TypeConstant
         return sJitName;
     }
 
-    protected synchronized String buildJitClassName(TypeSystem ts, ModuleLoader loader) {
+    /**
+     * Compute the JIT class name; note that the computation is deterministic, so there is no need
+     * to synchronize concurrent callers (at worst, the name is computed more than once).
+     */
+    protected String buildJitClassName(TypeSystem ts, ModuleLoader loader) {
         String name = ts.xvm.nativeTypeSystem.getReservedName(this);
         if (name != null) {
             return name;
@@ -7930,6 +8039,8 @@ public abstract class TypeConstant
         m_cInvalidations = 0;
         m_typeinfo       = null;
         m_mapRelations   = null;
+        m_alIsA          = null;
+        m_nTypeId        = 0;
         m_handle         = null;
         m_typeNormalized = null;
     }
@@ -8010,6 +8121,27 @@ public abstract class TypeConstant
         if (m_mapRelations != null) {
             m_mapRelations.clear();
         }
+        m_alIsA = null;
+    }
+
+    /**
+     * @return the relations to other (L-value) types that have been calculated for this type so
+     *         far; used by the {@link org.xvm.asm.TypeRelationCache}
+     */
+    public Map<TypeConstant, Relation> getCalculatedRelations() {
+        Map<TypeConstant, Relation> mapRelations = m_mapRelations;
+        return mapRelations == null ? Map.of() : Collections.unmodifiableMap(mapRelations);
+    }
+
+    /**
+     * Supply a relation to the specified (L-value) type that was calculated earlier (for example,
+     * by a previous process), unless it has already been calculated.
+     *
+     * @param typeLeft  the L-value type (registered with the same pool as this type)
+     * @param relation  the relation of this type to the L-value type
+     */
+    public void primeRelation(TypeConstant typeLeft, Relation relation) {
+        ensureRelationMap().putIfAbsent(typeLeft, relation);
     }
 
     private Map<String, Usage> ensureConsumesMap() {
@@ -8233,7 +8365,15 @@ public abstract class TypeConstant
     private transient volatile TypeInfo m_typeinfo;
     private static final AtomicReferenceFieldUpdater<TypeConstant, TypeInfo> s_typeinfo =
             AtomicReferenceFieldUpdater.newUpdater(TypeConstant.class, TypeInfo.class, "m_typeinfo");
-    private final transient AtomicInteger m_cRecursiveDepth = new AtomicInteger();
+
+    /**
+     * The depth of the deferred TypeInfo rebuilding on the current thread, keyed by the type
+     * whose TypeInfo is being built by {@link #ensureTypeInfo(TypeInfo, ErrorListener)}. This is
+     * tracked per thread, since the concurrent builders of the same type must not be mistaken for
+     * a recursion.
+     */
+    private static final ThreadLocal<Map<TypeConstant, Integer>> s_tloRecursiveDepth =
+            ThreadLocal.withInitial(IdentityHashMap::new);
 
     /**
      * The last time that we checked the invalidations from the ConstantPool, we cached the number
@@ -8251,6 +8391,29 @@ public abstract class TypeConstant
      */
     private transient volatile Map<TypeConstant, Relation> m_mapRelations;
 
+    /**
+     * The row of the pool's "isA" relation matrix for this (R-value) type, indexed by the
+     * {@link #ensureTypeId type id} of the L-value type; each L-value type occupies two bits:
+     * {@link #ISA_KNOWN} and {@link #ISA_TRUE}. The row only covers the ids below
+     * {@link #ISA_MAX_IDS}, which bounds its size to 1KB; the relations to the types with higher
+     * ids are only kept by the relation map.
+     */
+    private transient volatile AtomicLongArray m_alIsA;
+    private static final AtomicReferenceFieldUpdater<TypeConstant, AtomicLongArray> s_alIsA =
+            AtomicReferenceFieldUpdater.newUpdater(TypeConstant.class, AtomicLongArray.class, "m_alIsA");
+
+    private static final long ISA_KNOWN   = 0b01;
+    private static final long ISA_TRUE    = 0b10;
+    private static final int  ISA_MAX_IDS = 1 << 12;
+
+    /**
+     * The id of this type in its pool's "isA" relation matrix: zero if not yet assigned, -1 if the
+     * type cannot be represented in the matrix.
+     */
+    private transient volatile int m_nTypeId;
+    private static final AtomicIntegerFieldUpdater<TypeConstant> s_nTypeId =
+            AtomicIntegerFieldUpdater.newUpdater(TypeConstant.class, "m_nTypeId");
+
     /**
      * The set of "isA() in progress" types.
      */
@@ -8276,7 +8439,7 @@ public abstract class TypeConstant
     /**
      * Cached JIT class name.
      */
-    private transient String m_sJitName;
+    private transient volatile String m_sJitName;
 
     /**
      * Cached normalized representation.
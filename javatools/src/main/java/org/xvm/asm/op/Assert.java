@@ -118,7 +118,7 @@ public class Assert
     protected int complete(Frame frame, int iPC, String sMsg) {
         if (m_nConstructor == A_IGNORE) {
             // debugger break-point
-            return frame.f_context.getDebugger().activate(frame, iPC);
+            return frame.f_context.activateDebugger(frame, iPC);
         }
 
         MethodConstant   idConstruct = frame.getConstant(m_nConstructor, MethodConstant.class);
@@ -81,9 +81,9 @@ public class Nop extends Op {
 
     @Override
     public int process(Frame frame, int iPC) {
-        return frame.f_context.isDebuggerActive()
-                ? frame.f_context.getDebugger().checkBreakPoint(frame, iPC)
-                : iPC + 1;
+        // when the debugger is active, the interpreter loop checks the break points instead of
+        // calling this method (see ServiceContext.execute)
+        return iPC + 1;
     }
 
     @Override
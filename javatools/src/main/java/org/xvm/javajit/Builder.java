@@ -1436,10 +1436,9 @@ public abstract class Builder {
                 code // r = $ctx.i"returnIndex"
                     .getfield(CD_Ctx, "i" + returnIndex, CD_long);
             } else {
-                code // r = $ctx.iN[returnIndex-8]
-                    .getfield(CD_Ctx, "iN", CD_long.arrayType())
+                code // r = Ctx.loadLong($ctx, returnIndex-8)
                     .loadConstant(returnIndex-8)
-                    .aaload();
+                    .invokestatic(CD_Ctx, "loadLong", Ctx.MD_loadLong);
             }
 
             // convert the long to the corresponding Java primitive
@@ -1463,10 +1462,9 @@ public abstract class Builder {
                 code // r = $ctx.o"returnIndex"
                     .getfield(CD_Ctx, "o" + returnIndex, CD_JavaObject);
             } else {
-                code // r = $ctx.oN[returnIndex-8]
-                    .getfield(CD_Ctx, "oN", CD_JavaObject.arrayType())
+                code // r = Ctx.loadRef($ctx, returnIndex-8)
                     .loadConstant(returnIndex-8)
-                    .aaload();
+                    .invokestatic(CD_Ctx, "loadRef", Ctx.MD_loadRef);
             }
             if (!cd.equals(CD_Object)) {
                 code.checkcast(cd);
@@ -1488,16 +1486,19 @@ public abstract class Builder {
     public static void storeToContext(CodeBuilder code, ClassDesc cd, int returnIndex, int ctxSlot) {
         assert returnIndex >= 0;
 
-        code.aload(ctxSlot);
+        String  descriptor = cd.descriptorString();
+        boolean overflow   = returnIndex >= 8;
+        if (!overflow) {
+            code.aload(ctxSlot);
 
-        String descriptor = cd.descriptorString();
-        if (cd.isPrimitive() && (descriptor.equals("J") || descriptor.equals("D"))) {
-             // the value is a "long" or "double" that occupies two slots
-             // stack (lvalue, lvalue2, $ctx) -> ($ctx, lvalue, lvalue2)
-            code.dup_x2().pop();
-        } else {
-            // stack (value, $ctx) -> ($ctx, value)
-            code.swap();
+            if (cd.isPrimitive() && (descriptor.equals("J") || descriptor.equals("D"))) {
+                 // the value is a "long" or "double" that occupies two slots
+                 // stack (lvalue, lvalue2, $ctx) -> ($ctx, lvalue, lvalue2)
+                code.dup_x2().pop();
+            } else {
+                // stack (value, $ctx) -> ($ctx, value)
+                code.swap();
+            }
         }
 
         if (cd.isPrimitive()) {
@@ -1518,26 +1519,24 @@ public abstract class Builder {
                 throw new IllegalStateException();
             }
 
-            if (returnIndex < 8) {
+            if (overflow) {
+                code // Ctx.storeLong(r, $ctx, returnIndex-8)
+                    .aload(ctxSlot)
+                    .loadConstant(returnIndex-8)
+                    .invokestatic(CD_Ctx, "storeLong", Ctx.MD_storeLong);
+            } else {
                 code // $ctx.i"returnIndex" = r
                     .putfield(CD_Ctx, "i" + returnIndex, CD_long);
-            } else {
-                // TODO: replace with a helper "Ctx.storeLong(i-8, value)"
-                code // $ctx.iN[returnIndex-8] = r
-                    .getfield(CD_Ctx, "iN", CD_long.arrayType())
-                    .loadConstant(returnIndex-8)
-                    .aastore();
             }
         } else {
-            if (returnIndex < 8) {
+            if (overflow) {
+                code // Ctx.storeRef(r, $ctx, returnIndex-8)
+                    .aload(ctxSlot)
+                    .loadConstant(returnIndex-8)
+                    .invokestatic(CD_Ctx, "storeRef", Ctx.MD_storeRef);
+            } else {
                 code // $ctx.o"returnIndex" = r
                     .putfield(CD_Ctx, "o" + returnIndex, CD_JavaObject);
-            } else {
-                // TODO: replace with a helper "Ctx.storeRef(i-8, value)"
-                code // $ctx.oN[returnIndex-8] = r
-                    .getfield(CD_Ctx, "oN", CD_JavaObject.arrayType())
-                    .loadConstant(returnIndex-8)
-                    .aastore();
             }
         }
     }
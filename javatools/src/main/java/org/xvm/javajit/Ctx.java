@@ -3,6 +3,8 @@ package org.xvm.javajit;
 import java.lang.constant.ClassDesc;
 import java.lang.constant.MethodTypeDesc;
 
+import java.util.Arrays;
+
 import java.util.function.Function;
 
 import org.xvm.asm.Constant;
@@ -11,8 +13,10 @@ import org.xvm.asm.constants.TypeConstant;
 import org.xvm.util.ByteHashCollector;
 
 import static java.lang.constant.ConstantDescs.CD_int;
+import static java.lang.constant.ConstantDescs.CD_long;
 import static java.lang.constant.ConstantDescs.CD_void;
 
+import static org.xvm.javajit.Builder.CD_Ctx;
 import static org.xvm.javajit.Builder.CD_JavaObject;
 import static org.xvm.javajit.Builder.CD_JavaString;
 import static org.xvm.javajit.Builder.CD_TypeConstant;
@@ -61,13 +65,80 @@ public final class Ctx {
     public long[]   iN;
     public Object[] oN; // coldest at the bottom (no fields should be declared below this point!)
 
-    // ----- memory accounting ---------------------------------------------------------------------
+    // ----- multiple return support ---------------------------------------------------------------
+
+    /**
+     * Load a primitive return value that didn't fit into the {@code i0..i7} fields.
+     *
+     * @param ctx    the context
+     * @param index  the index of the return value, less 8
+     *
+     * @return the primitive value (as a long)
+     */
+    public static long loadLong(Ctx ctx, int index) {
+        return ctx.iN[index];
+    }
+
+    /**
+     * Store a primitive return value that doesn't fit into the {@code i0..i7} fields.
+     * <p>
+     * Note: the arguments are ordered to allow the value to be already on the Java stack.
+     *
+     * @param value  the primitive value (as a long)
+     * @param ctx    the context
+     * @param index  the index of the return value, less 8
+     */
+    public static void storeLong(long value, Ctx ctx, int index) {
+        long[] values = ctx.iN;
+        if (values == null || index >= values.length) {
+            ctx.iN = values = values == null
+                    ? new long[Math.max(index + 1, 8)]
+                    : Arrays.copyOf(values, Math.max(index + 1, values.length * 2));
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Load a reference return value that didn't fit into the {@code o0..o7} fields.
+     *
+     * @param ctx    the context
+     * @param index  the index of the return value, less 8
+     *
+     * @return the reference value
+     */
+    public static Object loadRef(Ctx ctx, int index) {
+        return ctx.oN[index];
+    }
+
+    /**
+     * Store a reference return value that doesn't fit into the {@code o0..o7} fields.
+     * <p>
+     * Note: the arguments are ordered to allow the value to be already on the Java stack.
+     *
+     * @param value  the reference value
+     * @param ctx    the context
+     * @param index  the index of the return value, less 8
+     */
+    public static void storeRef(Object value, Ctx ctx, int index) {
+        Object[] values = ctx.oN;
+        if (values == null || index >= values.length) {
+            ctx.oN = values = values == null
+                    ? new Object[Math.max(index + 1, 8)]
+                    : Arrays.copyOf(values, Math.max(index + 1, values.length * 2));
+        }
+        values[index] = value;
+    }
+
+    // ----- fiber support -------------------------------------------------------------------------
 
     public static final ScopedValue<Ctx> Current = ScopedValue.newInstance();
 
     /**
      * Obtain the current xvm context. This method should only be called from code running on an
      * xvm fiber.
+     * <p>
+     * Note: this is a {@link ScopedValue} lookup; any code that has the Ctx passed in as a
+     * parameter (which includes all JIT-generated methods) should use that parameter instead.
      *
      * @return the Ctx for the current fiber
      */
@@ -185,4 +256,14 @@ public final class Ctx {
 
     public static MethodTypeDesc MD_inject = MethodTypeDesc.of(
         CD_JavaObject, CD_TypeConstant, CD_JavaString, CD_JavaObject);
+
+    public static final MethodTypeDesc MD_loadLong = MethodTypeDesc.of(CD_long, CD_Ctx, CD_int);
+
+    public static final MethodTypeDesc MD_storeLong = MethodTypeDesc.of(
+        CD_void, CD_long, CD_Ctx, CD_int);
+
+    public static final MethodTypeDesc MD_loadRef = MethodTypeDesc.of(CD_JavaObject, CD_Ctx, CD_int);
+
+    public static final MethodTypeDesc MD_storeRef = MethodTypeDesc.of(
+        CD_void, CD_JavaObject, CD_Ctx, CD_int);
 }
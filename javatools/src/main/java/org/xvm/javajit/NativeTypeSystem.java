@@ -307,6 +307,9 @@ public class NativeTypeSystem
         nativeByType.put(rangeᐸIntᐳ,    Builder.N_nRangeInt64);
         nativeByType.put(intervalᐸIntᐳ, Builder.N_nRangeInt64);
 
+        // the natively implemented types must be specialized regardless of the policy
+        SpecializationPolicy.INSTANCE.addNativeTypes(nativeByType.keySet());
+
         // pre-register functions used by the native classes:
 
         // prime the function name counter
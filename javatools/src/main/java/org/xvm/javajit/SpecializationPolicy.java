@@ -0,0 +1,214 @@
+package org.xvm.javajit;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.Component.Composition;
+import org.xvm.asm.Component.Contribution;
+
+import org.xvm.asm.constants.IdentityConstant;
+import org.xvm.asm.constants.TypeConstant;
+
+import static org.xvm.util.Handy.parseDelimitedString;
+
+/**
+ * The policy that decides whether a parameterized class whose type arguments include JIT-Primitive
+ * types (e.g. {@code HashMap<Int, Int>}) gets a "layer two" specialized Java class (fields and "$p"
+ * methods using the Java primitive shapes), or falls back to the generalized class in which the
+ * primitive type arguments are dropped down to their constraints and the values are boxed.
+ * <p>
+ * The specialization is done on demand: a class is only considered when the JIT first needs its
+ * type with primitive type arguments, and only a class that is annotated with
+ * {@code @Specialized}, or extends, implements or incorporates such a class, is specialized by
+ * default. The policy can be changed by the "xvm.jit.specialize" system property:
+ * <ul>
+ *   <li>"annotated" (the default) - only the {@code @Specialized} classes are specialized;</li>
+ *   <li>"all" - every specializable class is specialized;</li>
+ *   <li>"none" - only the natively implemented specializations are used;</li>
+ *   <li>a comma delimited list of class names or paths (e.g. "Matrix,collections.ListMap") - the
+ *       listed classes are specialized in addition to the {@code @Specialized} ones.</li>
+ * </ul>
+ * The types that have natively implemented specializations (primitive arrays, and the types that
+ * the {@link NativeTypeSystem} maps to the hand-written classes, e.g. {@code Iterator<Int64>}) are
+ * specialized regardless of the policy, since the native classes are what the JIT signatures
+ * refer to.
+ * <p>
+ * Since the JIT names and signatures of the specialized and generalized classes differ, the
+ * decision for a given class must be stable for the life of the process; as a result, the policy
+ * is read exactly once and every decision is cached.
+ *
+ * @see doc/jit_class_names.txt
+ */
+public final class SpecializationPolicy {
+    private SpecializationPolicy(Mode mode, Set<String> classNames) {
+        this.mode       = mode;
+        this.classNames = classNames;
+    }
+
+    /**
+     * Create a policy for the specified "xvm.jit.specialize" value.
+     *
+     * @param spec  the property value (null or blank for the default)
+     *
+     * @return the policy
+     *
+     * @throws IllegalArgumentException if the list of the class names is malformed
+     */
+    static SpecializationPolicy parse(String spec) {
+        spec = spec == null ? "" : spec.trim();
+        switch (spec) {
+        case "", "annotated":
+            return new SpecializationPolicy(Mode.Annotated, Set.of());
+
+        case "all":
+            return new SpecializationPolicy(Mode.All, Set.of());
+
+        case "none":
+            return new SpecializationPolicy(Mode.None, Set.of());
+
+        default:
+            String[] asName = parseDelimitedString(spec, ',');
+            for (int i = 0, c = asName.length; i < c; i++) {
+                String sName = asName[i].trim();
+                if (sName.isEmpty()) {
+                    throw new IllegalArgumentException(
+                            "Invalid \"xvm.jit.specialize\" class list: \"" + spec + '"');
+                }
+                asName[i] = sName;
+            }
+            return new SpecializationPolicy(Mode.Annotated, Set.copyOf(Arrays.asList(asName)));
+        }
+    }
+
+    /**
+     * The process-wide policy.
+     */
+    public static final SpecializationPolicy INSTANCE = parse(System.getProperty("xvm.jit.specialize"));
+
+    /**
+     * Determine whether the specified type should be specialized for JIT-Primitive type arguments.
+     *
+     * @param clz   the parameterized class
+     * @param type  the parameterized type of the class
+     *
+     * @return true iff the JIT should produce a specialized class for primitive type arguments;
+     *         false to use the generalized (boxing) class instead
+     */
+    public boolean isSpecialized(ClassStructure clz, TypeConstant type) {
+        IdentityConstant id = clz.getIdentityConstant();
+        if (mode == Mode.All || id.equals(clz.getConstantPool().clzArray())
+                || nativeTypes.contains(type)) {
+            // primitive arrays and the natively mapped types are hand-written, and therefore
+            // always specialized
+            return true;
+        }
+
+        return mode != Mode.None && decisions.computeIfAbsent(id, _ ->
+                isListed(clz.getName(), id.getPathString()) || isAnnotated(clz));
+    }
+
+    /**
+     * Register the types that have natively implemented specializations.
+     *
+     * @param types  the parameterized types that the native type system maps to native classes
+     */
+    void addNativeTypes(Collection<TypeConstant> types) {
+        nativeTypes.addAll(types);
+    }
+
+    /**
+     * @return the mode of this policy
+     */
+    Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Determine whether a class is explicitly listed by the policy.
+     *
+     * @param sName  the class name
+     * @param sPath  the class path (e.g. "ecstasy.xtclang.org:maps.HashMap")
+     *
+     * @return true iff the class is listed
+     */
+    boolean isListed(String sName, String sPath) {
+        return classNames.contains(sName) || classNames.stream().anyMatch(
+                s -> sPath.equals(s) || sPath.endsWith('.' + s) || sPath.endsWith(':' + s));
+    }
+
+    /**
+     * @return true iff the specified class or any class or interface that it extends, implements,
+     *         incorporates or delegates to is {@code @Specialized}
+     */
+    private static boolean isAnnotated(ClassStructure clz) {
+        return isAnnotated(clz, new HashSet<>());
+    }
+
+    /**
+     * @param clz         the class to check
+     * @param setVisited  the classes that have already been checked
+     *
+     * @return true iff the specified class or any of its contributions is {@code @Specialized}
+     */
+    private static boolean isAnnotated(ClassStructure clz, Set<IdentityConstant> setVisited) {
+        if (!setVisited.add(clz.getIdentityConstant())) {
+            return false;
+        }
+
+        if (clz.containsAnnotation(clz.getConstantPool().clzSpecialized())) {
+            return true;
+        }
+
+        for (Contribution contrib : clz.getContributionsAsList()) {
+            switch (contrib.getComposition()) {
+            case Extends, Implements, Incorporates, Delegates:
+                TypeConstant typeContrib = contrib.getTypeConstant();
+                if (!typeContrib.containsUnresolved()
+                        && typeContrib.isExplicitClassIdentity(true)
+                        && typeContrib.isSingleUnderlyingClass(false)
+                        && typeContrib.getSingleUnderlyingClass(false).getComponent()
+                                instanceof ClassStructure clzContrib
+                        && isAnnotated(clzContrib, setVisited)) {
+                    return true;
+                }
+                break;
+
+            default:
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The specialization modes.
+     */
+    enum Mode {All, Annotated, None}
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The specialization mode.
+     */
+    private final Mode mode;
+
+    /**
+     * The names (or paths) of the classes to specialize in addition to the annotated ones.
+     */
+    private final Set<String> classNames;
+
+    /**
+     * The parameterized types that have natively implemented specializations.
+     */
+    private final Set<TypeConstant> nativeTypes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The cached decisions keyed by the class identity.
+     */
+    private final ConcurrentHashMap<IdentityConstant, Boolean> decisions = new ConcurrentHashMap<>();
+}
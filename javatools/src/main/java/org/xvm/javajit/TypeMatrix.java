@@ -1,9 +1,8 @@
 package org.xvm.javajit;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 import org.xvm.asm.ConstantPool;
@@ -27,20 +26,168 @@ public class TypeMatrix {
     private final BuildContext bctx;
     private final OpView[]     views;
 
-    public record OpView(Map<Integer, TypeConstant> types, boolean isImmutable) {
+    /**
+     * The register types known at a given op address.
+     * <p>
+     * The types are kept in a compact form: an array of register ids sorted in ascending order and
+     * a parallel array of the corresponding types. Views are shared among addresses along the
+     * straight-line code; once a view has been shared it becomes immutable and any subsequent
+     * modification is done on a copy (see {@link #ensureMutableView}).
+     */
+    public static final class OpView {
+        private OpView(int[] regIds, TypeConstant[] types, int size) {
+            this.regIds = regIds;
+            this.types  = types;
+            this.size   = size;
+        }
+
+        /**
+         * @return an empty mutable view
+         */
+        static OpView empty() {
+            return new OpView(new int[INITIAL_CAPACITY], new TypeConstant[INITIAL_CAPACITY], 0);
+        }
+
         /**
          * @return a mutable copy of this view
          */
         public OpView copy() {
-            return new OpView(new HashMap<>(types), false);
+            int capacity = Math.max(size + 2, INITIAL_CAPACITY);
+            return new OpView(Arrays.copyOf(regIds, capacity), Arrays.copyOf(types, capacity), size);
         }
 
         /**
-         * @return an immutable copy of this view
+         * Mark this view as shared, which makes it immutable.
+         *
+         * @return this view
          */
         public OpView freeze() {
-            return isImmutable ? this : new OpView(types, true);
+            isImmutable = true;
+            return this;
+        }
+
+        /**
+         * @return true iff this view cannot be modified
+         */
+        public boolean isImmutable() {
+            return isImmutable;
+        }
+
+        /**
+         * @return the number of registers in this view
+         */
+        public int size() {
+            return size;
         }
+
+        /**
+         * @return the register id at the specified index
+         */
+        public int regIdAt(int index) {
+            return regIds[index];
+        }
+
+        /**
+         * @return the register type at the specified index
+         */
+        public TypeConstant typeAt(int index) {
+            return types[index];
+        }
+
+        /**
+         * @return the type of the specified register or null
+         */
+        public TypeConstant get(int regId) {
+            int index = Arrays.binarySearch(regIds, 0, size, regId);
+            return index >= 0 ? types[index] : null;
+        }
+
+        /**
+         * @return true iff the specified register's type is known by this view
+         */
+        public boolean contains(int regId) {
+            return Arrays.binarySearch(regIds, 0, size, regId) >= 0;
+        }
+
+        /**
+         * Set the type for the specified register.
+         */
+        public void put(int regId, TypeConstant type) {
+            assert !isImmutable && type != null;
+
+            int index = Arrays.binarySearch(regIds, 0, size, regId);
+            if (index >= 0) {
+                types[index] = type;
+                return;
+            }
+
+            index = -index - 1;
+            if (size == regIds.length) {
+                int capacity = size * 2;
+                regIds = Arrays.copyOf(regIds, capacity);
+                types  = Arrays.copyOf(types,  capacity);
+            }
+            if (index < size) {
+                System.arraycopy(regIds, index, regIds, index + 1, size - index);
+                System.arraycopy(types,  index, types,  index + 1, size - index);
+            }
+            regIds[index] = regId;
+            types [index] = type;
+            size++;
+        }
+
+        /**
+         * Remove the type information for the specified register.
+         */
+        public void remove(int regId) {
+            assert !isImmutable;
+
+            int index = Arrays.binarySearch(regIds, 0, size, regId);
+            if (index >= 0) {
+                int tail = size - index - 1;
+                if (tail > 0) {
+                    System.arraycopy(regIds, index + 1, regIds, index, tail);
+                    System.arraycopy(types,  index + 1, types,  index, tail);
+                }
+                types[--size] = null;
+            }
+        }
+
+        /**
+         * Remove the type information for all registers with ids that are equal or higher than the
+         * specified one.
+         */
+        public void removeFrom(int regId) {
+            assert !isImmutable;
+
+            int index = Arrays.binarySearch(regIds, 0, size, regId);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index < size) {
+                Arrays.fill(types, index, size, null);
+                size = index;
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("{");
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(regIds[i]).append('=').append(types[i].getValueString());
+            }
+            return sb.append('}').toString();
+        }
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        private int[]          regIds;
+        private TypeConstant[] types;
+        private int            size;
+        private boolean        isImmutable;
     }
 
     // ----- collection phase ----------------------------------------------------------------------
@@ -73,9 +220,9 @@ public class TypeMatrix {
 
         if (currView != null) {
             if (nextView == null) {
-                if (exceptId >= 0 && currView.types.containsKey(exceptId)) {
+                if (exceptId >= 0 && currView.contains(exceptId)) {
                     nextView = views[nextAddr] = currView.copy();
-                    nextView.types.remove(exceptId);
+                    nextView.remove(exceptId);
                 } else {
                     views[nextAddr] = currView.freeze();
                 }
@@ -97,7 +244,7 @@ public class TypeMatrix {
             follow(currAddr, currAddr + 1, regId);
         }
 
-        ensureMutableView(currAddr + 1).types.put(regId, type);
+        ensureMutableView(currAddr + 1).put(regId, type);
 
         if (regId >= 0) {
             bctx.scope.declareRegister(regId);
@@ -120,8 +267,9 @@ public class TypeMatrix {
 
         follow(currAddr, nextAddr, -1);
 
-        OpView       nextView = ensureMutableView(nextAddr);
-        TypeConstant nextType = nextView.types.get(regId);
+        // avoid the copy-on-write unless the register type actually changes
+        OpView       nextView = views[nextAddr];
+        TypeConstant nextType = nextView == null ? null : nextView.get(regId);
 
         ComputeType:
         if (nextType == null) {
@@ -153,7 +301,7 @@ public class TypeMatrix {
                 type = new CastTypeConstant(bctx.pool(), nextType, type);
             }
         }
-        nextView.types.put(regId, type);
+        ensureMutableView(nextAddr).put(regId, type);
     }
 
     /**
@@ -162,8 +310,7 @@ public class TypeMatrix {
      */
     public void removeRegisters(int currAddr, int topRegId) {
         if (currAddr < views.length && views[currAddr] != null) {
-            ensureMutableView(currAddr).types.entrySet().
-                removeIf(entry -> entry.getKey() >= topRegId);
+            ensureMutableView(currAddr).removeFrom(topRegId);
         }
     }
 
@@ -200,7 +347,7 @@ public class TypeMatrix {
     protected OpView ensureMutableView(int addr) {
         OpView view = views[addr];
         return view == null
-            ? views[addr] = new OpView(new HashMap<>(), false)
+            ? views[addr] = OpView.empty()
             : view.isImmutable
                 ? views[addr] = view.copy()
                 : view;
@@ -217,14 +364,14 @@ public class TypeMatrix {
         assert nextView != null;
 
         Set<Integer> changeSet = Collections.emptySet();
-        for (var entry : currView.types.entrySet()) {
-            Integer regId = entry.getKey();
+        for (int i = 0, c = currView.size(); i < c; i++) {
+            int regId = currView.regIdAt(i);
             if (regId < 0 || regId == exceptId) {
                 continue;
             }
 
-            TypeConstant currType = entry.getValue();
-            TypeConstant nextType = nextView.types.get(regId);
+            TypeConstant currType = currView.typeAt(i);
+            TypeConstant nextType = nextView.get(regId);
             if (currType.equals(nextType)) {
                 continue;
             }
@@ -233,7 +380,7 @@ public class TypeMatrix {
                 views[nextAddr] = nextView = nextView.copy();
             }
 
-            if (mergeType(nextView.types, regId, entry.getValue(), nextType)) {
+            if (mergeType(nextView, regId, currType, nextType)) {
                 if (changeSet.isEmpty()) {
                     changeSet = new HashSet<>();
                 }
@@ -244,19 +391,18 @@ public class TypeMatrix {
     }
 
     /**
-     * Merge the `currType` with the `mergeType` in the `types` map.
+     * Merge the `currType` with the `mergeType` in the specified view.
      *
      * @return true iff the register type has been widened
      */
-    private boolean mergeType(Map<Integer, TypeConstant> types, Integer regId,
-                           TypeConstant currType, TypeConstant mergeType) {
+    private boolean mergeType(OpView view, int regId, TypeConstant currType, TypeConstant mergeType) {
         if (mergeType == null) {
-            types.put(regId, currType);
+            view.put(regId, currType);
         } else if (!mergeType.equals(currType)) {
             if (mergeType.isA(currType)) {
-                types.put(regId, currType);
+                view.put(regId, currType);
             } else if (currType.isA(mergeType)) {
-                types.put(regId, mergeType);
+                view.put(regId, mergeType);
             } else {
                 TypeConstant baseType = null;
                 if (currType instanceof CastTypeConstant inferredType) {
@@ -272,7 +418,7 @@ public class TypeMatrix {
 
                 ConstantPool pool      = bctx.pool();
                 TypeConstant unionType = currType.union(pool, mergeType);
-                types.put(regId, baseType == null // this usually means an "out-of-scope" var
+                view.put(regId, baseType == null // this usually means an "out-of-scope" var
                               || baseType.isEquivalent(unionType)
                     ? unionType
                     : new CastTypeConstant(pool, baseType, unionType));
@@ -289,6 +435,6 @@ public class TypeMatrix {
      */
     public TypeConstant getType(int regId, int addr) {
         OpView view = views[addr];
-        return view == null ? null : view.types.get(regId);
+        return view == null ? null : view.get(regId);
     }
 }
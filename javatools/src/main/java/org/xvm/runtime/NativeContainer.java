@@ -34,6 +34,7 @@ import org.xvm.asm.MethodStructure;
 import org.xvm.asm.ModuleRepository;
 import org.xvm.asm.ModuleStructure;
 import org.xvm.asm.Op;
+import org.xvm.asm.TypeRelationCache;
 import org.xvm.asm.TypedefStructure;
 
 import org.xvm.asm.constants.IdentityConstant;
@@ -156,6 +157,13 @@ public class NativeContainer
             pool.setNakedRefType(clzNakedRef.getFormalType());
         }
 
+        // the root pool is always built the same way from the same (sealed) library modules, so the
+        // type relations calculated by the previous runs can be reused
+        m_relationCache = TypeRelationCache.load(pool, List.of(
+                moduleRoot.getFileStructure().getOSFile(),
+                moduleTurtle.getFileStructure().getOSFile(),
+                moduleNative.getFileStructure().getOSFile()));
+
         String sRoot = xObject.class.getProtectionDomain().getCodeSource().getLocation().getFile();
         sRoot = URLDecoder.decode(sRoot, StandardCharsets.UTF_8);
 
@@ -857,6 +865,17 @@ public class NativeContainer
         }
     }
 
+    /**
+     * Persist the type relations calculated for the root pool types, so the subsequent runs could
+     * start faster.
+     */
+    public void storeTypeRelations() {
+        TypeRelationCache cache = m_relationCache;
+        if (cache != null) {
+            cache.store();
+        }
+    }
+
     @Override
     public String toString() {
         return "Primordial container";
@@ -889,6 +908,11 @@ public class NativeContainer
     private       ModuleStructure  m_moduleTurtle;
     private       ModuleStructure  m_moduleNative;
 
+    /**
+     * The persistent cache of the root pool type relations (null if not available).
+     */
+    private TypeRelationCache m_relationCache;
+
     /**
      * Map of IdentityConstants by name.
      */
@@ -0,0 +1,386 @@
+package org.xvm.runtime;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+
+/**
+ * A sampling profiler for the interpreter.
+ * <p>
+ * The profiler periodically samples the current {@link Frame} and the op address of every running
+ * {@link ServiceContext}, and aggregates the samples by {@link MethodStructure} and source line.
+ * The fiber and service boundaries are represented by synthetic frames, so the time a fiber spends
+ * waiting on another service is visible in the output. In addition, while the profiler is active,
+ * the interpreter counts the executed ops by the op class (see
+ * {@link ServiceContext#execute(Frame)}).
+ * <p>
+ * When stopped, the profiler produces two files:
+ * <ul>
+ *   <li>"&lt;name&gt;.collapsed" - the collapsed stacks (one "frame;frame;...;frame count" line per
+ *       unique stack) that is consumable by the flame graph tools;</li>
+ *   <li>"&lt;name&gt;.txt" - the report of the top hot methods/lines and the op counters.</li>
+ * </ul>
+ */
+public class Profiler {
+    /**
+     * Construct a profiler.
+     *
+     * @param runtime     the runtime to profile
+     * @param fileOut     the output file (the extension, if any, is replaced)
+     * @param cMillis     the sampling interval in milliseconds
+     */
+    public Profiler(Runtime runtime, File fileOut, long cMillis) {
+        f_runtime = runtime;
+        f_fileOut = fileOut;
+        f_cMillis = Math.max(1, cMillis);
+    }
+
+    /**
+     * Start sampling.
+     */
+    public synchronized void start() {
+        if (m_executor == null) {
+            synchronized (f_mapStacks) {
+                m_fStopped = false;
+            }
+            m_executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "XvmProfiler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            m_future = m_executor.scheduleAtFixedRate(this::sample, f_cMillis, f_cMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop sampling and write the results.
+     */
+    public synchronized void stop() {
+        if (m_executor != null) {
+            m_future.cancel(false);
+            m_executor.shutdown();
+            m_executor = null;
+
+            // a sample that is already in progress holds the lock, so once the "stopped" flag is
+            // set, no other sample can modify the results that are about to be written
+            synchronized (f_mapStacks) {
+                m_fStopped = true;
+            }
+
+            try {
+                writeResults();
+            } catch (IOException e) {
+                System.err.println("Failed to write the profiler output: " + e);
+            }
+        }
+    }
+
+
+    // ----- op counters ---------------------------------------------------------------------------
+
+    /**
+     * @return the op counters for the current thread
+     */
+    public long[] ensureOpCounters() {
+        long[] alCount = f_tloCounters.get();
+        if (alCount.length < s_listOpClasses.size()) {
+            alCount = growCounters(alCount);
+        }
+        return alCount;
+    }
+
+    /**
+     * Count an execution of the specified op.
+     *
+     * @param alCount  the counters obtained via {@link #ensureOpCounters()}
+     * @param op       the op
+     *
+     * @return the counters to use from now on
+     */
+    public long[] countOp(long[] alCount, Op op) {
+        int nIndex = OP_INDEX.get(op.getClass());
+        if (nIndex >= alCount.length) {
+            alCount = growCounters(alCount);
+        }
+        alCount[nIndex]++;
+        return alCount;
+    }
+
+    /**
+     * Replace the current thread's counters with a bigger copy.
+     */
+    private long[] growCounters(long[] alCount) {
+        long[] alNew = new long[Math.max(s_listOpClasses.size(), alCount.length) + 16];
+        System.arraycopy(alCount, 0, alNew, 0, alCount.length);
+
+        f_listCounters.remove(alCount);
+        f_listCounters.add(alNew);
+        f_tloCounters.set(alNew);
+        return alNew;
+    }
+
+
+    // ----- sampling ------------------------------------------------------------------------------
+
+    /**
+     * Take a sample of every service.
+     */
+    private void sample() {
+        synchronized (f_mapStacks) {
+            if (m_fStopped) {
+                return;
+            }
+
+            for (Container container : f_runtime.containers()) {
+                for (ServiceContext ctx : container.getServices()) {
+                    Frame frame = ctx.getCurrentFrame();
+                    if (frame != null) {
+                        try {
+                            sample(frame);
+                        } catch (RuntimeException ignore) {
+                            // the frames are read without any synchronization; skip inconsistent
+                            // samples
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Take a sample of the specified frame's stack.
+     */
+    private void sample(Frame frame) {
+        List<String> listFrames = new ArrayList<>();
+        Fiber        fiber      = frame.f_fiber;
+        int          iPC        = frame.m_iPC;
+
+        m_cSamples++;
+
+        boolean fTop = true;
+        while (frame != null) {
+            MethodStructure function = frame.f_function;
+            if (function != null) {
+                String sFrame = formatFrame(function, iPC);
+                listFrames.add(sFrame);
+                if (fTop) {
+                    f_mapSelf.merge(sFrame, 1L, Long::sum);
+                    fTop = false;
+                }
+            }
+
+            iPC   = frame.f_iPCPrev;
+            frame = frame.f_framePrev;
+            if (frame == null) {
+                ServiceContext ctx = fiber.f_context;
+                listFrames.add("[fiber #" + fiber.getId() + "]");
+                listFrames.add("[service " + ctx.f_sName + "]");
+
+                Fiber fiberCaller = fiber.traceCaller();
+                if (fiberCaller == null) {
+                    break;
+                }
+
+                frame = fiberCaller.getFrame();
+                if (frame != null && !fiberCaller.isWaiting()) {
+                    frame = frame.findCallerFrame(fiber.f_iCallerId);
+                }
+                if (frame == null) {
+                    MethodStructure fnCaller = fiber.f_fnCaller;
+                    if (fnCaller != null) {
+                        listFrames.add(formatFrame(fnCaller, -1));
+                    }
+                    break;
+                }
+                iPC   = frame.m_iPC;
+                fiber = fiberCaller;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = listFrames.size() - 1; i >= 0; i--) {
+            sb.append(listFrames.get(i));
+            if (i > 0) {
+                sb.append(';');
+            }
+        }
+        f_mapStacks.merge(sb.toString(), 1L, Long::sum);
+    }
+
+    /**
+     * @return a human-readable frame name for the specified method and op address
+     */
+    private static String formatFrame(MethodStructure function, int iPC) {
+        StringBuilder sb = new StringBuilder(function.getIdentityConstant().getPathString());
+        if (iPC >= 0) {
+            int nLine = function.calculateLineNumber(iPC);
+            if (nLine > 0) {
+                sb.append(':').append(nLine);
+            }
+        }
+        // the collapsed stack format uses ';' as the delimiter and ' ' before the count
+        return sb.toString().replace(';', ',').replace(' ', '_');
+    }
+
+
+    // ----- output --------------------------------------------------------------------------------
+
+    /**
+     * Write the collapsed stacks and the report.
+     */
+    private void writeResults() throws IOException {
+        String sPath = f_fileOut.getPath();
+        int    ofExt = sPath.lastIndexOf('.');
+        if (ofExt > sPath.lastIndexOf(File.separatorChar)) {
+            sPath = sPath.substring(0, ofExt);
+        }
+
+        try (PrintWriter out = new PrintWriter(new File(sPath + ".collapsed"),
+                StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : f_mapStacks.entrySet()) {
+                out.print(entry.getKey());
+                out.print(' ');
+                out.println(entry.getValue());
+            }
+        }
+
+        try (PrintWriter out = new PrintWriter(new File(sPath + ".txt"), StandardCharsets.UTF_8)) {
+            out.printf("Samples: %d (every %d ms)%n%nTop %d hot spots (self samples):%n",
+                    m_cSamples, f_cMillis, TOP_N);
+            f_mapSelf.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(TOP_N)
+                    .forEach(e -> out.printf("%10d  %5.1f%%  %s%n", e.getValue(),
+                            100.0 * e.getValue() / Math.max(1, m_cSamples), e.getKey()));
+
+            List<String> listClasses = s_listOpClasses;
+            long[]       alTotal     = new long[listClasses.size()];
+            for (long[] alCount : f_listCounters) {
+                for (int i = 0, c = Math.min(alCount.length, alTotal.length); i < c; i++) {
+                    alTotal[i] += alCount[i];
+                }
+            }
+
+            Map<String, Long> mapOps = new HashMap<>();
+            for (int i = 0, c = alTotal.length; i < c; i++) {
+                if (alTotal[i] > 0) {
+                    mapOps.merge(listClasses.get(i), alTotal[i], Long::sum);
+                }
+            }
+
+            out.printf("%nTop %d executed ops:%n", TOP_N);
+            mapOps.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(TOP_N)
+                    .forEach(e -> out.printf("%14d  %s%n", e.getValue(), e.getKey()));
+        }
+    }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The number of entries in the "top" reports.
+     */
+    private static final int TOP_N = 50;
+
+    /**
+     * The names of the op classes; the index into this list is used by the op counters.
+     */
+    private static final List<String> s_listOpClasses = new CopyOnWriteArrayList<>();
+
+    /**
+     * The op class to counter index mapping.
+     */
+    private static final ClassValue<Integer> OP_INDEX = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> clz) {
+            synchronized (s_listOpClasses) {
+                String sName = clz.getSimpleName();
+                s_listOpClasses.add(sName.isEmpty() ? clz.getName() : sName);
+                return s_listOpClasses.size() - 1;
+            }
+        }
+    };
+
+    /**
+     * The runtime.
+     */
+    private final Runtime f_runtime;
+
+    /**
+     * The output file.
+     */
+    private final File f_fileOut;
+
+    /**
+     * The sampling interval in milliseconds.
+     */
+    private final long f_cMillis;
+
+    /**
+     * The op counters for all threads.
+     */
+    private final List<long[]> f_listCounters = new CopyOnWriteArrayList<>();
+
+    /**
+     * The op counters for the current thread.
+     */
+    private final ThreadLocal<long[]> f_tloCounters = ThreadLocal.withInitial(() -> {
+        long[] alCount = new long[0];
+        f_listCounters.add(alCount);
+        return alCount;
+    });
+
+    /**
+     * The number of samples per collapsed stack (guarded by itself, which also serves as the lock
+     * for the rest of the sampling state).
+     */
+    private final Map<String, Long> f_mapStacks = new HashMap<>();
+
+    /**
+     * The number of samples per top frame (guarded by {@link #f_mapStacks}).
+     */
+    private final Map<String, Long> f_mapSelf = new HashMap<>();
+
+    /**
+     * The total number of samples (guarded by {@link #f_mapStacks}).
+     */
+    private long m_cSamples;
+
+    /**
+     * True iff the profiler has been stopped (guarded by {@link #f_mapStacks}); a sampling task
+     * that has been cancelled, but is already running, must not change the results.
+     */
+    private boolean m_fStopped;
+
+    /**
+     * The sampling executor.
+     */
+    private ScheduledExecutorService m_executor;
+
+    /**
+     * The sampling task.
+     */
+    private ScheduledFuture<?> m_future;
+}
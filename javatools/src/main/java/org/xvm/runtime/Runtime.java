@@ -1,6 +1,8 @@
 package org.xvm.runtime;
 
 
+import java.io.File;
+
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -125,6 +127,67 @@ public class Runtime {
         m_fDebugger = fActive;
     }
 
+    /**
+     * @return the active profiler or null
+     */
+    public Profiler getProfiler() {
+        return m_profiler;
+    }
+
+    /**
+     * Start profiling the execution.
+     *
+     * @param fileOut  the output file (see {@link Profiler})
+     * @param cMillis  the sampling interval in milliseconds
+     */
+    public synchronized void startProfiler(File fileOut, long cMillis) {
+        if (m_profiler == null) {
+            Profiler profiler = new Profiler(this, fileOut, cMillis);
+            profiler.start();
+            m_profiler = profiler;
+        }
+    }
+
+    /**
+     * Stop profiling and write out the results.
+     */
+    public synchronized void stopProfiler() {
+        Profiler profiler = m_profiler;
+        if (profiler != null) {
+            m_profiler = null;
+            profiler.stop();
+        }
+    }
+
+    /**
+     * @return true iff the HTTP requests should be served by the virtual thread based engine
+     */
+    public boolean isVirtualHttpEngine() {
+        return m_fVirtualHttp;
+    }
+
+    /**
+     * Select the engine that serves the HTTP requests.
+     *
+     * @param sEngine  "jdk" for the JDK's HttpServer or "virtual" for the virtual thread per
+     *                 connection engine
+     */
+    public void setHttpEngine(String sEngine) {
+        switch (sEngine) {
+        case "jdk":
+            m_fVirtualHttp = false;
+            break;
+
+        case "virtual":
+            m_fVirtualHttp = true;
+            break;
+
+        default:
+            throw new IllegalArgumentException("Unknown HTTP engine: \"" + sEngine +
+                    "\"; expected \"jdk\" or \"virtual\"");
+        }
+    }
+
 
     // ----- constants and fields ------------------------------------------------------------------
 
@@ -157,4 +220,14 @@ public class Runtime {
      * The "debugger is active" flag.
      */
     private boolean m_fDebugger;
+
+    /**
+     * The active profiler (null if the execution is not being profiled).
+     */
+    private volatile Profiler m_profiler;
+
+    /**
+     * True iff the HTTP requests are served by the virtual thread based engine.
+     */
+    private volatile boolean m_fVirtualHttp;
 }
@@ -31,6 +31,7 @@ import org.xvm.asm.constants.SingletonConstant;
 import org.xvm.asm.constants.TypeConstant;
 import org.xvm.asm.constants.TypeParameterConstant;
 
+import org.xvm.asm.op.Nop;
 import org.xvm.asm.op.Return_0;
 
 import org.xvm.runtime.ObjectHandle.TransientId;
@@ -211,6 +212,25 @@ public class ServiceContext {
         return DebugConsole.INSTANCE;
     }
 
+    /**
+     * Activate the debugger at the specified op. Since the interpreter loop only checks whether
+     * the debugger is active at a safepoint, a successful activation is reported as
+     * {@link Op#R_SAFEPOINT}.
+     *
+     * @param frame  the current frame
+     * @param iPC    the address of the current op
+     *
+     * @return the next address or one of the Op.R_* codes
+     */
+    public int activateDebugger(Frame frame, int iPC) {
+        int iResult = getDebugger().activate(frame, iPC);
+        if (iResult >= 0 && isDebuggerActive()) {
+            frame.m_iPC = iResult;
+            return Op.R_SAFEPOINT;
+        }
+        return iResult;
+    }
+
 
     // ----- Op support ----------------------------------------------------------------------------
 
@@ -505,9 +525,8 @@ public class ServiceContext {
      *         finished execution or has been terminated due to an exception or any other means
      */
     public Frame execute(Frame frame) {
-        Fiber fiber   = frame.f_fiber;
-        int   iPC     = frame.m_iPC;
-        int   iPCLast = iPC;
+        Fiber fiber = frame.f_fiber;
+        int   iPC   = frame.m_iPC;
 
         m_frameCurrent = frame;
 
@@ -533,21 +552,39 @@ public class ServiceContext {
             throw new IllegalStateException();
         }
 
-        Op[] aOp  = frame.f_aOp;
-        int  cOps = 0;
+        Op[] aOp     = frame.f_aOp;
+        int  iPCLast = iPC;
+        int  cOps    = 0;
+
+        // the debugger and profiler state is sampled only at a safepoint: when the fiber is
+        // (re)started, or when the debugger gets activated by an op (see R_SAFEPOINT); the debugger
+        // can be turned off at any time, so a "true" value is always re-checked
+        boolean  fDebug   = isDebuggerActive();
+        Profiler profiler = getRuntime().getProfiler();
+        long[]   alCount  = profiler == null ? null : profiler.ensureOpCounters();
 
     nextOp:
         while (true) { // main loop
             while (iPC >= 0) { // most common op return loop
                 frame.m_iPC = iPC;
 
-                if (++cOps > MAX_OPS_PER_RUN && !isDebuggerActive()) {
+                if (++cOps > MAX_OPS_PER_RUN && !(fDebug && isDebuggerActive())) {
                     fiber.setStatus(FiberStatus.Paused, cOps);
                     return frame;
                 }
 
                 try {
-                    iPC = aOp[iPC].process(frame, iPCLast = iPC);
+                    Op op = aOp[iPCLast = iPC];
+                    if (alCount != null) {
+                        alCount = profiler.countOp(alCount, op);
+                    }
+                    if (fDebug && op instanceof Nop) {
+                        // NOP and LINE_* ops are the natural break points
+                        iPC    = getDebugger().checkBreakPoint(frame, iPC);
+                        fDebug = isDebuggerActive();
+                    } else {
+                        iPC = op.process(frame, iPC);
+                    }
                     if (iPC == Op.R_NEXT) {
                         iPC = iPCLast + 1;
                     }
@@ -573,7 +610,7 @@ public class ServiceContext {
                 break;
 
             case Op.R_RETURN: {
-                if (isDebuggerActive()) {
+                if (fDebug && isDebuggerActive()) {
                     getDebugger().onReturn(frame);
                 }
 
@@ -611,6 +648,12 @@ public class ServiceContext {
                         iPC = Op.R_RETURN;
                         continue; // nextOp
 
+                    case Op.R_SAFEPOINT:
+                        fDebug = isDebuggerActive();
+                        aOp    = frame.f_aOp;
+                        iPC    = frame.m_iPC;
+                        continue; // nextOp
+
                     default:
                         if (iResult < 0) {
                             throw new IllegalStateException();
@@ -638,7 +681,7 @@ public class ServiceContext {
                 ExceptionHandle hException = frame.m_hException;
                 assert hException != null;
 
-                boolean fDebugger = isDebuggerActive();
+                boolean fDebugger = fDebug && isDebuggerActive();
 
                 while (true) {
                     if (fDebugger) {
@@ -712,6 +755,13 @@ public class ServiceContext {
                 fiber.setStatus(FiberStatus.Paused, cOps);
                 return frame;
 
+            case Op.R_SAFEPOINT:
+                // the debugger has been activated
+                fDebug = isDebuggerActive();
+                aOp    = frame.f_aOp;
+                iPC    = frame.m_iPC;
+                break;
+
             case Op.R_RESET:
                 // this is only possible as a return value by the debugger
                 frame = frame.f_framePrev;
@@ -11,6 +11,16 @@ import java.security.spec.X509EncodedKeySpec;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
@@ -25,11 +35,14 @@ import org.xvm.asm.ClassStructure;
 import org.xvm.asm.MethodStructure;
 import org.xvm.asm.Op;
 
+import org.xvm.asm.constants.TypeConstant;
+
 import org.xvm.runtime.CallChain;
 import org.xvm.runtime.Container;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ObjectHandle.DeferredCallHandle;
+import org.xvm.runtime.ObjectHandle.ExceptionHandle;
 import org.xvm.runtime.ServiceContext;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.Utils;
@@ -39,12 +52,16 @@ import org.xvm.runtime.template.xException;
 import org.xvm.runtime.template.xObject;
 import org.xvm.runtime.template.xService;
 
+import org.xvm.runtime.template.collections.xArray;
 import org.xvm.runtime.template.collections.xArray.ArrayHandle;
+import org.xvm.runtime.template.collections.xArray.Mutability;
+import org.xvm.runtime.template.collections.xByteArray;
 
 import org.xvm.runtime.template.numbers.xInt64;
 
 import org.xvm.runtime.template.text.xString.StringHandle;
 
+import org.xvm.runtime.template._native.collections.arrays.BitBasedDelegate;
 import org.xvm.runtime.template._native.collections.arrays.ByteBasedDelegate.ByteArrayHandle;
 import org.xvm.runtime.template._native.collections.arrays.xRTUInt8Delegate;
 
@@ -68,6 +85,8 @@ public class xRTAlgorithms
     public void initNative() {
         markNativeMethod("getAlgorithmInfo", null, null);
 
+        BYTE_ARRAY_ARRAY_TYPE = pool().ensureArrayType(pool().typeByteArray());
+
         invalidateTypeInfo();
     }
 
@@ -278,26 +297,65 @@ public class xRTAlgorithms
         }
     }
 
+    /**
+     * Native implementation of "void updateStream(Object stream, Byte[] data)".
+     */
+    public static int invokeUpdateStream(Frame frame, StreamHandle hStream, ArrayHandle haData) {
+        try {
+            hStream.update(xByteArray.getBytes(haData));
+            return Op.R_NEXT;
+        } catch (IllegalStateException e) {
+            return frame.raiseException(xException.illegalState(frame, e.getMessage()));
+        } catch (GeneralSecurityException e) {
+            return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+        }
+    }
+
+    /**
+     * Native implementation of "Byte[] finishStream(Object stream)".
+     */
+    public static int invokeFinishStream(Frame frame, StreamHandle hStream, int iReturn) {
+        try {
+            return frame.assignValue(iReturn,
+                    xArray.makeByteArrayHandle(hStream.finish(), Mutability.Constant));
+        } catch (IllegalStateException e) {
+            return frame.raiseException(xException.illegalState(frame, e.getMessage()));
+        } catch (GeneralSecurityException e) {
+            return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+        }
+    }
+
+    /**
+     * Raise an exception for a failed bulk operation.
+     */
+    public static int raiseBulkException(Frame frame, Throwable e) {
+        while ((e instanceof ExecutionException || e instanceof CompletionException)
+                && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+    }
+
     public enum KeyForm {Public, Private, PublicOrSecret, PrivateOrSecret}
 
 
     // ----- handles -------------------------------------------------------------------------------
 
     /**
-     * Native handle holding a MessageDigest.
+     * Native handle holding a pool of MessageDigest instances.
      */
     public static class DigestHandle
             extends ObjectHandle {
         protected DigestHandle(MessageDigest digest) {
             super(xObject.INSTANCE.getCanonicalClass());
 
-            f_digest = digest;
+            f_pool = EnginePool.forDigest(digest);
         }
 
         /**
-         * The wrapped {@link MessageDigest}.
+         * The pool of {@link MessageDigest} instances.
          */
-        public final MessageDigest f_digest;
+        public final EnginePool<MessageDigest> f_pool;
     }
 
     /**
@@ -318,37 +376,49 @@ public class xRTAlgorithms
     }
 
     /**
-     * Native handle holding a Signature.
+     * Native handle holding a pool of Signature instances.
      */
     public static class SignatureHandle
             extends ObjectHandle {
         protected SignatureHandle(Signature signature) {
             super(xObject.INSTANCE.getCanonicalClass());
 
-            f_signature = signature;
+            f_sAlgorithm = signature.getAlgorithm();
+            f_pool       = EnginePool.forSignature(signature);
         }
 
         /**
-         * The wrapped {@link Signature}.
+         * The algorithm name.
          */
-        public final Signature f_signature;
+        public final String f_sAlgorithm;
+
+        /**
+         * The pool of {@link Signature} instances.
+         */
+        public final EnginePool<Signature> f_pool;
     }
 
     /**
-     * Native handle holding a Message Authentication Code (MAC).
+     * Native handle holding a pool of Message Authentication Code (MAC) instances.
      */
     public static class MacHandle
             extends ObjectHandle {
         protected MacHandle(Mac mac) {
             super(xObject.INSTANCE.getCanonicalClass());
 
-            f_mac = mac;
+            f_sAlgorithm = mac.getAlgorithm();
+            f_pool       = EnginePool.forMac(mac);
         }
 
         /**
-         * The wrapped {@link Mac}.
+         * The algorithm name.
+         */
+        public final String f_sAlgorithm;
+
+        /**
+         * The pool of {@link Mac} instances.
          */
-        public final Mac f_mac;
+        public final EnginePool<Mac> f_pool;
     }
 
     /**
@@ -385,6 +455,351 @@ public class xRTAlgorithms
         }
     }
 
+    /**
+     * Native handle holding an engine (a MessageDigest, Mac or Signature) acquired from a pool for
+     * a streaming operation, which feeds the data to the engine chunk by chunk. The engine is
+     * returned to the pool when the operation completes; an abandoned stream simply leaves its
+     * engine to the garbage collector.
+     */
+    public static class StreamHandle
+            extends ObjectHandle {
+        protected <E> StreamHandle(EnginePool<E> pool, E engine) {
+            super(xObject.INSTANCE.getCanonicalClass());
+
+            m_engine  = engine;
+            f_release = () -> pool.release(engine);
+        }
+
+        /**
+         * Feed the next chunk of data to the engine.
+         */
+        public void update(byte[] abData)
+                throws GeneralSecurityException {
+            Object engine = ensureEngine();
+            if (engine instanceof MessageDigest digest) {
+                digest.update(abData);
+            } else if (engine instanceof Mac mac) {
+                mac.update(abData);
+            } else {
+                ((Signature) engine).update(abData);
+            }
+        }
+
+        /**
+         * Complete the operation.
+         *
+         * @return the digest, MAC or signature for all the data fed to the engine
+         */
+        public byte[] finish()
+                throws GeneralSecurityException {
+            Object engine = ensureEngine();
+            byte[] abResult;
+            if (engine instanceof MessageDigest digest) {
+                abResult = digest.digest();
+            } else if (engine instanceof Mac mac) {
+                abResult = mac.doFinal();
+            } else {
+                abResult = ((Signature) engine).sign();
+            }
+            close();
+            return abResult;
+        }
+
+        /**
+         * Complete the operation.
+         *
+         * @return true iff the specified signature matches the data fed to the engine
+         */
+        public boolean verify(byte[] abSignature)
+                throws GeneralSecurityException {
+            Object  engine = ensureEngine();
+            boolean fMatch;
+            if (engine instanceof Signature signature) {
+                try {
+                    fMatch = signature.verify(abSignature);
+                } finally {
+                    // the next user re-initializes the signature, so it can be reused even if the
+                    // verification has failed with an exception
+                    close();
+                }
+            } else {
+                fMatch = MessageDigest.isEqual(finish(), abSignature);
+            }
+            return fMatch;
+        }
+
+        private Object ensureEngine() {
+            Object engine = m_engine;
+            if (engine == null) {
+                throw new IllegalStateException("Stream is closed");
+            }
+            return engine;
+        }
+
+        private void close() {
+            m_engine = null;
+            f_release.run();
+        }
+
+        /**
+         * The engine; null after the operation completes.
+         */
+        private Object m_engine;
+
+        /**
+         * The action that returns the engine to its pool.
+         */
+        private final Runnable f_release;
+    }
+
+
+    // ----- EnginePool ----------------------------------------------------------------------------
+
+    /**
+     * A pool of JCA engines (MessageDigest, Mac or Signature instances) for a single algorithm.
+     * <p>
+     * The engines are stateful and not thread-safe, while an algorithm handle is shared by all the
+     * hashers, signers and verifiers allocated for the algorithm, which are services that run
+     * concurrently. Every operation therefore acquires an engine of its own, and releases it once
+     * the operation completes successfully; an engine that failed in the middle of an operation is
+     * simply not released.
+     * <p>
+     * A released engine is reset before it's returned to the pool, and an engine that cannot be
+     * reset to a state without any data or key material (a Mac or Signature that has been
+     * initialized with a key) is discarded.
+     */
+    public static class EnginePool<E> {
+        /**
+         * Construct the pool.
+         *
+         * @param engine   an engine that has not been used yet
+         * @param factory  the factory of new engines
+         * @param reset    the action that resets a released engine
+         */
+        public EnginePool(E engine, EngineFactory<E> factory, EngineReset<E> reset) {
+            f_factory = factory;
+            f_reset   = reset;
+
+            addIdle(engine);
+        }
+
+        /**
+         * @return a pool of MessageDigest instances like the specified one; the released digests
+         *         are reset and reused
+         */
+        public static EnginePool<MessageDigest> forDigest(MessageDigest digest) {
+            return new EnginePool<>(digest,
+                    () -> MessageDigest.getInstance(digest.getAlgorithm(), digest.getProvider()),
+                    engine -> {
+                        engine.reset();
+                        return true;
+                    });
+        }
+
+        /**
+         * @return a pool of Signature instances like the specified one; the released signatures
+         *         are reused as they are, since every user initializes the acquired signature with
+         *         its own key (which also discards any data left over by the previous user)
+         */
+        public static EnginePool<Signature> forSignature(Signature signature) {
+            return new EnginePool<>(signature,
+                    () -> Signature.getInstance(signature.getAlgorithm(), signature.getProvider()),
+                    _ -> true);
+        }
+
+        /**
+         * @return a pool of Mac instances like the specified one; the released MACs are reset and
+         *         reused, and every user initializes the acquired MAC with its own key
+         */
+        public static EnginePool<Mac> forMac(Mac mac) {
+            return new EnginePool<>(mac,
+                    () -> Mac.getInstance(mac.getAlgorithm(), mac.getProvider()),
+                    engine -> {
+                        engine.reset();
+                        return true;
+                    });
+        }
+
+        /**
+         * @return an idle engine or a new one
+         */
+        public E acquire()
+                throws GeneralSecurityException {
+            E engine = f_queueIdle.poll();
+            if (engine == null) {
+                return f_factory.create();
+            }
+            f_cIdle.decrementAndGet();
+            return engine;
+        }
+
+        /**
+         * Return an engine obtained via {@link #acquire} to the pool, unless it cannot be reset.
+         */
+        public void release(E engine) {
+            if (f_reset.reset(engine)) {
+                addIdle(engine);
+            }
+        }
+
+        /**
+         * @return the number of idle engines
+         */
+        public int getIdleCount() {
+            return f_cIdle.get();
+        }
+
+        private void addIdle(E engine) {
+            if (f_cIdle.incrementAndGet() <= MAX_IDLE_ENGINES) {
+                f_queueIdle.add(engine);
+            } else {
+                f_cIdle.decrementAndGet();
+            }
+        }
+
+        private final EngineFactory<E> f_factory;
+        private final EngineReset<E>   f_reset;
+        private final Queue<E>         f_queueIdle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger    f_cIdle     = new AtomicInteger();
+    }
+
+    /**
+     * A factory of JCA engines.
+     */
+    @FunctionalInterface
+    public interface EngineFactory<E> {
+        E create() throws GeneralSecurityException;
+    }
+
+    /**
+     * The action that resets a released JCA engine.
+     */
+    @FunctionalInterface
+    public interface EngineReset<E> {
+        /**
+         * Reset the engine.
+         *
+         * @return true iff the engine can be reused; a keyed engine may still hold the key of its
+         *         previous user, which the next user replaces by initializing it with its own key
+         */
+        boolean reset(E engine);
+    }
+
+
+    // ----- bulk operations -----------------------------------------------------------------------
+
+    /**
+     * A part of a bulk operation that processes a contiguous range of items.
+     */
+    @FunctionalInterface
+    public interface RangeOperation {
+        /**
+         * Process the items in the specified range, storing the results into the array.
+         */
+        void apply(int iFrom, int iTo, Object[] aoResult) throws GeneralSecurityException;
+    }
+
+    /**
+     * Perform a bulk operation over the specified number of items. The items are split into
+     * contiguous ranges, at most one per available processor, and the ranges are processed in
+     * parallel on the IO executor, so the calling service is not blocked.
+     *
+     * @param container  the container to schedule the work for
+     * @param cItems     the number of items
+     * @param op         the operation
+     *
+     * @return the future for the results array
+     */
+    public static CompletableFuture<Object[]> applyAll(Container container, int cItems,
+                                                       RangeOperation op) {
+        return applyAll(task -> container.scheduleIO(Executors.callable(task)), cItems, op);
+    }
+
+    /**
+     * Perform a bulk operation over the specified number of items, processing the ranges of items
+     * in parallel on the specified executor.
+     *
+     * @param executor  the executor to run the ranges on
+     * @param cItems    the number of items
+     * @param op        the operation
+     *
+     * @return the future for the results array; it fails if any of the ranges fails
+     */
+    static CompletableFuture<Object[]> applyAll(Executor executor, int cItems, RangeOperation op) {
+        Object[]               aoResult = new Object[cItems];
+        int                    cRanges  = Math.min(cItems, PARALLELISM);
+        CompletableFuture<?>[] acf      = new CompletableFuture[cRanges];
+        for (int iRange = 0; iRange < cRanges; iRange++) {
+            int iFrom = (int) ((long) cItems * iRange / cRanges);
+            int iTo   = (int) ((long) cItems * (iRange + 1) / cRanges);
+
+            acf[iRange] = CompletableFuture.runAsync(() -> {
+                try {
+                    op.apply(iFrom, iTo, aoResult);
+                } catch (GeneralSecurityException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(acf).thenApply(_void -> aoResult);
+    }
+
+    /**
+     * Extract the bytes from a {@code Byte[][]} handle.
+     */
+    public static byte[][] extractByteArrays(Frame frame, ArrayHandle hArray)
+            throws ExceptionHandle.WrapperException {
+        ObjectHandle[] ah  = hArray.getTemplate().toArray(frame, hArray);
+        int            c   = ah.length;
+        byte[][]       aab = new byte[c][];
+        for (int i = 0; i < c; i++) {
+            aab[i] = xByteArray.getBytes((ArrayHandle) ah[i]);
+        }
+        return aab;
+    }
+
+    /**
+     * Create a {@code Byte[][]} handle.
+     */
+    public static ArrayHandle makeByteArraysHandle(Frame frame, Object[] aoBytes) {
+        int            c  = aoBytes.length;
+        ObjectHandle[] ah = new ObjectHandle[c];
+        for (int i = 0; i < c; i++) {
+            ah[i] = xArray.makeByteArrayHandle((byte[]) aoBytes[i], Mutability.Constant);
+        }
+
+        TypeComposition clz = frame.f_context.f_container.
+                ensureClassComposition(BYTE_ARRAY_ARRAY_TYPE, xArray.INSTANCE);
+        return xArray.createImmutableArray(clz, ah);
+    }
+
+    /**
+     * Create a {@code Boolean[]} handle.
+     */
+    public static ArrayHandle makeBooleansHandle(Object[] aoBoolean) {
+        int    c      = aoBoolean.length;
+        byte[] abBits = new byte[BitBasedDelegate.storage(c)];
+        for (int i = 0; i < c; i++) {
+            BitBasedDelegate.setBit(abBits, i, (Boolean) aoBoolean[i]);
+        }
+        return xArray.makeBooleanArrayHandle(abBits, c, Mutability.Constant);
+    }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The max number of idle engines kept in a pool.
+     */
+    static final int MAX_IDLE_ENGINES = Integer.getInteger("xvm.crypto.pooledEngines", 64);
+
+    /**
+     * The max number of ranges a bulk operation is split into.
+     */
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static TypeConstant BYTE_ARRAY_ARRAY_TYPE;
+
     /**
      * Cached Algorithms handle.
      */
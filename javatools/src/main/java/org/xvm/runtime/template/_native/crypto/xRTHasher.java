@@ -1,25 +1,30 @@
 package org.xvm.runtime.template._native.crypto;
 
 
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.MethodStructure;
 
 import org.xvm.runtime.Container;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ExceptionHandle;
 
+import org.xvm.runtime.template.xException;
 import org.xvm.runtime.template.xService;
 
 import org.xvm.runtime.template.collections.xArray;
 import org.xvm.runtime.template.collections.xArray.ArrayHandle;
 import org.xvm.runtime.template.collections.xArray.Mutability;
-
-import org.xvm.runtime.template._native.collections.arrays.ByteBasedDelegate.ByteArrayHandle;
-import org.xvm.runtime.template._native.collections.arrays.xRTUInt8Delegate;
+import org.xvm.runtime.template.collections.xByteArray;
 
 import org.xvm.runtime.template._native.crypto.xRTAlgorithms.DigestHandle;
+import org.xvm.runtime.template._native.crypto.xRTAlgorithms.EnginePool;
+import org.xvm.runtime.template._native.crypto.xRTAlgorithms.StreamHandle;
 
 
 /**
@@ -40,17 +45,41 @@ public class xRTHasher
     @Override
     public void initNative() {
         markNativeMethod("digest", null, BYTES);
+        markNativeMethod("digestAll", null, null);
+        markNativeMethod("startDigest", OBJECT, OBJECT);
+        markNativeMethod("updateStream", null, VOID);
+        markNativeMethod("finishStream", OBJECT, BYTES);
 
         invalidateTypeInfo();
     }
 
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn) {
+        switch (method.getName()) {
+        case "startDigest":
+            return invokeStartDigest(frame, (DigestHandle) hArg, iReturn);
+
+        case "finishStream":
+            return xRTAlgorithms.invokeFinishStream(frame, (StreamHandle) hArg, iReturn);
+        }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+    }
+
     @Override
     public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
                              ObjectHandle[] ahArg, int iReturn) {
         switch (method.getName()) {
         case "digest":
-            return invokeDigest(frame, (DigestHandle) ahArg[0],
-                (ByteArrayHandle) ((ArrayHandle) ahArg[1]).m_hDelegate, iReturn);
+            return invokeDigest(frame, (DigestHandle) ahArg[0], (ArrayHandle) ahArg[1], iReturn);
+
+        case "digestAll":
+            return invokeDigestAll(frame, (DigestHandle) ahArg[0], (ArrayHandle) ahArg[1], iReturn);
+
+        case "updateStream":
+            return xRTAlgorithms.invokeUpdateStream(frame, (StreamHandle) ahArg[0],
+                    (ArrayHandle) ahArg[1]);
         }
 
         return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
@@ -59,13 +88,65 @@ public class xRTHasher
     /**
      * Native implementation of "Byte[] digest(Object digest, Byte[] data)".
      */
-    private int invokeDigest(Frame frame, DigestHandle hDigest, ByteArrayHandle haData, int iReturn) {
-        MessageDigest digest = hDigest.f_digest;
-
-        byte[] abData = xRTUInt8Delegate.getBytes(haData);
-        byte[] abSig = digest.digest(abData);
+    private int invokeDigest(Frame frame, DigestHandle hDigest, ArrayHandle haData, int iReturn) {
+        EnginePool<MessageDigest> pool = hDigest.f_pool;
+
+        byte[] abData = xByteArray.getBytes(haData);
+        byte[] abSig;
+        try {
+            MessageDigest digest = pool.acquire();
+            abSig = digest.digest(abData);
+            pool.release(digest);
+        } catch (GeneralSecurityException e) {
+            return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+        }
 
         return frame.assignValue(iReturn,
                 xArray.makeByteArrayHandle(abSig, Mutability.Constant));
     }
+
+    /**
+     * Native implementation of "Byte[][] digestAll(Object digest, Byte[][] data)".
+     */
+    private int invokeDigestAll(Frame frame, DigestHandle hDigest, ArrayHandle haData, int iReturn) {
+        EnginePool<MessageDigest> pool = hDigest.f_pool;
+
+        byte[][] aabData;
+        try {
+            aabData = xRTAlgorithms.extractByteArrays(frame, haData);
+        } catch (ExceptionHandle.WrapperException e) {
+            return frame.raiseException(e);
+        }
+
+        CompletableFuture<Object[]> cf = xRTAlgorithms.applyAll(frame.f_context.f_container,
+                aabData.length, (iFrom, iTo, aoResult) -> {
+            MessageDigest digest = pool.acquire();
+            for (int i = iFrom; i < iTo; i++) {
+                aoResult[i] = digest.digest(aabData[i]);
+            }
+            pool.release(digest);
+        });
+
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                return frameCaller.assignValue(iReturn,
+                        xRTAlgorithms.makeByteArraysHandle(frameCaller, cf.get()));
+            } catch (Throwable e) {
+                return xRTAlgorithms.raiseBulkException(frameCaller, e);
+            }
+        };
+        return frame.waitForIO(cf, continuation);
+    }
+
+    /**
+     * Native implementation of "Object startDigest(Object digest)".
+     */
+    private int invokeStartDigest(Frame frame, DigestHandle hDigest, int iReturn) {
+        EnginePool<MessageDigest> pool = hDigest.f_pool;
+        try {
+            return frame.assignValue(iReturn, new StreamHandle(pool, pool.acquire()));
+        } catch (GeneralSecurityException e) {
+            return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+        }
+    }
 }
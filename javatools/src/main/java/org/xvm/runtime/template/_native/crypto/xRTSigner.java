@@ -3,10 +3,12 @@ package org.xvm.runtime.template._native.crypto;
 
 import java.security.GeneralSecurityException;
 import java.security.Key;
-import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.Signature;
+import java.security.SignatureException;
+
+import java.util.concurrent.CompletableFuture;
 
 import javax.crypto.Mac;
 
@@ -16,6 +18,7 @@ import org.xvm.asm.MethodStructure;
 import org.xvm.runtime.Container;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ExceptionHandle;
 
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xException;
@@ -24,13 +27,13 @@ import org.xvm.runtime.template.xService;
 import org.xvm.runtime.template.collections.xArray;
 import org.xvm.runtime.template.collections.xArray.ArrayHandle;
 import org.xvm.runtime.template.collections.xArray.Mutability;
+import org.xvm.runtime.template.collections.xByteArray;
 
-import org.xvm.runtime.template._native.collections.arrays.ByteBasedDelegate.ByteArrayHandle;
-import org.xvm.runtime.template._native.collections.arrays.xRTUInt8Delegate;
-
+import org.xvm.runtime.template._native.crypto.xRTAlgorithms.EnginePool;
 import org.xvm.runtime.template._native.crypto.xRTAlgorithms.KeyForm;
 import org.xvm.runtime.template._native.crypto.xRTAlgorithms.MacHandle;
 import org.xvm.runtime.template._native.crypto.xRTAlgorithms.SignatureHandle;
+import org.xvm.runtime.template._native.crypto.xRTAlgorithms.StreamHandle;
 
 
 /**
@@ -53,21 +56,60 @@ public class xRTSigner
         markNativeMethod("sign"  , new String[] {OBJECT[0], OBJECT[0], BYTES[0]}, BYTES);
         markNativeMethod("verify", new String[] {OBJECT[0], OBJECT[0], BYTES[0], BYTES[0]}, BOOLEAN);
 
+        markNativeMethod("signAllImpl"  , null, null);
+        markNativeMethod("verifyAllImpl", null, null);
+
+        markNativeMethod("startSign"   , null, OBJECT);
+        markNativeMethod("startVerify" , null, OBJECT);
+        markNativeMethod("updateStream", null, VOID);
+        markNativeMethod("finishStream", OBJECT, BYTES);
+        markNativeMethod("verifyStream", null, BOOLEAN);
+
         invalidateTypeInfo();
     }
 
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn) {
+        switch (method.getName()) {
+        case "finishStream":
+            return xRTAlgorithms.invokeFinishStream(frame, (StreamHandle) hArg, iReturn);
+        }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+    }
+
     @Override
     public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
                              ObjectHandle[] ahArg, int iReturn) {
         switch (method.getName()) {
         case "sign":
-            return invokeSign(frame, ahArg[0], ahArg[1],
-                (ByteArrayHandle) ((ArrayHandle) ahArg[2]).m_hDelegate, iReturn);
+            return invokeSign(frame, ahArg[0], ahArg[1], (ArrayHandle) ahArg[2], iReturn);
 
         case "verify":
             return invokeVerify(frame, ahArg[0], ahArg[1],
-                (ByteArrayHandle) ((ArrayHandle) ahArg[2]).m_hDelegate,
-                (ByteArrayHandle) ((ArrayHandle) ahArg[3]).m_hDelegate, iReturn);
+                (ArrayHandle) ahArg[2], (ArrayHandle) ahArg[3], iReturn);
+
+        case "signAllImpl":
+            return invokeSignAll(frame, ahArg[0], ahArg[1], (ArrayHandle) ahArg[2], iReturn);
+
+        case "verifyAllImpl":
+            return invokeVerifyAll(frame, ahArg[0], ahArg[1],
+                (ArrayHandle) ahArg[2], (ArrayHandle) ahArg[3], iReturn);
+
+        case "startSign":
+            return invokeStart(frame, ahArg[0], ahArg[1], true, iReturn);
+
+        case "startVerify":
+            return invokeStart(frame, ahArg[0], ahArg[1], false, iReturn);
+
+        case "updateStream":
+            return xRTAlgorithms.invokeUpdateStream(frame, (StreamHandle) ahArg[0],
+                    (ArrayHandle) ahArg[1]);
+
+        case "verifyStream":
+            return invokeVerifyStream(frame, (StreamHandle) ahArg[0], (ArrayHandle) ahArg[1],
+                    iReturn);
         }
 
         return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
@@ -78,29 +120,17 @@ public class xRTSigner
      *     "Byte[] sign(Object cipher, Object secret, Byte[] data)".
      */
     private int invokeSign(Frame frame, ObjectHandle hCipher, ObjectHandle hKey,
-                           ByteArrayHandle haData, int iReturn) {
+                           ArrayHandle haData, int iReturn) {
         byte[] abSig;
         try {
-            if (hCipher instanceof SignatureHandle hSignature) {
-                Signature signature = hSignature.f_signature;
-                byte[]    abData    = xRTUInt8Delegate.getBytes(haData);
-
-                PrivateKey privateKey = (PrivateKey) xRTAlgorithms.extractKey(frame, hKey,
-                                        signature.getAlgorithm(), KeyForm.Private);
-                signature.initSign(privateKey);
-                signature.update(abData);
-                abSig = signature.sign();
-            } else if (hCipher instanceof MacHandle hMac) {
-                Mac     mac    = hMac.f_mac;
-                byte[]  abData = xRTUInt8Delegate.getBytes(haData);
-
-                Key privateKey = xRTAlgorithms.extractKey(frame, hKey,
-                                        mac.getAlgorithm(), KeyForm.PrivateOrSecret);
-                mac.init(privateKey);
-                abSig = mac.doFinal(abData);
-            } else {
+            Key key = extractKey(frame, hCipher, hKey, true);
+            if (key == null) {
                 return frame.raiseException(xException.makeObscure(frame, "Invalid cipher"));
             }
+
+            StreamHandle hStream = start(hCipher, key, true);
+            hStream.update(xByteArray.getBytes(haData));
+            abSig = hStream.finish();
         } catch (GeneralSecurityException e) {
             return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
         }
@@ -114,35 +144,189 @@ public class xRTSigner
      *     "Boolean verify(Object signer, Object secret, Byte[] signature, Byte[] data)".
      */
     private int invokeVerify(Frame frame, ObjectHandle hCipher, ObjectHandle hKey,
-                           ByteArrayHandle haSignature, ByteArrayHandle haData, int iReturn) {
-        byte[] abData = xRTUInt8Delegate.getBytes(haData);
-        byte[] abSig  = xRTUInt8Delegate.getBytes(haSignature);
+                             ArrayHandle haSignature, ArrayHandle haData, int iReturn) {
+        try {
+            Key key = extractKey(frame, hCipher, hKey, false);
+            if (key == null) {
+                return frame.raiseException(xException.makeObscure(frame, "Invalid cipher"));
+            }
+
+            StreamHandle hStream = start(hCipher, key, false);
+            hStream.update(xByteArray.getBytes(haData));
 
+            return frame.assignValue(iReturn,
+                    xBoolean.makeHandle(hStream.verify(xByteArray.getBytes(haSignature))));
+        } catch (GeneralSecurityException e) {
+            return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+        }
+    }
+
+    /**
+     * Native implementation of
+     *     "Byte[][] signAllImpl(Object signer, Object secret, Byte[][] data)".
+     */
+    private int invokeSignAll(Frame frame, ObjectHandle hCipher, ObjectHandle hKey,
+                              ArrayHandle haData, int iReturn) {
+        Key      key;
+        byte[][] aabData;
         try {
-            if (hCipher instanceof SignatureHandle hSignature) {
-                Signature signature = hSignature.f_signature;
-
-                PublicKey publicKey = (PublicKey) xRTAlgorithms.extractKey(frame, hKey,
-                                        signature.getAlgorithm(), KeyForm.Public);
-                signature.initVerify(publicKey);
-                signature.update(abData);
-
-                return frame.assignValue(iReturn,
-                        xBoolean.makeHandle(signature.verify(abSig)));
-            } else if (hCipher instanceof MacHandle hMac) {
-                Mac mac        = hMac.f_mac;
-                Key privateKey = xRTAlgorithms.extractKey(frame, hKey,
-                                        mac.getAlgorithm(), KeyForm.Private);
-                mac.init(privateKey);
-                byte[] abSigActual = mac.doFinal(abData);
-
-                return frame.assignValue(iReturn,
-                        xBoolean.makeHandle(MessageDigest.isEqual(abSig, abSigActual)));
-            } else {
+            key = extractKey(frame, hCipher, hKey, true);
+            if (key == null) {
+                return frame.raiseException(xException.makeObscure(frame, "Invalid cipher"));
+            }
+            aabData = xRTAlgorithms.extractByteArrays(frame, haData);
+        } catch (GeneralSecurityException e) {
+            return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+        } catch (ExceptionHandle.WrapperException e) {
+            return frame.raiseException(e);
+        }
+
+        CompletableFuture<Object[]> cf = xRTAlgorithms.applyAll(frame.f_context.f_container,
+                aabData.length, (iFrom, iTo, aoResult) -> {
+            for (int i = iFrom; i < iTo; i++) {
+                StreamHandle hStream = start(hCipher, key, true);
+                hStream.update(aabData[i]);
+                aoResult[i] = hStream.finish();
+            }
+        });
+
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                return frameCaller.assignValue(iReturn,
+                        xRTAlgorithms.makeByteArraysHandle(frameCaller, cf.get()));
+            } catch (Throwable e) {
+                return xRTAlgorithms.raiseBulkException(frameCaller, e);
+            }
+        };
+        return frame.waitForIO(cf, continuation);
+    }
+
+    /**
+     * Native implementation of
+     *     "Boolean[] verifyAllImpl(Object signer, Object secret, Byte[][] signatures, Byte[][] data)".
+     */
+    private int invokeVerifyAll(Frame frame, ObjectHandle hCipher, ObjectHandle hKey,
+                                ArrayHandle haSignatures, ArrayHandle haData, int iReturn) {
+        Key      key;
+        byte[][] aabSig;
+        byte[][] aabData;
+        try {
+            key = extractKey(frame, hCipher, hKey, false);
+            if (key == null) {
+                return frame.raiseException(xException.makeObscure(frame, "Invalid cipher"));
+            }
+            aabSig  = xRTAlgorithms.extractByteArrays(frame, haSignatures);
+            aabData = xRTAlgorithms.extractByteArrays(frame, haData);
+        } catch (GeneralSecurityException e) {
+            return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+        } catch (ExceptionHandle.WrapperException e) {
+            return frame.raiseException(e);
+        }
+
+        if (aabSig.length != aabData.length) {
+            return frame.raiseException(xException.illegalArgument(frame,
+                    "The number of signatures does not match the number of data arrays"));
+        }
+
+        CompletableFuture<Object[]> cf = xRTAlgorithms.applyAll(frame.f_context.f_container,
+                aabData.length, (iFrom, iTo, aoResult) -> {
+            for (int i = iFrom; i < iTo; i++) {
+                StreamHandle hStream = start(hCipher, key, false);
+                hStream.update(aabData[i]);
+                try {
+                    aoResult[i] = hStream.verify(aabSig[i]);
+                } catch (SignatureException e) {
+                    // a malformed signature simply doesn't verify
+                    aoResult[i] = false;
+                }
+            }
+        });
+
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                return frameCaller.assignValue(iReturn, xRTAlgorithms.makeBooleansHandle(cf.get()));
+            } catch (Throwable e) {
+                return xRTAlgorithms.raiseBulkException(frameCaller, e);
+            }
+        };
+        return frame.waitForIO(cf, continuation);
+    }
+
+    /**
+     * Native implementation of
+     *     "Object startSign(Object signer, Object secret)" and
+     *     "Object startVerify(Object signer, Object secret)".
+     */
+    private int invokeStart(Frame frame, ObjectHandle hCipher, ObjectHandle hKey, boolean fSign,
+                            int iReturn) {
+        try {
+            Key key = extractKey(frame, hCipher, hKey, fSign);
+            if (key == null) {
                 return frame.raiseException(xException.makeObscure(frame, "Invalid cipher"));
             }
+            return frame.assignValue(iReturn, start(hCipher, key, fSign));
+        } catch (GeneralSecurityException e) {
+            return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
+        }
+    }
+
+    /**
+     * Native implementation of
+     *     "Boolean verifyStream(Object stream, Byte[] signature)".
+     */
+    private int invokeVerifyStream(Frame frame, StreamHandle hStream, ArrayHandle haSignature,
+                                   int iReturn) {
+        try {
+            return frame.assignValue(iReturn,
+                    xBoolean.makeHandle(hStream.verify(xByteArray.getBytes(haSignature))));
+        } catch (IllegalStateException e) {
+            return frame.raiseException(xException.illegalState(frame, e.getMessage()));
         } catch (GeneralSecurityException e) {
             return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
         }
     }
+
+
+    // ----- helper methods ------------------------------------------------------------------------
+
+    /**
+     * Extract the key for signing or verification.
+     *
+     * @return the key or null if the cipher is not a signature or MAC handle
+     */
+    private static Key extractKey(Frame frame, ObjectHandle hCipher, ObjectHandle hKey, boolean fSign)
+            throws GeneralSecurityException {
+        if (hCipher instanceof SignatureHandle hSignature) {
+            return xRTAlgorithms.extractKey(frame, hKey, hSignature.f_sAlgorithm,
+                    fSign ? KeyForm.Private : KeyForm.Public);
+        }
+        if (hCipher instanceof MacHandle hMac) {
+            return xRTAlgorithms.extractKey(frame, hKey, hMac.f_sAlgorithm,
+                    fSign ? KeyForm.PrivateOrSecret : KeyForm.Private);
+        }
+        return null;
+    }
+
+    /**
+     * Acquire an engine for the specified cipher and initialize it for signing or verification.
+     * This method doesn't use the frame, so it can be called on any thread.
+     */
+    private static StreamHandle start(ObjectHandle hCipher, Key key, boolean fSign)
+            throws GeneralSecurityException {
+        if (hCipher instanceof SignatureHandle hSignature) {
+            EnginePool<Signature> pool      = hSignature.f_pool;
+            Signature             signature = pool.acquire();
+            if (fSign) {
+                signature.initSign((PrivateKey) key);
+            } else {
+                signature.initVerify((PublicKey) key);
+            }
+            return new StreamHandle(pool, signature);
+        }
+
+        EnginePool<Mac> pool = ((MacHandle) hCipher).f_pool;
+        Mac             mac  = pool.acquire();
+        mac.init(key);
+        return new StreamHandle(pool, mac);
+    }
 }
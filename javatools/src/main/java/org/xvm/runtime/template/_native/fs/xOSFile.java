@@ -8,8 +8,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-import java.nio.ByteBuffer;
-
 import java.nio.channels.FileChannel;
 
 import java.nio.file.OpenOption;
@@ -45,8 +43,6 @@ import org.xvm.runtime.template.collections.xArray.ArrayHandle;
 import org.xvm.runtime.template.collections.xArray.Mutability;
 import org.xvm.runtime.template.collections.xByteArray;
 
-import org.xvm.util.Handy;
-
 
 /**
  * Native OSFile implementation.
@@ -190,7 +186,17 @@ public class xOSFile
     private int getPropertyContents(Frame frame, NodeHandle hFile, int iReturn) {
         Path path = hFile.f_path;
 
-        Callable<byte[]> task = () -> Handy.readFileBytes(path.toFile());
+        Callable<byte[]> task = () -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long cbFile = channel.size();
+                if (cbFile > Integer.MAX_VALUE - 1024) {
+                    // assume a maximum byte array size just under 2GB
+                    throw new IOException("file exceeds max supported length (2GB): "
+                                          + path + "=" + cbFile + " bytes");
+                }
+                return xRawOSFileChannel.readAt(channel, 0, (int) cbFile);
+            }
+        };
 
         CompletableFuture<byte[]> cfRead = frame.f_context.f_container.scheduleIO(task);
         Frame.Continuation continuation = frameCaller -> {
@@ -243,23 +249,22 @@ public class xOSFile
             return frame.raiseException(xException.outOfBounds(frame, ixTo, cSize));
         }
 
-        // we use the HeapByteBuffer as a thin wrapper around the underlying byte array
-        int        cbCapacity = (int) (ixTo - ixFrom + 1);
-        ByteBuffer buffer     = ByteBuffer.allocate(cbCapacity);
+        int cbRead = (int) (ixTo - ixFrom + 1);
 
-        Callable<Integer> task = () -> {
+        Callable<byte[]> task = () -> {
             try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
-                return channel.read(buffer, ixFrom);
+                return xRawOSFileChannel.readAt(channel, ixFrom, cbRead);
             }
         };
 
-        CompletableFuture<Integer> cfRead = frame.f_context.f_container.scheduleIO(task);
+        CompletableFuture<byte[]> cfRead = frame.f_context.f_container.scheduleIO(task);
 
         Frame.Continuation continuation = frameCaller -> {
             try {
-                if (cfRead.get() == cbCapacity) {
+                byte[] ab = cfRead.get();
+                if (ab.length == cbRead) {
                     return frameCaller.assignValue(iReturn,
-                        xArray.makeByteArrayHandle(buffer.array(), Mutability.Constant));
+                        xArray.makeByteArrayHandle(ab, Mutability.Constant));
                 } else {
                     return frameCaller.raiseException(
                             xException.ioException(frameCaller, "Read failed"));
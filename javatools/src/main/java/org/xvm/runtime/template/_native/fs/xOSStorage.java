@@ -3,18 +3,32 @@ package org.xvm.runtime.template._native.fs;
 
 import java.io.IOException;
 
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+
+import java.util.concurrent.TimeUnit;
 
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.ConstantPool;
@@ -30,10 +44,12 @@ import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.Utils;
 
 import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xBoolean.BooleanHandle;
 import org.xvm.runtime.template.xException;
 import org.xvm.runtime.template.xService;
 
-import org.xvm.runtime.template.numbers.xInt64;
+import org.xvm.runtime.template.collections.xArray;
+import org.xvm.runtime.template.collections.xArray.Mutability;
 
 import org.xvm.runtime.template.text.xString;
 import org.xvm.runtime.template.text.xString.StringHandle;
@@ -52,7 +68,7 @@ public class xOSStorage
 
     @Override
     public void initNative() {
-        s_methodOnEvent = getStructure().findMethodDeep("onEvent", Utils.ANY);
+        s_methodOnEvents = getStructure().findMethodDeep("onEvents", Utils.ANY);
 
         markNativeProperty("homeDir");
         markNativeProperty("curDir");
@@ -63,8 +79,8 @@ public class xOSStorage
         markNativeMethod("createDir", STRING, BOOLEAN);
         markNativeMethod("createFile", STRING, BOOLEAN);
         markNativeMethod("delete", STRING, BOOLEAN);
-        markNativeMethod("watch", STRING, VOID);
-        markNativeMethod("unwatch", STRING, VOID);
+        markNativeMethod("watch", null, VOID);
+        markNativeMethod("unwatch", null, VOID);
         markNativeMethod("instance", VOID, THIS);
 
         invalidateTypeInfo();
@@ -182,18 +198,6 @@ public class xOSStorage
             return frame.assignValue(iReturn,
                 xBoolean.makeHandle(path.toFile().delete()));
         }
-
-        case "watch": { // (pathStringDir)
-            StringHandle hPathStringDir = (StringHandle) hArg;
-
-            try {
-                Path pathDir = Paths.get(hPathStringDir.getStringValue());
-                ensureWatchDaemon(pool()).register(pathDir, hStorage);
-                return Op.R_NEXT;
-            } catch (IOException|InvalidPathException e) {
-                return frame.raiseException(xException.ioException(frame, e.getMessage()));
-            }
-        }
         }
         return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
     }
@@ -212,6 +216,34 @@ public class xOSStorage
         case "instance":
             return frame.assignValue(iReturn,
                     ((NativeContainer) f_container).ensureOSStorage(frame, null));
+
+        case "watch": { // (pathStringDir, recursive)
+            StringHandle hPathStringDir = (StringHandle) ahArg[0];
+            boolean      fRecursive     = ((BooleanHandle) ahArg[1]).get();
+
+            WatchServiceDaemon daemonWatch = ensureWatchDaemon(pool());
+            if (daemonWatch == null) {
+                return frame.raiseException(xException.ioException(frame, "Watch service is not available"));
+            }
+
+            try {
+                daemonWatch.register(hPathStringDir.getStringValue(), fRecursive, hStorage);
+                return Op.R_NEXT;
+            } catch (IOException|InvalidPathException e) {
+                return frame.raiseException(xException.ioException(frame, e.getMessage()));
+            }
+        }
+
+        case "unwatch": { // (pathStringDir, recursive)
+            StringHandle hPathStringDir = (StringHandle) ahArg[0];
+            boolean      fRecursive     = ((BooleanHandle) ahArg[1]).get();
+
+            WatchServiceDaemon daemonWatch = s_daemonWatch;
+            if (daemonWatch != null) {
+                daemonWatch.unregister(hPathStringDir.getStringValue(), fRecursive, hStorage);
+            }
+            return Op.R_NEXT;
+        }
         }
         return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
     }
@@ -263,6 +295,16 @@ public class xOSStorage
         return daemonWatch;
     }
 
+    /**
+     * The daemon that processes the file system events for all the watched directories.
+     * <p>
+     * There is a single daemon thread and a single {@link WatchService} no matter how many
+     * directories are watched. The events are not reported as they arrive; the events for the same
+     * path are coalesced during the {@link #WATCH_WINDOW window} that starts with the first event
+     * for a watch, and then reported to the OSStorage service with a single call per watch. That
+     * way a burst of writes into a directory turns into a handful of events rather than a flood of
+     * redundant ones.
+     */
     protected static class WatchServiceDaemon
             extends Thread {
         public WatchServiceDaemon(ConstantPool pool)
@@ -271,80 +313,339 @@ public class xOSStorage
 
             setDaemon(true);
 
-            f_pool       = pool;
-            f_service    = FileSystems.getDefault().newWatchService();
-            f_mapWatches = new ConcurrentHashMap<>();
+            f_pool    = pool;
+            f_service = FileSystems.getDefault().newWatchService();
         }
 
-        public void register(Path pathDir, ServiceHandle hStorage)
+        /**
+         * Start watching the specified directory; a repeated registration by the same OSStorage
+         * service is ignored.
+         *
+         * @param sPathDir    the directory path string, as known to the OSStorage service
+         * @param fRecursive  if true, watch all the directories under the specified one as well
+         * @param hStorage    the OSStorage service to report the events to
+         */
+        public synchronized void register(String sPathDir, boolean fRecursive, ServiceHandle hStorage)
                 throws IOException {
-            // on macOS the WatchService implementation simply polls every 10 seconds;
-            // for Java 9 and above there is no way to configure that
-            WatchKey key = pathDir.register(
-                f_service,
-                StandardWatchEventKinds.ENTRY_CREATE,
-                StandardWatchEventKinds.ENTRY_DELETE,
-                StandardWatchEventKinds.ENTRY_MODIFY
-                );
+            WatchId id = new WatchId(sPathDir, fRecursive, hStorage);
+            if (f_mapWatches.containsKey(id)) {
+                return;
+            }
 
-            f_mapWatches.put(key, new WatchContext(pathDir, hStorage));
+            Watch watch = new Watch(sPathDir, fRecursive, hStorage);
+            Path  path  = Paths.get(sPathDir);
+            try {
+                if (fRecursive) {
+                    registerTree(path, watch, false);
+                } else {
+                    registerDir(path, watch);
+                }
+            } catch (IOException e) {
+                release(watch);
+                throw e;
+            }
+            f_mapWatches.put(id, watch);
+        }
+
+        /**
+         * Stop watching the specified directory on behalf of the specified OSStorage service; the
+         * watches of other services for the same directory are not affected.
+         *
+         * @param sPathDir    the directory path string, as passed to {@link #register}
+         * @param fRecursive  the recursive flag, as passed to {@link #register}
+         * @param hStorage    the OSStorage service, as passed to {@link #register}
+         */
+        public synchronized void unregister(String sPathDir, boolean fRecursive,
+                                            ServiceHandle hStorage) {
+            Watch watch = f_mapWatches.remove(new WatchId(sPathDir, fRecursive, hStorage));
+            if (watch != null) {
+                f_setPending.remove(watch);
+                release(watch);
+            }
         }
 
         @Override
         public void run() {
             try (var ignore = ConstantPool.withPool(f_pool)) {
                 while (true) {
-                    processKey(f_service.take());
+                    long     cWait = flush();
+                    WatchKey key   = cWait < 0
+                            ? f_service.take()
+                            : f_service.poll(cWait, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        processKey(key);
+                    }
                 }
-            } catch (InterruptedException e) {
-                // TODO ?
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // the daemon is done
             }
         }
 
-        protected void processKey(WatchKey key) {
-            if (key == null) {
+        /**
+         * Collect the events signalled for the specified key.
+         */
+        protected synchronized void processKey(WatchKey key) {
+            WatchedDir dir = f_mapDirs.get(key);
+            if (dir == null) {
+                // the watch has been cancelled
                 return;
             }
 
-            for (WatchEvent event : key.pollEvents()) {
+            List<Watch> listWatches = new ArrayList<>(dir.listWatches);
+            for (WatchEvent<?> event : key.pollEvents()) {
                 int iKind = getKindId(event.kind());
+                if (iKind == -1) {
+                    for (Watch watch : listWatches) {
+                        watch.fOverflow = true;
+                        schedule(watch);
+                    }
+                    continue;
+                }
                 if (iKind < 0) {
                     continue;
                 }
 
-                WatchContext context = f_mapWatches.get(key);
+                Path    pathNode = dir.path.resolve((Path) event.context());
+                boolean fDir     = iKind == DELETED
+                        ? isWatchedDir(listWatches, pathNode)
+                        : Files.isDirectory(pathNode, LinkOption.NOFOLLOW_LINKS);
+
+                for (Watch watch : listWatches) {
+                    addEvent(watch, pathNode, iKind, fDir);
+
+                    if (fDir && iKind == CREATED && watch.fRecursive) {
+                        try {
+                            registerTree(pathNode, watch, true);
+                        } catch (IOException ignore) {
+                            // the directory is already gone
+                        }
+                    }
+                }
+            }
 
-                Path pathDir      = context.pathDir;
-                Path pathRelative = (Path) event.context();
-                Path pathAbsolute = pathDir.resolve(pathRelative);
+            if (!key.reset()) {
+                // the directory is no longer accessible
+                f_mapDirs.remove(key);
+                for (Watch watch : dir.listWatches) {
+                    watch.mapDirs.remove(dir.path);
+                }
+            }
+        }
 
-                FunctionHandle hfnOnEvent =
-                        xRTFunction.makeInternalHandle(null, s_methodOnEvent).bindTarget(null, context.hStorage);
+        /**
+         * Report the events for all the watches whose coalescing window has expired.
+         *
+         * @return the number of milliseconds until the next window expires, or -1 if there are no
+         *         pending events
+         */
+        protected synchronized long flush() {
+            long ldtNow = System.currentTimeMillis();
+            for (Iterator<Watch> iter = f_setPending.iterator(); iter.hasNext(); ) {
+                Watch watch = iter.next();
+                long  cLeft = watch.ldtDue - ldtNow;
+                if (cLeft > 0) {
+                    // the watches are ordered by their due time
+                    return cLeft;
+                }
+                iter.remove();
+                report(watch);
+            }
+            return -1;
+        }
 
-                StringHandle hPathDir  = xString.makeHandle(pathDir.toString());
-                StringHandle hPathNode = xString.makeHandle(pathAbsolute.toString());
+        /**
+         * Register the specified directory with the watch service.
+         */
+        private void registerDir(Path pathDir, Watch watch)
+                throws IOException {
+            // on macOS the WatchService implementation simply polls every 10 seconds;
+            // for Java 9 and above there is no way to configure that
+            WatchKey key = pathDir.register(
+                f_service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+                );
+
+            WatchedDir dir = f_mapDirs.computeIfAbsent(key, k -> new WatchedDir(pathDir, k));
+            if (!dir.listWatches.contains(watch)) {
+                dir.listWatches.add(watch);
+                watch.mapDirs.put(pathDir, dir);
+            }
+        }
+
+        /**
+         * Register the specified directory and all the directories under it for a recursive watch.
+         *
+         * @param fReport  if true, report everything under the directory as created; this is used
+         *                 for a directory that has just been created, since its content could have
+         *                 been created before the directory got registered
+         */
+        private void registerTree(Path pathRoot, Watch watch, boolean fReport)
+                throws IOException {
+            Files.walkFileTree(pathRoot, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs)
+                        throws IOException {
+                    boolean fRoot = path.equals(pathRoot);
+                    try {
+                        registerDir(path, watch);
+                    } catch (IOException e) {
+                        if (fRoot) {
+                            throw e;
+                        }
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+
+                    if (fReport && !fRoot) {
+                        addEvent(watch, path, CREATED, true);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+                    if (fReport) {
+                        addEvent(watch, path, CREATED, false);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException e)
+                        throws IOException {
+                    if (path.equals(pathRoot)) {
+                        throw e;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+
+        /**
+         * Detach the specified watch from all its directories, cancelling the keys that are no
+         * longer used by any other watch.
+         */
+        private void release(Watch watch) {
+            for (WatchedDir dir : watch.mapDirs.values()) {
+                dir.listWatches.remove(watch);
+                if (dir.listWatches.isEmpty()) {
+                    dir.key.cancel();
+                    f_mapDirs.remove(dir.key);
+                }
+            }
+            watch.mapDirs.clear();
+        }
+
+        /**
+         * Add an event to the pending events of the specified watch, coalescing it with an event
+         * that is already pending for the same path.
+         */
+        private void addEvent(Watch watch, Path pathNode, int iKind, boolean fDir) {
+            Map<Path, Integer> mapPending = watch.mapPending;
+            Integer            IPrev      = mapPending.get(pathNode);
+            int                nFlags     = fDir ? DIRECTORY : 0;
+            if (IPrev != null) {
+                int nPrev = IPrev;
+                iKind   = coalesce(nPrev & ~DIRECTORY, iKind);
+                nFlags |= nPrev & DIRECTORY;
+            }
+
+            if (iKind < 0) {
+                // the events cancelled each other out
+                mapPending.remove(pathNode);
+            } else {
+                mapPending.put(pathNode, iKind | nFlags);
+            }
+            schedule(watch);
+        }
+
+        /**
+         * Make sure the specified watch is reported no later than at the end of its window.
+         */
+        private void schedule(Watch watch) {
+            if (f_setPending.add(watch)) {
+                watch.ldtDue = System.currentTimeMillis() + WATCH_WINDOW;
+            }
+        }
 
-                ObjectHandle[] ahArg = new ObjectHandle[] {
-                    hPathDir, hPathNode, xBoolean.TRUE, xInt64.makeHandle(iKind)
-                };
-                context.hStorage.f_context.callLater(hfnOnEvent, ahArg);
+        /**
+         * Report all the pending events for the specified watch to its OSStorage service.
+         */
+        private void report(Watch watch) {
+            Map<Path, Integer> mapPending = watch.mapPending;
+            boolean            fOverflow  = watch.fOverflow;
+            int                cEvents    = mapPending.size();
+            if (cEvents == 0 && !fOverflow) {
+                return;
             }
-            key.reset();
+
+            String[] asPath  = new String[cEvents];
+            byte[]   abEvent = new byte[cEvents];
+            int      iEvent  = 0;
+            for (Map.Entry<Path, Integer> entry : mapPending.entrySet()) {
+                asPath [iEvent] = entry.getKey().toString();
+                abEvent[iEvent] = entry.getValue().byteValue();
+                iEvent++;
+            }
+            mapPending.clear();
+            watch.fOverflow = false;
+
+            ServiceHandle  hStorage    = watch.hStorage;
+            FunctionHandle hfnOnEvents =
+                    xRTFunction.makeInternalHandle(null, s_methodOnEvents).bindTarget(null, hStorage);
+
+            ObjectHandle[] ahArg = new ObjectHandle[] {
+                xString.makeHandle(watch.sPathDir),
+                xBoolean.makeHandle(watch.fRecursive),
+                xString.makeArrayHandle(asPath),
+                xArray.makeByteArrayHandle(abEvent, Mutability.Constant),
+                xBoolean.makeHandle(fOverflow),
+            };
+            hStorage.f_context.callLater(hfnOnEvents, ahArg);
+        }
+
+        /**
+         * @return true iff the specified path is one of the directories registered by any of the
+         *         specified watches
+         */
+        private static boolean isWatchedDir(List<Watch> listWatches, Path path) {
+            for (Watch watch : listWatches) {
+                if (watch.mapDirs.containsKey(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Coalesce two consecutive events for the same path.
+         *
+         * @return the resulting event kind, or -1 if the events cancel each other out
+         */
+        private static int coalesce(int iPrev, int iNext) {
+            return switch (iNext) {
+                // a path that was created and then deleted within the window never existed
+                case DELETED  -> iPrev == CREATED ? -1 : DELETED;
+                // a path that was deleted and then re-created within the window has been modified
+                case CREATED  -> iPrev == DELETED ? MODIFIED : iPrev;
+                default       -> iPrev == DELETED ? MODIFIED : iPrev;
+            };
         }
 
         /**
          * @return 0 - for CREATE, 1 - for MODIFY, 2 - for DELETE, -1 for OVERFLOW;
          *        -2 for anything else
          */
-        private int getKindId(WatchEvent.Kind kind) {
+        private static int getKindId(WatchEvent.Kind<?> kind) {
             if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
-                return 0;
+                return CREATED;
             }
             if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
-                return 1;
+                return MODIFIED;
             }
             if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
-                return 2;
+                return DELETED;
             }
             if (kind == StandardWatchEventKinds.OVERFLOW) {
                 return -1;
@@ -352,18 +653,90 @@ public class xOSStorage
             return -2;
         }
 
-        // ----- WatchContext class --------------------------------------------------------------
+        // ----- inner classes ---------------------------------------------------------------------
 
-        private record WatchContext(Path pathDir, ServiceHandle hStorage) {}
+        /**
+         * The identity of a watch requested by an OSStorage service. Each service watches
+         * independently, so the service handle (compared by identity) is a part of the identity.
+         */
+        private record WatchId(String sPathDir, boolean fRecursive, ServiceHandle hStorage) {}
+
+        /**
+         * A watch requested by an OSStorage service, along with its pending events.
+         */
+        private static class Watch {
+            Watch(String sPathDir, boolean fRecursive, ServiceHandle hStorage) {
+                this.sPathDir   = sPathDir;
+                this.fRecursive = fRecursive;
+                this.hStorage   = hStorage;
+            }
+
+            final String        sPathDir;
+            final boolean       fRecursive;
+            final ServiceHandle hStorage;
+
+            /**
+             * The directories registered for this watch.
+             */
+            final Map<Path, WatchedDir> mapDirs = new HashMap<>();
+
+            /**
+             * The coalesced pending events (kind and the {@link #DIRECTORY} flag) keyed by path.
+             */
+            final Map<Path, Integer> mapPending = new LinkedHashMap<>();
+
+            /**
+             * True iff some events have been lost since the events were last reported.
+             */
+            boolean fOverflow;
+
+            /**
+             * The time the pending events are due to be reported.
+             */
+            long ldtDue;
+        }
+
+        /**
+         * A directory registered with the watch service, shared by all the watches that cover it.
+         */
+        private static class WatchedDir {
+            WatchedDir(Path path, WatchKey key) {
+                this.path = path;
+                this.key  = key;
+            }
+
+            final Path        path;
+            final WatchKey    key;
+            final List<Watch> listWatches = new ArrayList<>();
+        }
 
-        private final ConstantPool                f_pool;
-        private final Map<WatchKey, WatchContext> f_mapWatches;
-        private final WatchService                f_service;
+        private final ConstantPool              f_pool;
+        private final WatchService              f_service;
+        private final Map<WatchId, Watch>       f_mapWatches = new HashMap<>();
+        private final Map<WatchKey, WatchedDir> f_mapDirs    = new HashMap<>();
+        private final Set<Watch>                f_setPending = new LinkedHashSet<>();
     }
 
     // ----- constants -----------------------------------------------------------------------------
 
-    private static MethodStructure s_methodOnEvent;
+    /**
+     * The event kinds, as known to {@code FileWatcher.Event}.
+     */
+    private static final int CREATED  = 0;
+    private static final int MODIFIED = 1;
+    private static final int DELETED  = 2;
+
+    /**
+     * The flag added to the event kind if the event is for a directory.
+     */
+    private static final int DIRECTORY = 4;
+
+    /**
+     * The number of milliseconds to coalesce the file system events for before reporting them.
+     */
+    private static final long WATCH_WINDOW = Long.getLong("xvm.fs.watchWindow", 100);
+
+    private static MethodStructure s_methodOnEvents;
 
     private static WatchServiceDaemon s_daemonWatch;
 }
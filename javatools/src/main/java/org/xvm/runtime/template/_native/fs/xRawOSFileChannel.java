@@ -13,6 +13,8 @@ import java.nio.channels.WritableByteChannel;
 
 import java.nio.file.Path;
 
+import java.util.Arrays;
+
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -21,18 +23,23 @@ import org.xvm.asm.ClassStructure;
 import org.xvm.asm.MethodStructure;
 import org.xvm.asm.Op;
 
+import org.xvm.asm.constants.TypeConstant;
+
 import org.xvm.runtime.Container;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ExceptionHandle;
 import org.xvm.runtime.ObjectHandle.JavaLong;
 import org.xvm.runtime.ServiceContext;
 import org.xvm.runtime.TypeComposition;
 
 import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xException;
 
 import org.xvm.runtime.template.collections.xArray;
 import org.xvm.runtime.template.collections.xArray.ArrayHandle;
 import org.xvm.runtime.template.collections.xArray.Mutability;
+import org.xvm.runtime.template.collections.xByteArray;
 
 import org.xvm.runtime.template.numbers.xInt64;
 
@@ -63,6 +70,10 @@ public class xRawOSFileChannel
         markNativeProperty("size");
         markNativeProperty("position");
         markNativeMethod("flush", VOID, VOID);
+        markNativeMethod("readAt", null, null);
+        markNativeMethod("writeAt", null, null);
+        markNativeMethod("readScatteredAt", null, null);
+        markNativeMethod("writeGatheredAt", null, null);
 
         // RawChannel
         markNativeProperty("readable");
@@ -74,6 +85,8 @@ public class xRawOSFileChannel
 
         markNativeMethod("close", VOID, VOID);
 
+        BYTE_ARRAY_ARRAY_TYPE = pool().ensureArrayType(pool().typeByteArray());
+
         super.initNative();
     }
 
@@ -152,6 +165,19 @@ public class xRawOSFileChannel
         case "submit":
             return invokeSubmit(frame, hChannel, ahArg, iReturn);
 
+        case "readAt":
+            return invokeReadAt(frame, hChannel, (JavaLong) ahArg[0], (JavaLong) ahArg[1], iReturn);
+
+        case "writeAt":
+            return invokeWriteAt(frame, hChannel, (JavaLong) ahArg[0], (ArrayHandle) ahArg[1]);
+
+        case "readScatteredAt":
+            return invokeReadScatteredAt(frame, hChannel, (JavaLong) ahArg[0],
+                        (ArrayHandle) ahArg[1], iReturn);
+
+        case "writeGatheredAt":
+            return invokeWriteGatheredAt(frame, hChannel, (JavaLong) ahArg[0], (ArrayHandle) ahArg[1]);
+
         case "flush":
             try {
                 hChannel.f_channel.force(false); // no metadata
@@ -236,6 +262,273 @@ public class xRawOSFileChannel
     }
 
 
+    /**
+     * Implementation for: {@code immutable Byte[] readAt(Int offset, Int count)}.
+     */
+    protected int invokeReadAt(Frame frame, ChannelHandle hChannel, JavaLong hOffset,
+                               JavaLong hCount, int iReturn) {
+        long lOffset = hOffset.getValue();
+        long cBytes  = hCount.getValue();
+        if (lOffset < 0 || cBytes < 0 || cBytes > MAX_READ) {
+            return frame.raiseException(xException.outOfBounds(frame,
+                    "offset=" + lOffset + ", count=" + cBytes));
+        }
+
+        FileChannel      channel = hChannel.f_channel;
+        Callable<byte[]> task    = () -> readAt(channel, lOffset, (int) cBytes);
+
+        CompletableFuture<byte[]> cfRead = frame.f_context.f_container.scheduleIO(task);
+
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                return frameCaller.assignValue(iReturn,
+                        xArray.makeByteArrayHandle(cfRead.get(), Mutability.Constant));
+            } catch (Throwable e) {
+                return xOSFileNode.raisePathException(frameCaller, e, hChannel.f_path);
+            }
+        };
+
+        return frame.waitForIO(cfRead, continuation);
+    }
+
+    /**
+     * Implementation for: {@code void writeAt(Int offset, Byte[] bytes)}.
+     */
+    protected int invokeWriteAt(Frame frame, ChannelHandle hChannel, JavaLong hOffset,
+                                ArrayHandle hBytes) {
+        long lOffset = hOffset.getValue();
+        if (lOffset < 0) {
+            return frame.raiseException(xException.outOfBounds(frame, lOffset, 0));
+        }
+
+        FileChannel    channel = hChannel.f_channel;
+        ByteBuffer     buffer  = ByteBuffer.wrap(xByteArray.getBytes(hBytes));
+        Callable<Void> task    = () -> {
+            writeAt(channel, lOffset, buffer);
+            return null;
+        };
+
+        return waitForWrite(frame, hChannel, frame.f_context.f_container.scheduleIO(task));
+    }
+
+    /**
+     * Implementation for: {@code immutable Byte[][] readScatteredAt(Int offset, Int[] counts)}.
+     */
+    protected int invokeReadScatteredAt(Frame frame, ChannelHandle hChannel, JavaLong hOffset,
+                                        ArrayHandle hCounts, int iReturn) {
+        long lOffset = hOffset.getValue();
+
+        ObjectHandle[] ahCount;
+        try {
+            ahCount = hCounts.getTemplate().toArray(frame, hCounts);
+        } catch (ExceptionHandle.WrapperException e) {
+            return frame.raiseException(e);
+        }
+
+        int    cRegions = ahCount.length;
+        long[] alCount  = new long[cRegions];
+        for (int i = 0; i < cRegions; i++) {
+            alCount[i] = ((JavaLong) ahCount[i]).getValue();
+        }
+
+        int[] acb = toReadCounts(alCount);
+        if (lOffset < 0 || acb == null) {
+            return frame.raiseException(xException.outOfBounds(frame,
+                    "offset=" + lOffset + ", counts=" + Arrays.toString(alCount)));
+        }
+
+        FileChannel        channel = hChannel.f_channel;
+        Callable<byte[][]> task    = () -> readScatteredAt(channel, lOffset, acb);
+
+        CompletableFuture<byte[][]> cfRead = frame.f_context.f_container.scheduleIO(task);
+
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                byte[][]       aab = cfRead.get();
+                ObjectHandle[] ah  = new ObjectHandle[cRegions];
+                for (int i = 0; i < cRegions; i++) {
+                    ah[i] = xArray.makeByteArrayHandle(aab[i], Mutability.Constant);
+                }
+
+                TypeComposition clz = frameCaller.f_context.f_container.
+                        ensureClassComposition(BYTE_ARRAY_ARRAY_TYPE, xArray.INSTANCE);
+                return frameCaller.assignValue(iReturn, xArray.createImmutableArray(clz, ah));
+            } catch (Throwable e) {
+                return xOSFileNode.raisePathException(frameCaller, e, hChannel.f_path);
+            }
+        };
+
+        return frame.waitForIO(cfRead, continuation);
+    }
+
+    /**
+     * Implementation for: {@code void writeGatheredAt(Int offset, Byte[][] buffers)}.
+     */
+    protected int invokeWriteGatheredAt(Frame frame, ChannelHandle hChannel, JavaLong hOffset,
+                                        ArrayHandle hBuffers) {
+        long lOffset = hOffset.getValue();
+        if (lOffset < 0) {
+            return frame.raiseException(xException.outOfBounds(frame, lOffset, 0));
+        }
+
+        ObjectHandle[] ahBuffer;
+        try {
+            ahBuffer = hBuffers.getTemplate().toArray(frame, hBuffers);
+        } catch (ExceptionHandle.WrapperException e) {
+            return frame.raiseException(e);
+        }
+
+        int      cBuffers = ahBuffer.length;
+        byte[][] aab      = new byte[cBuffers][];
+        for (int i = 0; i < cBuffers; i++) {
+            aab[i] = xByteArray.getBytes((ArrayHandle) ahBuffer[i]);
+        }
+
+        FileChannel    channel = hChannel.f_channel;
+        Callable<Void> task    = () -> {
+            writeGatheredAt(channel, lOffset, aab);
+            return null;
+        };
+
+        return waitForWrite(frame, hChannel, frame.f_context.f_container.scheduleIO(task));
+    }
+
+    private static int waitForWrite(Frame frame, ChannelHandle hChannel, CompletableFuture<Void> cfWrite) {
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                cfWrite.get();
+                return Op.R_NEXT;
+            } catch (Throwable e) {
+                return xOSFileNode.raisePathException(frameCaller, e, hChannel.f_path);
+            }
+        };
+
+        return frame.waitForIO(cfWrite, continuation);
+    }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Read up to the specified number of bytes at the specified position of the channel, without
+     * changing the channel position.
+     * <p>
+     * A read into a heap buffer goes through a temporary direct buffer of the same size, which the
+     * JDK keeps cached by the calling (IO pool) thread, so large reads are done in chunks of at
+     * most {@link #READ_CHUNK} bytes.
+     *
+     * @return the bytes; fewer than requested only if the end of the file has been reached
+     */
+    static byte[] readAt(FileChannel channel, long lPos, int cb)
+            throws IOException {
+        long cbAvail = channel.size() - lPos;
+        if (cbAvail < cb) {
+            cb = (int) Math.max(cbAvail, 0);
+        }
+        if (cb == 0) {
+            return EMPTY;
+        }
+
+        byte[]     ab     = new byte[cb];
+        ByteBuffer buffer = ByteBuffer.wrap(ab);
+        while (buffer.position() < cb) {
+            buffer.limit(Math.min(cb, buffer.position() + READ_CHUNK));
+            if (channel.read(buffer, lPos + buffer.position()) < 0) {
+                // the file has been truncated concurrently
+                return Arrays.copyOf(ab, buffer.position());
+            }
+        }
+        return ab;
+    }
+
+    /**
+     * Write the entire buffer at the specified position of the channel, without changing the
+     * channel position.
+     */
+    static void writeAt(FileChannel channel, long lPos, ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            lPos += channel.write(buffer, lPos);
+        }
+    }
+
+    /**
+     * Validate the region sizes of a scattered read.
+     *
+     * @param alCount  the requested region sizes
+     *
+     * @return the region sizes, or null if any of them is negative or their total exceeds
+     *         {@link #MAX_READ}
+     */
+    static int[] toReadCounts(long[] alCount) {
+        int   cRegions = alCount.length;
+        int[] acb      = new int[cRegions];
+        long  cbTotal  = 0;
+        for (int i = 0; i < cRegions; i++) {
+            long cb = alCount[i];
+            // each count is checked before it's added, so the total cannot overflow
+            if (cb < 0 || cb > MAX_READ - cbTotal) {
+                return null;
+            }
+            acb[i]   = (int) cb;
+            cbTotal += cb;
+        }
+        return acb;
+    }
+
+    /**
+     * Read the consecutive regions of the specified sizes at the specified position of the
+     * channel, using a single read for all the regions, which are then split apart.
+     *
+     * @param acb  the region sizes, as validated by {@link #toReadCounts}
+     *
+     * @return the regions; the regions past the end of the file are shorter or empty
+     */
+    static byte[][] readScatteredAt(FileChannel channel, long lPos, int[] acb)
+            throws IOException {
+        int cRegions = acb.length;
+        int cbTotal  = 0;
+        for (int cb : acb) {
+            cbTotal += cb;
+        }
+
+        byte[]   ab    = readAt(channel, lPos, cbTotal);
+        byte[][] aab   = new byte[cRegions][];
+        int      ofEnd = ab.length;
+        for (int i = 0, of = 0; i < cRegions; i++) {
+            int ofNext = Math.min(of + acb[i], ofEnd);
+            aab[i] = cRegions == 1 ? ab : Arrays.copyOfRange(ab, of, ofNext);
+            of     = ofNext;
+        }
+        return aab;
+    }
+
+    /**
+     * Write the buffers consecutively at the specified position of the channel; small buffers are
+     * combined into a single write.
+     */
+    static void writeGatheredAt(FileChannel channel, long lPos, byte[][] aab)
+            throws IOException {
+        long cbTotal = 0;
+        for (byte[] ab : aab) {
+            cbTotal += ab.length;
+        }
+
+        if (cbTotal <= GATHER_LIMIT) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) cbTotal);
+            for (byte[] ab : aab) {
+                buffer.put(ab);
+            }
+            writeAt(channel, lPos, buffer.flip());
+        } else {
+            for (byte[] ab : aab) {
+                writeAt(channel, lPos, ByteBuffer.wrap(ab));
+                lPos += ab.length;
+            }
+        }
+    }
+
+
     // ----- ObjectHandle --------------------------------------------------------------------------
 
     /**
@@ -289,4 +582,26 @@ public class xRawOSFileChannel
             return super.toString() + " " + f_path;
         }
     }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * The max number of bytes for a single read.
+     */
+    static final long MAX_READ = Integer.MAX_VALUE - 1024;
+
+    /**
+     * The max number of bytes transferred by a single channel read.
+     */
+    static final int READ_CHUNK = 1024 * 1024;
+
+    /**
+     * The max total size of the buffers that a gathering write combines into a single write.
+     */
+    static final int GATHER_LIMIT = 64 * 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static TypeConstant BYTE_ARRAY_ARRAY_TYPE;
 }
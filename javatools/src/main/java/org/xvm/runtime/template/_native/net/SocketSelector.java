@@ -0,0 +1,309 @@
+package org.xvm.runtime.template._native.net;
+
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A single selector loop shared by all the native sockets.
+ * <p>
+ * The socket natives never block a thread waiting for the network; a read, write, connect or accept
+ * operation that cannot proceed right away {@link #await awaits} the readiness of its channel,
+ * which is reported by completing a future directly from the selector thread. Since a channel
+ * stays registered with the selector until it is closed, awaiting is cheap enough to be done for
+ * every operation that would otherwise block.
+ * <p>
+ * The selector also manages a pool of direct buffers used to move the data between the channels
+ * and the Ecstasy byte arrays.
+ */
+final class SocketSelector
+        implements Runnable {
+    /**
+     * Construct the selector.
+     */
+    private SocketSelector()
+            throws IOException {
+        f_selector = Selector.open();
+
+        Thread thread = new Thread(this, "SocketSelector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the shared selector
+     */
+    static SocketSelector getInstance() {
+        SocketSelector selector = s_instance;
+        if (selector == null) {
+            synchronized (SocketSelector.class) {
+                selector = s_instance;
+                if (selector == null) {
+                    try {
+                        s_instance = selector = new SocketSelector();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Failed to open the socket selector", e);
+                    }
+                }
+            }
+        }
+        return selector;
+    }
+
+
+    // ----- readiness -----------------------------------------------------------------------------
+
+    /**
+     * Await the readiness of the specified non-blocking channel for any of the specified operations.
+     *
+     * @param channel  the channel
+     * @param nOps     a combination of the {@link SelectionKey} operations; the "input" operations
+     *                 ({@code OP_READ}, {@code OP_ACCEPT}) and the "output" operations
+     *                 ({@code OP_WRITE}, {@code OP_CONNECT}) cannot be combined
+     *
+     * @return a future that completes when the channel is ready, or completes exceptionally if the
+     *         channel is (or gets) closed
+     */
+    CompletableFuture<Void> await(SelectableChannel channel, int nOps) {
+        assert (nOps & INPUT) == 0 || (nOps & OUTPUT) == 0;
+
+        CompletableFuture<Void> cf = new CompletableFuture<>();
+        f_queueRegister.add(new Registration(channel, nOps, cf));
+        f_selector.wakeup();
+        return cf;
+    }
+
+    /**
+     * Close the specified channel, failing all the operations that are awaiting its readiness.
+     *
+     * @param channel  the channel
+     */
+    void close(SelectableChannel channel) {
+        SelectionKey key;
+        Interest     interest;
+        synchronized (channel) {
+            // synchronized with the registration, so that nothing can be registered for the channel
+            // between getting the Interest and closing the channel
+            key      = channel.keyFor(f_selector);
+            interest = key == null ? null : (Interest) key.attachment();
+            try {
+                channel.close();
+            } catch (IOException ignore) {}
+        }
+
+        if (key != null) {
+            // the cancelled key is only deregistered (and the socket actually released) by the
+            // next selection, which may otherwise not happen until some other channel is ready
+            f_selector.wakeup();
+        }
+
+        if (interest != null) {
+            interest.fail(new AsynchronousCloseException());
+        }
+    }
+
+    @Override
+    public void run() {
+        Selector selector = f_selector;
+        while (true) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                // the selector itself is broken; there is nothing more that can be done
+                return;
+            }
+
+            registerPending();
+
+            for (SelectionKey key : selector.selectedKeys()) {
+                Interest interest = (Interest) key.attachment();
+                try {
+                    int nReady = key.readyOps();
+                    key.interestOps(key.interestOps() & ~nReady);
+                    interest.ready(nReady);
+                } catch (CancelledKeyException e) {
+                    interest.fail(new AsynchronousCloseException());
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Process the registrations added by the {@link #await} calls.
+     */
+    private void registerPending() {
+        Registration reg;
+        while ((reg = f_queueRegister.poll()) != null) {
+            SelectableChannel channel = reg.channel;
+            try {
+                synchronized (channel) {
+                    SelectionKey key = channel.keyFor(f_selector);
+                    if (key == null) {
+                        Interest interest = new Interest();
+                        channel.register(f_selector, reg.nOps, interest);
+                        interest.add(reg.nOps, reg.cf);
+                    } else {
+                        key.interestOps(key.interestOps() | reg.nOps);
+                        ((Interest) key.attachment()).add(reg.nOps, reg.cf);
+                    }
+                }
+            } catch (ClosedChannelException | CancelledKeyException e) {
+                reg.cf.completeExceptionally(new AsynchronousCloseException());
+            } catch (RuntimeException e) {
+                reg.cf.completeExceptionally(e);
+            }
+        }
+    }
+
+
+    // ----- buffer pool ---------------------------------------------------------------------------
+
+    /**
+     * Obtain a direct buffer of {@link #BUFFER_SIZE} bytes; the buffer should be
+     * {@link #releaseBuffer released} as soon as the I/O operation is done with it.
+     *
+     * @return a cleared buffer
+     */
+    ByteBuffer acquireBuffer() {
+        ByteBuffer buf = f_queueBuffers.poll();
+        if (buf == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        f_cPooled.decrementAndGet();
+        return buf.clear();
+    }
+
+    /**
+     * Return a buffer obtained via {@link #acquireBuffer} to the pool.
+     */
+    void releaseBuffer(ByteBuffer buf) {
+        if (f_cPooled.incrementAndGet() <= MAX_POOLED) {
+            f_queueBuffers.add(buf);
+        } else {
+            f_cPooled.decrementAndGet();
+        }
+    }
+
+
+    // ----- inner classes -------------------------------------------------------------------------
+
+    /**
+     * A request to await the readiness of a channel.
+     */
+    private record Registration(SelectableChannel channel, int nOps, CompletableFuture<Void> cf) {}
+
+    /**
+     * The operations awaiting the readiness of a registered channel.
+     */
+    private static class Interest {
+        synchronized void add(int nOps, CompletableFuture<Void> cf) {
+            if ((nOps & INPUT) != 0) {
+                listInput.add(cf);
+            } else {
+                listOutput.add(cf);
+            }
+        }
+
+        void ready(int nReady) {
+            List<CompletableFuture<Void>> listReady = new ArrayList<>();
+            synchronized (this) {
+                if ((nReady & INPUT) != 0) {
+                    listReady.addAll(listInput);
+                    listInput.clear();
+                }
+                if ((nReady & OUTPUT) != 0) {
+                    listReady.addAll(listOutput);
+                    listOutput.clear();
+                }
+            }
+
+            for (CompletableFuture<Void> cf : listReady) {
+                cf.complete(null);
+            }
+        }
+
+        void fail(IOException e) {
+            List<CompletableFuture<Void>> listFailed = new ArrayList<>();
+            synchronized (this) {
+                listFailed.addAll(listInput);
+                listFailed.addAll(listOutput);
+                listInput.clear();
+                listOutput.clear();
+            }
+
+            for (CompletableFuture<Void> cf : listFailed) {
+                cf.completeExceptionally(e);
+            }
+        }
+
+        private final List<CompletableFuture<Void>> listInput  = new ArrayList<>();
+        private final List<CompletableFuture<Void>> listOutput = new ArrayList<>();
+    }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The "input" operations.
+     */
+    private static final int INPUT = SelectionKey.OP_READ | SelectionKey.OP_ACCEPT;
+
+    /**
+     * The "output" operations.
+     */
+    private static final int OUTPUT = SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT;
+
+    /**
+     * The size of the pooled buffers.
+     */
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * The max number of idle buffers kept in the pool.
+     */
+    private static final int MAX_POOLED = Integer.getInteger("xvm.socket.pooledBuffers", 256);
+
+    /**
+     * The shared instance.
+     */
+    private static volatile SocketSelector s_instance;
+
+    /**
+     * The selector.
+     */
+    private final Selector f_selector;
+
+    /**
+     * The registrations to be processed by the selector thread.
+     */
+    private final Queue<Registration> f_queueRegister = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The idle buffers.
+     */
+    private final Queue<ByteBuffer> f_queueBuffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of idle buffers.
+     */
+    private final AtomicInteger f_cPooled = new AtomicInteger();
+}
@@ -171,12 +171,7 @@ public class xRTNetwork
         case "nativeListen": { // conditional ServerSocket nativeListen(Byte[] localAddressBytes, UInt16 localPort)
             byte[] abLocalIP  = xByteArray.getBytes((ArrayHandle) ahArg[0]);
             int    nLocalPort = (int) ((JavaLong) ahArg[1]).getValue();
-            try {
-                // TODO
-                return frame.assignValue(aiReturn[0], xBoolean.FALSE);
-            } catch (Exception e) {
-                return frame.raiseException(xException.makeHandle(frame, e.getMessage()));
-            }
+            return xRTServerSocket.listen(frame, abLocalIP, nLocalPort, aiReturn);
         }
         }
 
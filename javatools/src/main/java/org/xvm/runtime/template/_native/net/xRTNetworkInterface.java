@@ -14,7 +14,6 @@ import org.xvm.runtime.ObjectHandle.JavaLong;
 
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xBoolean.BooleanHandle;
-import org.xvm.runtime.template.xException;
 import org.xvm.runtime.template.xService;
 
 import org.xvm.runtime.template._native.reflect.xRTFunction;
@@ -94,12 +93,7 @@ public class xRTNetworkInterface
         case "nativeListen": { // conditional ServerSocket nativeListen(Byte[] localAddressBytes, UInt16 localPort)
             byte[] abLocalIP  = xByteArray.getBytes((ArrayHandle) ahArg[0]);
             int    nLocalPort = (int) ((JavaLong) ahArg[1]).getValue();
-            try {
-                // TODO
-                return frame.assignValue(aiReturn[0], xBoolean.FALSE);
-            } catch (Exception e) {
-                return frame.raiseException(xException.makeHandle(frame, e.getMessage()));
-            }
+            return xRTServerSocket.listen(frame, abLocalIP, nLocalPort, aiReturn);
         }
         }
 
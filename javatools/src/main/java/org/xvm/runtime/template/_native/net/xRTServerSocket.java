@@ -0,0 +1,306 @@
+package org.xvm.runtime.template._native.net;
+
+
+import java.io.IOException;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.Constants.Access;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Container;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ServiceContext;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xService;
+
+import org.xvm.runtime.template._native.reflect.xRTFunction;
+
+import org.xvm.runtime.template.collections.xArray;
+import org.xvm.runtime.template.collections.xArray.Mutability;
+
+import org.xvm.runtime.template.numbers.xUInt16;
+
+
+/**
+ * Native implementation of a {@code ServerSocket} service ({@code RTServerSocket}).
+ * <p>
+ * The listening socket is a non-blocking {@link ServerSocketChannel}; an accept that finds no
+ * pending connection awaits the readiness on the shared {@link SocketSelector}. Every accepted
+ * connection becomes a new {@code RTSocket} service, so the I/O on the accepted sockets doesn't
+ * contend for the service that accepts them.
+ */
+public class xRTServerSocket
+        extends xService {
+    public static xRTServerSocket INSTANCE;
+
+    /**
+     * The max number of pending connections.
+     */
+    public static final int BACKLOG = Integer.getInteger("xvm.socket.backlog", 1024);
+
+    public xRTServerSocket(Container container, ClassStructure structure, boolean fInstance) {
+        super(container, structure, false);
+
+        if (fInstance) {
+            INSTANCE = this;
+        }
+    }
+
+    @Override
+    public void initNative() {
+        markNativeMethod("acceptImpl", null, null);
+        markNativeMethod("closeImpl",  null, null);
+
+        invalidateTypeInfo();
+    }
+
+    @Override
+    public TypeConstant getCanonicalType() {
+        TypeConstant type = m_typeCanonical;
+        if (type == null) {
+            var pool = f_container.getConstantPool();
+            m_typeCanonical = type = pool.ensureTerminalTypeConstant(pool.ensureClassConstant(
+                    pool.ensureModuleConstant("net.xtclang.org"), "ServerSocket"));
+        }
+        return type;
+    }
+
+    @Override
+    protected ServiceHandle createStructHandle(TypeComposition clazz, ServiceContext context) {
+        return new ServerSocketHandle(clazz.ensureAccess(Access.STRUCT), context);
+    }
+
+    @Override
+    public ServiceHandle createServiceHandle(ServiceContext context,
+                                             ClassComposition clz, TypeConstant typeMask) {
+        ServerSocketHandle hService = new ServerSocketHandle(clz.maskAs(typeMask), context);
+        context.setService(hService);
+        return hService;
+    }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method,
+                             ObjectHandle hTarget, ObjectHandle[] ahArg, int iReturn) {
+        ServerSocketHandle hServer = requireServerSocketHandle(hTarget);
+        if (hServer == null) {
+            return frame.raiseException(xException.illegalState(frame, "not a native server socket"));
+        }
+
+        if (frame.f_context != hServer.f_context) {
+            return xRTFunction.makeAsyncNativeHandle(method).call1(frame, hTarget, ahArg, iReturn);
+        }
+
+        switch (method.getName()) {
+        case "acceptImpl":
+            return invokeAcceptImpl(frame, hServer, iReturn);
+
+        case "closeImpl":
+            return invokeCloseImpl(hServer);
+        }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+    }
+
+
+    // ----- listen --------------------------------------------------------------------------------
+
+    /**
+     * TCP listen used by {@code RTNetwork.nativeListen} / {@code RTNetworkInterface.nativeListen}.
+     *
+     * @return one of {@link Op#R_NEXT}, {@link Op#R_CALL}, {@link Op#R_EXCEPTION}
+     */
+    public static int listen(Frame frame, byte[] abLocalIP, int nLocalPort, int[] aiReturn) {
+        ServerSocketChannel channel = null;
+        InetSocketAddress   addrLocal;
+        try {
+            channel = ServerSocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(abLocalIP != null && abLocalIP.length > 0
+                    ? new InetSocketAddress(InetAddress.getByAddress(abLocalIP), nLocalPort)
+                    : new InetSocketAddress(nLocalPort), BACKLOG);
+            addrLocal = (InetSocketAddress) channel.getLocalAddress();
+        } catch (IOException e) {
+            closeQuietly(channel);
+            return frame.assignValue(aiReturn[0], xBoolean.FALSE);
+        }
+
+        return INSTANCE.constructServerSocket(frame, channel, addrLocal, aiReturn);
+    }
+
+    protected int constructServerSocket(Frame frame, ServerSocketChannel channel,
+                                        InetSocketAddress addrLocal, int[] aiReturn) {
+        ConstantPool     pool         = frame.poolContext();
+        ClassTemplate    template     = this;
+        ClassComposition clz          = template.getCanonicalClass();
+        MethodStructure  constructor  = template.getStructure().findConstructor(
+                pool.typeByteArray(), pool.typeUInt16());
+        ObjectHandle[]   ahParams     = new ObjectHandle[constructor.getMaxVars()];
+        ahParams[0] = xArray.makeByteArrayHandle(addrLocal.getAddress().getAddress(), Mutability.Constant);
+        ahParams[1] = xUInt16.INSTANCE.makeJavaLong(addrLocal.getPort());
+
+        switch (template.construct(frame, constructor, clz, null, ahParams, Op.A_STACK)) {
+        case Op.R_NEXT:
+            return finishListen(frame, channel, aiReturn);
+
+        case Op.R_EXCEPTION:
+            closeQuietly(channel);
+            return Op.R_EXCEPTION;
+
+        case Op.R_CALL:
+            frame.m_frameNext.addContinuation(frameCaller ->
+                    finishListen(frameCaller, channel, aiReturn));
+            return Op.R_CALL;
+
+        default:
+            closeQuietly(channel);
+            throw new IllegalStateException();
+        }
+    }
+
+    private static int finishListen(Frame frame, ServerSocketChannel channel, int[] aiReturn) {
+        ServerSocketHandle hServer = requireServerSocketHandle(frame.popStack());
+        if (hServer == null) {
+            closeQuietly(channel);
+            return frame.raiseException(xException.illegalState(frame, "server socket construct failed"));
+        }
+        hServer.channel = channel;
+        return frame.assignValues(aiReturn, xBoolean.TRUE, hServer);
+    }
+
+
+    // ----- accept --------------------------------------------------------------------------------
+
+    /**
+     * Implementation of "Socket acceptImpl()" method.
+     */
+    private static int invokeAcceptImpl(Frame frame, ServerSocketHandle hServer, int iReturn) {
+        ServerSocketChannel channel = hServer.channel;
+        if (channel == null || !channel.isOpen()) {
+            return frame.raiseException(xException.ioException(frame, "server socket closed"));
+        }
+
+        SocketChannel channelAccepted;
+        try {
+            channelAccepted = accept(channel);
+        } catch (IOException e) {
+            return frame.raiseException(xException.ioException(frame, xRTSocket.messageOf(e)));
+        }
+
+        if (channelAccepted != null) {
+            return xRTSocket.INSTANCE.constructSocket(frame, channelAccepted, false, new int[] {iReturn});
+        }
+
+        CompletableFuture<SocketChannel> cf = new CompletableFuture<>();
+        awaitAcceptable(channel, cf);
+
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                return xRTSocket.INSTANCE.constructSocket(frameCaller, cf.get(), false, new int[] {iReturn});
+            } catch (Throwable e) {
+                return frameCaller.raiseException(xException.ioException(frameCaller,
+                        xRTSocket.messageOf(xRTSocket.unwrap(e))));
+            }
+        };
+        return frame.waitForIO(cf, continuation);
+    }
+
+    /**
+     * Accept a pending connection, if there is one.
+     *
+     * @return the configured channel for the accepted connection, or null
+     */
+    private static SocketChannel accept(ServerSocketChannel channel)
+            throws IOException {
+        SocketChannel channelAccepted = channel.accept();
+        if (channelAccepted != null) {
+            try {
+                xRTSocket.configureChannel(channelAccepted);
+            } catch (IOException e) {
+                xRTSocket.closeQuietly(channelAccepted);
+                throw e;
+            }
+        }
+        return channelAccepted;
+    }
+
+    private static void awaitAcceptable(ServerSocketChannel channel, CompletableFuture<SocketChannel> cf) {
+        SocketSelector.getInstance().await(channel, SelectionKey.OP_ACCEPT).whenComplete((_void, e) -> {
+            if (e != null) {
+                cf.completeExceptionally(e);
+                return;
+            }
+
+            try {
+                // another accept may have taken the connection that made the channel ready
+                SocketChannel channelAccepted = accept(channel);
+                if (channelAccepted == null) {
+                    awaitAcceptable(channel, cf);
+                } else if (!cf.complete(channelAccepted)) {
+                    xRTSocket.closeQuietly(channelAccepted);
+                }
+            } catch (Throwable ex) {
+                cf.completeExceptionally(ex);
+            }
+        });
+    }
+
+    /**
+     * Implementation of "void closeImpl()" method.
+     */
+    private static int invokeCloseImpl(ServerSocketHandle hServer) {
+        ServerSocketChannel channel = hServer.channel;
+        hServer.channel = null;
+        closeQuietly(channel);
+        return Op.R_NEXT;
+    }
+
+    private static void closeQuietly(ServerSocketChannel channel) {
+        if (channel != null) {
+            SocketSelector.getInstance().close(channel);
+        }
+    }
+
+    private static ServerSocketHandle requireServerSocketHandle(ObjectHandle h) {
+        ObjectHandle origin = h.revealOrigin();
+        return origin instanceof ServerSocketHandle hServer ? hServer :
+               h      instanceof ServerSocketHandle hServer ? hServer : null;
+    }
+
+
+    // ----- handle --------------------------------------------------------------------------------
+
+    public static class ServerSocketHandle
+            extends ServiceHandle {
+        public volatile ServerSocketChannel channel;
+
+        public ServerSocketHandle(TypeComposition clazz, ServiceContext context) {
+            super(clazz, context);
+        }
+    }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    private TypeConstant m_typeCanonical;
+}
@@ -2,17 +2,27 @@ package org.xvm.runtime.template._native.net;
 
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.net.SocketException;
+import java.net.StandardSocketOptions;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NotYetConnectedException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
 
-import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.ConstantPool;
@@ -48,6 +58,12 @@ import org.xvm.runtime.template.numbers.xUInt16;
 
 /**
  * Native implementation of a {@code Socket} service ({@code RTSocket}).
+ * <p>
+ * The sockets are non-blocking {@link SocketChannel}s; an operation that cannot complete right
+ * away awaits the readiness of the channel on the shared {@link SocketSelector}, so no thread is
+ * ever held by a socket that waits for the network. Writes are queued (up to
+ * {@link #WRITE_QUEUE_LIMIT} bytes) and sent with a single gathering write as soon as the channel
+ * is ready, which lets a stream of small writes proceed without waiting for each one of them.
  */
 public class xRTSocket
         extends xService {
@@ -55,6 +71,17 @@ public class xRTSocket
 
     public static final int CONNECT_TIMEOUT_MS = 15_000;
 
+    /**
+     * The number of bytes that can be queued for writing before a write has to wait.
+     */
+    public static final int WRITE_QUEUE_LIMIT =
+            Integer.getInteger("xvm.socket.writeQueueLimit", 256 * 1024);
+
+    /**
+     * How long a close (or output shutdown) waits for the queued bytes to be written.
+     */
+    public static final int LINGER_MS = 15_000;
+
     public xRTSocket(Container container, ClassStructure structure, boolean fInstance) {
         super(container, structure, false);
 
@@ -165,61 +192,102 @@ public class xRTSocket
      */
     public static int connect(Frame frame, byte[] abRemoteIP, int nRemotePort,
                               byte[] abLocalIP, int nLocalPort, int[] aiReturn) {
-        Callable<Socket> task = () ->
-                openConnectedSocket(abRemoteIP, nRemotePort, abLocalIP, nLocalPort);
+        SocketChannel channel = null;
+        boolean       fConnected;
+        try {
+            channel    = openChannel(abLocalIP, nLocalPort);
+            fConnected = channel.connect(new InetSocketAddress(
+                            InetAddress.getByAddress(abRemoteIP), nRemotePort));
+        } catch (IOException e) {
+            closeQuietly(channel);
+            return frame.assignValue(aiReturn[0], xBoolean.FALSE);
+        }
 
-        CompletableFuture<Socket> cf = frame.f_context.f_container.scheduleIO(task);
+        if (fConnected) {
+            return INSTANCE.constructSocket(frame, channel, true, aiReturn);
+        }
+
+        SocketChannel           channelPending = channel;
+        CompletableFuture<Void> cf             = SocketSelector.getInstance()
+                .await(channel, SelectionKey.OP_CONNECT)
+                .orTimeout(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
         Frame.Continuation continuation = frameCaller -> {
             try {
-                Socket      socket  = cf.get();
-                InetAddress local   = socket.getLocalAddress();
-                byte[]      abLocal = local == null ? new byte[0] : local.getAddress();
-                int         nLocal  = socket.getLocalPort();
-                return INSTANCE.constructSocket(frameCaller, socket, abLocal, nLocal,
-                        abRemoteIP, nRemotePort, aiReturn);
+                cf.get();
+                if (channelPending.finishConnect()) {
+                    return INSTANCE.constructSocket(frameCaller, channelPending, true, aiReturn);
+                }
             } catch (Throwable e) {
                 Throwable cause = unwrap(e);
-                if (cause instanceof IOException) {
-                    return frameCaller.assignValue(aiReturn[0], xBoolean.FALSE);
+                if (!(cause instanceof IOException || cause instanceof TimeoutException)) {
+                    closeQuietly(channelPending);
+                    return frameCaller.raiseException(
+                            xException.makeHandle(frameCaller, cause.getMessage()));
                 }
-                return frameCaller.raiseException(
-                        xException.makeHandle(frameCaller, cause.getMessage()));
             }
+            closeQuietly(channelPending);
+            return frameCaller.assignValue(aiReturn[0], xBoolean.FALSE);
         };
 
         return frame.waitForIO(cf, continuation);
     }
 
     /**
-     * Open a client TCP socket with the same options {@link #connect} uses.
-     * On bind, option, or connect failure the Java socket is closed before this returns.
+     * Open a non-blocking client TCP channel with the options {@link #connect} uses.
+     * On bind or option failure the channel is closed before this returns.
      */
-    static Socket openConnectedSocket(byte[] abRemoteIP, int nRemotePort,
-                                      byte[] abLocalIP, int nLocalPort)
+    static SocketChannel openChannel(byte[] abLocalIP, int nLocalPort)
             throws IOException {
-        Socket  socket = new Socket();
-        boolean owned = false;
+        SocketChannel channel = SocketChannel.open();
+        boolean       fOwned  = false;
         try {
-            socket.setTcpNoDelay(true);
-            socket.setKeepAlive(true);
+            configureChannel(channel);
             if (abLocalIP != null && abLocalIP.length > 0) {
-                socket.bind(new InetSocketAddress(InetAddress.getByAddress(abLocalIP), nLocalPort));
+                channel.bind(new InetSocketAddress(InetAddress.getByAddress(abLocalIP), nLocalPort));
             } else if (nLocalPort != 0) {
-                socket.bind(new InetSocketAddress(nLocalPort));
+                channel.bind(new InetSocketAddress(nLocalPort));
             }
-            socket.connect(new InetSocketAddress(InetAddress.getByAddress(abRemoteIP), nRemotePort),
-                    CONNECT_TIMEOUT_MS);
-            owned = true;
-            return socket;
+            fOwned = true;
+            return channel;
         } finally {
-            if (!owned) {
-                closeQuietly(socket);
+            if (!fOwned) {
+                closeQuietly(channel);
             }
         }
     }
 
-    protected int constructSocket(Frame frame, Socket socket, byte[] abLocal, int nLocalPort,
-                                  byte[] abRemote, int nRemotePort, int[] aiReturn) {
+    /**
+     * Configure a connected (or about to be connected) channel for the use by a socket.
+     */
+    static void configureChannel(SocketChannel channel)
+            throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+    }
+
+    /**
+     * Construct a new {@code RTSocket} service for the specified connected channel. If the
+     * construction fails, the channel is closed.
+     *
+     * @param fConditional  if true, the result is a "conditional Socket"; otherwise just a "Socket"
+     *
+     * @return one of {@link Op#R_NEXT}, {@link Op#R_CALL}, {@link Op#R_EXCEPTION}
+     */
+    protected int constructSocket(Frame frame, SocketChannel channel, boolean fConditional,
+                                  int[] aiReturn) {
+        InetSocketAddress addrLocal;
+        InetSocketAddress addrRemote;
+        try {
+            addrLocal  = (InetSocketAddress) channel.getLocalAddress();
+            addrRemote = (InetSocketAddress) channel.getRemoteAddress();
+        } catch (IOException e) {
+            closeQuietly(channel);
+            return fConditional
+                    ? frame.assignValue(aiReturn[0], xBoolean.FALSE)
+                    : frame.raiseException(xException.ioException(frame, messageOf(e)));
+        }
+
         ConstantPool     pool         = frame.poolContext();
         ClassTemplate    template     = this;
         ClassComposition clz          = template.getCanonicalClass();
@@ -227,39 +295,42 @@ public class xRTSocket
                 pool.typeByteArray(), pool.typeUInt16(),
                 pool.typeByteArray(), pool.typeUInt16());
         ObjectHandle[]   ahParams     = new ObjectHandle[constructor.getMaxVars()];
-        ahParams[0] = xArray.makeByteArrayHandle(abLocal, Mutability.Constant);
-        ahParams[1] = xUInt16.INSTANCE.makeJavaLong(nLocalPort);
-        ahParams[2] = xArray.makeByteArrayHandle(abRemote, Mutability.Constant);
-        ahParams[3] = xUInt16.INSTANCE.makeJavaLong(nRemotePort);
+        ahParams[0] = xArray.makeByteArrayHandle(addrLocal.getAddress().getAddress(), Mutability.Constant);
+        ahParams[1] = xUInt16.INSTANCE.makeJavaLong(addrLocal.getPort());
+        ahParams[2] = xArray.makeByteArrayHandle(addrRemote.getAddress().getAddress(), Mutability.Constant);
+        ahParams[3] = xUInt16.INSTANCE.makeJavaLong(addrRemote.getPort());
 
         switch (template.construct(frame, constructor, clz, null, ahParams, Op.A_STACK)) {
         case Op.R_NEXT:
-            return finishConnect(frame, socket, aiReturn);
+            return finishConstruct(frame, channel, fConditional, aiReturn);
 
         case Op.R_EXCEPTION:
-            closeQuietly(socket);
+            closeQuietly(channel);
             return Op.R_EXCEPTION;
 
         case Op.R_CALL:
             frame.m_frameNext.addContinuation(frameCaller ->
-                    finishConnect(frameCaller, socket, aiReturn));
+                    finishConstruct(frameCaller, channel, fConditional, aiReturn));
             return Op.R_CALL;
 
         default:
-            closeQuietly(socket);
+            closeQuietly(channel);
             throw new IllegalStateException();
         }
     }
 
-    private static int finishConnect(Frame frame, Socket socket, int[] aiReturn) {
+    private static int finishConstruct(Frame frame, SocketChannel channel, boolean fConditional,
+                                       int[] aiReturn) {
         ObjectHandle h = frame.popStack();
         SocketHandle hSocket = requireSocketHandle(h);
         if (hSocket == null) {
-            closeQuietly(socket);
+            closeQuietly(channel);
             return frame.raiseException(xException.illegalState(frame, "socket construct failed"));
         }
-        hSocket.socket = socket;
-        return frame.assignValues(aiReturn, xBoolean.TRUE, hSocket);
+        hSocket.channel = channel;
+        return fConditional
+                ? frame.assignValues(aiReturn, xBoolean.TRUE, hSocket)
+                : frame.assignValue(aiReturn[0], hSocket);
     }
 
 
@@ -269,40 +340,32 @@ public class xRTSocket
      * Implementation of "immutable Byte[] readBytesImpl(Int count)" method.
      */
     private static int invokeReadBytesImpl(Frame frame, SocketHandle hSocket, int cBytes, int iReturn) {
-        Socket socket = hSocket.socket;
-        if (socket == null || socket.isClosed()) {
+        SocketChannel channel = hSocket.channel;
+        if (channel == null || !channel.isOpen()) {
             return frame.raiseException(xException.ioException(frame, "socket closed"));
         }
         if (cBytes <= 0) {
             return frame.assignValue(iReturn, xArray.makeByteArrayHandle(new byte[0], Mutability.Constant));
         }
 
-        Callable<byte[]> task = () -> {
-            InputStream in  = socket.getInputStream();
-            byte[]      buf = new byte[cBytes];
-            int         off = 0;
-            while (off < cBytes) {
-                int n = in.read(buf, off, cBytes - off);
-                if (n < 0) {
-                    break;
-                }
-                off += n;
-            }
-            if (off == cBytes) {
-                return buf;
+        SocketReader reader = new SocketReader(channel, cBytes);
+        try {
+            if (reader.read()) {
+                return frame.assignValue(iReturn,
+                        xArray.makeByteArrayHandle(reader.getBytes(), Mutability.Constant));
             }
-            byte[] actual = new byte[off];
-            System.arraycopy(buf, 0, actual, 0, off);
-            return actual;
-        };
-        CompletableFuture<byte[]> cf = frame.f_context.f_container.scheduleIO(task);
+        } catch (IOException e) {
+            return frame.raiseException(xException.ioException(frame, messageOf(e)));
+        }
+
+        CompletableFuture<byte[]> cf = reader.readAsync();
         Frame.Continuation continuation = frameCaller -> {
             try {
                 return frameCaller.assignValue(iReturn,
                         xArray.makeByteArrayHandle(cf.get(), Mutability.Constant));
             } catch (Throwable e) {
                 return frameCaller.raiseException(
-                        xException.ioException(frameCaller, unwrap(e).getMessage()));
+                        xException.ioException(frameCaller, messageOf(unwrap(e))));
             }
         };
         return frame.waitForIO(cf, continuation);
@@ -312,8 +375,8 @@ public class xRTSocket
      * Implementation of "void writeBytesImpl(Byte[] bytes, Int offset, Int count)" method.
      */
     private static int invokeWriteBytesImpl(Frame frame, SocketHandle hSocket, ObjectHandle[] ahArg) {
-        Socket socket = hSocket.socket;
-        if (socket == null || socket.isClosed()) {
+        SocketChannel channel = hSocket.channel;
+        if (channel == null || !channel.isOpen()) {
             return frame.raiseException(xException.ioException(frame, "socket closed"));
         }
         byte[] ab = xByteArray.getBytes((ArrayHandle) ahArg[0]);
@@ -330,23 +393,24 @@ public class xRTSocket
             return Op.R_NEXT;
         }
 
-        int ofWrite = (int) of;
-        int nWrite  = (int) n;
-        Callable<Void> task = () -> {
-            OutputStream out = socket.getOutputStream();
-            out.write(ab, ofWrite, nWrite);
-            out.flush();
-            return null;
-        };
+        CompletableFuture<Void> cf;
+        try {
+            cf = hSocket.write(ab, (int) of, (int) n);
+        } catch (IOException e) {
+            return frame.raiseException(xException.ioException(frame, messageOf(e)));
+        }
+
+        if (cf == null) {
+            return Op.R_NEXT;
+        }
 
-        CompletableFuture<Void> cf = frame.f_context.f_container.scheduleIO(task);
         Frame.Continuation continuation = frameCaller -> {
             try {
                 cf.get();
                 return Op.R_NEXT;
             } catch (Throwable e) {
                 return frameCaller.raiseException(
-                        xException.ioException(frameCaller, unwrap(e).getMessage()));
+                        xException.ioException(frameCaller, messageOf(unwrap(e))));
             }
         };
         return frame.waitForIO(cf, continuation);
@@ -356,12 +420,12 @@ public class xRTSocket
      * Implementation of "Int availableImpl()" method.
      */
     private static int invokeAvailableImpl(Frame frame, SocketHandle hSocket, int iReturn) {
-        Socket socket = hSocket.socket;
-        if (socket == null || socket.isClosed()) {
+        SocketChannel channel = hSocket.channel;
+        if (channel == null || !channel.isOpen()) {
             return frame.assignValue(iReturn, xInt64.INSTANCE.makeJavaLong(0));
         }
         try {
-            int n = socket.getInputStream().available();
+            int n = channel.socket().getInputStream().available();
             return frame.assignValue(iReturn, xInt64.INSTANCE.makeJavaLong(Math.max(n, 0)));
         } catch (IOException e) {
             return frame.assignValue(iReturn, xInt64.INSTANCE.makeJavaLong(0));
@@ -372,21 +436,31 @@ public class xRTSocket
      * Implementation of "void shutdownInputImpl()" and "void shutdownOutputImpl()" methods.
      */
     private static int invokeShutdownImpl(Frame frame, SocketHandle hSocket, boolean fInput) {
-        Socket socket = hSocket.socket;
-        if (socket == null || socket.isClosed()) {
+        SocketChannel channel = hSocket.channel;
+        if (channel == null || !channel.isOpen()) {
             return Op.R_NEXT;
         }
+
+        if (fInput) {
+            return shutdown(frame, channel, true);
+        }
+
+        // let the queued bytes go out first
+        return afterWrites(frame, hSocket, frameCaller -> shutdown(frameCaller, channel, false));
+    }
+
+    private static int shutdown(Frame frame, SocketChannel channel, boolean fInput) {
         try {
             if (fInput) {
-                socket.shutdownInput();
+                channel.shutdownInput();
             } else {
-                socket.shutdownOutput();
+                channel.shutdownOutput();
             }
             return Op.R_NEXT;
-        } catch (SocketException ignore) {
+        } catch (ClosedChannelException | NotYetConnectedException ignore) {
             return Op.R_NEXT;
         } catch (IOException e) {
-            return frame.raiseException(xException.ioException(frame, e.getMessage()));
+            return frame.raiseException(xException.ioException(frame, messageOf(e)));
         }
     }
 
@@ -394,23 +468,45 @@ public class xRTSocket
      * Implementation of "void closeImpl()" method.
      */
     private static int invokeCloseImpl(Frame frame, SocketHandle hSocket) {
-        closeQuietly(hSocket.socket);
-        hSocket.socket = null;
-        return Op.R_NEXT;
+        return afterWrites(frame, hSocket, frameCaller -> {
+            hSocket.close();
+            return Op.R_NEXT;
+        });
     }
 
-    private static void closeQuietly(Socket socket) {
-        if (socket != null) {
-            try {
-                socket.close();
-            } catch (IOException ignore) {}
+    /**
+     * Proceed with the specified action as soon as all the queued bytes have been written, the
+     * writing has failed, or the {@link #LINGER_MS linger} time has elapsed.
+     */
+    private static int afterWrites(Frame frame, SocketHandle hSocket, Frame.Continuation action) {
+        CompletableFuture<Void> cfDrained = hSocket.drain();
+        if (cfDrained == null) {
+            return action.proceed(frame);
+        }
+
+        return frame.waitForIO(cfDrained.copy().orTimeout(LINGER_MS, TimeUnit.MILLISECONDS), action);
+    }
+
+    static void closeQuietly(SocketChannel channel) {
+        if (channel != null) {
+            SocketSelector.getInstance().close(channel);
+        }
+    }
+
+    static Throwable unwrap(Throwable e) {
+        while ((e instanceof ExecutionException || e instanceof CompletionException)
+                && e.getCause() != null) {
+            e = e.getCause();
         }
+        return e;
     }
 
-    private static Throwable unwrap(Throwable e) {
-        return e instanceof ExecutionException && e.getCause() != null
-                ? e.getCause()
-                : e;
+    static String messageOf(Throwable e) {
+        if (e instanceof AsynchronousCloseException) {
+            return "socket closed";
+        }
+        String sMsg = e.getMessage();
+        return sMsg == null ? e.getClass().getSimpleName() : sMsg;
     }
 
     private static SocketHandle requireSocketHandle(ObjectHandle h) {
@@ -420,15 +516,259 @@ public class xRTSocket
     }
 
 
+    // ----- SocketReader --------------------------------------------------------------------------
+
+    /**
+     * A read of the specified number of bytes, which produces fewer bytes only if the end of the
+     * stream has been reached.
+     */
+    private static class SocketReader {
+        SocketReader(SocketChannel channel, int cBytes) {
+            f_channel = channel;
+            f_ab      = new byte[cBytes];
+        }
+
+        /**
+         * Read as much as the channel has available.
+         *
+         * @return true iff the read is complete
+         */
+        boolean read()
+                throws IOException {
+            SocketSelector selector = SocketSelector.getInstance();
+            ByteBuffer     buf      = selector.acquireBuffer();
+            try {
+                byte[] ab = f_ab;
+                while (m_of < ab.length) {
+                    buf.clear().limit(Math.min(buf.capacity(), ab.length - m_of));
+
+                    int cb = f_channel.read(buf);
+                    if (cb < 0) {
+                        return true;
+                    }
+                    if (cb == 0) {
+                        return false;
+                    }
+                    buf.flip().get(ab, m_of, cb);
+                    m_of += cb;
+                }
+                return true;
+            } finally {
+                selector.releaseBuffer(buf);
+            }
+        }
+
+        /**
+         * Complete the read asynchronously, as the channel becomes readable.
+         */
+        CompletableFuture<byte[]> readAsync() {
+            CompletableFuture<byte[]> cf = new CompletableFuture<>();
+            awaitReadable(cf);
+            return cf;
+        }
+
+        private void awaitReadable(CompletableFuture<byte[]> cf) {
+            SocketSelector.getInstance().await(f_channel, SelectionKey.OP_READ).whenComplete((_void, e) -> {
+                if (e != null) {
+                    cf.completeExceptionally(e);
+                    return;
+                }
+
+                try {
+                    if (read()) {
+                        cf.complete(getBytes());
+                    } else {
+                        awaitReadable(cf);
+                    }
+                } catch (Throwable ex) {
+                    cf.completeExceptionally(ex);
+                }
+            });
+        }
+
+        /**
+         * @return the bytes that have been read
+         */
+        byte[] getBytes() {
+            return m_of == f_ab.length ? f_ab : Arrays.copyOf(f_ab, m_of);
+        }
+
+        private final SocketChannel f_channel;
+        private final byte[]        f_ab;
+        private int                 m_of;
+    }
+
+
     // ----- handle --------------------------------------------------------------------------------
 
     public static class SocketHandle
             extends ServiceHandle {
-        public volatile Socket socket;
+        public volatile SocketChannel channel;
 
         public SocketHandle(TypeComposition clazz, ServiceContext context) {
             super(clazz, context);
         }
+
+        /**
+         * Write the specified bytes, queueing whatever the channel cannot take right away.
+         *
+         * @return null if the caller can proceed, or a future that completes when the write queue
+         *         has room again
+         *
+         * @throws IOException if the channel (or any of the previously queued writes) has failed
+         */
+        synchronized CompletableFuture<Void> write(byte[] ab, int of, int cb)
+                throws IOException {
+            IOException eFailed = m_eWrite;
+            if (eFailed != null) {
+                throw new IOException(messageOf(eFailed), eFailed);
+            }
+
+            SocketChannel channel = this.channel;
+            if (channel == null) {
+                throw new AsynchronousCloseException();
+            }
+
+            if (f_dequeWrite.isEmpty()) {
+                ByteBuffer buf = ByteBuffer.wrap(ab, of, cb);
+                channel.write(buf);
+                if (!buf.hasRemaining()) {
+                    return null;
+                }
+                enqueue(ab, buf.position(), buf.remaining());
+                awaitWritable(channel);
+            } else {
+                enqueue(ab, of, cb);
+            }
+
+            if (m_cbQueued <= WRITE_QUEUE_LIMIT) {
+                return null;
+            }
+
+            CompletableFuture<Void> cfRoom = m_cfRoom;
+            if (cfRoom == null) {
+                m_cfRoom = cfRoom = new CompletableFuture<>();
+            }
+            return cfRoom;
+        }
+
+        /**
+         * @return null if there are no queued writes, otherwise a future that completes when all of
+         *         them have been written
+         */
+        synchronized CompletableFuture<Void> drain() {
+            if (f_dequeWrite.isEmpty()) {
+                return null;
+            }
+
+            CompletableFuture<Void> cfDrained = m_cfDrained;
+            if (cfDrained == null) {
+                m_cfDrained = cfDrained = new CompletableFuture<>();
+            }
+            return cfDrained;
+        }
+
+        /**
+         * Close the channel; any queued writes are discarded.
+         */
+        void close() {
+            SocketChannel channel = this.channel;
+            if (channel != null) {
+                this.channel = null;
+                closeQuietly(channel);
+            }
+        }
+
+        /**
+         * Queue a copy of the specified bytes; the caller is allowed to reuse the array.
+         */
+        private void enqueue(byte[] ab, int of, int cb) {
+            f_dequeWrite.add(ByteBuffer.wrap(Arrays.copyOfRange(ab, of, of + cb)));
+            m_cbQueued += cb;
+        }
+
+        private void awaitWritable(SocketChannel channel) {
+            SocketSelector.getInstance().await(channel, SelectionKey.OP_WRITE)
+                    .whenComplete((_void, e) -> flush(e));
+        }
+
+        /**
+         * Write as much of the queue as the channel can take.
+         *
+         * @param eAwait  the exception raised while awaiting the channel readiness (if any)
+         */
+        private void flush(Throwable eAwait) {
+            CompletableFuture<Void> cfRoom    = null;
+            CompletableFuture<Void> cfDrained = null;
+            IOException             eFailed   = null;
+            synchronized (this) {
+                SocketChannel channel = this.channel;
+                try {
+                    if (eAwait != null || channel == null) {
+                        throw eAwait instanceof IOException e ? e : new AsynchronousCloseException();
+                    }
+
+                    // a single gathering write for everything that has been queued
+                    m_cbQueued -= channel.write(f_dequeWrite.toArray(new ByteBuffer[0]));
+                    while (!f_dequeWrite.isEmpty() && !f_dequeWrite.peekFirst().hasRemaining()) {
+                        f_dequeWrite.pollFirst();
+                    }
+                } catch (IOException e) {
+                    m_eWrite = eFailed = e;
+                    f_dequeWrite.clear();
+                    m_cbQueued = 0;
+                }
+
+                if (m_cbQueued <= WRITE_QUEUE_LIMIT) {
+                    cfRoom   = m_cfRoom;
+                    m_cfRoom = null;
+                }
+                if (f_dequeWrite.isEmpty()) {
+                    cfDrained   = m_cfDrained;
+                    m_cfDrained = null;
+                } else {
+                    awaitWritable(channel);
+                }
+            }
+
+            complete(cfRoom,    eFailed);
+            complete(cfDrained, eFailed);
+        }
+
+        private static void complete(CompletableFuture<Void> cf, IOException eFailed) {
+            if (cf != null) {
+                if (eFailed == null) {
+                    cf.complete(null);
+                } else {
+                    cf.completeExceptionally(eFailed);
+                }
+            }
+        }
+
+        /**
+         * The queued writes.
+         */
+        private final ArrayDeque<ByteBuffer> f_dequeWrite = new ArrayDeque<>();
+
+        /**
+         * The number of queued bytes.
+         */
+        private long m_cbQueued;
+
+        /**
+         * The failure of a queued write, which is reported to all subsequent writes.
+         */
+        private IOException m_eWrite;
+
+        /**
+         * The future for a write that waits for the queue to have room.
+         */
+        private CompletableFuture<Void> m_cfRoom;
+
+        /**
+         * The future for a close (or shutdown) that waits for the queue to be drained.
+         */
+        private CompletableFuture<Void> m_cfDrained;
     }
 
 
@@ -0,0 +1,195 @@
+package org.xvm.runtime.template._native.web;
+
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import java.util.function.Function;
+
+
+/**
+ * Limits the number of concurrent HTTP client exchanges per host.
+ * <p>
+ * An exchange over the limit doesn't block any thread; it waits on the future returned by
+ * {@link #acquire} until one of the exchanges with the same host {@link #release releases} its
+ * permit, which is then handed over in the FIFO order.
+ */
+class HostLimiter {
+    /**
+     * Construct the limiter.
+     *
+     * @param cMaxPerHost  the max number of concurrent exchanges per host
+     */
+    HostLimiter(int cMaxPerHost) {
+        assert cMaxPerHost > 0;
+        f_cMaxPerHost = cMaxPerHost;
+    }
+
+    /**
+     * Acquire a permit for an exchange with the specified host.
+     *
+     * @param sHost  the host key (e.g. "https://example.com:443")
+     *
+     * @return a future that completes when the permit has been acquired; every permit must be
+     *         {@link #release released}
+     */
+    CompletableFuture<Void> acquire(String sHost) {
+        Slot slot = f_mapSlots.computeIfAbsent(sHost, s -> new Slot());
+        synchronized (slot) {
+            if (slot.cActive < f_cMaxPerHost) {
+                slot.cActive++;
+                return CompletableFuture.completedFuture(null);
+            }
+
+            CompletableFuture<Void> cf = new CompletableFuture<>();
+            slot.queueWaiting.add(cf);
+            return cf;
+        }
+    }
+
+    /**
+     * Release a permit for the specified host.
+     */
+    void release(String sHost) {
+        Slot slot = f_mapSlots.get(sHost);
+        assert slot != null;
+
+        while (true) {
+            CompletableFuture<Void> cfNext;
+            synchronized (slot) {
+                cfNext = slot.queueWaiting.poll();
+                if (cfNext == null) {
+                    slot.cActive--;
+                    return;
+                }
+            }
+
+            // hand the permit over; a waiter that has been cancelled doesn't take it
+            if (cfNext.complete(null)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Send the request asynchronously, once a permit for the specified host is acquired.
+     * <p>
+     * The permit is released exactly once, however the exchange ends: when it fails (including a
+     * request timeout), when it completes (unless the permit is held), or when the caller gives up
+     * by cancelling the returned future, either while waiting for the permit or while the request
+     * is in flight.
+     *
+     * @param client       the client to send the request with
+     * @param request      the request
+     * @param sHost        the host key
+     * @param fnHandler    the function that produces the body handler given the action that
+     *                     releases the permit
+     * @param fHoldPermit  if true, the permit is kept after the response has been received, and
+     *                     the response body is responsible for calling the release action; the
+     *                     body of a response that nobody receives is closed if it's
+     *                     {@link AutoCloseable}
+     *
+     * @return a future for the response
+     */
+    <T> CompletableFuture<HttpResponse<T>> send(HttpClient client, HttpRequest request,
+                                                String sHost,
+                                                Function<Runnable, BodyHandler<T>> fnHandler,
+                                                boolean fHoldPermit) {
+        AtomicBoolean fReleased = new AtomicBoolean();
+        Runnable      release   = () -> {
+            if (fReleased.compareAndSet(false, true)) {
+                release(sHost);
+            }
+        };
+
+        CompletableFuture<HttpResponse<T>> cfResponse = new CompletableFuture<>();
+        CompletableFuture<Void>            cfPermit   = acquire(sHost);
+
+        // a caller that gives up while waiting leaves the queue without taking a permit
+        cfResponse.whenComplete((_, _) -> cfPermit.cancel(false));
+
+        cfPermit.thenRun(() -> {
+            if (cfResponse.isDone()) {
+                // the caller gave up just as the permit was granted
+                release.run();
+                return;
+            }
+
+            CompletableFuture<HttpResponse<T>> cfSend;
+            try {
+                cfSend = client.sendAsync(request, fnHandler.apply(release));
+            } catch (Throwable e) {
+                release.run();
+                cfResponse.completeExceptionally(e);
+                return;
+            }
+
+            cfSend.whenComplete((response, e) -> {
+                if (e != null || !fHoldPermit) {
+                    release.run();
+                }
+
+                if (e != null) {
+                    cfResponse.completeExceptionally(e);
+                } else if (!cfResponse.complete(response) && fHoldPermit) {
+                    // the caller gave up while the request was in flight; nobody reads the body
+                    if (response.body() instanceof AutoCloseable body) {
+                        try {
+                            body.close();
+                        } catch (Exception ignore) {}
+                    }
+                    release.run();
+                }
+            });
+        });
+        return cfResponse;
+    }
+
+    /**
+     * @return the number of exchanges with the specified host that are holding a permit
+     */
+    int getActiveCount(String sHost) {
+        Slot slot = f_mapSlots.get(sHost);
+        if (slot == null) {
+            return 0;
+        }
+        synchronized (slot) {
+            return slot.cActive;
+        }
+    }
+
+    /**
+     * The state for a single host.
+     */
+    private static class Slot {
+        /**
+         * The number of permits held.
+         */
+        int cActive;
+
+        /**
+         * The exchanges waiting for a permit.
+         */
+        final ArrayDeque<CompletableFuture<Void>> queueWaiting = new ArrayDeque<>();
+    }
+
+    /**
+     * The max number of concurrent exchanges per host.
+     */
+    private final int f_cMaxPerHost;
+
+    /**
+     * The state per host.
+     */
+    private final Map<String, Slot> f_mapSlots = new ConcurrentHashMap<>();
+}
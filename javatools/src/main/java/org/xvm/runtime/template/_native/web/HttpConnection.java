@@ -0,0 +1,1127 @@
+package org.xvm.runtime.template._native.web;
+
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpPrincipal;
+import com.sun.net.httpserver.HttpsExchange;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.net.ssl.SSLSession;
+
+
+/**
+ * A single HTTP/1.1 connection of a {@link VirtualHttpServer}. The connection is served by its own
+ * (virtual) thread, which reads the requests, dispatches them to the context handlers and waits
+ * for every exchange to be closed (usually by another thread) before reading the next request off
+ * a keep-alive connection.
+ */
+final class HttpConnection
+        implements Runnable {
+    /**
+     * Construct a connection for a newly accepted socket.
+     */
+    HttpConnection(VirtualHttpServer server, Socket socket) {
+        f_server = server;
+        f_socket = socket;
+    }
+
+    @Override
+    public void run() {
+        HttpTransport transport = null;
+        try {
+            transport = f_server.isTls()
+                    ? HttpTransport.tls(f_socket, f_server.createEngine(
+                            (InetSocketAddress) f_socket.getRemoteSocketAddress()),
+                            f_server.getTlsMetrics())
+                    : HttpTransport.plain(f_socket);
+            m_transport = transport;
+            m_abIn      = VirtualHttpServer.allocateBuffer();
+
+            boolean fKeepAlive = true;
+            for (int cRequests = 1; fKeepAlive && !m_fClosed; cRequests++) {
+                fKeepAlive = serve(cRequests < VirtualHttpServer.MAX_KEEP_ALIVE_REQUESTS);
+            }
+        } catch (IOException | RuntimeException e) {
+            // the peer has gone away, timed out or failed the handshake
+        } finally {
+            if (transport == null) {
+                closeSocket();
+            } else {
+                transport.close();
+            }
+            f_server.unregister(this);
+
+            VirtualHttpServer.releaseBuffer(m_abIn);
+            m_abIn = null;
+        }
+    }
+
+    /**
+     * @return true iff there is no exchange in progress
+     */
+    boolean isIdle() {
+        return m_exchange == null;
+    }
+
+    /**
+     * Close the connection; this can be called from any thread.
+     */
+    void close() {
+        m_fClosed = true;
+        closeSocket();
+
+        Exchange exchange = m_exchange;
+        if (exchange != null) {
+            exchange.abort();
+        }
+    }
+
+
+    // ----- request processing --------------------------------------------------------------------
+
+    /**
+     * Read and serve a single request.
+     *
+     * @param fKeepAliveAllowed  false if the connection must be closed after this request
+     *
+     * @return true iff the connection should be kept alive
+     */
+    private boolean serve(boolean fKeepAliveAllowed)
+            throws IOException {
+        Exchange exchange;
+        try {
+            exchange = readRequest(fKeepAliveAllowed);
+        } catch (BadRequest e) {
+            sendError(e.f_nStatus);
+            return false;
+        }
+
+        if (exchange == null) {
+            return false;
+        }
+
+        String path = exchange.f_uri.getPath();
+        VirtualHttpServer.Context ctx = f_server.findContext(path == null ? "/" : path);
+        HttpHandler handler = ctx == null ? null : ctx.getHandler();
+        if (handler == null) {
+            sendError(404);
+            return false;
+        }
+
+        exchange.m_ctx = ctx;
+        m_exchange     = exchange;
+        if (m_fClosed) {
+            // the server has been stopped concurrently
+            exchange.abort();
+        }
+
+        try {
+            HttpExchange facade = f_server.isTls() ? new TlsExchange(exchange) : exchange;
+            new Filter.Chain(ctx.getFilters(), handler).doFilter(facade);
+        } catch (Throwable e) {
+            exchange.abort();
+        }
+
+        try {
+            // the response is usually produced asynchronously
+            return exchange.f_done.join() && exchange.finish();
+        } finally {
+            m_exchange = null;
+        }
+    }
+
+    /**
+     * Read and parse the request head.
+     *
+     * @return the exchange or null if the connection has been closed by the peer
+     */
+    private Exchange readRequest(boolean fKeepAliveAllowed)
+            throws IOException {
+        String sLine;
+        do {
+            // tolerate empty lines preceding the request line
+            sLine = readLine();
+            if (sLine == null) {
+                return null;
+            }
+        } while (sLine.isEmpty());
+
+        int ofMethod = sLine.indexOf(' ');
+        int ofTarget = ofMethod < 0 ? -1 : sLine.indexOf(' ', ofMethod + 1);
+        if (ofMethod <= 0 || ofTarget < 0) {
+            throw new BadRequest(400);
+        }
+
+        String sMethod   = sLine.substring(0, ofMethod);
+        String sTarget   = sLine.substring(ofMethod + 1, ofTarget);
+        String sProtocol = sLine.substring(ofTarget + 1);
+        boolean fHttp11;
+        switch (sProtocol) {
+        case "HTTP/1.1":
+            fHttp11 = true;
+            break;
+
+        case "HTTP/1.0":
+            fHttp11 = false;
+            break;
+
+        default:
+            throw new BadRequest(505);
+        }
+
+        Headers headers  = new Headers();
+        String  sName    = null;
+        int     cbHead   = sLine.length() + 2;
+        int     cHeaders = 0;
+        while (true) {
+            sLine = readLine();
+            if (sLine == null) {
+                return null;
+            }
+            cbHead += sLine.length() + 2;
+            if (cbHead > VirtualHttpServer.MAX_HEAD_SIZE) {
+                throw new BadRequest(431);
+            }
+            if (sLine.isEmpty()) {
+                break;
+            }
+
+            char ch = sLine.charAt(0);
+            if (ch == ' ' || ch == '\t') {
+                // obsolete line folding
+                if (sName == null) {
+                    throw new BadRequest(400);
+                }
+                List<String> listValues = headers.get(sName);
+                int          iLast      = listValues.size() - 1;
+                listValues.set(iLast, listValues.get(iLast) + ' ' + sLine.strip());
+                continue;
+            }
+
+            // no whitespace is allowed in the field name, including before the colon
+            // (RFC 9112 section 5.1)
+            int ofColon = sLine.indexOf(':');
+            if (ofColon <= 0 || !isToken(sLine, ofColon)) {
+                throw new BadRequest(400);
+            }
+            if (++cHeaders > VirtualHttpServer.MAX_HEADER_COUNT) {
+                throw new BadRequest(431);
+            }
+            sName = sLine.substring(0, ofColon);
+            headers.add(sName, sLine.substring(ofColon + 1).strip());
+        }
+
+        URI uri;
+        try {
+            uri = new URI(sTarget);
+        } catch (URISyntaxException e) {
+            throw new BadRequest(400);
+        }
+
+        // the body framing (RFC 9112 section 6.3); any ambiguity could be used to smuggle a
+        // request past an intermediary that frames the body differently
+        List<String> listEncoding = headers.get("Transfer-Encoding");
+        List<String> listLength   = headers.get("Content-Length");
+        long         cbBody       = 0;
+        boolean      fFaulty      = false;
+        if (listEncoding != null) {
+            if (listEncoding.size() > 1) {
+                throw new BadRequest(400);
+            }
+            if (!listEncoding.getFirst().strip().equalsIgnoreCase("chunked")) {
+                throw new BadRequest(501);
+            }
+
+            // the chunked encoding overrides the Content-Length, but the connection must be
+            // closed after the response, and so it must be with the chunked HTTP/1.0 request
+            fFaulty = listLength != null || !fHttp11;
+            cbBody  = -1;
+        } else if (listLength != null) {
+            if (listLength.size() > 1) {
+                throw new BadRequest(400);
+            }
+            cbBody = parseContentLength(listLength.getFirst());
+        }
+
+        String  sConnection = headers.getFirst("Connection");
+        boolean fKeepAlive  = fKeepAliveAllowed && !fFaulty && (fHttp11
+                ? !hasToken(sConnection, "close")
+                :  hasToken(sConnection, "keep-alive"));
+
+        return new Exchange(sMethod, uri, sProtocol, fHttp11, headers, cbBody, fKeepAlive,
+                "100-continue".equalsIgnoreCase(headers.getFirst("Expect")));
+    }
+
+    /**
+     * Send a minimal error response that closes the connection.
+     */
+    private void sendError(int nStatus) {
+        try {
+            writeAscii("HTTP/1.1 " + nStatus + ' ' + reasonPhrase(nStatus) +
+                    "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+            flush();
+        } catch (IOException ignore) {
+        } finally {
+            releaseOutput();
+        }
+    }
+
+    /**
+     * @return true iff the first {@code cch} characters of the specified string form a token
+     *         (RFC 9110 section 5.6.2)
+     */
+    private static boolean isToken(String s, int cch) {
+        for (int i = 0; i < cch; i++) {
+            char ch = s.charAt(i);
+            if (!(ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9'
+                    || "!#$%&'*+-.^_`|~".indexOf(ch) >= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the value of the Content-Length header
+     *
+     * @throws BadRequest if the value is not a plain decimal number
+     */
+    private static long parseContentLength(String sLength)
+            throws BadRequest {
+        sLength = sLength.strip();
+        int cch = sLength.length();
+        if (cch == 0 || cch > 18) {
+            throw new BadRequest(400);
+        }
+        for (int i = 0; i < cch; i++) {
+            char ch = sLength.charAt(i);
+            if (ch < '0' || ch > '9') {
+                throw new BadRequest(400);
+            }
+        }
+        return Long.parseLong(sLength);
+    }
+
+    /**
+     * @return true iff the specified comma-delimited header value contains the specified token
+     */
+    private static boolean hasToken(String sValue, String sToken) {
+        if (sValue != null) {
+            for (String s : sValue.split(",")) {
+                if (s.strip().equalsIgnoreCase(sToken)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the reason phrase for the specified status code
+     */
+    private static String reasonPhrase(int nStatus) {
+        return switch (nStatus) {
+            case 100 -> "Continue";
+            case 101 -> "Switching Protocols";
+            case 200 -> "OK";
+            case 201 -> "Created";
+            case 202 -> "Accepted";
+            case 204 -> "No Content";
+            case 206 -> "Partial Content";
+            case 301 -> "Moved Permanently";
+            case 302 -> "Found";
+            case 303 -> "See Other";
+            case 304 -> "Not Modified";
+            case 307 -> "Temporary Redirect";
+            case 308 -> "Permanent Redirect";
+            case 400 -> "Bad Request";
+            case 401 -> "Unauthorized";
+            case 403 -> "Forbidden";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 409 -> "Conflict";
+            case 413 -> "Content Too Large";
+            case 421 -> "Misdirected Request";
+            case 431 -> "Request Header Fields Too Large";
+            case 500 -> "Internal Server Error";
+            case 501 -> "Not Implemented";
+            case 503 -> "Service Unavailable";
+            case 505 -> "HTTP Version Not Supported";
+            default  -> "";
+        };
+    }
+
+
+    // ----- buffered I/O --------------------------------------------------------------------------
+
+    /**
+     * Read a CRLF (or LF) terminated line of ISO-8859-1 characters from the input buffer.
+     *
+     * @return the line without the terminator or null if the stream has ended
+     */
+    private String readLine()
+            throws IOException {
+        byte[] ab        = m_abIn;
+        int    cbScanned = 0;
+        while (true) {
+            for (int of = m_ofIn + cbScanned, ofEnd = m_cbIn; of < ofEnd; of++) {
+                if (ab[of] == '\n') {
+                    int ofStart = m_ofIn;
+                    int ofLast  = of > ofStart && ab[of - 1] == '\r' ? of - 1 : of;
+                    m_ofIn = of + 1;
+                    return new String(ab, ofStart, ofLast - ofStart, StandardCharsets.ISO_8859_1);
+                }
+            }
+
+            // the buffer may get compacted by fill()
+            cbScanned = m_cbIn - m_ofIn;
+            if (m_ofIn == 0 && m_cbIn == ab.length) {
+                throw new BadRequest(431);
+            }
+            if (fill() < 0) {
+                if (m_cbIn > m_ofIn) {
+                    throw new EOFException("Unexpected end of stream");
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Read more bytes into the input buffer, compacting it as necessary.
+     *
+     * @return the number of bytes read or -1 at the end of the stream
+     */
+    private int fill()
+            throws IOException {
+        byte[] ab = m_abIn;
+        int    of = m_ofIn;
+        int    cb = m_cbIn - of;
+        if (of > 0) {
+            System.arraycopy(ab, of, ab, 0, cb);
+            m_ofIn = 0;
+            m_cbIn = cb;
+        }
+
+        int cbRead = m_transport.read(ab, cb, ab.length - cb);
+        if (cbRead > 0) {
+            m_cbIn += cbRead;
+        }
+        return cbRead;
+    }
+
+    /**
+     * Read raw (request body) bytes, taking the buffered bytes first.
+     *
+     * @return the number of bytes read or -1 at the end of the stream
+     */
+    private int readRaw(byte[] ab, int of, int cb)
+            throws IOException {
+        int cbBuffered = m_cbIn - m_ofIn;
+        if (cbBuffered == 0) {
+            if (cb >= VirtualHttpServer.BUFFER_SIZE / 2) {
+                // a large read bypasses the buffer
+                return m_transport.read(ab, of, cb);
+            }
+            if (fill() < 0) {
+                return -1;
+            }
+            cbBuffered = m_cbIn - m_ofIn;
+        }
+
+        int cbRead = Math.min(cb, cbBuffered);
+        System.arraycopy(m_abIn, m_ofIn, ab, of, cbRead);
+        m_ofIn += cbRead;
+        return cbRead;
+    }
+
+    /**
+     * Write to the (pooled) output buffer.
+     */
+    private void write(byte[] ab, int of, int cb)
+            throws IOException {
+        byte[] abOut = m_abOut;
+        if (abOut == null) {
+            m_abOut = abOut = VirtualHttpServer.allocateBuffer();
+        }
+
+        if (cb > abOut.length - m_cbOut) {
+            flush();
+            if (cb >= abOut.length) {
+                m_transport.write(ab, of, cb);
+                return;
+            }
+        }
+
+        System.arraycopy(ab, of, abOut, m_cbOut, cb);
+        m_cbOut += cb;
+    }
+
+    /**
+     * Write an ASCII string to the output buffer.
+     */
+    private void writeAscii(String s)
+            throws IOException {
+        byte[] ab = s.getBytes(StandardCharsets.ISO_8859_1);
+        write(ab, 0, ab.length);
+    }
+
+    /**
+     * Send the buffered output.
+     */
+    private void flush()
+            throws IOException {
+        int cb = m_cbOut;
+        if (cb > 0) {
+            m_cbOut = 0;
+            m_transport.write(m_abOut, 0, cb);
+        }
+    }
+
+    /**
+     * Return the output buffer to the pool.
+     */
+    private void releaseOutput() {
+        VirtualHttpServer.releaseBuffer(m_abOut);
+        m_abOut = null;
+        m_cbOut = 0;
+    }
+
+    /**
+     * Close the socket without any further I/O.
+     */
+    private void closeSocket() {
+        try {
+            f_socket.close();
+        } catch (IOException ignore) {}
+    }
+
+
+    // ----- inner class: Exchange -----------------------------------------------------------------
+
+    /**
+     * The state of a single request/response exchange, which is also the HttpExchange for the
+     * plain (unencrypted) connections.
+     */
+    private final class Exchange
+            extends HttpExchange {
+        Exchange(String sMethod, URI uri, String sProtocol, boolean fHttp11, Headers headers,
+                 long cbBody, boolean fKeepAlive, boolean fExpectContinue) {
+            f_sMethod         = sMethod;
+            f_uri             = uri;
+            f_sProtocol       = sProtocol;
+            f_fHttp11         = fHttp11;
+            f_fHead           = sMethod.equals("HEAD");
+            f_hdrsRequest     = headers;
+            m_fKeepAlive      = fKeepAlive;
+            m_fExpectContinue = fExpectContinue && cbBody != 0;
+            f_in              = new BodyInput(cbBody);
+            m_in              = f_in;
+            m_out             = new BodyOutput();
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return f_hdrsRequest;
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return f_hdrsResponse;
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return f_uri;
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return f_sMethod;
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return m_ctx;
+        }
+
+        @Override
+        public void close() {
+            if (!m_fClosed) {
+                m_fClosed = true;
+                f_done.complete(true);
+            }
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return m_in;
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return m_out;
+        }
+
+        @Override
+        public void sendResponseHeaders(int nStatus, long cbLength)
+                throws IOException {
+            if (m_nStatus >= 0) {
+                throw new IOException("Headers already sent");
+            }
+            if (m_fClosed) {
+                throw new IOException("Exchange is closed");
+            }
+            m_nStatus = nStatus;
+
+            Headers headers = f_hdrsResponse;
+            if (f_fHead || nStatus < 200 || nStatus == 204 || nStatus == 304) {
+                if (!f_fHead) {
+                    headers.remove("Content-Length");
+                }
+                m_nMode = MODE_NONE;
+            } else if (cbLength > 0) {
+                headers.set("Content-Length", Long.toString(cbLength));
+                m_nMode   = MODE_FIXED;
+                m_cbOwed  = cbLength;
+            } else if (cbLength == 0) {
+                if (f_fHttp11) {
+                    headers.set("Transfer-Encoding", "chunked");
+                    m_nMode = MODE_CHUNKED;
+                } else {
+                    // the end of the body is signalled by closing the connection
+                    m_nMode      = MODE_CLOSE;
+                    m_fKeepAlive = false;
+                }
+            } else {
+                headers.set("Content-Length", "0");
+                m_nMode = MODE_NONE;
+            }
+
+            if (hasToken(headers.getFirst("Connection"), "close")) {
+                m_fKeepAlive = false;
+            }
+            if (!m_fKeepAlive) {
+                headers.set("Connection", "close");
+            } else if (!f_fHttp11) {
+                headers.set("Connection", "keep-alive");
+            }
+            if (!headers.containsKey("Date")) {
+                headers.set("Date", VirtualHttpServer.formatDate());
+            }
+
+            StringBuilder sb = new StringBuilder(256)
+                    .append("HTTP/1.1 ").append(nStatus).append(' ')
+                    .append(reasonPhrase(nStatus)).append("\r\n");
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                String sName = entry.getKey();
+                for (String sValue : entry.getValue()) {
+                    sb.append(sName).append(": ").append(sValue).append("\r\n");
+                }
+            }
+            writeAscii(sb.append("\r\n").toString());
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return (InetSocketAddress) f_socket.getRemoteSocketAddress();
+        }
+
+        @Override
+        public int getResponseCode() {
+            return m_nStatus;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return (InetSocketAddress) f_socket.getLocalSocketAddress();
+        }
+
+        @Override
+        public String getProtocol() {
+            return f_sProtocol;
+        }
+
+        @Override
+        public Object getAttribute(String sName) {
+            return f_mapAttributes.get(sName);
+        }
+
+        @Override
+        public void setAttribute(String sName, Object value) {
+            if (value == null) {
+                f_mapAttributes.remove(sName);
+            } else {
+                f_mapAttributes.put(sName, value);
+            }
+        }
+
+        @Override
+        public void setStreams(InputStream in, OutputStream out) {
+            if (in != null) {
+                m_in = in;
+            }
+            if (out != null) {
+                m_out = out;
+            }
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return null;
+        }
+
+        /**
+         * Abandon the exchange and the connection.
+         */
+        void abort() {
+            m_fClosed = true;
+            f_done.complete(false);
+        }
+
+        /**
+         * Complete the response and consume the remainder of the request body; called on the
+         * connection thread after the exchange has been closed.
+         *
+         * @return true iff the connection can be reused
+         */
+        boolean finish() {
+            boolean fReuse = m_fKeepAlive;
+            try {
+                switch (m_nStatus < 0 ? -1 : m_nMode) {
+                case MODE_NONE:
+                    break;
+
+                case MODE_FIXED:
+                    fReuse &= m_cbOwed == 0;
+                    break;
+
+                case MODE_CHUNKED:
+                    writeAscii("0\r\n\r\n");
+                    break;
+
+                default:
+                    // no response or a close-delimited body
+                    fReuse = false;
+                    break;
+                }
+                flush();
+
+                // the peer that is still waiting for "100 Continue" may not send the body at all
+                return fReuse && !m_fExpectContinue && f_in.drain();
+            } catch (IOException e) {
+                return false;
+            } finally {
+                releaseOutput();
+            }
+        }
+
+        private final String              f_sMethod;
+        private final URI                 f_uri;
+        private final String              f_sProtocol;
+        private final boolean             f_fHttp11;
+        private final boolean             f_fHead;
+        private final Headers             f_hdrsRequest;
+        private final Headers             f_hdrsResponse  = new Headers();
+        private final Map<String, Object> f_mapAttributes = new ConcurrentHashMap<>();
+        private final BodyInput           f_in;
+
+        /**
+         * Completed with true when the exchange is closed, or with false when it's aborted.
+         */
+        private final CompletableFuture<Boolean> f_done = new CompletableFuture<>();
+
+        private HttpContext       m_ctx;
+        private InputStream       m_in;
+        private OutputStream      m_out;
+        private volatile boolean  m_fClosed;
+        private boolean           m_fKeepAlive;
+        private boolean           m_fExpectContinue;
+        private int               m_nStatus = -1;
+        private int               m_nMode;
+        private long              m_cbOwed;
+
+
+        // ----- inner class: BodyInput ------------------------------------------------------------
+
+        /**
+         * The request body: either a fixed number of bytes or a chunked body.
+         */
+        private final class BodyInput
+                extends InputStream {
+            /**
+             * @param cbBody  the body length or -1 for a chunked body
+             */
+            BodyInput(long cbBody) {
+                f_fChunked = cbBody < 0;
+                if (!f_fChunked) {
+                    m_cbLeft = cbBody;
+                    m_fEof   = cbBody == 0;
+                }
+            }
+
+            @Override
+            public int read()
+                    throws IOException {
+                byte[] ab = new byte[1];
+                return read(ab, 0, 1) < 0 ? -1 : ab[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] ab, int of, int cb)
+                    throws IOException {
+                if (cb == 0) {
+                    return 0;
+                }
+                if (m_fEof) {
+                    return -1;
+                }
+
+                if (m_fExpectContinue) {
+                    m_fExpectContinue = false;
+                    if (m_nStatus < 0) {
+                        writeAscii("HTTP/1.1 100 Continue\r\n\r\n");
+                        flush();
+                    }
+                }
+
+                if (f_fChunked && m_cbLeft == 0 && !nextChunk()) {
+                    return -1;
+                }
+
+                int cbRead = readRaw(ab, of, (int) Math.min(cb, m_cbLeft));
+                if (cbRead < 0) {
+                    throw new EOFException("Unexpected end of the request body");
+                }
+
+                m_cbLeft -= cbRead;
+                if (!f_fChunked && m_cbLeft == 0) {
+                    m_fEof = true;
+                }
+                return cbRead;
+            }
+
+            @Override
+            public int available() {
+                return m_fEof ? 0 : (int) Math.min(m_cbLeft, m_cbIn - m_ofIn);
+            }
+
+            /**
+             * Consume the rest of the body, unless it's too large to be worth it.
+             *
+             * @return true iff the entire body has been consumed
+             */
+            boolean drain()
+                    throws IOException {
+                if (m_fEof) {
+                    return true;
+                }
+                if (!f_fChunked && m_cbLeft > MAX_DRAIN) {
+                    return false;
+                }
+
+                byte[] ab = new byte[4096];
+                for (long cbTotal = 0; cbTotal <= MAX_DRAIN; ) {
+                    int cb = read(ab, 0, ab.length);
+                    if (cb < 0) {
+                        return true;
+                    }
+                    cbTotal += cb;
+                }
+                return false;
+            }
+
+            /**
+             * Read the next chunk header (and the trailer after the last chunk).
+             *
+             * @return false iff there are no more chunks
+             */
+            private boolean nextChunk()
+                    throws IOException {
+                if (m_fStarted && !"".equals(readLine())) {
+                    throw new IOException("Invalid chunk terminator");
+                }
+                m_fStarted = true;
+
+                String sSize = readLine();
+                if (sSize == null) {
+                    throw new EOFException("Unexpected end of the request body");
+                }
+
+                int ofExt = sSize.indexOf(';');
+                try {
+                    m_cbLeft = Long.parseLong((ofExt < 0 ? sSize : sSize.substring(0, ofExt)).strip(), 16);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid chunk size: " + sSize);
+                }
+
+                if (m_cbLeft < 0) {
+                    throw new IOException("Invalid chunk size: " + sSize);
+                }
+                if (m_cbLeft == 0) {
+                    // skip the trailer
+                    for (String sLine = readLine(); sLine == null || !sLine.isEmpty(); sLine = readLine()) {
+                        if (sLine == null) {
+                            throw new EOFException("Unexpected end of the request body");
+                        }
+                    }
+                    m_fEof = true;
+                    return false;
+                }
+                return true;
+            }
+
+            private final boolean f_fChunked;
+            private long          m_cbLeft;
+            private boolean       m_fEof;
+            private boolean       m_fStarted;
+        }
+
+
+        // ----- inner class: BodyOutput -----------------------------------------------------------
+
+        /**
+         * The response body stream.
+         */
+        private final class BodyOutput
+                extends OutputStream {
+            @Override
+            public void write(int b)
+                    throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] ab, int of, int cb)
+                    throws IOException {
+                if (m_nStatus < 0) {
+                    throw new IOException("Response headers have not been sent");
+                }
+                if (m_fClosed) {
+                    throw new IOException("Exchange is closed");
+                }
+                if (cb == 0) {
+                    return;
+                }
+
+                switch (m_nMode) {
+                case MODE_NONE:
+                    if (f_fHead) {
+                        // the body of a response to a HEAD request is discarded
+                        return;
+                    }
+                    throw new IOException("The response has no body");
+
+                case MODE_FIXED:
+                    if (cb > m_cbOwed) {
+                        throw new IOException("Too many bytes to write to the response body");
+                    }
+                    HttpConnection.this.write(ab, of, cb);
+                    m_cbOwed -= cb;
+                    break;
+
+                case MODE_CHUNKED:
+                    writeAscii(Integer.toHexString(cb) + "\r\n");
+                    HttpConnection.this.write(ab, of, cb);
+                    writeAscii("\r\n");
+                    break;
+
+                case MODE_CLOSE:
+                    HttpConnection.this.write(ab, of, cb);
+                    break;
+                }
+            }
+
+            @Override
+            public void flush()
+                    throws IOException {
+                if (m_nStatus >= 0 && !m_fClosed) {
+                    HttpConnection.this.flush();
+                }
+            }
+
+            @Override
+            public void close() {
+                Exchange.this.close();
+            }
+        }
+    }
+
+
+    // ----- inner class: TlsExchange --------------------------------------------------------------
+
+    /**
+     * The HttpsExchange for the TLS connections.
+     */
+    private final class TlsExchange
+            extends HttpsExchange {
+        TlsExchange(Exchange exchange) {
+            f_exchange = exchange;
+        }
+
+        @Override
+        public SSLSession getSSLSession() {
+            return m_transport.getSSLSession();
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return f_exchange.getRequestHeaders();
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return f_exchange.getResponseHeaders();
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return f_exchange.getRequestURI();
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return f_exchange.getRequestMethod();
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return f_exchange.getHttpContext();
+        }
+
+        @Override
+        public void close() {
+            f_exchange.close();
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return f_exchange.getRequestBody();
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return f_exchange.getResponseBody();
+        }
+
+        @Override
+        public void sendResponseHeaders(int nStatus, long cbLength)
+                throws IOException {
+            f_exchange.sendResponseHeaders(nStatus, cbLength);
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return f_exchange.getRemoteAddress();
+        }
+
+        @Override
+        public int getResponseCode() {
+            return f_exchange.getResponseCode();
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return f_exchange.getLocalAddress();
+        }
+
+        @Override
+        public String getProtocol() {
+            return f_exchange.getProtocol();
+        }
+
+        @Override
+        public Object getAttribute(String sName) {
+            return f_exchange.getAttribute(sName);
+        }
+
+        @Override
+        public void setAttribute(String sName, Object value) {
+            f_exchange.setAttribute(sName, value);
+        }
+
+        @Override
+        public void setStreams(InputStream in, OutputStream out) {
+            f_exchange.setStreams(in, out);
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return f_exchange.getPrincipal();
+        }
+
+        private final Exchange f_exchange;
+    }
+
+
+    // ----- inner class: BadRequest ---------------------------------------------------------------
+
+    /**
+     * An exception indicating a malformed request that is answered with the specified status.
+     */
+    private static class BadRequest
+            extends IOException {
+        BadRequest(int nStatus) {
+            super("HTTP " + nStatus);
+            f_nStatus = nStatus;
+        }
+
+        final int f_nStatus;
+    }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    private static final int MODE_NONE    = 0;
+    private static final int MODE_FIXED   = 1;
+    private static final int MODE_CHUNKED = 2;
+    private static final int MODE_CLOSE   = 3;
+
+    /**
+     * The maximum number of unread request body bytes that are consumed to keep the connection
+     * alive.
+     */
+    private static final long MAX_DRAIN = 64 * 1024;
+
+    private final VirtualHttpServer f_server;
+    private final Socket            f_socket;
+
+    private volatile HttpTransport m_transport;
+    private volatile Exchange      m_exchange;
+    private volatile boolean       m_fClosed;
+
+    /**
+     * The input buffer and the offsets of the unread bytes in it.
+     */
+    private byte[] m_abIn;
+    private int    m_ofIn;
+    private int    m_cbIn;
+
+    /**
+     * The output buffer (allocated only while a response is being written) and the number of
+     * bytes in it.
+     */
+    private byte[] m_abOut;
+    private int    m_cbOut;
+}
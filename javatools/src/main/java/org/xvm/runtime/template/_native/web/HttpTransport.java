@@ -0,0 +1,385 @@
+package org.xvm.runtime.template._native.web;
+
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.Socket;
+
+import java.nio.ByteBuffer;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+
+/**
+ * The byte transport of a {@link VirtualHttpServer} connection: either the plain socket streams or
+ * a TLS session driven by an {@link SSLEngine} over them.
+ * <p>
+ * A connection is served by a single (virtual) thread at a time, so the transports are not
+ * thread-safe; another thread that needs to abandon the connection closes the socket instead.
+ */
+abstract class HttpTransport {
+    /**
+     * Construct the transport for the specified socket.
+     */
+    protected HttpTransport(Socket socket)
+            throws IOException {
+        f_socket = socket;
+        f_in     = socket.getInputStream();
+        f_out    = socket.getOutputStream();
+    }
+
+    /**
+     * Create a plain (unencrypted) transport.
+     */
+    static HttpTransport plain(Socket socket)
+            throws IOException {
+        return new Plain(socket);
+    }
+
+    /**
+     * Create a TLS transport.
+     *
+     * @param socket   the socket
+     * @param engine   the server-mode SSLEngine for the connection
+     * @param metrics  (optional) the metrics to record the handshake with
+     */
+    static HttpTransport tls(Socket socket, SSLEngine engine, TlsMetrics metrics)
+            throws IOException {
+        return new Tls(socket, engine, metrics);
+    }
+
+    /**
+     * Read some bytes, blocking until at least one is available.
+     *
+     * @return the number of bytes read, or -1 at the end of the stream
+     */
+    abstract int read(byte[] ab, int of, int cb)
+            throws IOException;
+
+    /**
+     * Write all the specified bytes.
+     */
+    abstract void write(byte[] ab, int of, int cb)
+            throws IOException;
+
+    /**
+     * @return the TLS session, or null for a plain transport
+     */
+    SSLSession getSSLSession() {
+        return null;
+    }
+
+    /**
+     * Close the transport and the underlying socket.
+     */
+    void close() {
+        try {
+            f_socket.close();
+        } catch (IOException ignore) {}
+    }
+
+    /**
+     * The socket.
+     */
+    protected final Socket f_socket;
+
+    /**
+     * The socket input.
+     */
+    protected final InputStream f_in;
+
+    /**
+     * The socket output.
+     */
+    protected final OutputStream f_out;
+
+
+    // ----- Plain ---------------------------------------------------------------------------------
+
+    /**
+     * The plain socket transport.
+     */
+    private static class Plain
+            extends HttpTransport {
+        Plain(Socket socket)
+                throws IOException {
+            super(socket);
+        }
+
+        @Override
+        int read(byte[] ab, int of, int cb)
+                throws IOException {
+            return f_in.read(ab, of, cb);
+        }
+
+        @Override
+        void write(byte[] ab, int of, int cb)
+                throws IOException {
+            f_out.write(ab, of, cb);
+        }
+    }
+
+
+    // ----- Tls -----------------------------------------------------------------------------------
+
+    /**
+     * The TLS transport; the handshake is driven lazily by the reads and writes.
+     */
+    private static class Tls
+            extends HttpTransport {
+        Tls(Socket socket, SSLEngine engine, TlsMetrics metrics)
+                throws IOException {
+            super(socket);
+
+            engine.setUseClientMode(false);
+
+            SSLSession session = engine.getSession();
+            f_engine    = engine;
+            f_metrics   = metrics;
+            m_ldtStart  = System.nanoTime();
+            m_bufNetIn  = ByteBuffer.allocate(session.getPacketBufferSize()).flip();
+            m_bufAppIn  = ByteBuffer.allocate(session.getApplicationBufferSize()).flip();
+            m_bufNetOut = ByteBuffer.allocate(session.getPacketBufferSize());
+
+            engine.beginHandshake();
+        }
+
+        @Override
+        int read(byte[] ab, int of, int cb)
+                throws IOException {
+            if (cb == 0) {
+                return 0;
+            }
+
+            while (!m_bufAppIn.hasRemaining()) {
+                if (!unwrapRecord()) {
+                    return -1;
+                }
+            }
+
+            int cbRead = Math.min(cb, m_bufAppIn.remaining());
+            m_bufAppIn.get(ab, of, cbRead);
+            return cbRead;
+        }
+
+        @Override
+        void write(byte[] ab, int of, int cb)
+                throws IOException {
+            ByteBuffer src = ByteBuffer.wrap(ab, of, cb);
+            do {
+                SSLEngineResult result = wrap(src);
+                if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                    throw new EOFException("TLS session closed");
+                }
+
+                if (runHandshake(result.getHandshakeStatus()) == HandshakeStatus.NEED_UNWRAP
+                        && !unwrapRecord()) {
+                    throw new EOFException("TLS session closed");
+                }
+            } while (src.hasRemaining());
+        }
+
+        @Override
+        SSLSession getSSLSession() {
+            return f_engine.getSession();
+        }
+
+        @Override
+        void close() {
+            if (m_ldtStart != 0 && f_metrics != null) {
+                // the handshake has never completed
+                m_ldtStart = 0;
+                f_metrics.failed();
+            }
+
+            try {
+                // send the "close_notify" alert
+                f_engine.closeOutbound();
+                wrap(ByteBuffer.allocate(0));
+            } catch (IOException | RuntimeException ignore) {
+            } finally {
+                super.close();
+            }
+        }
+
+        /**
+         * Unwrap a single TLS record, reading from the socket as necessary.
+         *
+         * @return false iff the session or the stream has been closed
+         */
+        private boolean unwrapRecord()
+                throws IOException {
+            while (true) {
+                SSLEngineResult result;
+                m_bufAppIn.compact();
+                try {
+                    result = f_engine.unwrap(m_bufNetIn, m_bufAppIn);
+                } finally {
+                    m_bufAppIn.flip();
+                }
+
+                switch (result.getStatus()) {
+                case OK:
+                    runHandshake(result.getHandshakeStatus());
+                    return true;
+
+                case BUFFER_UNDERFLOW:
+                    if (!fillNetIn()) {
+                        return false;
+                    }
+                    break;
+
+                case BUFFER_OVERFLOW:
+                    m_bufAppIn = enlarge(m_bufAppIn, f_engine.getSession().getApplicationBufferSize());
+                    break;
+
+                case CLOSED:
+                    runHandshake(result.getHandshakeStatus());
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Wrap (and send) the application data from the specified buffer.
+         */
+        private SSLEngineResult wrap(ByteBuffer src)
+                throws IOException {
+            while (true) {
+                m_bufNetOut.clear();
+                SSLEngineResult result = f_engine.wrap(src, m_bufNetOut);
+                switch (result.getStatus()) {
+                case OK:
+                case CLOSED:
+                    m_bufNetOut.flip();
+                    if (m_bufNetOut.hasRemaining()) {
+                        f_out.write(m_bufNetOut.array(), m_bufNetOut.arrayOffset(),
+                                m_bufNetOut.remaining());
+                    }
+                    return result;
+
+                case BUFFER_OVERFLOW:
+                    m_bufNetOut = ByteBuffer.allocate(Math.max(m_bufNetOut.capacity() * 2,
+                            f_engine.getSession().getPacketBufferSize()));
+                    break;
+
+                case BUFFER_UNDERFLOW:
+                    throw new SSLException("Unexpected TLS wrap underflow");
+                }
+            }
+        }
+
+        /**
+         * Run the handshake steps that don't require reading from the peer.
+         *
+         * @return the resulting handshake status
+         */
+        private HandshakeStatus runHandshake(HandshakeStatus status)
+                throws IOException {
+            while (true) {
+                switch (status) {
+                case NEED_TASK:
+                    for (Runnable task; (task = f_engine.getDelegatedTask()) != null; ) {
+                        task.run();
+                    }
+                    status = f_engine.getHandshakeStatus();
+                    break;
+
+                case NEED_WRAP:
+                    status = wrap(ByteBuffer.allocate(0)).getHandshakeStatus();
+                    if (f_engine.isOutboundDone()) {
+                        return status;
+                    }
+                    break;
+
+                case FINISHED:
+                    if (m_ldtStart != 0) {
+                        if (f_metrics != null) {
+                            f_metrics.completed(f_engine.getSession(), System.nanoTime() - m_ldtStart);
+                        }
+                        m_ldtStart = 0;
+                    }
+                    return status;
+
+                default:
+                    return status;
+                }
+            }
+        }
+
+        /**
+         * Read more encrypted data from the socket.
+         *
+         * @return false iff the end of the stream has been reached
+         */
+        private boolean fillNetIn()
+                throws IOException {
+            ByteBuffer buf = m_bufNetIn.compact();
+            if (!buf.hasRemaining()) {
+                buf = m_bufNetIn = enlarge(buf.flip(), f_engine.getSession().getPacketBufferSize()).compact();
+            }
+
+            int cb = f_in.read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+            if (cb > 0) {
+                buf.position(buf.position() + cb);
+            }
+            buf.flip();
+
+            if (cb < 0) {
+                try {
+                    f_engine.closeInbound();
+                } catch (SSLException ignore) {
+                    // the peer didn't send the "close_notify"
+                }
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return a bigger copy of the specified (readable) buffer
+         */
+        private static ByteBuffer enlarge(ByteBuffer buf, int cbMin) {
+            ByteBuffer bufNew = ByteBuffer.allocate(Math.max(buf.capacity() * 2, cbMin));
+            bufNew.put(buf);
+            return bufNew.flip();
+        }
+
+        /**
+         * The SSLEngine.
+         */
+        private final SSLEngine f_engine;
+
+        /**
+         * The metrics to record the handshake with (optional).
+         */
+        private final TlsMetrics f_metrics;
+
+        /**
+         * The time the handshake started at (in nanoseconds), or zero once it has completed.
+         */
+        private long m_ldtStart;
+
+        /**
+         * The encrypted data read from the socket (in the "read" mode).
+         */
+        private ByteBuffer m_bufNetIn;
+
+        /**
+         * The decrypted application data (in the "read" mode).
+         */
+        private ByteBuffer m_bufAppIn;
+
+        /**
+         * The encrypted data to be written to the socket.
+         */
+        private ByteBuffer m_bufNetOut;
+    }
+}
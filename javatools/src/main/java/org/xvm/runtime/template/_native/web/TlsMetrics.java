@@ -0,0 +1,103 @@
+package org.xvm.runtime.template._native.web;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.net.ssl.SSLSession;
+
+
+/**
+ * The TLS handshake counters and latencies of an HTTPS server.
+ * <p>
+ * Only a full handshake consults the key manager for the server certificate; the key manager
+ * {@link #markFull marks} the handshake session, which allows the transport that drives the
+ * handshake to tell a full handshake from a resumed one when it {@link #completed completes}. The
+ * JDK engine doesn't expose the handshake progress, so with that engine only the full handshakes
+ * are counted; the {@link VirtualHttpServer} reports all of them.
+ */
+final class TlsMetrics {
+    /**
+     * Mark the specified handshake session as a full (not resumed) handshake.
+     */
+    void markFull(SSLSession session) {
+        if (session != null && session.getValue(FULL) == null) {
+            session.putValue(FULL, Boolean.TRUE);
+            f_cFull.increment();
+        }
+    }
+
+    /**
+     * Record a completed handshake.
+     *
+     * @param session  the established session
+     * @param cNanos   the time spent by the handshake
+     */
+    void completed(SSLSession session, long cNanos) {
+        if (session.getValue(FULL) == null) {
+            f_cResumed.increment();
+        } else {
+            // a TLS 1.2 resumption reuses the session object; don't let it look like a full one
+            session.removeValue(FULL);
+        }
+
+        f_cNanosTotal.add(cNanos);
+        f_cNanosMax.accumulateAndGet(cNanos, Math::max);
+    }
+
+    /**
+     * Record a failed or abandoned handshake.
+     */
+    void failed() {
+        f_cFailed.increment();
+    }
+
+    /**
+     * @return the number of full handshakes
+     */
+    long getFullCount() {
+        return f_cFull.sum();
+    }
+
+    /**
+     * @return the number of resumed handshakes
+     */
+    long getResumedCount() {
+        return f_cResumed.sum();
+    }
+
+    /**
+     * @return the number of failed or abandoned handshakes
+     */
+    long getFailedCount() {
+        return f_cFailed.sum();
+    }
+
+    /**
+     * @return the total time spent by the completed handshakes (in nanoseconds)
+     */
+    long getTotalNanos() {
+        return f_cNanosTotal.sum();
+    }
+
+    /**
+     * @return the longest time spent by a completed handshake (in nanoseconds)
+     */
+    long getMaxNanos() {
+        return f_cNanosMax.get();
+    }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The name of the session value that marks a full handshake.
+     */
+    private static final String FULL = "xvm.tls.full";
+
+    private final LongAdder  f_cFull       = new LongAdder();
+    private final LongAdder  f_cResumed    = new LongAdder();
+    private final LongAdder  f_cFailed     = new LongAdder();
+    private final LongAdder  f_cNanosTotal = new LongAdder();
+    private final AtomicLong f_cNanosMax   = new AtomicLong();
+}
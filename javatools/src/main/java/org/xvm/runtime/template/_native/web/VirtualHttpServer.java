@@ -0,0 +1,540 @@
+package org.xvm.runtime.template._native.web;
+
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+
+import java.io.IOException;
+
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+
+
+/**
+ * An HTTP/1.1 server that serves every connection on its own (virtual) thread using blocking
+ * socket I/O, pooled I/O buffers and keep-alive connections; TLS is provided by an
+ * {@link SSLEngine} over the same socket streams.
+ * <p>
+ * The server implements the {@link HttpsServer} API, so the {@link xRTServer} natives can use it
+ * interchangeably with the JDK's {@link HttpServer}; it is selected by the "--http-engine virtual"
+ * launcher option. Unlike the JDK implementation, which multiplexes all connections over a single
+ * selector thread and a shared dispatcher, the only shared state here is the connection set and
+ * the buffer pool.
+ * <p>
+ * The request head is parsed into the {@link com.sun.net.httpserver.Headers} of the exchange,
+ * just like the JDK server does, and the natives create the Ecstasy strings from those on demand;
+ * the header bytes are not parsed directly into the {@code StringArrayHandle}s, since that would
+ * tie the engine to the representation used by the natives.
+ */
+class VirtualHttpServer
+        extends HttpsServer {
+    /**
+     * Construct a server bound to the specified address.
+     */
+    private VirtualHttpServer(InetSocketAddress addr, boolean fTls)
+            throws IOException {
+        f_fTls = fTls;
+        if (addr != null) {
+            bind(addr, 0);
+        }
+    }
+
+    /**
+     * Create a server bound to the specified address.
+     *
+     * @param addr  the address to bind to
+     * @param fTls  true for an HTTPS server, which requires an {@link HttpsConfigurator} to be set
+     *              before it's started
+     */
+    static VirtualHttpServer create(InetSocketAddress addr, boolean fTls)
+            throws IOException {
+        return new VirtualHttpServer(addr, fTls);
+    }
+
+
+    // ----- HttpServer API ------------------------------------------------------------------------
+
+    @Override
+    public synchronized void bind(InetSocketAddress addr, int cBacklog)
+            throws IOException {
+        if (m_socket != null) {
+            throw new BindException("Server is already bound");
+        }
+
+        ServerSocket socket = new ServerSocket();
+        try {
+            socket.setReuseAddress(true);
+            socket.bind(addr, cBacklog > 0 ? cBacklog : DEFAULT_BACKLOG);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        m_socket = socket;
+    }
+
+    @Override
+    public synchronized void start() {
+        ServerSocket socket = m_socket;
+        if (socket == null || m_threadAccept != null || m_fStopped) {
+            throw new IllegalStateException("Server is not bound or has already been started");
+        }
+        if (f_fTls && m_configurator == null) {
+            throw new IllegalStateException("HttpsConfigurator is not set");
+        }
+
+        Executor executor = m_executor;
+        if (executor == null) {
+            executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("HttpConnection@", 0).factory());
+        }
+
+        Executor executorConn = executor;
+        m_threadAccept = Thread.ofVirtual()
+                .name("HttpAcceptor@" + socket.getLocalPort())
+                .start(() -> accept(socket, executorConn));
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        if (m_threadAccept != null) {
+            throw new IllegalStateException("Server has already been started");
+        }
+        m_executor = executor;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return m_executor;
+    }
+
+    @Override
+    public void stop(int cDelaySeconds) {
+        if (cDelaySeconds < 0) {
+            throw new IllegalArgumentException("negative delay");
+        }
+
+        ServerSocket socket;
+        synchronized (this) {
+            if (m_fStopped) {
+                return;
+            }
+            m_fStopped = true;
+            socket     = m_socket;
+        }
+
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignore) {}
+        }
+
+        // give the exchanges in progress a chance to complete
+        long ldtDeadline = System.currentTimeMillis() + cDelaySeconds * 1000L;
+        while (!f_setConnections.isEmpty() && System.currentTimeMillis() < ldtDeadline) {
+            if (f_setConnections.stream().allMatch(HttpConnection::isIdle)) {
+                break;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        for (HttpConnection conn : f_setConnections) {
+            conn.close();
+        }
+        f_setConnections.clear();
+    }
+
+    @Override
+    public HttpContext createContext(String sPath, HttpHandler handler) {
+        Context ctx = (Context) createContext(sPath);
+        ctx.setHandler(handler);
+        return ctx;
+    }
+
+    @Override
+    public HttpContext createContext(String sPath) {
+        if (sPath == null || !sPath.startsWith("/")) {
+            throw new IllegalArgumentException("Invalid context path: " + sPath);
+        }
+
+        Context ctx = new Context(sPath);
+        synchronized (f_listContexts) {
+            for (Context ctxOld : f_listContexts) {
+                if (ctxOld.getPath().equals(sPath)) {
+                    throw new IllegalArgumentException("Context already exists: " + sPath);
+                }
+            }
+            f_listContexts.add(ctx);
+        }
+        return ctx;
+    }
+
+    @Override
+    public void removeContext(String sPath) {
+        synchronized (f_listContexts) {
+            if (!f_listContexts.removeIf(ctx -> ctx.getPath().equals(sPath))) {
+                throw new IllegalArgumentException("No context for " + sPath);
+            }
+        }
+    }
+
+    @Override
+    public void removeContext(HttpContext context) {
+        synchronized (f_listContexts) {
+            if (!f_listContexts.remove(context)) {
+                throw new IllegalArgumentException("Unknown context " + context.getPath());
+            }
+        }
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        ServerSocket socket = m_socket;
+        return socket == null ? null : (InetSocketAddress) socket.getLocalSocketAddress();
+    }
+
+
+    // ----- HttpsServer API -----------------------------------------------------------------------
+
+    @Override
+    public void setHttpsConfigurator(HttpsConfigurator configurator) {
+        if (!f_fTls) {
+            throw new IllegalStateException("Not an HTTPS server");
+        }
+        m_configurator = configurator;
+    }
+
+    @Override
+    public HttpsConfigurator getHttpsConfigurator() {
+        return m_configurator;
+    }
+
+
+    // ----- internal ------------------------------------------------------------------------------
+
+    /**
+     * The acceptor loop.
+     */
+    private void accept(ServerSocket socketServer, Executor executor) {
+        while (!m_fStopped) {
+            Socket socket;
+            try {
+                socket = socketServer.accept();
+            } catch (IOException e) {
+                if (m_fStopped || socketServer.isClosed()) {
+                    return;
+                }
+                continue;
+            }
+
+            HttpConnection conn = null;
+            try {
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(IDLE_TIMEOUT);
+
+                conn = new HttpConnection(this, socket);
+                f_setConnections.add(conn);
+                executor.execute(conn);
+            } catch (SocketException | RejectedExecutionException e) {
+                if (conn == null) {
+                    try {
+                        socket.close();
+                    } catch (IOException ignore) {}
+                } else {
+                    conn.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true iff this is an HTTPS server
+     */
+    boolean isTls() {
+        return f_fTls;
+    }
+
+    /**
+     * @return the metrics to record the TLS handshakes with, or null
+     */
+    TlsMetrics getTlsMetrics() {
+        return m_metrics;
+    }
+
+    /**
+     * Specify the metrics to record the TLS handshakes with.
+     */
+    void setTlsMetrics(TlsMetrics metrics) {
+        m_metrics = metrics;
+    }
+
+    /**
+     * Create and configure the SSLEngine for a new connection.
+     */
+    SSLEngine createEngine(InetSocketAddress addrClient) {
+        HttpsConfigurator configurator = m_configurator;
+        SSLContext        ctxSSL       = configurator.getSSLContext();
+        SSLEngine         engine       = ctxSSL.createSSLEngine(
+                addrClient.getHostString(), addrClient.getPort());
+        engine.setUseClientMode(false);
+
+        configurator.configure(new Parameters(configurator, addrClient, engine));
+        return engine;
+    }
+
+    /**
+     * Find the context with the longest path that is a prefix of the specified request path.
+     *
+     * @return the context or null if there is none
+     */
+    Context findContext(String sPath) {
+        Context ctxBest = null;
+        for (Context ctx : f_listContexts) {
+            String sCtx = ctx.getPath();
+            if (sPath.startsWith(sCtx) &&
+                    (ctxBest == null || sCtx.length() > ctxBest.getPath().length())) {
+                ctxBest = ctx;
+            }
+        }
+        return ctxBest;
+    }
+
+    /**
+     * Called by a connection when it terminates.
+     */
+    void unregister(HttpConnection conn) {
+        f_setConnections.remove(conn);
+    }
+
+    /**
+     * Obtain an I/O buffer from the pool.
+     */
+    static byte[] allocateBuffer() {
+        byte[] ab = s_poolBuffers.poll();
+        return ab == null ? new byte[BUFFER_SIZE] : ab;
+    }
+
+    /**
+     * Return an I/O buffer to the pool.
+     */
+    static void releaseBuffer(byte[] ab) {
+        if (ab != null) {
+            s_poolBuffers.offer(ab);
+        }
+    }
+
+    /**
+     * @return the current time in the "Date" header format
+     */
+    static String formatDate() {
+        long   lSec  = System.currentTimeMillis() / 1000;
+        String sDate = s_sDate;
+        if (sDate == null || lSec != s_lDateSec) {
+            s_sDate    = sDate = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    ZonedDateTime.now(ZoneOffset.UTC));
+            s_lDateSec = lSec;
+        }
+        return sDate;
+    }
+
+
+    // ----- inner class: Context ------------------------------------------------------------------
+
+    /**
+     * The HttpContext implementation.
+     */
+    class Context
+            extends HttpContext {
+        Context(String sPath) {
+            f_sPath = sPath;
+        }
+
+        @Override
+        public HttpHandler getHandler() {
+            return m_handler;
+        }
+
+        @Override
+        public void setHandler(HttpHandler handler) {
+            if (handler == null) {
+                throw new NullPointerException("handler");
+            }
+            if (m_handler != null) {
+                throw new IllegalArgumentException("Handler already set");
+            }
+            m_handler = handler;
+        }
+
+        @Override
+        public String getPath() {
+            return f_sPath;
+        }
+
+        @Override
+        public HttpServer getServer() {
+            return VirtualHttpServer.this;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return f_mapAttributes;
+        }
+
+        @Override
+        public List<Filter> getFilters() {
+            return f_listFilters;
+        }
+
+        @Override
+        public Authenticator setAuthenticator(Authenticator auth) {
+            Authenticator authOld = m_auth;
+            m_auth = auth;
+            return authOld;
+        }
+
+        @Override
+        public Authenticator getAuthenticator() {
+            return m_auth;
+        }
+
+        private final String                 f_sPath;
+        private final Map<String, Object>    f_mapAttributes = new ConcurrentHashMap<>();
+        private final List<Filter>           f_listFilters   = new CopyOnWriteArrayList<>();
+        private volatile HttpHandler         m_handler;
+        private volatile Authenticator       m_auth;
+    }
+
+
+    // ----- inner class: Parameters ---------------------------------------------------------------
+
+    /**
+     * The HttpsParameters that apply the configured SSLParameters to the connection's engine.
+     */
+    private static class Parameters
+            extends HttpsParameters {
+        Parameters(HttpsConfigurator configurator, InetSocketAddress addrClient, SSLEngine engine) {
+            f_configurator = configurator;
+            f_addrClient   = addrClient;
+            f_engine       = engine;
+        }
+
+        @Override
+        public HttpsConfigurator getHttpsConfigurator() {
+            return f_configurator;
+        }
+
+        @Override
+        public InetSocketAddress getClientAddress() {
+            return f_addrClient;
+        }
+
+        @Override
+        public void setSSLParameters(SSLParameters params) {
+            f_engine.setSSLParameters(params);
+        }
+
+        private final HttpsConfigurator f_configurator;
+        private final InetSocketAddress f_addrClient;
+        private final SSLEngine         f_engine;
+    }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The size of the pooled I/O buffers, which is also the maximum length of a single line of a
+     * request head.
+     */
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * The maximum size of a request head (the request line and all the header fields).
+     */
+    static final int MAX_HEAD_SIZE = 64 * 1024;
+
+    /**
+     * The maximum number of header fields in a request head.
+     */
+    static final int MAX_HEADER_COUNT = 200;
+
+    /**
+     * The number of milliseconds a keep-alive connection may stay idle before it's closed; set by
+     * the "xvm.http.idleTimeout" system property.
+     */
+    static final int IDLE_TIMEOUT = Integer.getInteger("xvm.http.idleTimeout", 30_000);
+
+    /**
+     * The maximum number of requests served over a single connection; set by the
+     * "xvm.http.maxKeepAliveRequests" system property.
+     */
+    static final int MAX_KEEP_ALIVE_REQUESTS = Integer.getInteger("xvm.http.maxKeepAliveRequests", 10_000);
+
+    private static final int DEFAULT_BACKLOG = 1024;
+    private static final int MAX_POOLED_BUFFERS = 1024;
+
+    /**
+     * The pool of I/O buffers.
+     */
+    private static final ArrayBlockingQueue<byte[]> s_poolBuffers =
+            new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    /**
+     * The cached "Date" header value and the second it was computed for.
+     */
+    private static volatile String s_sDate;
+    private static volatile long   s_lDateSec;
+
+    /**
+     * True for an HTTPS server.
+     */
+    private final boolean f_fTls;
+
+    /**
+     * The contexts.
+     */
+    private final List<Context> f_listContexts = new CopyOnWriteArrayList<>();
+
+    /**
+     * The open connections.
+     */
+    private final Set<HttpConnection> f_setConnections = ConcurrentHashMap.newKeySet();
+
+    private volatile ServerSocket      m_socket;
+    private volatile Executor          m_executor;
+    private volatile HttpsConfigurator m_configurator;
+    private volatile TlsMetrics        m_metrics;
+    private volatile Thread            m_threadAccept;
+    private volatile boolean           m_fStopped;
+}
@@ -1,6 +1,11 @@
 package org.xvm.runtime.template._native.web;
 
 
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.lang.ref.Cleaner;
+
 import java.net.CookieHandler;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
@@ -10,6 +15,8 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscribers;
 
 import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
@@ -19,12 +26,14 @@ import java.security.cert.X509Certificate;
 import java.time.Duration;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
@@ -33,6 +42,7 @@ import javax.net.ssl.X509TrustManager;
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.ConstantPool;
 import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
 
 import org.xvm.asm.constants.ClassConstant;
 import org.xvm.asm.constants.TypeConstant;
@@ -44,7 +54,10 @@ import org.xvm.runtime.ServiceContext;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.Utils;
 
+import org.xvm.runtime.ObjectHandle.JavaLong;
+
 import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xObject;
 import org.xvm.runtime.template.xService;
 
 import org.xvm.runtime.template.collections.xArray;
@@ -85,6 +98,9 @@ public class xRTConnector
     public void initNative() {
         markNativeMethod("getDefaultHeaders", null, null);
         markNativeMethod("sendRequest", null, null);
+        markNativeMethod("sendStreamingRequest", null, null);
+        markNativeMethod("readResponseBody", null, null);
+        markNativeMethod("closeResponseBody", null, VOID);
 
         invalidateTypeInfo();
     }
@@ -123,6 +139,35 @@ public class xRTConnector
         }
     }
 
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn) {
+        switch (method.getName()) {
+        case "closeResponseBody":
+            ((ResponseBodyHandle) hArg).close();
+            return Op.R_NEXT;
+        }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+    }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn) {
+        switch (method.getName()) {
+        case "readResponseBody": {
+            ConnectorHandle hConnector = (ConnectorHandle) hTarget;
+            return frame.f_context == hConnector.f_context
+                    ? invokeReadResponseBody(frame, (ResponseBodyHandle) ahArg[0],
+                        ((JavaLong) ahArg[1]).getValue(), iReturn)
+                    : xRTFunction.makeAsyncNativeHandle(method).
+                        call1(frame, hConnector, ahArg, iReturn);
+        }
+        }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+    }
+
     @Override
     public int invokeNativeNN(Frame frame, MethodStructure method, ObjectHandle hTarget,
                               ObjectHandle[] ahArg, int[] aiReturn) {
@@ -130,12 +175,14 @@ public class xRTConnector
         case "getDefaultHeaders":
             return invokeGetDefaultHeaders(frame, aiReturn);
 
-        case "sendRequest": {
+        case "sendRequest":
+        case "sendStreamingRequest": {
             ConnectorHandle hConnector = (ConnectorHandle) hTarget;
             return frame.f_context == hConnector.f_context
                     ? invokeSendRequest(frame, hConnector, (StringHandle) ahArg[0],
                         (StringHandle) ahArg[1], (ArrayHandle) ahArg[2],
-                        (ArrayHandle) ahArg[3], (ArrayHandle) ahArg[4], aiReturn)
+                        (ArrayHandle) ahArg[3], (ArrayHandle) ahArg[4],
+                        method.getName().equals("sendStreamingRequest"), aiReturn)
                     : xRTFunction.makeAsyncNativeHandle(method).
                         callN(frame, hConnector, ahArg, aiReturn);
         }
@@ -164,11 +211,18 @@ public class xRTConnector
     /**
      * Implementation of
      *  "(Int statusCode, String[] responseHeaderNames, String[] responseHeaderValues, Byte[] responseBytes)
-     *      sendRequest(String uri, String[] headerNames, String[] headerValues, Byte[] bytes)".
+     *      sendRequest(String uri, String[] headerNames, String[] headerValues, Byte[] bytes)"
+     * and
+     *  "(Int statusCode, String[] responseHeaderNames, String[] responseHeaderValues, ResponseBody responseBody)
+     *      sendStreamingRequest(String uri, String[] headerNames, String[] headerValues, Byte[] bytes)".
+     *
+     * The request is sent asynchronously, so any number of requests can be in flight without
+     * occupying a thread each; the number of concurrent requests per host is limited by the
+     * connector's {@link HostLimiter}.
      */
     private int invokeSendRequest(Frame frame, ConnectorHandle hConn, StringHandle hMethod,
                                   StringHandle hUrl, ArrayHandle hHeaderNames, ArrayHandle hHeaderValues,
-                                  ArrayHandle hBytes, int[] aiReturn) {
+                                  ArrayHandle hBytes, boolean fStreaming, int[] aiReturn) {
         StringArrayHandle haNames  = (StringArrayHandle) hHeaderNames.m_hDelegate;
         StringArrayHandle haValues = (StringArrayHandle) hHeaderValues.m_hDelegate;
         ByteArrayHandle   haBytes  = (ByteArrayHandle)   hBytes.m_hDelegate;
@@ -179,8 +233,8 @@ public class xRTConnector
                     ? Math.max(1, ldtTimeout - frame.f_context.f_container.currentTimeMillis())
                     : 0L;
 
-            HttpRequest.Builder builderRequest =
-                    HttpRequest.newBuilder(new URI(hUrl.getStringValue()));
+            URI                 uri            = new URI(hUrl.getStringValue());
+            HttpRequest.Builder builderRequest = HttpRequest.newBuilder(uri);
 
             for (int i = 0, c = (int) haNames.m_cSize; i < c; i++) {
                 builderRequest.header(haNames.get(i), haValues.get(i));
@@ -200,20 +254,50 @@ public class xRTConnector
 
             HttpClient  client  = hConn.selectClient(cTimeoutMillis);
             HttpRequest request = builderRequest.build();
-
-            Callable<HttpResponse<byte[]>> task = () ->
-                    client.send(request, HttpResponse.BodyHandlers.ofByteArray());
-
-            CompletableFuture<HttpResponse<byte[]>> cfSend = frame.f_context.f_container.scheduleIO(task);
-
-            Frame.Continuation continuation = frameCaller -> {
-                try {
-                    return processResponse(frameCaller, cfSend.get(), aiReturn);
-                } catch (Throwable e) {
-                    return frameCaller.raiseException(
-                        xException.ioException(frameCaller, e.getMessage()));
-                }
-            };
+            String      sHost   = ConnectorHandle.hostKey(uri);
+
+            Frame.Continuation continuation;
+            CompletableFuture<?> cfSend;
+            if (fStreaming) {
+                // the permit is held until the response body has been read, closed or collected;
+                // the body handle is created as soon as the response arrives, so the permit is not
+                // lost even if this fiber never resumes (e.g. it has timed out)
+                CompletableFuture<HttpResponse<ResponseBodyHandle>> cfResponse =
+                        hConn.f_limiter.send(client, request, sHost,
+                            release -> info -> BodySubscribers.mapping(
+                                BodyHandlers.ofInputStream().apply(info),
+                                in -> new ResponseBodyHandle(in, release)),
+                            true);
+                continuation = frameCaller -> {
+                    try {
+                        HttpResponse<ResponseBodyHandle> response = cfResponse.get();
+                        return processResponse(frameCaller, response, response.body(), aiReturn);
+                    } catch (Throwable e) {
+                        return frameCaller.raiseException(
+                            xException.ioException(frameCaller, unwrap(e).getMessage()));
+                    }
+                };
+                cfSend = cfResponse;
+            } else {
+                CompletableFuture<HttpResponse<byte[]>> cfResponse =
+                        hConn.f_limiter.send(client, request, sHost,
+                            _ -> BodyHandlers.ofByteArray(), false);
+                continuation = frameCaller -> {
+                    try {
+                        HttpResponse<byte[]> response   = cfResponse.get();
+                        byte[]               abResponse = response.body();
+                        return processResponse(frameCaller, response,
+                            abResponse == null || abResponse.length == 0
+                                ? xArray.ensureEmptyByteArray()
+                                : xArray.makeByteArrayHandle(abResponse, Mutability.Constant),
+                            aiReturn);
+                    } catch (Throwable e) {
+                        return frameCaller.raiseException(
+                            xException.ioException(frameCaller, unwrap(e).getMessage()));
+                    }
+                };
+                cfSend = cfResponse;
+            }
 
             return frame.waitForIO(cfSend, continuation);
         } catch (Exception e) {
@@ -221,7 +305,64 @@ public class xRTConnector
         }
     }
 
-    private int processResponse(Frame frame, HttpResponse<byte[]> response, int[] aiReturn) {
+    /**
+     * Implementation of "Byte[] readResponseBody(ResponseBody responseBody, Int maxSize)".
+     */
+    private int invokeReadResponseBody(Frame frame, ResponseBodyHandle hBody, long cbMax, int iReturn) {
+        InputStream in   = hBody.f_in;
+        boolean     fAll = cbMax >= Integer.MAX_VALUE;
+        if (!fAll) {
+            try {
+                // the bytes that have already arrived are returned right away
+                int cbReady = in.available();
+                if (cbReady > 0) {
+                    return assignChunk(frame, hBody,
+                            in.readNBytes((int) Math.min(cbReady, cbMax)), false, iReturn);
+                }
+            } catch (IOException e) {
+                hBody.close();
+                return frame.raiseException(xException.ioException(frame, e.getMessage()));
+            }
+        }
+
+        CompletableFuture<byte[]> cfRead = frame.f_context.f_container.scheduleIO(() -> {
+            if (fAll) {
+                return in.readAllBytes();
+            }
+
+            byte[] ab = new byte[(int) cbMax];
+            int    cb = in.read(ab);
+            return cb <= 0 ? EMPTY : cb == ab.length ? ab : Arrays.copyOf(ab, cb);
+        });
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                return assignChunk(frameCaller, hBody, cfRead.get(), fAll, iReturn);
+            } catch (Throwable e) {
+                hBody.close();
+                return frameCaller.raiseException(
+                    xException.ioException(frameCaller, unwrap(e).getMessage()));
+            }
+        };
+        return frame.waitForIO(cfRead, continuation);
+    }
+
+    /**
+     * Assign a chunk of the response body; an empty chunk indicates the end of the body.
+     *
+     * @param fEnd  true iff the chunk is known to be the remainder of the body
+     */
+    private int assignChunk(Frame frame, ResponseBodyHandle hBody, byte[] ab, boolean fEnd,
+                            int iReturn) {
+        if (fEnd || ab.length == 0) {
+            hBody.close();
+        }
+        return frame.assignValue(iReturn, ab.length == 0
+                ? xArray.ensureEmptyByteArray()
+                : xArray.makeByteArrayHandle(ab, Mutability.Constant));
+    }
+
+    private int processResponse(Frame frame, HttpResponse<?> response, ObjectHandle hBody,
+                                int[] aiReturn) {
         try {
             int                       nResponseCode      = response.statusCode();
             Map<String, List<String>> mapResponseHeaders = response.headers().map();
@@ -252,23 +393,31 @@ public class xRTConnector
             String[] asResponseNames  = listResponseNames.toArray(Utils.NO_NAMES);
             String[] asResponseValues = listResponseValues.toArray(Utils.NO_NAMES);
 
-            byte[] abResponse = response.body();
-
-            ObjectHandle hResponseBytes = abResponse == null || abResponse.length == 0
-                    ? xArray.ensureEmptyByteArray()
-                    : xArray.makeByteArrayHandle(abResponse, Mutability.Constant);
-
             return frame.assignValues(aiReturn,
                     xInt64.makeHandle(nResponseCode),
                     xString.makeArrayHandle(asResponseNames),
                     xString.makeArrayHandle(asResponseValues),
-                    hResponseBytes
+                    hBody
                     );
         } catch (Exception e) {
+            if (hBody instanceof ResponseBodyHandle hStream) {
+                hStream.close();
+            }
             return frame.raiseException(xException.ioException(frame, e.getMessage()));
         }
     }
 
+    /**
+     * @return the cause of the specified exception thrown by a future
+     */
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof ExecutionException || e instanceof CompletionException)
+                && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
     private static CookieHandler createCookieHandler() {
         return new CookieManager(null, CookiePolicy.ACCEPT_ALL);
     }
@@ -334,7 +483,11 @@ public class xRTConnector
 
             HttpClient client = f_clientPool[nSlot];
             if (client == null) {
+                // the connections are kept alive and reused by the client; HTTP/2 (negotiated with
+                // the servers that support it) multiplexes the concurrent requests to the same host
+                // over a single connection
                 HttpClient.Builder builderClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
                     .followRedirects(HttpClient.Redirect.NEVER) // we process redirect manually
                     .cookieHandler(f_cookieHandler)
                     .sslContext(f_sslContext);
@@ -346,6 +499,13 @@ public class xRTConnector
             return client;
         }
 
+        /**
+         * @return the key that identifies the host for the {@link HostLimiter}
+         */
+        protected static String hostKey(URI uri) {
+            return uri.getScheme() + "://" + uri.getHost() + ':' + uri.getPort();
+        }
+
         @Override
         public String toString() {
             return "Connector";
@@ -376,11 +536,82 @@ public class xRTConnector
          * TODO: how to close the HttpClients when ConnectionHandle is GC'd?
          */
         private final HttpClient[] f_clientPool = new HttpClient[5];
+
+        /**
+         * The limiter of the number of concurrent requests per host.
+         */
+        protected final HostLimiter f_limiter = new HostLimiter(MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * Native handle holding the stream of a response body that is read incrementally.
+     */
+    protected static class ResponseBodyHandle
+            extends ObjectHandle
+            implements AutoCloseable {
+        protected ResponseBodyHandle(InputStream in, Runnable release) {
+            super(xObject.INSTANCE.getCanonicalClass());
+
+            f_in        = in;
+            f_cleanable = CLEANER.register(this, new Cleanup(in, release));
+            m_fMutable  = false;
+        }
+
+        /**
+         * Close the stream (discarding any unread bytes) and release the host permit. A handle
+         * that is dropped without being closed is closed once it's garbage collected.
+         */
+        @Override
+        public void close() {
+            f_cleanable.clean();
+        }
+
+        /**
+         * The cleanup action; it must not refer to the handle itself.
+         */
+        private record Cleanup(InputStream in, Runnable release)
+                implements Runnable {
+            @Override
+            public void run() {
+                try {
+                    in.close();
+                } catch (IOException ignore) {
+                } finally {
+                    release.run();
+                }
+            }
+        }
+
+        /**
+         * The response body stream.
+         */
+        protected final InputStream f_in;
+
+        /**
+         * The registration of the cleanup action, which runs at most once.
+         */
+        private final Cleaner.Cleanable f_cleanable;
     }
 
 
     // ----- data fields ---------------------------------------------------------------------------
 
+    /**
+     * The max number of concurrent requests per host; the requests over the limit are queued.
+     */
+    private static final int MAX_REQUESTS_PER_HOST =
+            Integer.getInteger("xvm.http.client.maxRequestsPerHost", 64);
+
+    /**
+     * The cleaner that closes the response bodies that have been dropped without being closed.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * An empty chunk.
+     */
+    private static final byte[] EMPTY = new byte[0];
+
     /**
      * Cached agent string.
      */
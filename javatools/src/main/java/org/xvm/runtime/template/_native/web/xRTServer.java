@@ -9,13 +9,23 @@ import com.sun.net.httpserver.HttpsExchange;
 import com.sun.net.httpserver.HttpsParameters;
 import com.sun.net.httpserver.HttpsServer;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import java.lang.ref.Cleaner;
+
 import java.net.InetSocketAddress;
 import java.net.Socket;
 
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
@@ -29,12 +39,16 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.net.ssl.ExtendedSSLSession;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.SNIHostName;
@@ -43,6 +57,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.X509ExtendedKeyManager;
 
 import org.xvm.asm.ClassStructure;
@@ -71,15 +86,19 @@ import org.xvm.runtime.template.collections.xArray.ArrayHandle;
 import org.xvm.runtime.template.collections.xArray.Mutability;
 import org.xvm.runtime.template.collections.xByteArray;
 
+import org.xvm.runtime.template.numbers.xInt64;
 import org.xvm.runtime.template.numbers.xUInt16;
 
 import org.xvm.runtime.template.text.xString;
 import org.xvm.runtime.template.text.xString.StringHandle;
 
+import org.xvm.runtime.template._native.collections.arrays.xRTDelegate.GenericArrayDelegate;
 import org.xvm.runtime.template._native.collections.arrays.xRTStringDelegate.StringArrayHandle;
 
 import org.xvm.runtime.template._native.crypto.xRTKeyStore.KeyStoreHandle;
 
+import org.xvm.runtime.template._native.fs.xOSFileNode.NodeHandle;
+
 import org.xvm.runtime.template._native.reflect.xRTFunction;
 import org.xvm.runtime.template._native.reflect.xRTFunction.FunctionHandle;
 
@@ -87,7 +106,9 @@ import org.xvm.util.Handy;
 
 
 /**
- * Native implementation of the RTServer.x service that uses native Java {@link HttpServer}.
+ * Native implementation of the RTServer.x service that uses native Java {@link HttpServer}: either
+ * the JDK implementation or the {@link VirtualHttpServer} (selected by the "--http-engine" launcher
+ * option).
  */
 public class xRTServer
         extends xService {
@@ -109,7 +130,9 @@ public class xRTServer
         markNativeMethod("replaceRouteImpl", null, BOOLEAN);
         markNativeMethod("setHeaders"      , null, VOID);
         markNativeMethod("setBodyBytes"    , null, VOID);
+        markNativeMethod("sendFile"        , null, VOID);
         markNativeMethod("closeImpl"       , VOID, VOID);
+        markNativeMethod("tlsStatsImpl"    , VOID, null);
 
         markNativeMethod("getReceivedAtAddress",   null, null);
         markNativeMethod("getReceivedFromAddress", null, null);
@@ -199,6 +222,12 @@ public class xRTServer
                     : xRTFunction.makeAsyncNativeHandle(method).
                             call1(frame, hServer, ahArg, iReturn);
 
+        case "sendFile":
+            return frame.f_context == hServer.f_context
+                    ? invokeSendFile(frame, ahArg)
+                    : xRTFunction.makeAsyncNativeHandle(method).
+                            call1(frame, hServer, ahArg, iReturn);
+
         case "readBody":
             return frame.f_context == hServer.f_context
                     ? invokeReadBody(frame, ahArg, iReturn)
@@ -229,6 +258,9 @@ public class xRTServer
         case "getHeaderValuesForName":
             return invokeGetHeaderValues(frame, (HttpContextHandle) ahArg[0],
                     (StringHandle) ahArg[1], aiReturn);
+
+        case "tlsStatsImpl":
+            return invokeTlsStats(frame, (HttpServerHandle) hTarget, aiReturn);
         }
 
         return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
@@ -239,42 +271,57 @@ public class xRTServer
 
     /**
      * Implementation of
-     * "void bindImpl(HostInfo binding, String bindAddr, UInt16 httpPort, UInt16 httpsPort)" method.
+     * "void bindImpl(HostInfo binding, String bindAddr, UInt16 httpPort, UInt16 httpsPort,
+     *                Int sessionCacheSize, Int sessionTimeout, String[] applicationProtocols)"
+     * method.
      */
     private int invokeBind(Frame frame, HttpServerHandle hServer, ObjectHandle[] ahArg) {
         if (hServer.getHttpServer() != null) {
             return frame.raiseException(xException.illegalState(frame, "Server is already configured"));
         }
 
-        ObjectHandle hBinding   =                   ahArg[0];
-        String       sBindAddr  = ((StringHandle)   ahArg[1]).getStringValue();
-        int          nHttpPort  = (int) ((JavaLong) ahArg[2]).getValue();
-        int          nHttpsPort = (int) ((JavaLong) ahArg[3]).getValue();
+        ObjectHandle      hBinding   =                   ahArg[0];
+        String            sBindAddr  = ((StringHandle)   ahArg[1]).getStringValue();
+        int               nHttpPort  = (int) ((JavaLong) ahArg[2]).getValue();
+        int               nHttpsPort = (int) ((JavaLong) ahArg[3]).getValue();
+        long              cSessions  = ((JavaLong) ahArg[4]).getValue();
+        long              cTimeout   = ((JavaLong) ahArg[5]).getValue();
+        StringArrayHandle haAlpn     = (StringArrayHandle) ((ArrayHandle) ahArg[6]).m_hDelegate;
+
+        String[] asAlpn = new String[(int) haAlpn.m_cSize];
+        for (int i = 0, c = asAlpn.length; i < c; i++) {
+            asAlpn[i] = haAlpn.get(i);
+        }
 
         try {
             configureHttpServer (hServer, new InetSocketAddress(sBindAddr, nHttpPort));
-            configureHttpsServer(hServer, new InetSocketAddress(sBindAddr, nHttpsPort));
+            configureHttpsServer(hServer, new InetSocketAddress(sBindAddr, nHttpsPort),
+                                 cSessions, cTimeout, asAlpn);
             configureBinding(hServer, hBinding);
 
             HttpServer  httpServer  = hServer.getHttpServer();
             HttpsServer httpsServer = hServer.getHttpsServer();
 
             // at the moment we only support a single "binding"; set up the thread pool
-            String        sName   = "HttpHandler";
-            ThreadGroup   group   = new ThreadGroup(sName);
-            ThreadFactory factory = r -> {
-                Thread thread = new Thread(group, r);
-                thread.setDaemon(true);
-                thread.setName(sName + "@" + thread.hashCode());
-                return thread;
-            };
-
-            // We don't actually rely on any scaling here; all requests go to a single natural
-            // Handler service instance that needs to demultiplex it as quick as possible
-            // (see HttpHandler.x in xenia.xtclang.org module).
-            // If necessary, we can change the start() method to take an array of handlers and
-            // demultiplex it earlier by the native code
-            Executor executor = Executors.newCachedThreadPool(factory);
+            String   sName = "HttpHandler";
+            Executor executor;
+            if (isVirtualEngine(hServer)) {
+                // every connection is served by its own virtual thread
+                executor = Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name(sName + "@", 0).factory());
+            } else {
+                ThreadGroup   group   = new ThreadGroup(sName);
+                ThreadFactory factory = r -> {
+                    Thread thread = new Thread(group, r);
+                    thread.setDaemon(true);
+                    thread.setName(sName + "@" + thread.hashCode());
+                    return thread;
+                };
+
+                // the exchanges are spread across the route's Handler services by the Router (see
+                // RouteInfo.select), so this pool only needs to hand them off quickly
+                executor = Executors.newCachedThreadPool(factory);
+            }
 
             httpServer.setExecutor(executor);
             httpServer.start();
@@ -298,36 +345,66 @@ public class xRTServer
 
     private void configureHttpServer(HttpServerHandle hServer, InetSocketAddress addr)
             throws IOException {
-        hServer.setHttpServer(HttpServer.create(addr, 0));
+        hServer.setHttpServer(isVirtualEngine(hServer)
+                ? VirtualHttpServer.create(addr, false)
+                : HttpServer.create(addr, 0));
     }
 
-    private void configureHttpsServer(HttpServerHandle hServer, InetSocketAddress addr)
+    /**
+     * Create and configure the HTTPS server.
+     *
+     * @param cSessions  the max number of the cached TLS sessions (zero for no limit)
+     * @param cTimeout   the number of seconds a cached TLS session can be resumed for
+     * @param asAlpn     the ALPN protocol names to negotiate (none if empty)
+     */
+    private void configureHttpsServer(HttpServerHandle hServer, InetSocketAddress addr,
+                                      long cSessions, long cTimeout, String[] asAlpn)
             throws IOException, GeneralSecurityException {
-        HttpsServer httpsServer = HttpsServer.create(addr, 0);
+        HttpsServer httpsServer = isVirtualEngine(hServer)
+                ? VirtualHttpServer.create(addr, true)
+                : HttpsServer.create(addr, 0);
         SSLContext  ctxSSL      = SSLContext.getInstance("TLS");
+        TlsMetrics  metrics     = new TlsMetrics();
 
-        KeyManager[] aKeyManagers = new KeyManager[] {new SimpleKeyManager(hServer)};
+        KeyManager[] aKeyManagers = new KeyManager[] {new SimpleKeyManager(hServer, metrics)};
         ctxSSL.init(aKeyManagers, null, null);
 
+        // the session cache is what allows a reconnecting client to skip the full handshake; the
+        // stateless session tickets (if enabled by the "jdk.tls.server.*" properties) expire
+        // according to the same timeout; the JDK takes int values, so the huge ones are capped
+        SSLSessionContext ctxSessions = ctxSSL.getServerSessionContext();
+        ctxSessions.setSessionCacheSize(Math.clamp(cSessions, 0, Integer.MAX_VALUE));
+        ctxSessions.setSessionTimeout(Math.clamp(cTimeout, 1, Integer.MAX_VALUE));
+
+        // the parameters are the same for every connection, so compute them just once
+        SSLEngine     engine    = ctxSSL.createSSLEngine();
+        SSLParameters paramsSSL = ctxSSL.getSupportedSSLParameters();
+
+        paramsSSL.setNeedClientAuth(false);
+        paramsSSL.setCipherSuites(engine.getEnabledCipherSuites());
+        paramsSSL.setProtocols(engine.getEnabledProtocols());
+        if (asAlpn.length > 0) {
+            paramsSSL.setApplicationProtocols(asAlpn);
+        }
+
         httpsServer.setHttpsConfigurator(new HttpsConfigurator(ctxSSL) {
             @Override
             public void configure(HttpsParameters params) {
-                try {
-                    SSLContext    ctxSSL    = getSSLContext();
-                    SSLEngine     engine    = ctxSSL.createSSLEngine();
-                    SSLParameters paramsSSL = ctxSSL.getSupportedSSLParameters();
-
-                    paramsSSL.setNeedClientAuth(false);
-                    paramsSSL.setCipherSuites(engine.getEnabledCipherSuites());
-                    paramsSSL.setProtocols(engine.getEnabledProtocols());
-
-                    params.setSSLParameters(paramsSSL);
-                } catch (Exception ex) {
-                    throw new RuntimeException("failed to initialize the SSL context", ex);
-                }
+                params.setSSLParameters(paramsSSL);
             }
         });
+        if (httpsServer instanceof VirtualHttpServer serverVirtual) {
+            serverVirtual.setTlsMetrics(metrics);
+        }
         hServer.setHttpsServer(httpsServer);
+        hServer.setTlsMetrics(metrics);
+    }
+
+    /**
+     * @return true iff the server should use the {@link VirtualHttpServer} engine
+     */
+    private static boolean isVirtualEngine(HttpServerHandle hServer) {
+        return hServer.f_context.f_container.f_runtime.isVirtualHttpEngine();
     }
 
     private void configureBinding(HttpServerHandle hServer, ObjectHandle hBinding) {
@@ -336,13 +413,13 @@ public class xRTServer
 
     /**
      * Implementation of "void addRouteImpl(String hostName, UInt16 httpPort, UInt16 httpsPort,
-     *                     HandlerWrapper wrapper, KeyStore keystore, String? tlsKey=Null)" method.
+     *                     HandlerWrapper[] wrappers, KeyStore keystore, String? tlsKey=Null)" method.
      */
     private int invokeAddRoute(Frame frame, HttpServerHandle hServer, ObjectHandle[] ahArg) {
         String         sHostName  = ((StringHandle) ahArg[0]).getStringValue();
         int            nHttpPort  = (int) ((JavaLong) ahArg[1]).getValue();
         int            nHttpsPort = (int) ((JavaLong) ahArg[2]).getValue();
-        ServiceHandle  hWrapper   = (ServiceHandle) ahArg[3];
+        ArrayHandle    haWrapper  = (ArrayHandle) ahArg[3];
         KeyStoreHandle hKeystore  = ahArg[4] instanceof KeyStoreHandle hK ? hK : null;
         String         sTlsKey    = ahArg[5] instanceof StringHandle hS ? hS.getStringValue() : null;
         Router         router     = hServer.getRouter();
@@ -371,8 +448,8 @@ public class xRTServer
             }
         }
 
-        RequestHandler handler = createRequestHandler(frame, hWrapper, hServer);
-        RouteInfo      route   = new RouteInfo(handler, nHttpPort, nHttpsPort, hKeystore, sTlsKey);
+        RequestHandler[] aHandler = createRequestHandlers(frame, haWrapper, hServer);
+        RouteInfo        route    = new RouteInfo(aHandler, nHttpPort, nHttpsPort, hKeystore, sTlsKey);
 
         if (hServer.getHttpServer().getAddress().getHostName().equals(sHostName)) {
             // the "direct" route is only used by the KeyManager when a host name is missing
@@ -393,11 +470,11 @@ public class xRTServer
     }
 
     /**
-     * Implementation of "Boolean replaceRouteImpl(String hostName, HandlerWrapper wrapper)" method.
+     * Implementation of "Boolean replaceRouteImpl(String hostName, HandlerWrapper[] wrappers)" method.
      */
     private int invokeReplaceRoute(Frame frame, HttpServerHandle hServer, ObjectHandle[] ahArg, int iResult) {
         String        sHostName = ((StringHandle) ahArg[0]).getStringValue();
-        ServiceHandle hWrapper  = (ServiceHandle) ahArg[1];
+        ArrayHandle   haWrapper = (ArrayHandle) ahArg[1];
         Router        router    = hServer.getRouter();
         RouteInfo     info      = router.mapRoutes.get(sHostName);
 
@@ -405,12 +482,28 @@ public class xRTServer
             return frame.assignValue(iResult, xBoolean.FALSE);
         }
 
-        RequestHandler handler = createRequestHandler(frame, hWrapper, hServer);
+        RequestHandler[] aHandler = createRequestHandlers(frame, haWrapper, hServer);
         router.mapRoutes.put(sHostName,
-            new RouteInfo(handler, info.nHttpPort, info.nHttpsPort, info.hKeyStore, info.sTlsKey));
+            new RouteInfo(aHandler, info.nHttpPort, info.nHttpsPort, info.hKeyStore, info.sTlsKey));
         return frame.assignValue(iResult, xBoolean.TRUE);
     }
 
+    /**
+     * Create a RequestHandler for each of the HandlerWrapper services in the specified array.
+     */
+    private RequestHandler[] createRequestHandlers(Frame frame, ArrayHandle haWrapper,
+                                                   HttpServerHandle hServer) {
+        GenericArrayDelegate haGeneric = (GenericArrayDelegate) haWrapper.m_hDelegate;
+        int                  cHandlers = (int) haGeneric.m_cSize;
+        assert cHandlers > 0;
+
+        RequestHandler[] aHandler = new RequestHandler[cHandlers];
+        for (int i = 0; i < cHandlers; i++) {
+            aHandler[i] = createRequestHandler(frame, (ServiceHandle) haGeneric.get(i), hServer);
+        }
+        return aHandler;
+    }
+
     private RequestHandler createRequestHandler(Frame frame, ServiceHandle hWrapper, HttpServerHandle hServer) {
         ClassStructure  clzHandler = hWrapper.getTemplate().getStructure();
         MethodStructure method     = clzHandler.findMethodDeep("handle", m -> m.getParamCount() == 5);
@@ -509,20 +602,80 @@ public class xRTServer
 
     /**
      * Implementation of "Byte[] readBody(RequestContext context, Int size)" method.
+     * <p>
+     * The bytes that have already been received are returned right away; otherwise the (blocking)
+     * read is performed on an IO thread, so the service doesn't wait for the peer. Since the
+     * caller asks for the next chunk only after it has consumed the previous one, the amount of
+     * memory used by a streamed body is bounded by the chunk size.
      */
     private int invokeReadBody(Frame frame, ObjectHandle[] ahArg, int iResult) {
-        HttpContextHandle hCtx = (HttpContextHandle) ahArg[0];
-        long              cb    = ((JavaLong) ahArg[1]).getValue();
+        HttpContextHandle hCtx     = (HttpContextHandle) ahArg[0];
+        long              cb       = ((JavaLong) ahArg[1]).getValue();
+        HttpExchange      exchange = hCtx.f_exchange;
+        InputStream       in       = exchange.getRequestBody();
+        int               cbMax    = (int) Math.max(0, Math.min(cb, Integer.MAX_VALUE));
 
         try {
-            InputStream in    = hCtx.f_exchange.getRequestBody();
-            byte[]      ab    = in.readNBytes((int) Math.min(cb, Integer.MAX_VALUE));
-            return frame.assignValue(iResult, ab.length == 0
-                    ? xByteArray.ensureEmptyByteArray()
-                    : xByteArray.makeByteArrayHandle(ab, Mutability.Constant));
+            int cbReady = getReadyBodySize(exchange, in, cbMax);
+            if (cbReady >= 0) {
+                return assignBody(frame, iResult, in.readNBytes(cbReady));
+            }
         } catch (IOException e) {
             return frame.raiseException(xException.obscureIoException(frame, e.getMessage()));
         }
+
+        CompletableFuture<byte[]> cf = frame.f_context.f_container.scheduleIO(
+                () -> in.readNBytes(cbMax));
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                return assignBody(frameCaller, iResult, cf.get());
+            } catch (Throwable e) {
+                return frameCaller.raiseException(
+                        xException.obscureIoException(frameCaller, unwrap(e).getMessage()));
+            }
+        };
+        return frame.waitForIO(cf, continuation);
+    }
+
+    /**
+     * Determine how many bytes of the request body can be read without blocking.
+     *
+     * @param cbMax  the maximum number of bytes requested
+     *
+     * @return the number of bytes to read or -1 if the read may need to wait for the peer
+     */
+    private static int getReadyBodySize(HttpExchange exchange, InputStream in, int cbMax)
+            throws IOException {
+        if (cbMax == 0) {
+            return 0;
+        }
+
+        Headers headers = exchange.getRequestHeaders();
+        String  sLength = headers.getFirst("Content-Length");
+        if (sLength == null) {
+            if (!headers.containsKey("Transfer-Encoding")) {
+                // no body
+                return 0;
+            }
+        } else if (sLength.strip().equals("0")) {
+            return 0;
+        }
+
+        int cbAvail = in.available();
+        if (cbAvail >= cbMax) {
+            return cbMax;
+        }
+        if (cbAvail > 0 && cbMax < Integer.MAX_VALUE) {
+            // a bounded (streaming) read may return fewer bytes than requested
+            return cbAvail;
+        }
+        return -1;
+    }
+
+    private static int assignBody(Frame frame, int iResult, byte[] ab) {
+        return frame.assignValue(iResult, ab.length == 0
+                ? xByteArray.ensureEmptyByteArray()
+                : xByteArray.makeByteArrayHandle(ab, Mutability.Constant));
     }
 
     /**
@@ -563,12 +716,31 @@ public class xRTServer
         return Op.R_NEXT;
     }
 
+    /**
+     * Implementation of "(Int, Int, Int, Int, Int) tlsStatsImpl()" method.
+     */
+    private int invokeTlsStats(Frame frame, HttpServerHandle hServer, int[] aiReturn) {
+        TlsMetrics metrics = hServer.getTlsMetrics();
+        if (metrics == null) {
+            ObjectHandle hZero = xInt64.makeHandle(0);
+            return frame.assignValues(aiReturn, hZero, hZero, hZero, hZero, hZero);
+        }
+
+        return frame.assignValues(aiReturn,
+                xInt64.makeHandle(metrics.getFullCount()),
+                xInt64.makeHandle(metrics.getResumedCount()),
+                xInt64.makeHandle(metrics.getFailedCount()),
+                xInt64.makeHandle(metrics.getTotalNanos()),
+                xInt64.makeHandle(metrics.getMaxNanos()));
+    }
+
     /**
      * Implementation of "void setHeaders(RequestContext context, Int status, String[] names,
      *                                    String[] values, Int responseLength)" method.
      */
     private int invokeSetHeaders(Frame frame, ObjectHandle[] ahArg) {
-        HttpExchange      exchange      = ((HttpContextHandle) ahArg[0]).f_exchange;
+        HttpContextHandle hCtx          = (HttpContextHandle) ahArg[0];
+        HttpExchange      exchange      = hCtx.f_exchange;
         long              nStatus       = ((JavaLong) ahArg[1]).getValue();
         StringArrayHandle hHeaderNames  = (StringArrayHandle) ((ArrayHandle) ahArg[2]).m_hDelegate;
         StringArrayHandle hHeaderValues = (StringArrayHandle) ((ArrayHandle) ahArg[3]).m_hDelegate;
@@ -583,7 +755,7 @@ public class xRTServer
             exchange.sendResponseHeaders((int) nStatus, (int) nLength);
             return Op.R_NEXT;
         } catch (IOException e) {
-            exchange.close();
+            hCtx.close();
             return frame.raiseException(xException.obscureIoException(frame, e.getMessage()));
         }
     }
@@ -593,30 +765,97 @@ public class xRTServer
      * method.
      */
     private int invokeSetBodyBytes(Frame frame, ObjectHandle[] ahArg) {
-        HttpExchange exchange = ((HttpContextHandle) ahArg[0]).f_exchange;
-        ArrayHandle  hBody    = (ArrayHandle) ahArg[1];
-        boolean      fFinal   = ((BooleanHandle) ahArg[2]).get();
+        HttpContextHandle hCtx     = (HttpContextHandle) ahArg[0];
+        HttpExchange      exchange = hCtx.f_exchange;
+        ArrayHandle       hBody    = (ArrayHandle) ahArg[1];
+        boolean           fFinal   = ((BooleanHandle) ahArg[2]).get();
 
         byte[] abBody = xByteArray.getBytes(hBody);
+        if (abBody.length > SYNC_WRITE_LIMIT) {
+            // a large chunk is written on an IO thread; the caller doesn't produce the next chunk
+            // until this one has been sent, which bounds the memory used by a streamed response
+            CompletableFuture<Void> cf = frame.f_context.f_container.scheduleIO(() -> {
+                OutputStream out = exchange.getResponseBody();
+                out.write(abBody);
+                if (fFinal) {
+                    hCtx.close();
+                } else {
+                    out.flush();
+                }
+                return null;
+            });
+            Frame.Continuation continuation = frameCaller -> {
+                try {
+                    cf.get();
+                    return Op.R_NEXT;
+                } catch (Throwable e) {
+                    hCtx.close();
+                    return frameCaller.raiseException(
+                            xException.makeObscure(frameCaller, unwrap(e).getMessage()));
+                }
+            };
+            return frame.waitForIO(cf, continuation);
+        }
+
         if (abBody.length > 0) {
             OutputStream out = exchange.getResponseBody();
             try {
                 out.write(abBody);
             } catch (Throwable e) {
-                exchange.close();
+                hCtx.close();
                 return frame.raiseException(xException.makeObscure(frame, e.getMessage()));
             }
         }
 
         if (fFinal) {
-            exchange.close();
+            hCtx.close();
         }
         return Op.R_NEXT;
     }
 
+    /**
+     * Implementation of "void sendFile(RequestContext context, OSFile file, Int offset, Int length)"
+     * method.
+     *
+     * The file region is transferred to the response body by the FileChannel on an IO thread, so
+     * the file content never enters the Ecstasy heap; the exchange is completed when it's done.
+     */
+    private int invokeSendFile(Frame frame, ObjectHandle[] ahArg) {
+        HttpContextHandle hCtx     = (HttpContextHandle) ahArg[0];
+        HttpExchange      exchange = hCtx.f_exchange;
+        Path              path     = ((NodeHandle) ahArg[1]).getPath();
+        long              lOffset  = ((JavaLong) ahArg[2]).getValue();
+        long              cbLength = ((JavaLong) ahArg[3]).getValue();
+
+        CompletableFuture<Void> cf = frame.f_context.f_container.scheduleIO(() -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                transferFile(channel, lOffset, cbLength, exchange.getResponseBody());
+            } finally {
+                hCtx.close();
+            }
+            return null;
+        });
+        Frame.Continuation continuation = frameCaller -> {
+            try {
+                cf.get();
+                return Op.R_NEXT;
+            } catch (Throwable e) {
+                return frameCaller.raiseException(
+                        xException.makeObscure(frameCaller, unwrap(e).getMessage()));
+            }
+        };
+        return frame.waitForIO(cf, continuation);
+    }
+
 
     // ----- helper methods ------------------------------------------------------------------------
 
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof ExecutionException && e.getCause() != null
+                ? e.getCause()
+                : e;
+    }
+
     protected static String extractHostName(String sHost) {
         if (sHost != null) {
             int ofPort = sHost.lastIndexOf(':');
@@ -627,6 +866,27 @@ public class xRTServer
         return sHost;
     }
 
+    /**
+     * Transfer the specified region of the file to the output stream using
+     * {@link FileChannel#transferTo}. The output stream is not a channel, so the content is still
+     * copied through a bounded heap buffer, but the region is never held in memory as a whole.
+     */
+    protected static void transferFile(FileChannel channel, long lOffset, long cbLength,
+                                       OutputStream out)
+            throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        while (cbLength > 0) {
+            long cb = channel.transferTo(lOffset, cbLength, target);
+            if (cb <= 0) {
+                // the target blocks until everything is written, so nothing is transferred only
+                // when the offset is at (or past) the end of the file
+                throw new EOFException("The file has been truncated: " + lOffset);
+            }
+            lOffset  += cb;
+            cbLength -= cb;
+        }
+    }
+
     protected static int extractHostPort(String sHost, HttpExchange exchange) {
         if (sHost == null) {
             return exchange.getRemoteAddress().getPort();
@@ -655,52 +915,99 @@ public class xRTServer
 
         @Override
         public void handle(HttpExchange exchange) {
+            HttpContextHandle hContext = new HttpContextHandle(exchange, begin(exchange::close));
             try (var ignore = ConstantPool.withPool(f_context.f_pool)) {
                 // call the Handler handle method
-                ObjectHandle[] hArgs = createArguments(exchange);
+                ObjectHandle[] hArgs = createArguments(hContext);
                 f_context.postRequest(null, f_hFunction, hArgs, 0).handle((response, err) -> {
                     // process the response (or error) from calling the Handler handle method
                     // TODO: this should be sent to the natural "unhandledException" handler
                     if (err != null) {
-                        sendError(exchange, err);
+                        sendError(hContext, err);
                     }
                     return null;
                 });
             } catch (Throwable t) {
-                sendError(exchange, t);
+                sendError(hContext, t);
             }
         }
 
-        private ObjectHandle[] createArguments(HttpExchange exchange) {
-            ObjectHandle      hBinding  = f_hServer.getBinding();
-            HttpContextHandle hContext  = new HttpContextHandle(exchange);
-            StringHandle      hURI      = xString.makeHandle(exchange.getRequestURI().toASCIIString());
-            StringHandle      hMethod   = xString.makeHandle(exchange.getRequestMethod());
-            BooleanHandle     hTls      = xBoolean.makeHandle(exchange instanceof HttpsExchange);
+        /**
+         * @return the number of exchanges given to this handler that have not been completed yet
+         */
+        public int getPendingCount() {
+            return f_cPending.get();
+        }
+
+        /**
+         * Count an exchange as pending until it's completed.
+         *
+         * @param close  the action that closes the exchange
+         *
+         * @return the action that closes the exchange and completes it for this handler
+         */
+        protected Runnable begin(Runnable close) {
+            f_cPending.incrementAndGet();
+            return new Completion(close, f_cPending);
+        }
+
+        private ObjectHandle[] createArguments(HttpContextHandle hContext) {
+            HttpExchange  exchange = hContext.f_exchange;
+            ObjectHandle  hBinding = f_hServer.getBinding();
+            StringHandle  hURI     = xString.makeHandle(exchange.getRequestURI().toASCIIString());
+            StringHandle  hMethod  = xString.makeHandle(exchange.getRequestMethod());
+            BooleanHandle hTls     = xBoolean.makeHandle(exchange instanceof HttpsExchange);
             return new ObjectHandle[]{hBinding, hContext, hURI, hMethod, hTls};
         }
 
-        private void sendError(HttpExchange exchange, Throwable t) {
+        private void sendError(HttpContextHandle hContext, Throwable t) {
             t.printStackTrace();
-            try (exchange) {
-                exchange.sendResponseHeaders(500, -1);
+            try {
+                hContext.f_exchange.sendResponseHeaders(500, -1);
             } catch (IOException e) {
                 e.printStackTrace();
+            } finally {
+                hContext.close();
             }
         }
 
         private final ServiceContext   f_context;
         private final FunctionHandle   f_hFunction;
         private final HttpServerHandle f_hServer;
+
+        /**
+         * The number of exchanges given to this handler that have not been completed yet.
+         */
+        private final AtomicInteger f_cPending = new AtomicInteger();
+
+        /**
+         * The completion action; it must not refer to the exchange handle.
+         */
+        private record Completion(Runnable close, AtomicInteger cPending)
+                implements Runnable {
+            @Override
+            public void run() {
+                try {
+                    close.run();
+                } finally {
+                    cPending.decrementAndGet();
+                }
+            }
+        }
     }
 
     /**
-     * X509ExtendedKeyManager based on a single key/certificate.
+     * X509ExtendedKeyManager that picks the key/certificate of the route requested via SNI.
+     * <p>
+     * The key manager is only consulted by the full handshakes, but for those it used to be asked
+     * for the certificate chain and the private key every time, and getting a private key out of a
+     * key store decrypts it; the resolved keys are therefore cached by the host name.
      */
     protected static class SimpleKeyManager
             extends X509ExtendedKeyManager {
-        public SimpleKeyManager(HttpServerHandle hServer) {
+        public SimpleKeyManager(HttpServerHandle hServer, TlsMetrics metrics) {
             f_hServer = hServer;
+            f_metrics = metrics;
         }
 
         @Override
@@ -741,9 +1048,13 @@ public class xRTServer
                 if (route == null) {
                     // TODO: REMOVE
                     System.err.println(Handy.logTime() + " Trace: Handshake with unknown host: " + sHost);
-                } else {
-                    f_tloKeyStore.set(route.hKeyStore);
-                    return route.sTlsKey;
+                } else if (route.sTlsKey != null) {
+                    TlsKey key = resolveKey(sHost == null ? "" : sHost, route);
+                    if (key != null) {
+                        f_metrics.markFull(session);
+                        f_tloKey.set(key);
+                        return key.sAlias;
+                    }
                 }
             } else {
                 // TODO: REMOVE
@@ -760,30 +1071,61 @@ public class xRTServer
 
         @Override
         public X509Certificate[] getCertificateChain(String sAlias) {
-            try {
-                Certificate[] aCerts = f_tloKeyStore.get().f_keyStore.getCertificateChain(sAlias);
-                if (aCerts instanceof X509Certificate[] aX509Certs) {
-                    return aX509Certs;
-                }
-                int               cCerts     = aCerts.length;
-                X509Certificate[] aX509Certs = new X509Certificate[cCerts];
-
-                // this call also asserts that all certificates are X509Certificate instances
-                System.arraycopy(aCerts, 0, aX509Certs, 0, cCerts);
-                return aX509Certs;
-            } catch (KeyStoreException e) {
-                return new X509Certificate[0];
-            }
+            TlsKey key = f_tloKey.get();
+            return key == null || !key.sAlias.equals(sAlias)
+                    ? new X509Certificate[0]
+                    : key.aCerts.clone();
         }
 
         @Override
         public PrivateKey getPrivateKey(String sAlias) {
+            TlsKey key = f_tloKey.get();
+            return key == null || !key.sAlias.equals(sAlias)
+                    ? null
+                    : key.key;
+        }
+
+        /**
+         * Obtain the key for the specified route, resolving it from the route's key store if the
+         * cached key is missing or out of date (the route has been re-added with a different key).
+         *
+         * @param sHost  the requested host name (blank for the "direct" route)
+         * @param route  the route
+         *
+         * @return the key or null if the key store doesn't have it
+         */
+        private TlsKey resolveKey(String sHost, RouteInfo route) {
+            TlsKey key = f_mapKeys.get(sHost);
+            if (key != null && key.hKeyStore == route.hKeyStore && key.sAlias.equals(route.sTlsKey)) {
+                return key;
+            }
+
+            KeyStoreHandle hKeyStore = route.hKeyStore;
+            String         sAlias    = route.sTlsKey;
             try {
-                KeyStoreHandle hKeyStore = f_tloKeyStore.get();
-                return (PrivateKey) hKeyStore.getKey(sAlias);
-            } catch (GeneralSecurityException e) {
+                Certificate[] aCerts = hKeyStore.f_keyStore.getCertificateChain(sAlias);
+                if (aCerts == null) {
+                    return null;
+                }
+
+                X509Certificate[] aX509Certs;
+                if (aCerts instanceof X509Certificate[] aX509) {
+                    aX509Certs = aX509;
+                } else {
+                    int cCerts = aCerts.length;
+                    aX509Certs = new X509Certificate[cCerts];
+
+                    // this call also asserts that all certificates are X509Certificate instances
+                    System.arraycopy(aCerts, 0, aX509Certs, 0, cCerts);
+                }
+
+                key = new TlsKey(hKeyStore, sAlias, aX509Certs, (PrivateKey) hKeyStore.getKey(sAlias));
+            } catch (GeneralSecurityException | ClassCastException e) {
                 return null;
             }
+
+            f_mapKeys.put(sHost, key);
+            return key;
         }
 
         // ----- data fields -----------------------------------------------------------------------
@@ -794,11 +1136,32 @@ public class xRTServer
         private final HttpServerHandle f_hServer;
 
         /**
-         * The key store handle used by the current thread.
+         * The handshake metrics.
          */
-        private final ThreadLocal<KeyStoreHandle> f_tloKeyStore = new ThreadLocal<>();
+        private final TlsMetrics f_metrics;
+
+        /**
+         * The resolved keys keyed by the requested host name.
+         */
+        private final Map<String, TlsKey> f_mapKeys = new ConcurrentHashMap<>();
+
+        /**
+         * The key chosen for the handshake on the current thread.
+         */
+        private final ThreadLocal<TlsKey> f_tloKey = new ThreadLocal<>();
     }
 
+    /**
+     * A resolved key/certificate pair.
+     *
+     * @param hKeyStore  the key store the key came from
+     * @param sAlias     the key name in the key store
+     * @param aCerts     the certificate chain
+     * @param key        the private key
+     */
+    protected record TlsKey(KeyStoreHandle hKeyStore, String sAlias, X509Certificate[] aCerts,
+                            PrivateKey key) {}
+
 
     // ---- Router ---------------------------------------------------------------------------------
 
@@ -824,7 +1187,7 @@ public class xRTServer
                 exchange.sendResponseHeaders(421, -1); // HttpStatus.MisdirectedRequest
                 exchange.close();
             } else {
-                route.handler.handle(exchange);
+                route.select(exchange).handle(exchange);
             }
         }
 
@@ -845,8 +1208,61 @@ public class xRTServer
         }
     }
 
-    protected record RouteInfo(RequestHandler handler, int nHttpPort, int nHttpsPort,
-                               KeyStoreHandle hKeyStore, String sTlsKey) {}
+    /**
+     * The route information.
+     *
+     * @param aHandler  the handlers for the Handler services registered for the route; the
+     *                  exchanges are spread across them according to the "xvm.http.dispatch" policy
+     */
+    protected record RouteInfo(RequestHandler[] aHandler, int nHttpPort, int nHttpsPort,
+                               KeyStoreHandle hKeyStore, String sTlsKey) {
+        /**
+         * Choose the handler for the specified exchange.
+         */
+        public RequestHandler select(HttpExchange exchange) {
+            return select(DISPATCH, exchange);
+        }
+
+        /**
+         * Choose the handler for the specified exchange using the specified policy.
+         */
+        protected RequestHandler select(String sPolicy, HttpExchange exchange) {
+            RequestHandler[] aHandler = this.aHandler;
+            int              cHandler = aHandler.length;
+            if (cHandler == 1) {
+                return aHandler[0];
+            }
+
+            switch (sPolicy) {
+            case "round-robin":
+                return aHandler[Math.floorMod(s_nNext.getAndIncrement(), cHandler)];
+
+            case "connection":
+                // keep all exchanges of a connection on the same handler
+                return aHandler[Math.floorMod(exchange.getRemoteAddress().hashCode(), cHandler)];
+
+            default: // "least-pending"
+                // rotate the starting point, so the ties don't always go to the first handler
+                int            iStart   = Math.floorMod(s_nNext.getAndIncrement(), cHandler);
+                RequestHandler handler  = aHandler[iStart];
+                int            cPending = handler.getPendingCount();
+                for (int i = 1; i < cHandler && cPending > 0; i++) {
+                    RequestHandler handlerNext = aHandler[(iStart + i) % cHandler];
+                    int            cNext       = handlerNext.getPendingCount();
+                    if (cNext < cPending) {
+                        handler  = handlerNext;
+                        cPending = cNext;
+                    }
+                }
+                return handler;
+            }
+        }
+
+        /**
+         * The rotating counter used by the selection policies.
+         */
+        private static final AtomicInteger s_nNext = new AtomicInteger();
+    }
 
 
     // ----- ObjectHandles -------------------------------------------------------------------------
@@ -860,7 +1276,7 @@ public class xRTServer
          * The underlying native state needs to be kept in an array, so cloning the handle would
          * not splinter the state.
          */
-        private final Object[] f_aoNative = new Object[3];
+        private final Object[] f_aoNative = new Object[4];
 
         protected HttpServerHandle(TypeComposition clazz, ServiceContext context) {
             super(clazz, context);
@@ -916,6 +1332,17 @@ public class xRTServer
             f_aoNative[2] = httpsServer;
         }
 
+        /**
+         * @return the TLS handshake metrics of the HTTPS server
+         */
+        protected TlsMetrics getTlsMetrics() {
+            return (TlsMetrics) f_aoNative[3];
+        }
+
+        protected void setTlsMetrics(TlsMetrics metrics) {
+            f_aoNative[3] = metrics;
+        }
+
         protected ObjectHandle getBinding() {
             Router router = getRouter();
             return router == null
@@ -952,22 +1379,54 @@ public class xRTServer
      */
     protected static class HttpContextHandle
                 extends ObjectHandle {
-        public HttpContextHandle(HttpExchange exchange) {
+        public HttpContextHandle(HttpExchange exchange, Runnable complete) {
             super(xObject.INSTANCE.getCanonicalClass());
 
-            f_exchange = exchange;
-            m_fMutable = false;
+            f_exchange  = exchange;
+            f_cleanable = CLEANER.register(this, complete);
+            m_fMutable  = false;
+        }
+
+        /**
+         * Close the exchange, completing it for the handler it was given to. An exchange whose
+         * handle is dropped without being closed (e.g. by a Handler that never responds) is closed
+         * once the handle is garbage collected.
+         */
+        public void close() {
+            f_cleanable.clean();
         }
 
         /**
          * The wrapped {@link HttpExchange}.
          */
         public final HttpExchange f_exchange;
+
+        /**
+         * The registration of the completion action, which runs at most once.
+         */
+        private final Cleaner.Cleanable f_cleanable;
     }
 
 
     // ----- data fields and constants -------------------------------------------------------------
 
+    /**
+     * The largest response chunk that is written directly on the service thread; a write that
+     * small doesn't block on a healthy connection.
+     */
+    private static final int SYNC_WRITE_LIMIT = 16 * 1024;
+
+    /**
+     * The policy used to spread the exchanges across the Handler services registered for a route:
+     * "least-pending" (the default), "round-robin", or "connection" (by the client address).
+     */
+    private static final String DISPATCH = System.getProperty("xvm.http.dispatch", "least-pending");
+
+    /**
+     * The cleaner that completes the exchanges whose handles were dropped without being closed.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
     /**
      * Cached canonical type.
      */
@@ -0,0 +1,365 @@
+package org.xvm.tool;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.xvm.util.Handy.byteArrayToHexString;
+import static org.xvm.util.Handy.parseDelimitedString;
+import static org.xvm.util.Handy.readFileBytes;
+import static org.xvm.util.Handy.removeExtension;
+
+
+/**
+ * The build manifest is a "sidecar" file stored next to a compiled module (e.g. "app.deps" next to
+ * "app.xtc"), which records what the module was compiled from:
+ * <ul>
+ *   <li>the content hash, size and modification time of every source file, so that touching (or
+ *       checking out) a file without changing its content does not force a recompilation;</li>
+ *   <li>the compiled module files of the imported modules and their timestamps, so that a module
+ *       gets recompiled when any module it depends on has been recompiled.</li>
+ * </ul>
+ * The dependency tracking is done at the granularity of a module: a change to any source file of
+ * a module recompiles the entire module, and a recompilation of a module recompiles all the
+ * modules that import it.
+ * <p>
+ * A source file is only hashed if its size is unchanged, but its modification time differs from
+ * the recorded one; if the content turns out to be unchanged, the manifest is updated with the new
+ * modification time, so the file is not hashed again by the next build.
+ */
+public final class BuildManifest {
+    /**
+     * Construct a BuildManifest.
+     *
+     * @param file        the manifest file
+     * @param mapSources  the source stamps keyed by the source file path relative to the module
+     *                    source directory
+     * @param mapImports  the imported module files keyed by the module name
+     * @param mapTimes    the imported module file timestamps keyed by the module name
+     */
+    private BuildManifest(File                     file,
+                          Map<String, SourceStamp> mapSources,
+                          Map<String, String>      mapImports,
+                          Map<String, Long>        mapTimes) {
+        f_file       = file;
+        f_mapSources = mapSources;
+        f_mapImports = mapImports;
+        f_mapTimes   = mapTimes;
+    }
+
+    /**
+     * Load the build manifest for the specified module.
+     *
+     * @param info  the module info
+     *
+     * @return the manifest, or null if it doesn't exist or cannot be read
+     */
+    public static BuildManifest load(ModuleInfo info) {
+        File file = fileFor(info);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            props.load(in);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+
+        Map<String, SourceStamp> mapSources = new TreeMap<>();
+        Map<String, String>      mapImports = new TreeMap<>();
+        Map<String, Long>        mapTimes   = new TreeMap<>();
+        try {
+            for (String sKey : props.stringPropertyNames()) {
+                String sValue = props.getProperty(sKey);
+                if (sKey.startsWith(SOURCE)) {
+                    SourceStamp stamp = SourceStamp.parse(sValue);
+                    if (stamp == null) {
+                        return null;
+                    }
+                    mapSources.put(sKey.substring(SOURCE.length()), stamp);
+                } else if (sKey.startsWith(IMPORT) && sKey.endsWith(FILE)) {
+                    mapImports.put(sKey.substring(IMPORT.length(), sKey.length() - FILE.length()),
+                            sValue);
+                } else if (sKey.startsWith(IMPORT) && sKey.endsWith(TIME)) {
+                    mapTimes.put(sKey.substring(IMPORT.length(), sKey.length() - TIME.length()),
+                            Long.parseLong(sValue));
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new BuildManifest(file, mapSources, mapImports, mapTimes);
+    }
+
+    /**
+     * Create and store the build manifest for the specified (just compiled) module.
+     *
+     * @param info        the module info
+     * @param mapImports  the compiled files of the imported modules keyed by the module name; the
+     *                    modules without a known file are skipped
+     */
+    public static void store(ModuleInfo info, Map<String, File> mapImports)
+            throws IOException {
+        File file = fileFor(info);
+        if (file == null) {
+            return;
+        }
+
+        MessageDigest            digest     = newDigest();
+        Map<String, SourceStamp> mapSources = new TreeMap<>();
+        for (Map.Entry<String, File> entry : listSources(info).entrySet()) {
+            File fileSrc = entry.getValue();
+            mapSources.put(entry.getKey(), new SourceStamp(hash(digest, fileSrc),
+                    fileSrc.length(), fileSrc.lastModified()));
+        }
+
+        Map<String, String> mapImportFiles = new TreeMap<>();
+        Map<String, Long>   mapTimes       = new TreeMap<>();
+        for (Map.Entry<String, File> entry : mapImports.entrySet()) {
+            File fileImport = entry.getValue();
+            if (fileImport != null && fileImport.exists()) {
+                mapImportFiles.put(entry.getKey(), fileImport.getAbsolutePath());
+                mapTimes.put(entry.getKey(), fileImport.lastModified());
+            }
+        }
+
+        new BuildManifest(file, mapSources, mapImportFiles, mapTimes)
+                .write(info.getQualifiedModuleName());
+    }
+
+    /**
+     * Delete the build manifest for the specified module, if any.
+     *
+     * @param info  the module info
+     */
+    public static void delete(ModuleInfo info) {
+        File file = fileFor(info);
+        if (file != null && file.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    /**
+     * @return the names of the imported modules recorded in this manifest
+     */
+    public Set<String> getImportNames() {
+        return Collections.unmodifiableSet(f_mapImports.keySet());
+    }
+
+    /**
+     * Check whether the current source files of the module have exactly the content recorded in
+     * this manifest. If any file has been touched without changing its content, the manifest file
+     * is updated with the new modification time.
+     *
+     * @param info  the module info
+     *
+     * @return true iff the current source files of the module have exactly the content recorded in
+     *         this manifest
+     */
+    public boolean isSourceCurrent(ModuleInfo info) {
+        try {
+            Map<String, File> mapFiles = listSources(info);
+            if (!mapFiles.keySet().equals(f_mapSources.keySet())) {
+                return false;
+            }
+
+            MessageDigest digest   = null;
+            boolean       fRefresh = false;
+            for (Map.Entry<String, File> entry : mapFiles.entrySet()) {
+                File        file    = entry.getValue();
+                SourceStamp stamp   = f_mapSources.get(entry.getKey());
+                long        ldtFile = file.lastModified();
+                if (file.length() != stamp.cBytes()) {
+                    return false;
+                }
+                if (ldtFile != stamp.ldtModified()) {
+                    if (digest == null) {
+                        digest = newDigest();
+                    }
+                    if (!hash(digest, file).equals(stamp.sHash())) {
+                        return false;
+                    }
+                    f_mapSources.put(entry.getKey(),
+                            new SourceStamp(stamp.sHash(), stamp.cBytes(), ldtFile));
+                    fRefresh = true;
+                }
+            }
+
+            if (fRefresh) {
+                try {
+                    write(info.getQualifiedModuleName());
+                } catch (IOException ignore) {
+                    // the manifest is just an optimization; the files will be hashed again
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true iff none of the imported modules' compiled files has changed since the module
+     *         was compiled
+     */
+    public boolean isImportCurrent() {
+        for (Map.Entry<String, String> entry : f_mapImports.entrySet()) {
+            File fileImport = new File(entry.getValue());
+            Long lTime      = f_mapTimes.get(entry.getKey());
+            if (lTime == null || !fileImport.exists() || fileImport.lastModified() != lTime) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Write this manifest to its file.
+     *
+     * @param sModule  the module name (for the file comment)
+     */
+    private void write(String sModule)
+            throws IOException {
+        Properties props = new Properties();
+        for (Map.Entry<String, SourceStamp> entry : f_mapSources.entrySet()) {
+            props.setProperty(SOURCE + entry.getKey(), entry.getValue().toString());
+        }
+        for (Map.Entry<String, String> entry : f_mapImports.entrySet()) {
+            String sName = entry.getKey();
+            props.setProperty(IMPORT + sName + FILE, entry.getValue());
+            props.setProperty(IMPORT + sName + TIME, String.valueOf(f_mapTimes.get(sName)));
+        }
+
+        try (Writer out = Files.newBufferedWriter(f_file.toPath(), StandardCharsets.UTF_8)) {
+            props.store(out, "Ecstasy build manifest for " + sModule);
+        }
+    }
+
+    /**
+     * @return the manifest file for the specified module, or null if the module has no known
+     *         binary location
+     */
+    private static File fileFor(ModuleInfo info) {
+        File fileBin = info.getBinaryFile();
+        return fileBin == null
+                ? null
+                : new File(fileBin.getParentFile(), removeExtension(fileBin.getName()) + ".deps");
+    }
+
+    /**
+     * @return the module source files keyed by the path relative to the module source directory
+     */
+    private static Map<String, File> listSources(ModuleInfo info) {
+        File       fileSrc   = info.getSourceFile();
+        List<File> listFiles = info.getSourceFiles();
+        if (fileSrc == null || listFiles.isEmpty()) {
+            return new TreeMap<>();
+        }
+
+        String            sRoot   = fileSrc.getAbsoluteFile().getParent();
+        Map<String, File> mapFile = new TreeMap<>();
+        for (File file : listFiles) {
+            String sPath = file.getAbsolutePath();
+            if (sPath.startsWith(sRoot)) {
+                sPath = sPath.substring(sRoot.length() + 1);
+            }
+            mapFile.put(sPath.replace(File.separatorChar, '/'), file);
+        }
+        return mapFile;
+    }
+
+    /**
+     * @return a new SHA-256 digest
+     */
+    private static MessageDigest newDigest()
+            throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * @return the content hash of the specified file
+     */
+    private static String hash(MessageDigest digest, File file)
+            throws IOException {
+        return byteArrayToHexString(digest.digest(readFileBytes(file)));
+    }
+
+    /**
+     * The recorded state of a source file.
+     *
+     * @param sHash        the content hash
+     * @param cBytes       the file size
+     * @param ldtModified  the file modification time
+     */
+    private record SourceStamp(String sHash, long cBytes, long ldtModified) {
+        /**
+         * @return the SourceStamp for the specified manifest value, or null if it is malformed
+         */
+        static SourceStamp parse(String sValue) {
+            String[] asPart = parseDelimitedString(sValue, ',');
+            if (asPart.length != 3 || asPart[0].isEmpty()) {
+                return null;
+            }
+            return new SourceStamp(asPart[0], Long.parseLong(asPart[1]), Long.parseLong(asPart[2]));
+        }
+
+        @Override
+        public String toString() {
+            return sHash + ',' + cBytes + ',' + ldtModified;
+        }
+    }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    private static final String SOURCE = "source.";
+    private static final String IMPORT = "import.";
+    private static final String FILE   = ".file";
+    private static final String TIME   = ".time";
+
+    /**
+     * The manifest file.
+     */
+    private final File f_file;
+
+    /**
+     * The source file stamps keyed by the relative path.
+     */
+    private final Map<String, SourceStamp> f_mapSources;
+
+    /**
+     * The imported module file paths keyed by the module name.
+     */
+    private final Map<String, String> f_mapImports;
+
+    /**
+     * The imported module file timestamps keyed by the module name.
+     */
+    private final Map<String, Long> f_mapTimes;
+}
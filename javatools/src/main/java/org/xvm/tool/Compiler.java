@@ -4,10 +4,12 @@ package org.xvm.tool;
 import java.io.File;
 import java.io.IOException;
 
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.ConstantPool;
@@ -19,6 +21,7 @@ import org.xvm.asm.ModuleRepository;
 import org.xvm.asm.ModuleStructure;
 import org.xvm.asm.Version;
 
+import org.xvm.asm.constants.ModuleConstant;
 import org.xvm.asm.constants.TypeConstant;
 
 import org.xvm.compiler.Token.Id;
@@ -218,13 +221,15 @@ public class Compiler extends Launcher<CompilerOptions> {
         log(INFO, "Output-path={}, force-rebuild={}", outputLoc, fRebuild);
 
         final var mapTargets     = new LinkedHashMap<File, Node>();
+        final var setStale       = collectStaleModules(targets, fRebuild);
         var       cSystemModules = 0;
+        var       lStart         = System.nanoTime();
         for (var moduleInfo : targets) {
             log(INFO, "Loading and parsing sources for module: {}",
                     moduleInfo.getQualifiedModuleName());
             var node = moduleInfo.getSourceTree(this);
             // short-circuit the compilation of any up-to-date modules
-            if (fRebuild || !moduleInfo.isUpToDate()) {
+            if (setStale.contains(moduleInfo)) {
                 mapTargets.put(moduleInfo.getSourceFile(), node);
                 if (moduleInfo.isSystemModule()) {
                     ++cSystemModules;
@@ -236,6 +241,8 @@ public class Compiler extends Launcher<CompilerOptions> {
                 addVersion(moduleInfo, verStamp.get());
             }
         }
+        log(INFO, "Loaded and parsed {} module(s) in {} ms", targets.size(),
+                (System.nanoTime() - lStart) / 1_000_000);
         checkErrors("source loading");
 
         if (mapTargets.isEmpty()) {
@@ -298,10 +305,97 @@ public class Compiler extends Launcher<CompilerOptions> {
         emitModules(allNodes, repoOutput);
         flushAndCheckErrors(allNodes);
 
+        storeBuildManifests(allNodes, infoByName, repoLib);
+
         log(INFO, "Finished; terminating compiler");
         return hasSeriousErrors() ? 1 : 0;
     }
 
+    /**
+     * Determine the modules that need to be compiled: the ones that are not up-to-date, plus the
+     * ones that depend on any of those (according to their build manifests).
+     *
+     * @param targets   the target modules
+     * @param fRebuild  true iff all the modules must be rebuilt
+     *
+     * @return the set of modules to compile
+     */
+    protected Set<ModuleInfo> collectStaleModules(List<ModuleInfo> targets, boolean fRebuild) {
+        final var setStale = new HashSet<ModuleInfo>();
+        final var setNames = new HashSet<String>();
+        for (var info : targets) {
+            if (fRebuild || !info.isUpToDate()) {
+                setStale.add(info);
+                setNames.add(info.getQualifiedModuleName());
+            }
+        }
+
+        if (!fRebuild) {
+            boolean fChanged;
+            do {
+                fChanged = false;
+                for (var info : targets) {
+                    if (!setStale.contains(info)) {
+                        var manifest = info.getBuildManifest();
+                        if (manifest != null && manifest.getImportNames().stream()
+                                .anyMatch(setNames::contains)) {
+                            log(INFO, "Module {} depends on a module being compiled",
+                                    info.getQualifiedModuleName());
+                            setStale.add(info);
+                            setNames.add(info.getQualifiedModuleName());
+                            fChanged = true;
+                        }
+                    }
+                }
+            } while (fChanged);
+        }
+        return setStale;
+    }
+
+    /**
+     * Store the build manifest for each compiled module, describing the sources and the imported
+     * modules that the module has been compiled from.
+     *
+     * @param allNodes    the list of module sources that have been compiled
+     * @param infoByName  the target module infos by name
+     * @param repoLib     the library repository
+     */
+    protected void storeBuildManifests(List<Node>              allNodes,
+                                       Map<String, ModuleInfo> infoByName,
+                                       ModuleRepository        repoLib) {
+        for (var node : allNodes) {
+            var info   = node.moduleInfo();
+            var module = (ModuleStructure) node.type().getComponent();
+
+            var mapImports = new LinkedHashMap<String, File>();
+            for (ModuleConstant idModule : module.getFileStructure().moduleIds()) {
+                var sName = idModule.getName();
+                if (sName.equals(module.getName())) {
+                    continue;
+                }
+
+                var infoImport = infoByName.get(sName);
+                if (infoImport != null) {
+                    mapImports.put(sName, infoImport.getBinaryFile());
+                } else {
+                    var moduleImport = repoLib.loadModule(sName);
+                    if (moduleImport != null) {
+                        mapImports.put(sName, moduleImport.getFileStructure().getOSFile());
+                    }
+                }
+            }
+
+            try {
+                BuildManifest.store(info, mapImports);
+            } catch (IOException e) {
+                // the manifest is just an optimization; without it, the module is rebuilt next time
+                log(WARNING, "Failed to store the build manifest for {}: {}",
+                        info.getQualifiedModuleName(), e);
+                BuildManifest.delete(info);
+            }
+        }
+    }
+
     /**
      * The compiler depends on the NakedRef type from the prototype module being available to each
      * ConstantPool in the modules being compiled. This method injects that turtle.
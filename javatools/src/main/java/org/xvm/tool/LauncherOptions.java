@@ -78,7 +78,13 @@ public abstract class LauncherOptions {
         .addOption(builder("o").argName("file").hasArg()
             .desc("If compilation is necessary, the file or directory to write compiler output to").get())
         .addOption(builder("I").longOpt("inject").argName("name=value").hasArg()
-            .desc("Specifies name/value pairs for injection; format is 'name=value'").get());
+            .desc("Specifies name/value pairs for injection; format is 'name=value'").get())
+        .addOption(builder().longOpt("profile").argName("file").hasArg()
+            .desc("Profile the execution; write the collapsed stacks and the report to the file").get())
+        .addOption(builder().longOpt("profile-interval").argName("millis").hasArg()
+            .desc("The profiler sampling interval in milliseconds; defaults to 10").get())
+        .addOption(builder().longOpt("http-engine").argName("engine").hasArg()
+            .desc("The HTTP server engine: 'jdk' (default) or 'virtual' (virtual thread per connection)").get());
 
     /**
      * Apache Commons CLI Options schema for the runner.
@@ -946,6 +952,35 @@ public abstract class LauncherOptions {
             return optionValue("o").map(File::new);
         }
 
+        public Optional<File> getProfileFile() {
+            return optionValue("profile").map(File::new);
+        }
+
+        /**
+         * @return the profiler sampling interval in milliseconds, or -1 if the specified value is
+         *         not a valid number
+         */
+        public long getProfileInterval() {
+            return getProfileIntervalOption().map(s -> {
+                try {
+                    return Long.parseLong(s.trim());
+                } catch (NumberFormatException e) {
+                    return -1L;
+                }
+            }).orElse(10L);
+        }
+
+        /**
+         * @return the profiler sampling interval as specified on the command line
+         */
+        public Optional<String> getProfileIntervalOption() {
+            return optionValue("profile-interval");
+        }
+
+        public Optional<String> getHttpEngine() {
+            return optionValue("http-engine");
+        }
+
         public List<String> getMethodArgs() {
             // Everything after the first trailing arg goes to the method
             final var trailing = getTrailingArgs();
@@ -998,6 +1033,14 @@ public abstract class LauncherOptions {
             // Add output file
             getOutputFile().ifPresent(output -> args.addAll(List.of("-o", output.getPath())));
 
+            // Add profiler settings
+            getProfileFile().ifPresent(file -> args.addAll(List.of("--profile", file.getPath())));
+            getProfileIntervalOption().ifPresent(
+                millis -> args.addAll(List.of("--profile-interval", millis)));
+
+            // Add the HTTP engine
+            getHttpEngine().ifPresent(engine -> args.addAll(List.of("--http-engine", engine)));
+
             // Add injections - each value in the list gets its own -I flag
             getInjections().forEach((key, values) ->
                 values.forEach(value -> args.addAll(List.of("-I", key + "=" + value))));
@@ -1115,6 +1158,30 @@ public abstract class LauncherOptions {
                 return setOutputLocation(new File(output));
             }
 
+            /**
+             * Profile the execution.
+             *
+             * @param output the profiler output file
+             */
+            @SuppressWarnings("unused")
+            public Builder enableProfiling(final File output) {
+                removeeArgsAndValues("--profile");
+                args.addAll(List.of("--profile", output.getPath()));
+                return this;
+            }
+
+            /**
+             * Select the HTTP server engine.
+             *
+             * @param engine "jdk" or "virtual"
+             */
+            @SuppressWarnings("unused")
+            public Builder setHttpEngine(final String engine) {
+                removeeArgsAndValues("--http-engine");
+                args.addAll(List.of("--http-engine", engine));
+                return this;
+            }
+
             /**
              * Add a name=value injection for the module.
              *
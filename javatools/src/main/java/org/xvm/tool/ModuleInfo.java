@@ -355,9 +355,27 @@ public class ModuleInfo {
      */
     public boolean isUpToDate() {
         long binTimestamp = getBinaryTimestamp();
-        return binTimestamp >  0L
-            && binTimestamp >= getSourceTimestamp()
-            && binTimestamp >= getResourceTimestamp();
+        if (binTimestamp == 0L || binTimestamp < getResourceTimestamp()) {
+            return false;
+        }
+
+        // the build manifest (if any) allows to ignore the source files that have been touched
+        // without changing, and to detect the imported modules that have been recompiled
+        BuildManifest manifest = getBuildManifest();
+        if (binTimestamp >= getSourceTimestamp()) {
+            return manifest == null || manifest.isImportCurrent();
+        }
+        return manifest != null && manifest.isImportCurrent() && manifest.isSourceCurrent(this);
+    }
+
+    /**
+     * @return the build manifest stored next to the compiled module, or null if none
+     */
+    public BuildManifest getBuildManifest() {
+        if (buildManifest == null && getBinaryTimestamp() > 0L) {
+            buildManifest = BuildManifest.load(this);
+        }
+        return buildManifest;
     }
 
     /**
@@ -471,6 +489,28 @@ public class ModuleInfo {
     }
 
 
+    /**
+     * @return the module source file followed by all the source files within the module source
+     *         directory (if it is a source tree), in a stable order
+     */
+    public List<File> getSourceFiles() {
+        File fileSrc = getSourceFile();
+        if (fileSrc == null || !fileSrc.exists()) {
+            return List.of();
+        }
+
+        List<File> listFiles = new ArrayList<>();
+        listFiles.add(fileSrc);
+        if (isSourceTree()) {
+            File subDir = new File(fileSrc.getParentFile(), removeExtension(fileSrc.getName()));
+            if (subDir.isDirectory()) {
+                collectFiles(subDir, "x").forEach(listFiles::add);
+            }
+        }
+        return listFiles;
+    }
+
+
     // ----- resources -----------------------------------------------------------------------------
 
     /**
@@ -989,22 +1029,50 @@ public class ModuleInfo {
 
         /**
          * Parse this node and all nodes it contains.
+         * <p>
+         * Each file is lexed and parsed independently (with its own {@link Source}, {@link Parser}
+         * and error list), so the files are parsed in parallel; the errors are reported later by
+         * {@link #logErrors} in the (deterministic) order of the tree.
          */
         @Override
         public void parse() {
+            List<FileNode> listFiles = new ArrayList<>();
+            collectFileNodes(listFiles);
+
+            if (listFiles.size() < PARALLEL_PARSE_THRESHOLD) {
+                listFiles.forEach(FileNode::parse);
+            } else {
+                listFiles.parallelStream().forEach(FileNode::parse);
+            }
+        }
+
+        /**
+         * Collect all the file nodes within this node (recursively), creating the default package
+         * nodes as necessary.
+         * <p>
+         * The parser resolves the resource references via {@link #resourceDir}, which is lazily
+         * computed and cached by each node; since the files are parsed concurrently, the resource
+         * directories are computed here, before the parsing starts.
+         *
+         * @param listFiles  the list to add the file nodes to
+         */
+        private void collectFileNodes(List<FileNode> listFiles) {
             if (m_nodeSrc == null) {
                 // provide a default implementation
                 assert m_parent != null;
                 m_nodeSrc = new FileNode(this, "package " + file().getName() + "{}");
             }
-            m_nodeSrc.parse();
+            resourceDir();
 
-            for (FileNode cmpFile : m_mapClzNodes.values()) {
-                cmpFile.parse();
+            listFiles.add(m_nodeSrc);
+            listFiles.addAll(m_mapClzNodes.values());
+            m_nodeSrc.resourceDir();
+            for (FileNode node : m_mapClzNodes.values()) {
+                node.resourceDir();
             }
 
             for (DirNode child : m_listPkgNodes) {
-                child.parse();
+                child.collectFileNodes(listFiles);
             }
         }
 
@@ -1428,6 +1496,11 @@ public class ModuleInfo {
 
     // ----- helpers -------------------------------------------------------------------------------
 
+    /**
+     * The minimum number of files in a source tree to parse them in parallel.
+     */
+    private static final int PARALLEL_PARSE_THRESHOLD = 8;
+
     /**
      * Check if the specified source or binary file contains a module, and if so, return the
      * module's name.
@@ -1718,4 +1791,5 @@ public class ModuleInfo {
     private Version       binaryVersion;
     private Content       binaryContent = Content.Unknown;  // what is known about the compiled module file content
     private long          binaryTimestamp;
+    private BuildManifest buildManifest;  // the sidecar describing what the binary was built from
 }
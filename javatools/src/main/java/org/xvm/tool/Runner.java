@@ -238,8 +238,24 @@ public class Runner extends Launcher<RunnerOptions> {
             if (validationResult != 0) {
                 return checkErrors("method argument validation");
             }
-            connector.invoke0(method, args);
-            return connector.join();
+            var fileProfile = opts.getProfileFile();
+            if (fileProfile.isPresent()) {
+                if (!connector.isProfilerSupported()) {
+                    log(ERROR, "Profiling is not supported by {}",
+                            connector.getClass().getSimpleName());
+                    return checkErrors("profiler start");
+                }
+                connector.startProfiler(fileProfile.get(), opts.getProfileInterval());
+            }
+            try {
+                connector.invoke0(method, args);
+                return connector.join();
+            } finally {
+                if (fileProfile.isPresent()) {
+                    connector.stopProfiler();
+                    log(INFO, "Profiler output written to {}", fileProfile.get());
+                }
+            }
         } catch (InterruptedException e) {
             log(WARNING, e, "Interrupted while waiting for method {}", quoted(sName));
             return 1;
@@ -330,6 +346,7 @@ public class Runner extends Launcher<RunnerOptions> {
         RunnerOptions opts = options();
 
         Connector connector = createBaseConnector(repo, opts.isJit());
+        opts.getHttpEngine().ifPresent(connector::setHttpEngine);
         connector.loadModule(module.getName());
         connector.start(opts.getInjections());
         return connector;
@@ -351,5 +368,27 @@ public class Runner extends Launcher<RunnerOptions> {
     protected void validateOptions() {
         // Validate the -L path of file(s)/dir(s)
         validateModulePath();
+
+        // Validate the profiler options
+        var opts = options();
+        if (opts.getProfileFile().isPresent() && opts.isJit()) {
+            log(ERROR, "The --profile option is not supported with --jit");
+        }
+        if (opts.getProfileInterval() <= 0) {
+            log(ERROR, "Invalid --profile-interval value: {}; a positive number of milliseconds is "
+                    + "expected", quoted(opts.getProfileIntervalOption().orElse("")));
+        }
+
+        // Validate the HTTP engine option
+        var optEngine = opts.getHttpEngine();
+        if (optEngine.isPresent()) {
+            var sEngine = optEngine.get();
+            if (opts.isJit()) {
+                log(ERROR, "The --http-engine option is not supported with --jit");
+            } else if (!sEngine.equals("jdk") && !sEngine.equals("virtual")) {
+                log(ERROR, "Invalid --http-engine value: {}; \"jdk\" or \"virtual\" is expected",
+                        quoted(sEngine));
+            }
+        }
     }
 }
@@ -0,0 +1,108 @@
+package org.xvm.asm;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.file.Files;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link ByteBufferDataInput}.
+ */
+public class ByteBufferDataInputTest {
+    @Test
+    public void testReadAndSlice()
+            throws IOException {
+        ByteBufferDataInput in = new ByteBufferDataInput(ByteBuffer.wrap(sample()));
+        assertEquals(0x12345678, in.readInt());
+        assertEquals("hello", in.readUTF());
+
+        ByteBuffer slice = in.slice(3);
+        assertEquals(3, slice.remaining());
+        assertTrue(slice.isReadOnly());
+        assertEquals(1, slice.get());
+        assertEquals(2, slice.get());
+        assertEquals(3, slice.get());
+
+        // the slice doesn't affect the remainder of the input
+        assertEquals(Long.MAX_VALUE, in.readLong());
+        assertEquals(-1, in.read());
+        assertThrows(EOFException.class, () -> in.slice(1));
+
+        // a nested input over a slice
+        ByteBufferDataInput inNested = new ByteBufferDataInput(slice.rewind());
+        assertEquals(1, inNested.readByte());
+        assertEquals(2, inNested.slice(1).get());
+        assertEquals(3, inNested.readByte());
+    }
+
+    @Test
+    public void testHeapSliceIsCopied()
+            throws IOException {
+        byte[]              ab = sample();
+        ByteBufferDataInput in = new ByteBufferDataInput(ByteBuffer.wrap(ab));
+        in.readInt();
+        in.readUTF();
+
+        // a slice of a heap buffer must not retain (or see the changes to) the whole content
+        ByteBuffer slice = in.slice(3);
+        Arrays.fill(ab, (byte) 0);
+        assertEquals(3, slice.capacity());
+        assertEquals(1, slice.get());
+        assertEquals(2, slice.get());
+        assertEquals(3, slice.get());
+    }
+
+    @Test
+    public void testMap(@TempDir File dir)
+            throws IOException {
+        File file = new File(dir, "test.bin");
+        Files.write(file.toPath(), sample());
+
+        ByteBufferDataInput in = ByteBufferDataInput.map(file);
+        assertEquals(0x12345678, in.readInt());
+        assertEquals("hello", in.readUTF());
+        assertEquals(3, in.slice(3).remaining());
+        assertEquals(Long.MAX_VALUE, in.readLong());
+    }
+
+    @Test
+    public void testReadIsUnaffectedByTruncation(@TempDir File dir)
+            throws IOException {
+        File file = new File(dir, "test.bin");
+        Files.write(file.toPath(), sample());
+
+        ByteBufferDataInput in = ByteBufferDataInput.read(file);
+        Files.write(file.toPath(), new byte[0]);
+
+        assertEquals(0x12345678, in.readInt());
+        assertEquals("hello", in.readUTF());
+        assertEquals(3, in.slice(3).remaining());
+        assertEquals(Long.MAX_VALUE, in.readLong());
+    }
+
+    private static byte[] sample()
+            throws IOException {
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        DataOutputStream      out      = new DataOutputStream(outBytes);
+        out.writeInt(0x12345678);
+        out.writeUTF("hello");
+        out.write(new byte[] {1, 2, 3});
+        out.writeLong(Long.MAX_VALUE);
+        return outBytes.toByteArray();
+    }
+}
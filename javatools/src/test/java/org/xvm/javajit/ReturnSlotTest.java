@@ -0,0 +1,127 @@
+package org.xvm.javajit;
+
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.TypeKind;
+
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.junit.jupiter.api.Test;
+
+import static java.lang.constant.ConstantDescs.CD_double;
+import static java.lang.constant.ConstantDescs.CD_float;
+import static java.lang.constant.ConstantDescs.CD_int;
+import static java.lang.constant.ConstantDescs.CD_long;
+import static java.lang.constant.ConstantDescs.CD_void;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import static org.xvm.javajit.Builder.CD_Ctx;
+import static org.xvm.javajit.Builder.CD_JavaObject;
+import static org.xvm.javajit.Builder.CD_JavaString;
+
+/**
+ * Tests of the bytecode generated by {@link Builder#storeToContext} and
+ * {@link Builder#loadFromContext}, including the return values that don't fit into the inline
+ * {@link Ctx} fields.
+ */
+public class ReturnSlotTest {
+    @Test
+    public void testInlineSlots() throws Throwable {
+        checkRoundTrip(0, 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void testOverflowSlots() throws Throwable {
+        checkRoundTrip(8, 9, 10, 11, 12, 13);
+    }
+
+    @Test
+    public void testOverflowGrowth() throws Throwable {
+        // the overflow arrays start with 8 elements; store out of order to force the growth
+        checkRoundTrip(20, 8, 33, 15, 9, 40);
+
+        Ctx ctx = new Ctx(null, null);
+        Ctx.storeLong(7L, ctx, 2);
+        Ctx.storeRef("x", ctx, 0);
+        Ctx.storeLong(9L, ctx, 100);
+        Ctx.storeRef("y", ctx, 100);
+        assertEquals(7L,  Ctx.loadLong(ctx, 2));
+        assertEquals(9L,  Ctx.loadLong(ctx, 100));
+        assertEquals("x", Ctx.loadRef(ctx, 0));
+        assertEquals("y", Ctx.loadRef(ctx, 100));
+        assertNull(Ctx.loadRef(ctx, 50));
+    }
+
+    /**
+     * Generate a class with a "store(Ctx, int, long, float, double, String, Object)" method that
+     * stores its arguments to the specified return indexes, and a "loadX(Ctx)" method for each
+     * of them that loads it back; then run them.
+     */
+    private static void checkRoundTrip(int nInt, int nLong, int nFloat, int nDouble,
+                                       int nString, int nObject)
+            throws Throwable {
+        ClassDesc[] acd     = {CD_int, CD_long, CD_float, CD_double, CD_JavaString, CD_JavaObject};
+        int[]       anIndex = {nInt, nLong, nFloat, nDouble, nString, nObject};
+        ClassDesc   cdThis  = ClassDesc.of("org.xvm.javajit.ReturnSlotProbe");
+
+        byte[] abClass = ClassFile.of().build(cdThis, classBuilder -> {
+            classBuilder.withMethodBody("store",
+                MethodTypeDesc.of(CD_void, CD_Ctx, CD_int, CD_long, CD_float, CD_double,
+                    CD_JavaString, CD_JavaObject),
+                ClassFile.ACC_PUBLIC | ClassFile.ACC_STATIC,
+                code -> {
+                    for (int i = 0, c = acd.length; i < c; i++) {
+                        load(code, acd[i], code.parameterSlot(i + 1));
+                        Builder.storeToContext(code, acd[i], anIndex[i]);
+                    }
+                    code.return_();
+                });
+
+            for (int i = 0, c = acd.length; i < c; i++) {
+                ClassDesc cd = acd[i];
+                int       n  = anIndex[i];
+                classBuilder.withMethodBody("load" + i, MethodTypeDesc.of(cd, CD_Ctx),
+                    ClassFile.ACC_PUBLIC | ClassFile.ACC_STATIC,
+                    code -> {
+                        Builder.loadFromContext(code, cd, n);
+                        code.return_(TypeKind.from(cd));
+                    });
+            }
+        });
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(abClass, true);
+        Class<?>             clz    = lookup.lookupClass();
+
+        Ctx    ctx = new Ctx(null, null);
+        Object o   = new Object();
+        lookup.findStatic(clz, "store", MethodType.methodType(void.class, Ctx.class, int.class,
+                long.class, float.class, double.class, String.class, Object.class))
+            .invoke(ctx, -42, Long.MIN_VALUE + 1, 1.5f, -0.25d, "hello", o);
+
+        assertEquals(-42,                (int)    load(lookup, clz, 0, int.class).invoke(ctx));
+        assertEquals(Long.MIN_VALUE + 1, (long)   load(lookup, clz, 1, long.class).invoke(ctx));
+        assertEquals(1.5f,               (float)  load(lookup, clz, 2, float.class).invoke(ctx));
+        assertEquals(-0.25d,             (double) load(lookup, clz, 3, double.class).invoke(ctx));
+        assertEquals("hello",            (String) load(lookup, clz, 4, String.class).invoke(ctx));
+        assertSame(o,                             load(lookup, clz, 5, Object.class).invoke(ctx));
+    }
+
+    private static void load(CodeBuilder code, ClassDesc cd, int nSlot) {
+        code.loadLocal(TypeKind.from(cd), nSlot);
+    }
+
+    private static MethodHandle load(MethodHandles.Lookup lookup, Class<?> clz, int i,
+                                     Class<?> clzRet)
+            throws ReflectiveOperationException {
+        return lookup.findStatic(clz, "load" + i, MethodType.methodType(clzRet, Ctx.class));
+    }
+}
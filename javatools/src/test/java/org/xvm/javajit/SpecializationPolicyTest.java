@@ -0,0 +1,44 @@
+package org.xvm.javajit;
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.javajit.SpecializationPolicy.Mode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the "xvm.jit.specialize" parsing by the {@link SpecializationPolicy}.
+ */
+public class SpecializationPolicyTest {
+    @Test
+    public void testModes() {
+        assertEquals(Mode.Annotated, SpecializationPolicy.parse(null       ).getMode());
+        assertEquals(Mode.Annotated, SpecializationPolicy.parse(""         ).getMode());
+        assertEquals(Mode.Annotated, SpecializationPolicy.parse(" annotated").getMode());
+        assertEquals(Mode.All,       SpecializationPolicy.parse("all"      ).getMode());
+        assertEquals(Mode.None,      SpecializationPolicy.parse("none "    ).getMode());
+    }
+
+    @Test
+    public void testClassList() {
+        SpecializationPolicy policy = SpecializationPolicy.parse("Matrix, collections.ListMap");
+        assertEquals(Mode.Annotated, policy.getMode());
+
+        assertTrue (policy.isListed("Matrix",  "app.example.org:linear.Matrix"));
+        assertTrue (policy.isListed("ListMap", "ecstasy.xtclang.org:collections.ListMap"));
+        assertFalse(policy.isListed("ListMap", "ecstasy.xtclang.org:maps.ListMap"));
+        assertFalse(policy.isListed("HashMap", "ecstasy.xtclang.org:maps.HashMap"));
+        assertFalse(policy.isListed("MyMatrix", "app.example.org:MyMatrix"));
+
+        assertFalse(SpecializationPolicy.parse("").isListed("Matrix", "app.example.org:Matrix"));
+    }
+
+    @Test
+    public void testMalformedList() {
+        assertThrows(IllegalArgumentException.class, () -> SpecializationPolicy.parse("Matrix,"));
+        assertThrows(IllegalArgumentException.class, () -> SpecializationPolicy.parse("A,,B"));
+    }
+}
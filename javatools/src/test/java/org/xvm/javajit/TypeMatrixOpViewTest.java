@@ -0,0 +1,108 @@
+package org.xvm.javajit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.Component.Access;
+import org.xvm.asm.Component.Format;
+import org.xvm.asm.FileStructure;
+import org.xvm.asm.ModuleStructure;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.javajit.TypeMatrix.OpView;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link TypeMatrix.OpView}.
+ */
+public class TypeMatrixOpViewTest {
+    @BeforeEach
+    public void setUp() {
+        ModuleStructure module = new FileStructure("test").getModule();
+
+        typeA = module.createClass(Access.PUBLIC, Format.CLASS, "A", null).getCanonicalType();
+        typeB = module.createClass(Access.PUBLIC, Format.CLASS, "B", null).getCanonicalType();
+    }
+
+    @Test
+    public void testInsertAndLookup() {
+        OpView view = OpView.empty();
+
+        // out of order inserts, including the negative (predefined) registers and a growth past
+        // the initial capacity
+        int[] aReg = {5, -3, 0, 12, 2, 7, 1, 9, 3, 11, 4};
+        for (int regId : aReg) {
+            view.put(regId, (regId & 1) == 0 ? typeA : typeB);
+        }
+
+        assertEquals(aReg.length, view.size());
+        for (int i = 1; i < view.size(); i++) {
+            assertTrue(view.regIdAt(i - 1) < view.regIdAt(i));
+        }
+        for (int regId : aReg) {
+            assertTrue(view.contains(regId));
+            assertSame((regId & 1) == 0 ? typeA : typeB, view.get(regId));
+        }
+        assertFalse(view.contains(6));
+        assertNull(view.get(6));
+
+        // replace
+        view.put(5, typeA);
+        assertSame(typeA, view.get(5));
+        assertEquals(aReg.length, view.size());
+
+        // remove
+        view.remove(5);
+        view.remove(6);
+        assertNull(view.get(5));
+        assertEquals(aReg.length - 1, view.size());
+
+        view.removeFrom(4);
+        assertEquals(5, view.size()); // -3, 0, 1, 2, 3
+        assertSame(typeB, view.get(3));
+        assertNull(view.get(4));
+        assertNull(view.get(12));
+    }
+
+    @Test
+    public void testFreezeAliasing() {
+        OpView view = OpView.empty();
+        view.put(0, typeA);
+        view.put(1, typeB);
+
+        // a frozen view is shared as is
+        OpView shared = view.freeze();
+        assertSame(view, shared);
+        assertTrue(shared.isImmutable());
+        assertThrows(AssertionError.class, () -> shared.put(2, typeA));
+
+        // a copy is mutable and doesn't affect the frozen original
+        OpView copy = shared.copy();
+        assertNotSame(shared, copy);
+        assertFalse(copy.isImmutable());
+
+        copy.put(0, typeB);
+        copy.put(2, typeA);
+        copy.remove(1);
+
+        assertSame(typeA, shared.get(0));
+        assertSame(typeB, shared.get(1));
+        assertNull(shared.get(2));
+        assertEquals(2, shared.size());
+
+        assertSame(typeB, copy.get(0));
+        assertNull(copy.get(1));
+        assertSame(typeA, copy.get(2));
+    }
+
+    private TypeConstant typeA;
+    private TypeConstant typeB;
+}
@@ -0,0 +1,124 @@
+package org.xvm.runtime;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import org.xvm.asm.Op;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link Profiler}.
+ */
+public class ProfilerTest {
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testOpCounters() throws IOException {
+        Runtime  runtime  = new Runtime();
+        Profiler profiler = new Profiler(runtime, new File(tempDir, "prof.out"), 1);
+        try {
+            profiler.start();
+
+            long[] alCount = profiler.ensureOpCounters();
+            for (int i = 0; i < 3; i++) {
+                alCount = profiler.countOp(alCount, new FirstOp());
+            }
+            alCount = profiler.countOp(alCount, new SecondOp());
+
+            // the counters are per-thread
+            assertSame(alCount, profiler.ensureOpCounters());
+
+            profiler.stop();
+        } finally {
+            runtime.shutdownXVM();
+        }
+
+        String sReport = Files.readString(new File(tempDir, "prof.txt").toPath());
+        assertTrue(sReport.contains("Samples: "), sReport);
+        assertTrue(sReport.matches("(?s).*\\s3  FirstOp\\R.*"),  sReport);
+        assertTrue(sReport.matches("(?s).*\\s1  SecondOp\\R.*"), sReport);
+        assertTrue(new File(tempDir, "prof.collapsed").exists());
+    }
+
+    @Test
+    public void testCounterGrowth() {
+        Runtime  runtime  = new Runtime();
+        Profiler profiler = new Profiler(runtime, new File(tempDir, "grow"), 1);
+        try {
+            long[] alCount = profiler.ensureOpCounters();
+            long[] alNew   = alCount;
+
+            // a newly seen op class may not fit into the counters obtained earlier
+            for (int i = 0; i < 40; i++) {
+                alNew = profiler.countOp(alNew, new Op() {
+                    @Override
+                    public int process(Frame frame, int iPC) {
+                        return iPC + 1;
+                    }
+                });
+            }
+            assertNotSame(alCount, alNew);
+
+            long cTotal = 0;
+            for (long c : profiler.ensureOpCounters()) {
+                cTotal += c;
+            }
+            assertEquals(40, cTotal);
+        } finally {
+            runtime.shutdownXVM();
+        }
+    }
+
+    @Test
+    public void testStopAndRestart() throws IOException {
+        Runtime  runtime  = new Runtime();
+        File     fileOut  = new File(tempDir, "restart.out");
+        Profiler profiler = new Profiler(runtime, fileOut, 1);
+        try {
+            // stopping a profiler that is not running must not produce any output
+            profiler.stop();
+            assertFalse(new File(tempDir, "restart.txt").exists());
+
+            for (int i = 0; i < 3; i++) {
+                profiler.start();
+                profiler.start();
+                profiler.stop();
+                profiler.stop();
+            }
+        } finally {
+            runtime.shutdownXVM();
+        }
+
+        assertTrue(Files.readString(new File(tempDir, "restart.txt").toPath())
+                .startsWith("Samples: "));
+    }
+
+    private static class FirstOp
+            extends Op {
+        @Override
+        public int process(Frame frame, int iPC) {
+            return iPC + 1;
+        }
+    }
+
+    private static class SecondOp
+            extends Op {
+        @Override
+        public int process(Frame frame, int iPC) {
+            return iPC + 1;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.xvm.runtime.template._native.crypto;
+
+
+import java.nio.charset.StandardCharsets;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.crypto.Mac;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.runtime.template._native.crypto.xRTAlgorithms.EnginePool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link EnginePool} and {@link xRTAlgorithms#applyAll}.
+ */
+public class EnginePoolTest {
+    @Test
+    public void testDigestIsResetOnRelease()
+            throws Exception {
+        byte[] abData     = "abc".getBytes(StandardCharsets.UTF_8);
+        byte[] abExpected = MessageDigest.getInstance("SHA-256").digest(abData);
+
+        EnginePool<MessageDigest> pool   =
+                EnginePool.forDigest(MessageDigest.getInstance("SHA-256"));
+        MessageDigest             digest = pool.acquire();
+
+        // the data of an operation that has been left unfinished doesn't leak into the next one
+        digest.update("leftover".getBytes(StandardCharsets.UTF_8));
+        pool.release(digest);
+        assertEquals(1, pool.getIdleCount());
+
+        MessageDigest digestNext = pool.acquire();
+        assertSame(digest, digestNext);
+        assertArrayEquals(abExpected, digestNext.digest(abData));
+    }
+
+    @Test
+    public void testKeyedMacIsReused()
+            throws Exception {
+        byte[]        abData  = {1, 2, 3};
+        SecretKeySpec keyPrev = new SecretKeySpec(new byte[32], "HmacSHA256");
+        SecretKeySpec keyNext = new SecretKeySpec(new byte[] {7, 7, 7, 7}, "HmacSHA256");
+
+        Mac macExpected = Mac.getInstance("HmacSHA256");
+        macExpected.init(keyNext);
+        byte[] abExpected = macExpected.doFinal(abData);
+
+        EnginePool<Mac> pool = EnginePool.forMac(Mac.getInstance("HmacSHA256"));
+        Mac             mac  = pool.acquire();
+        assertEquals(0, pool.getIdleCount());
+
+        // neither the data left over nor the key of the previous user affect the next one
+        mac.init(keyPrev);
+        mac.update("leftover".getBytes(StandardCharsets.UTF_8));
+        pool.release(mac);
+        assertEquals(1, pool.getIdleCount());
+
+        Mac macNext = pool.acquire();
+        assertSame(mac, macNext);
+        macNext.init(keyNext);
+        assertArrayEquals(abExpected, macNext.doFinal(abData));
+    }
+
+    @Test
+    public void testKeyedSignatureIsReused()
+            throws Exception {
+        byte[]           abData    = {1, 2, 3};
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        KeyPair          keysPrev  = generator.generateKeyPair();
+        KeyPair          keysNext  = generator.generateKeyPair();
+
+        Signature signer = Signature.getInstance("SHA256withECDSA");
+        signer.initSign(keysNext.getPrivate());
+        signer.update(abData);
+        byte[] abSig = signer.sign();
+
+        EnginePool<Signature> pool = EnginePool.forSignature(
+                Signature.getInstance("SHA256withECDSA"));
+        Signature signature = pool.acquire();
+        signature.initSign(keysPrev.getPrivate());
+        signature.update("leftover".getBytes(StandardCharsets.UTF_8));
+        pool.release(signature);
+        assertEquals(1, pool.getIdleCount());
+
+        Signature signatureNext = pool.acquire();
+        assertSame(signature, signatureNext);
+        signatureNext.initVerify(keysNext.getPublic());
+        signatureNext.update(abData);
+        assertTrue(signatureNext.verify(abSig));
+    }
+
+    @Test
+    public void testIdleLimit()
+            throws Exception {
+        EnginePool<MessageDigest> pool = EnginePool.forDigest(MessageDigest.getInstance("SHA-256"));
+
+        List<MessageDigest> listDigests = new ArrayList<>();
+        for (int i = 0, c = xRTAlgorithms.MAX_IDLE_ENGINES + 10; i < c; i++) {
+            listDigests.add(pool.acquire());
+        }
+        assertEquals(0, pool.getIdleCount());
+
+        listDigests.forEach(pool::release);
+        assertEquals(xRTAlgorithms.MAX_IDLE_ENGINES, pool.getIdleCount());
+    }
+
+    @Test
+    public void testApplyAll()
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            int                cItems   = 1000;
+            AtomicIntegerArray acCalls  = new AtomicIntegerArray(cItems);
+            Object[]           aoResult = xRTAlgorithms.applyAll(executor, cItems,
+                    (iFrom, iTo, ao) -> {
+                        for (int i = iFrom; i < iTo; i++) {
+                            acCalls.incrementAndGet(i);
+                            ao[i] = i * 2;
+                        }
+                    }).get(10, TimeUnit.SECONDS);
+
+            assertEquals(cItems, aoResult.length);
+            for (int i = 0; i < cItems; i++) {
+                assertEquals(1, acCalls.get(i), "every item is processed exactly once");
+                assertEquals(i * 2, aoResult[i]);
+            }
+
+            assertEquals(0, xRTAlgorithms.applyAll(executor, 0, (iFrom, iTo, ao) -> {})
+                    .get(10, TimeUnit.SECONDS).length);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testApplyAllFailure() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> xRTAlgorithms.applyAll(executor, 100, (iFrom, iTo, ao) -> {
+                        if (iFrom <= 50 && 50 < iTo) {
+                            throw new GeneralSecurityException("item 50");
+                        }
+                    }).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(GeneralSecurityException.class, e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
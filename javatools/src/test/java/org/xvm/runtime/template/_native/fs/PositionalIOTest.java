@@ -0,0 +1,139 @@
+package org.xvm.runtime.template._native.fs;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import java.nio.file.StandardOpenOption;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import static org.xvm.runtime.template._native.fs.xRawOSFileChannel.GATHER_LIMIT;
+import static org.xvm.runtime.template._native.fs.xRawOSFileChannel.MAX_READ;
+import static org.xvm.runtime.template._native.fs.xRawOSFileChannel.READ_CHUNK;
+
+/**
+ * Tests of the positional reads and writes of the {@link xRawOSFileChannel}.
+ */
+public class PositionalIOTest {
+    @Test
+    public void testReadAndWriteAt(@TempDir File dir)
+            throws IOException {
+        try (FileChannel channel = open(dir)) {
+            xRawOSFileChannel.writeAt(channel, 10, ByteBuffer.wrap(bytes(0, 20)));
+            assertEquals(30, channel.size());
+            assertEquals(0, channel.position());
+
+            assertArrayEquals(bytes(5, 10), xRawOSFileChannel.readAt(channel, 15, 10));
+            assertArrayEquals(new byte[10], xRawOSFileChannel.readAt(channel, 0, 10));
+
+            // a read past the end of the file is short, and a read at or after the end is empty
+            assertArrayEquals(bytes(15, 5), xRawOSFileChannel.readAt(channel, 25, 10));
+            assertEquals(0, xRawOSFileChannel.readAt(channel, 30, 10).length);
+            assertEquals(0, xRawOSFileChannel.readAt(channel, 100, 10).length);
+            assertEquals(0, xRawOSFileChannel.readAt(channel, 0, 0).length);
+            assertEquals(0, channel.position());
+        }
+    }
+
+    @Test
+    public void testReadAtInChunks(@TempDir File dir)
+            throws IOException {
+        int    cb = 2 * READ_CHUNK + 123;
+        byte[] ab = bytes(7, cb);
+        try (FileChannel channel = open(dir)) {
+            xRawOSFileChannel.writeAt(channel, 0, ByteBuffer.wrap(ab));
+            assertArrayEquals(ab, xRawOSFileChannel.readAt(channel, 0, cb));
+            assertArrayEquals(Arrays.copyOfRange(ab, 1, cb),
+                    xRawOSFileChannel.readAt(channel, 1, cb));
+        }
+    }
+
+    @Test
+    public void testReadScatteredAt(@TempDir File dir)
+            throws IOException {
+        try (FileChannel channel = open(dir)) {
+            xRawOSFileChannel.writeAt(channel, 0, ByteBuffer.wrap(bytes(0, 10)));
+
+            byte[][] aab = xRawOSFileChannel.readScatteredAt(channel, 2, new int[] {3, 0, 4});
+            assertEquals(3, aab.length);
+            assertArrayEquals(bytes(2, 3), aab[0]);
+            assertEquals(0, aab[1].length);
+            assertArrayEquals(bytes(5, 4), aab[2]);
+
+            // the regions past the end of the file are short or empty
+            aab = xRawOSFileChannel.readScatteredAt(channel, 6, new int[] {2, 5, 3});
+            assertArrayEquals(bytes(6, 2), aab[0]);
+            assertArrayEquals(bytes(8, 2), aab[1]);
+            assertEquals(0, aab[2].length);
+        }
+    }
+
+    @Test
+    public void testReadCounts() {
+        assertArrayEquals(new int[] {1, 0, 2},
+                xRawOSFileChannel.toReadCounts(new long[] {1, 0, 2}));
+        assertArrayEquals(new int[0], xRawOSFileChannel.toReadCounts(new long[0]));
+        assertArrayEquals(new int[] {(int) MAX_READ},
+                xRawOSFileChannel.toReadCounts(new long[] {MAX_READ}));
+
+        assertNull(xRawOSFileChannel.toReadCounts(new long[] {1, -1}));
+        assertNull(xRawOSFileChannel.toReadCounts(new long[] {MAX_READ + 1}));
+        assertNull(xRawOSFileChannel.toReadCounts(new long[] {MAX_READ, 1}));
+        assertNull(xRawOSFileChannel.toReadCounts(new long[] {Integer.MAX_VALUE + 1L}));
+
+        // the counts that would overflow the total (or an int) are rejected
+        assertNull(xRawOSFileChannel.toReadCounts(new long[] {Long.MAX_VALUE, Long.MAX_VALUE}));
+        assertNull(xRawOSFileChannel.toReadCounts(new long[] {1, Long.MAX_VALUE}));
+        assertNull(xRawOSFileChannel.toReadCounts(new long[] {1L << 32}));
+    }
+
+    @Test
+    public void testWriteGatheredAt(@TempDir File dir)
+            throws IOException {
+        try (FileChannel channel = open(dir)) {
+            // small buffers are combined into a single write
+            xRawOSFileChannel.writeGatheredAt(channel, 5,
+                    new byte[][] {bytes(0, 3), new byte[0], bytes(3, 4)});
+            assertEquals(12, channel.size());
+            assertArrayEquals(bytes(0, 7), xRawOSFileChannel.readAt(channel, 5, 7));
+
+            // large buffers are written one by one
+            byte[] ab1 = bytes(1, GATHER_LIMIT);
+            byte[] ab2 = bytes(2, 100);
+            xRawOSFileChannel.writeGatheredAt(channel, 0, new byte[][] {ab1, ab2});
+            assertEquals(GATHER_LIMIT + 100, channel.size());
+            assertArrayEquals(ab1, xRawOSFileChannel.readAt(channel, 0, GATHER_LIMIT));
+            assertArrayEquals(ab2, xRawOSFileChannel.readAt(channel, GATHER_LIMIT, 100));
+            assertEquals(0, channel.position());
+        }
+    }
+
+    private static FileChannel open(File dir)
+            throws IOException {
+        return FileChannel.open(new File(dir, "test.bin").toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @return the specified number of bytes, counting up from the specified value
+     */
+    private static byte[] bytes(int nFirst, int cb) {
+        byte[] ab = new byte[cb];
+        for (int i = 0; i < cb; i++) {
+            ab[i] = (byte) (nFirst + i);
+        }
+        return ab;
+    }
+}
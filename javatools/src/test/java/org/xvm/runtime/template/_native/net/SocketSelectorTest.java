@@ -0,0 +1,101 @@
+package org.xvm.runtime.template._native.net;
+
+
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link SocketSelector}.
+ */
+public class SocketSelectorTest {
+    @Test
+    public void testReadiness()
+            throws Exception {
+        SocketSelector selector = SocketSelector.getInstance();
+
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.configureBlocking(false);
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+            CompletableFuture<Void> cfAccept = selector.await(server, SelectionKey.OP_ACCEPT);
+            assertFalse(cfAccept.isDone());
+
+            try (Socket client = new Socket(InetAddress.getLoopbackAddress(),
+                                            server.socket().getLocalPort())) {
+                cfAccept.get(10, TimeUnit.SECONDS);
+
+                SocketChannel channel = server.accept();
+                assertNotNull(channel);
+                channel.configureBlocking(false);
+
+                CompletableFuture<Void> cfRead = selector.await(channel, SelectionKey.OP_READ);
+                assertFalse(cfRead.isDone());
+
+                OutputStream out = client.getOutputStream();
+                out.write(new byte[] {1, 2, 3});
+                out.flush();
+                cfRead.get(10, TimeUnit.SECONDS);
+
+                ByteBuffer buf = ByteBuffer.allocate(16);
+                assertEquals(3, channel.read(buf));
+
+                // the channel stays registered; the next await just re-arms the interest
+                CompletableFuture<Void> cfWrite = selector.await(channel, SelectionKey.OP_WRITE);
+                cfWrite.get(10, TimeUnit.SECONDS);
+
+                // a close fails the pending operations
+                CompletableFuture<Void> cfPending = selector.await(channel, SelectionKey.OP_READ);
+                selector.close(channel);
+                ExecutionException e = assertThrows(ExecutionException.class,
+                        () -> cfPending.get(10, TimeUnit.SECONDS));
+                assertInstanceOf(AsynchronousCloseException.class, e.getCause());
+                assertFalse(channel.isOpen());
+
+                // and so does an attempt to await a closed channel
+                CompletableFuture<Void> cfClosed = selector.await(channel, SelectionKey.OP_READ);
+                assertThrows(ExecutionException.class, () -> cfClosed.get(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    public void testBufferPool() {
+        SocketSelector selector = SocketSelector.getInstance();
+
+        ByteBuffer buf = selector.acquireBuffer();
+        assertTrue(buf.isDirect());
+        assertEquals(SocketSelector.BUFFER_SIZE, buf.remaining());
+
+        buf.put((byte) 1);
+        selector.releaseBuffer(buf);
+
+        ByteBuffer buf2 = selector.acquireBuffer();
+        assertSame(buf, buf2);
+        assertEquals(0, buf2.position());
+        selector.releaseBuffer(buf2);
+    }
+}
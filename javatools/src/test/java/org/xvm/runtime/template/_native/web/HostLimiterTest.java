@@ -0,0 +1,194 @@
+package org.xvm.runtime.template._native.web;
+
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link HostLimiter}.
+ */
+public class HostLimiterTest {
+    @Test
+    public void testHandOver() {
+        HostLimiter limiter = new HostLimiter(2);
+
+        CompletableFuture<Void> cf1 = limiter.acquire("a");
+        CompletableFuture<Void> cf2 = limiter.acquire("a");
+        CompletableFuture<Void> cf3 = limiter.acquire("a");
+        CompletableFuture<Void> cf4 = limiter.acquire("a");
+        CompletableFuture<Void> cfB = limiter.acquire("b");
+
+        assertTrue(cf1.isDone());
+        assertTrue(cf2.isDone());
+        assertFalse(cf3.isDone());
+        assertFalse(cf4.isDone());
+        assertTrue(cfB.isDone(), "the hosts are limited independently");
+
+        // a cancelled waiter doesn't take the permit
+        cf3.cancel(false);
+        limiter.release("a");
+        assertTrue(cf4.isDone());
+        assertEquals(2, limiter.getActiveCount("a"));
+
+        limiter.release("a");
+        limiter.release("a");
+        assertEquals(0, limiter.getActiveCount("a"));
+    }
+
+    @Test
+    public void testConcurrentRequests()
+            throws Exception {
+        AtomicInteger cActive    = new AtomicInteger();
+        AtomicInteger cMaxActive = new AtomicInteger();
+
+        HttpServer server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            int c = cActive.incrementAndGet();
+            cMaxActive.accumulateAndGet(c, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignore) {}
+            cActive.decrementAndGet();
+
+            byte[] ab = exchange.getRequestURI().getPath().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, ab.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ab);
+            } catch (IOException ignore) {}
+        });
+        server.start();
+
+        try {
+            HttpClient  client  = HttpClient.newHttpClient();
+            HostLimiter limiter = new HostLimiter(3);
+            String      sHost   = "local";
+
+            List<CompletableFuture<HttpResponse<String>>> listResponses = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + server.getAddress().getPort() + "/r" + i)).build();
+                listResponses.add(limiter.acquire(sHost)
+                        .thenCompose(ignore -> client.sendAsync(request, BodyHandlers.ofString()))
+                        .whenComplete((r, e) -> limiter.release(sHost)));
+            }
+
+            for (int i = 0; i < listResponses.size(); i++) {
+                HttpResponse<String> response = listResponses.get(i).get(10, TimeUnit.SECONDS);
+                assertEquals(200, response.statusCode());
+                assertEquals("/r" + i, response.body());
+            }
+
+            assertTrue(cMaxActive.get() <= 3, "max concurrent requests: " + cMaxActive.get());
+            assertEquals(0, limiter.getActiveCount(sHost));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testTimeoutAndCancellation()
+            throws Exception {
+        HttpServer server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/slow")) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException ignore) {}
+            }
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(new byte[] {'o', 'k'});
+            } catch (IOException ignore) {}
+        });
+        server.start();
+
+        try {
+            HttpClient  client  = HttpClient.newHttpClient();
+            HostLimiter limiter = new HostLimiter(1);
+            String      sHost   = "local";
+            String      sUri    = "http://localhost:" + server.getAddress().getPort();
+
+            // a timed out request releases its permit, even if it would have held it
+            HttpRequest requestTimeout = HttpRequest.newBuilder(URI.create(sUri + "/slow"))
+                    .timeout(Duration.ofMillis(50)).build();
+            CompletableFuture<HttpResponse<InputStream>> cfTimeout = limiter.send(client,
+                    requestTimeout, sHost, _ -> BodyHandlers.ofInputStream(), true);
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> cfTimeout.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(HttpTimeoutException.class, e.getCause());
+            assertEquals(0, limiter.getActiveCount(sHost));
+
+            // a request that the caller gives up while it's in flight releases its held permit,
+            // and the one that gives up while waiting for the permit never takes it
+            HttpRequest requestSlow = HttpRequest.newBuilder(URI.create(sUri + "/slow")).build();
+            CompletableFuture<HttpResponse<InputStream>> cfInFlight = limiter.send(client,
+                    requestSlow, sHost, _ -> BodyHandlers.ofInputStream(), true);
+            CompletableFuture<HttpResponse<InputStream>> cfWaiting = limiter.send(client,
+                    requestSlow, sHost, _ -> BodyHandlers.ofInputStream(), true);
+            assertEquals(1, limiter.getActiveCount(sHost));
+            cfWaiting.cancel(false);
+            cfInFlight.cancel(false);
+            awaitActiveCount(limiter, sHost, 0);
+
+            // the permits are still available
+            HttpRequest request = HttpRequest.newBuilder(URI.create(sUri + "/fast")).build();
+            assertEquals("ok", limiter.send(client, request, sHost,
+                    _ -> BodyHandlers.ofString(), false).get(10, TimeUnit.SECONDS).body());
+            assertEquals(0, limiter.getActiveCount(sHost));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Wait (up to 10 seconds) for the number of active permits to reach the specified value.
+     */
+    private static void awaitActiveCount(HostLimiter limiter, String sHost, int cExpected)
+            throws InterruptedException {
+        for (long ldtStop = System.currentTimeMillis() + 10_000;
+                limiter.getActiveCount(sHost) != cExpected
+                    && System.currentTimeMillis() < ldtStop; ) {
+            Thread.sleep(10);
+        }
+        assertEquals(cExpected, limiter.getActiveCount(sHost));
+    }
+}
@@ -0,0 +1,109 @@
+package org.xvm.runtime.template._native.web;
+
+
+import java.util.HashSet;
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.runtime.template._native.web.xRTServer.RequestHandler;
+import org.xvm.runtime.template._native.web.xRTServer.RouteInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the {@link RouteInfo} handler selection and the pending exchange accounting of the
+ * {@link RequestHandler}.
+ */
+public class RouteInfoTest {
+    @Test
+    public void testPendingCount() {
+        RequestHandler handler = newHandler();
+        AtomicInteger  cClosed = new AtomicInteger();
+
+        Runnable complete1 = handler.begin(cClosed::incrementAndGet);
+        Runnable complete2 = handler.begin(cClosed::incrementAndGet);
+        assertEquals(2, handler.getPendingCount());
+
+        complete1.run();
+        assertEquals(1, handler.getPendingCount());
+        assertEquals(1, cClosed.get());
+
+        // an exchange that fails to close is still completed
+        Runnable complete3 = handler.begin(() -> {throw new IllegalStateException();});
+        assertEquals(2, handler.getPendingCount());
+        assertThrows(IllegalStateException.class, complete3::run);
+        assertEquals(1, handler.getPendingCount());
+
+        complete2.run();
+        assertEquals(0, handler.getPendingCount());
+        assertEquals(2, cClosed.get());
+    }
+
+    @Test
+    public void testSingleHandler() {
+        RequestHandler handler = newHandler();
+        RouteInfo      route   = newRoute(handler);
+        for (String sPolicy : new String[] {"least-pending", "round-robin", "connection"}) {
+            assertSame(handler, route.select(sPolicy, null));
+        }
+    }
+
+    @Test
+    public void testRoundRobin() {
+        RequestHandler[] aHandler = {newHandler(), newHandler(), newHandler()};
+        RouteInfo        route    = newRoute(aHandler);
+
+        // the busy handlers are not skipped
+        aHandler[0].begin(() -> {});
+
+        Set<RequestHandler> setSelected = new HashSet<>();
+        for (int i = 0; i < aHandler.length; i++) {
+            setSelected.add(route.select("round-robin", null));
+        }
+        assertEquals(Set.of(aHandler), setSelected);
+    }
+
+    @Test
+    public void testLeastPending() {
+        RequestHandler[] aHandler = {newHandler(), newHandler(), newHandler()};
+        RouteInfo        route    = newRoute(aHandler);
+
+        aHandler[0].begin(() -> {});
+        aHandler[0].begin(() -> {});
+        aHandler[2].begin(() -> {});
+        for (int i = 0; i < 10; i++) {
+            assertSame(aHandler[1], route.select("least-pending", null));
+        }
+
+        // the completed exchanges are no longer counted
+        aHandler[1].begin(() -> {});
+        aHandler[1].begin(() -> {});
+        aHandler[2].begin(() -> {}).run();
+        for (int i = 0; i < 10; i++) {
+            assertSame(aHandler[2], route.select("least-pending", null));
+        }
+
+        // the ties are spread across the least busy handlers
+        aHandler[2].begin(() -> {});
+        aHandler[2].begin(() -> {});
+
+        Set<RequestHandler> setSelected = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            setSelected.add(route.select("least-pending", null));
+        }
+        assertEquals(Set.of(aHandler[0], aHandler[1]), setSelected);
+    }
+
+    private static RequestHandler newHandler() {
+        return new RequestHandler(null, null, null);
+    }
+
+    private static RouteInfo newRoute(RequestHandler... aHandler) {
+        return new RouteInfo(aHandler, 0, 0, null, null);
+    }
+}
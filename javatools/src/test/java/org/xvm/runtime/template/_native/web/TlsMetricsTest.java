@@ -0,0 +1,56 @@
+package org.xvm.runtime.template._native.web;
+
+
+import java.lang.reflect.Proxy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.net.ssl.SSLSession;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the {@link TlsMetrics}.
+ */
+public class TlsMetricsTest {
+    @Test
+    public void testFullAndResumed() {
+        TlsMetrics metrics = new TlsMetrics();
+        SSLSession session = makeSession();
+
+        // the key manager may be consulted more than once during the same handshake
+        metrics.markFull(session);
+        metrics.markFull(session);
+        metrics.completed(session, 300);
+        assertEquals(1, metrics.getFullCount());
+        assertEquals(0, metrics.getResumedCount());
+
+        // a TLS 1.2 resumption reuses the session without consulting the key manager
+        metrics.completed(session, 100);
+        assertEquals(1, metrics.getFullCount());
+        assertEquals(1, metrics.getResumedCount());
+
+        metrics.failed();
+        assertEquals(1,   metrics.getFailedCount());
+        assertEquals(400, metrics.getTotalNanos());
+        assertEquals(300, metrics.getMaxNanos());
+    }
+
+    /**
+     * @return an SSLSession that only supports the session values
+     */
+    private static SSLSession makeSession() {
+        Map<String, Object> mapValues = new HashMap<>();
+        return (SSLSession) Proxy.newProxyInstance(TlsMetricsTest.class.getClassLoader(),
+                new Class<?>[] {SSLSession.class}, (proxy, method, aoArg) ->
+            switch (method.getName()) {
+                case "getValue"    -> mapValues.get((String) aoArg[0]);
+                case "putValue"    -> mapValues.put((String) aoArg[0], aoArg[1]);
+                case "removeValue" -> mapValues.remove((String) aoArg[0]);
+                default            -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,346 @@
+package org.xvm.runtime.template._native.web;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Socket level tests of the {@link VirtualHttpServer} and its {@link HttpConnection}s.
+ */
+public class VirtualHttpServerTest {
+    @BeforeEach
+    public void startServer()
+            throws IOException {
+        m_server = VirtualHttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), false);
+        m_server.createContext("/", VirtualHttpServerTest::echo);
+        m_server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        m_server.stop(0);
+    }
+
+    @Test
+    public void testPipelining()
+            throws IOException {
+        try (Socket socket = connect()) {
+            // all three requests are sent before any response is read
+            send(socket, "GET /a HTTP/1.1\r\nHost: x\r\n\r\n"
+                    + "POST /b HTTP/1.1\r\nHost: x\r\nContent-Length: 3\r\n\r\nabc"
+                    + "GET /c HTTP/1.1\r\nHost: x\r\n\r\n");
+
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            assertEquals("GET /a ",     readResponse(in, false).sBody());
+            assertEquals("POST /b abc", readResponse(in, false).sBody());
+            assertEquals("GET /c ",     readResponse(in, false).sBody());
+        }
+    }
+
+    @Test
+    public void testChunkedBodies()
+            throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, "POST /chunked HTTP/1.1\r\nHost: x\r\nTransfer-Encoding: chunked\r\n\r\n"
+                    + "4;ext=1\r\nWiki\r\n5\r\npedia\r\n0\r\nTrailer: x\r\n\r\n"
+                    + "GET /a HTTP/1.1\r\nHost: x\r\n\r\n");
+
+            InputStream in       = new BufferedInputStream(socket.getInputStream());
+            Response    response = readResponse(in, false);
+            assertEquals(200, response.nStatus());
+            assertEquals("chunked", response.mapHeaders().get("Transfer-Encoding"));
+            assertEquals("POST /chunked Wikipedia", response.sBody());
+
+            // the connection is kept alive after a chunked request
+            assertEquals("GET /a ", readResponse(in, false).sBody());
+        }
+    }
+
+    @Test
+    public void testExpectContinue()
+            throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, "POST /e HTTP/1.1\r\nHost: x\r\nContent-Length: 5\r\n"
+                    + "Expect: 100-continue\r\n\r\n");
+
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            assertEquals(100, readResponse(in, false).nStatus());
+
+            send(socket, "hello");
+            Response response = readResponse(in, false);
+            assertEquals(200, response.nStatus());
+            assertEquals("POST /e hello", response.sBody());
+        }
+    }
+
+    @Test
+    public void testHead()
+            throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, "HEAD /h HTTP/1.1\r\nHost: x\r\n\r\nGET /g HTTP/1.1\r\nHost: x\r\n\r\n");
+
+            // the response to HEAD has no body, so the next response follows its head directly
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            assertEquals(200, readResponse(in, true).nStatus());
+            assertEquals("GET /g ", readResponse(in, false).sBody());
+        }
+    }
+
+    @Test
+    public void testMalformedHeads()
+            throws IOException {
+        checkRejected("GET / HTTP/1.1\r\nHost : x\r\n\r\n", 400);
+        checkRejected("GET / HTTP/1.1\r\nHo st: x\r\n\r\n", 400);
+        checkRejected("GET /\r\n\r\n", 400);
+        checkRejected("GET / HTTP/2.0\r\n\r\n", 505);
+
+        checkRejected("POST / HTTP/1.1\r\nContent-Length: 3\r\nContent-Length: 3\r\n\r\nabc", 400);
+        checkRejected("POST / HTTP/1.1\r\nContent-Length: 3\r\nContent-Length: 4\r\n\r\nabcd", 400);
+        checkRejected("POST / HTTP/1.1\r\nContent-Length: 3, 3\r\n\r\nabc", 400);
+        checkRejected("POST / HTTP/1.1\r\nContent-Length: +3\r\n\r\nabc", 400);
+        checkRejected("POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n"
+                + "Transfer-Encoding: chunked\r\n\r\n0\r\n\r\n", 400);
+        checkRejected("POST / HTTP/1.1\r\nTransfer-Encoding: gzip, chunked\r\n\r\n0\r\n\r\n", 501);
+
+        StringBuilder sb = new StringBuilder("GET / HTTP/1.1\r\n");
+        for (int i = 0; i <= VirtualHttpServer.MAX_HEADER_COUNT; i++) {
+            sb.append("X-").append(i).append(": v\r\n");
+        }
+        checkRejected(sb.append("\r\n").toString(), 431);
+
+        String sValue = "v".repeat(VirtualHttpServer.BUFFER_SIZE - 100);
+        sb = new StringBuilder("GET / HTTP/1.1\r\n");
+        for (int i = 0, c = VirtualHttpServer.MAX_HEAD_SIZE / sValue.length() + 1; i < c; i++) {
+            sb.append("X-").append(i).append(": ").append(sValue).append("\r\n");
+        }
+        checkRejected(sb.append("\r\n").toString(), 431);
+    }
+
+    @Test
+    public void testContentLengthWithTransferEncoding()
+            throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, "POST /chunked HTTP/1.1\r\nHost: x\r\nContent-Length: 100\r\n"
+                    + "Transfer-Encoding: chunked\r\n\r\n3\r\nabc\r\n0\r\n\r\n"
+                    + "GET /a HTTP/1.1\r\nHost: x\r\n\r\n");
+
+            // the chunked encoding wins, but the connection is closed after the response
+            InputStream in       = new BufferedInputStream(socket.getInputStream());
+            Response    response = readResponse(in, false);
+            assertEquals("POST /chunked abc", response.sBody());
+            assertEquals("close", response.mapHeaders().get("Connection"));
+            assertNull(readLine(in));
+        }
+    }
+
+    /**
+     * Serve the same number of concurrent connections by this engine and by the JDK server that
+     * it replaces (configured as the xRTServer configures it), and report the times.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Opens 10,000 concurrent connections; enable with RUN_INTEGRATION_TESTS=true")
+    public void testManyConnections()
+            throws Exception {
+        int cConnections = Integer.getInteger("xvm.http.test.connections", 10_000);
+
+        HttpServer serverJdk = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        ExecutorService executorJdk = Executors.newCachedThreadPool();
+        serverJdk.createContext("/", VirtualHttpServerTest::echo);
+        serverJdk.setExecutor(executorJdk);
+        serverJdk.start();
+
+        long cMillisJdk;
+        try {
+            cMillisJdk = serveConnections(serverJdk, cConnections);
+        } finally {
+            serverJdk.stop(0);
+            executorJdk.shutdownNow();
+        }
+        long cMillisVirtual = serveConnections(m_server, cConnections);
+
+        System.out.println(cConnections + " concurrent connections served in " + cMillisVirtual
+                + "ms by the virtual engine, and in " + cMillisJdk + "ms by the JDK engine");
+    }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * The handler that responds with the request method, path and body; the response to the
+     * "/chunked" path uses the chunked encoding.
+     */
+    private static void echo(HttpExchange exchange)
+            throws IOException {
+        String sPath  = exchange.getRequestURI().getPath();
+        String sBody  = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        byte[] ab     = (exchange.getRequestMethod() + ' ' + sPath + ' ' + sBody)
+                .getBytes(StandardCharsets.UTF_8);
+
+        exchange.sendResponseHeaders(200, sPath.equals("/chunked") ? 0 : ab.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(ab);
+        }
+    }
+
+    /**
+     * Open the specified number of connections to the server, all of them staying open until all
+     * of them have been served, and check the responses.
+     *
+     * @return the time it took, in milliseconds
+     */
+    private static long serveConnections(HttpServer server, int cConnections)
+            throws Exception {
+        List<Socket> listSockets = Collections.synchronizedList(new ArrayList<>());
+        long         lStart      = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> listFutures = new ArrayList<>(cConnections);
+            for (int i = 0; i < cConnections; i++) {
+                String sPath = "/c" + i;
+                listFutures.add(executor.submit(() -> {
+                    Socket socket = connect(server);
+                    listSockets.add(socket);
+                    send(socket, "GET " + sPath + " HTTP/1.1\r\nHost: x\r\n\r\n");
+                    return readResponse(new BufferedInputStream(socket.getInputStream()), false)
+                            .sBody();
+                }));
+            }
+            for (int i = 0; i < cConnections; i++) {
+                assertEquals("GET /c" + i + ' ', listFutures.get(i).get());
+            }
+        } finally {
+            for (Socket socket : listSockets) {
+                socket.close();
+            }
+        }
+        return (System.nanoTime() - lStart) / 1_000_000;
+    }
+
+    /**
+     * Send the specified request and check that it's rejected with the specified status and the
+     * connection is closed.
+     */
+    private void checkRejected(String sRequest, int nStatus)
+            throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, sRequest);
+
+            InputStream in       = new BufferedInputStream(socket.getInputStream());
+            Response    response = readResponse(in, false);
+            assertEquals(nStatus, response.nStatus(), sRequest);
+            assertEquals("close", response.mapHeaders().get("Connection"));
+            assertNull(readLine(in));
+        }
+    }
+
+    private Socket connect()
+            throws IOException {
+        return connect(m_server);
+    }
+
+    private static Socket connect(HttpServer server)
+            throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                server.getAddress().getPort());
+        socket.setSoTimeout(30_000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String s)
+            throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(s.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    /**
+     * Read a response.
+     *
+     * @param fHead  true if the response is for a HEAD request (and therefore has no body)
+     */
+    private static Response readResponse(InputStream in, boolean fHead)
+            throws IOException {
+        String sStatus = readLine(in);
+        assertNotNull(sStatus, "The connection has been closed");
+        int nStatus = Integer.parseInt(sStatus.substring(9, 12));
+
+        Map<String, String> mapHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String sLine = readLine(in); !sLine.isEmpty(); sLine = readLine(in)) {
+            int ofColon = sLine.indexOf(':');
+            mapHeaders.put(sLine.substring(0, ofColon), sLine.substring(ofColon + 1).strip());
+        }
+
+        byte[] ab;
+        if (fHead || nStatus < 200 || nStatus == 204 || nStatus == 304) {
+            ab = new byte[0];
+        } else if ("chunked".equals(mapHeaders.get("Transfer-Encoding"))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int cb; (cb = Integer.parseInt(readLine(in), 16)) > 0; ) {
+                out.write(in.readNBytes(cb));
+                assertEquals("", readLine(in));
+            }
+            assertEquals("", readLine(in));
+            ab = out.toByteArray();
+        } else if (mapHeaders.containsKey("Content-Length")) {
+            ab = in.readNBytes(Integer.parseInt(mapHeaders.get("Content-Length")));
+        } else {
+            ab = in.readAllBytes();
+        }
+        return new Response(nStatus, mapHeaders, new String(ab, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the next CRLF terminated line, or null at the end of the stream
+     */
+    private static String readLine(InputStream in)
+            throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int b; (b = in.read()) != '\n'; ) {
+            if (b < 0) {
+                return sb.isEmpty() ? null : sb.toString();
+            }
+            if (b != '\r') {
+                sb.append((char) b);
+            }
+        }
+        return sb.toString();
+    }
+
+    private record Response(int nStatus, Map<String, String> mapHeaders, String sBody) {}
+
+    private VirtualHttpServer m_server;
+}
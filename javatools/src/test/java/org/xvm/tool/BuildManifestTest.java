@@ -0,0 +1,127 @@
+package org.xvm.tool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@link BuildManifest}.
+ */
+class BuildManifestTest {
+
+    @TempDir
+    Path tempDir;
+
+    // ----- Helper methods ------------------------------------------------------------------------
+
+    /**
+     * Creates a module source tree with a single class and a compiled module file.
+     */
+    private ModuleInfo createCompiledModule() throws IOException {
+        var sourceFile = tempDir.resolve("MyModule.x");
+        Files.writeString(sourceFile, "module MyModule {}");
+        var moduleDir = Files.createDirectories(tempDir.resolve("MyModule"));
+        Files.writeString(moduleDir.resolve("Helper.x"), "class Helper {}");
+        Files.writeString(tempDir.resolve("MyModule.xtc"), "compiled");
+        return new ModuleInfo(sourceFile.toFile(), false);
+    }
+
+    // ----- Tests ---------------------------------------------------------------------------------
+
+    /**
+     * A missing or malformed manifest is not loaded.
+     */
+    @Test
+    void testLoadMissingOrMalformed() throws IOException {
+        var info = createCompiledModule();
+        assertNull(BuildManifest.load(info));
+
+        Files.writeString(tempDir.resolve("MyModule.deps"), "source.MyModule.x=abc\n");
+        assertNull(BuildManifest.load(info));
+
+        Files.writeString(tempDir.resolve("MyModule.deps"), "source.MyModule.x=abc,1,x\n");
+        assertNull(BuildManifest.load(info));
+    }
+
+    /**
+     * A stored manifest is loaded back with the same sources and imports.
+     */
+    @Test
+    void testStoreAndLoad() throws IOException {
+        var info    = createCompiledModule();
+        var libFile = tempDir.resolve("Lib.xtc").toFile();
+        Files.writeString(libFile.toPath(), "compiled");
+
+        BuildManifest.store(info, Map.of("Lib", libFile, "Missing", tempDir.resolve("x").toFile()));
+
+        var manifest = BuildManifest.load(info);
+        assertNotNull(manifest);
+        assertEquals(Set.of("Lib"), manifest.getImportNames());
+        assertTrue(manifest.isSourceCurrent(info));
+        assertTrue(manifest.isImportCurrent());
+
+        assertTrue(libFile.delete());
+        assertFalse(manifest.isImportCurrent());
+    }
+
+    /**
+     * A source file that is touched without a content change is hashed once, after which the
+     * manifest records the new modification time.
+     */
+    @Test
+    void testTouchedSourceRefreshesManifest() throws IOException {
+        var info = createCompiledModule();
+        BuildManifest.store(info, Map.of());
+
+        var helperFile = tempDir.resolve("MyModule/Helper.x").toFile();
+        var ldtTouched = (System.currentTimeMillis() / 1000 + 60) * 1000;
+        assertTrue(helperFile.setLastModified(ldtTouched));
+
+        var manifest = BuildManifest.load(info);
+        assertNotNull(manifest);
+        assertTrue(manifest.isSourceCurrent(info));
+
+        var sManifest = Files.readString(tempDir.resolve("MyModule.deps"));
+        assertTrue(sManifest.contains("," + helperFile.length() + "," + ldtTouched), sManifest);
+    }
+
+    /**
+     * A changed, added or removed source file makes the sources not current.
+     */
+    @Test
+    void testChangedSources() throws IOException {
+        var info = createCompiledModule();
+        BuildManifest.store(info, Map.of());
+
+        // the same size, but a different content (and a different modification time)
+        var helperFile = tempDir.resolve("MyModule/Helper.x");
+        var ldtChanged = (System.currentTimeMillis() / 1000 + 60) * 1000;
+        Files.writeString(helperFile, "class Helpex {}");
+        assertTrue(helperFile.toFile().setLastModified(ldtChanged));
+        assertFalse(BuildManifest.load(info).isSourceCurrent(info));
+
+        Files.writeString(helperFile, "class Helper {}");
+        assertTrue(helperFile.toFile().setLastModified(ldtChanged + 1000));
+        assertTrue(BuildManifest.load(info).isSourceCurrent(info));
+
+        var otherFile = tempDir.resolve("MyModule/Other.x");
+        Files.writeString(otherFile, "class Other {}");
+        assertFalse(BuildManifest.load(info).isSourceCurrent(info));
+
+        Files.delete(otherFile);
+        Files.delete(helperFile);
+        assertFalse(BuildManifest.load(info).isSourceCurrent(info));
+    }
+}
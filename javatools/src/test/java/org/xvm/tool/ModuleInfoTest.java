@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -304,6 +305,62 @@ class ModuleInfoTest {
         assertFalse(info.isUpToDate());
     }
 
+    /**
+     * isUpToDate returns true when the sources are newer than the .xtc, but the build manifest
+     * shows that their content has not changed.
+     */
+    @Test
+    void testIsUpToDateWithTouchedSources() throws IOException {
+        var sourceFile = createModuleSourceTree("MyModule");
+        var xtcFile    = tempDir.resolve("MyModule.xtc");
+        Files.writeString(xtcFile, "compiled");
+        BuildManifest.store(new ModuleInfo(sourceFile.toFile(), false), Map.of());
+        setTimestampOneYearAgo(xtcFile.toFile());
+
+        var helperFile = tempDir.resolve("MyModule/Helper.x").toFile();
+        assertTrue(helperFile.setLastModified(System.currentTimeMillis() + 60_000));
+        assertTrue(new ModuleInfo(sourceFile.toFile(), false).isUpToDate());
+
+        Files.writeString(helperFile.toPath(), "class Helper {} // changed");
+        assertFalse(new ModuleInfo(sourceFile.toFile(), false).isUpToDate());
+    }
+
+    /**
+     * isUpToDate returns false when a source file has been added since the compilation.
+     */
+    @Test
+    void testIsUpToDateWithAddedSource() throws IOException {
+        var sourceFile = createModuleSourceTree("MyModule");
+        var xtcFile    = tempDir.resolve("MyModule.xtc");
+        Files.writeString(xtcFile, "compiled");
+        BuildManifest.store(new ModuleInfo(sourceFile.toFile(), false), Map.of());
+        setTimestampOneYearAgo(xtcFile.toFile());
+
+        Files.writeString(tempDir.resolve("MyModule/Other.x"), "class Other {}");
+        assertFalse(new ModuleInfo(sourceFile.toFile(), false).isUpToDate());
+    }
+
+    /**
+     * isUpToDate returns false when an imported module has been recompiled, even though the
+     * .xtc is newer than the sources.
+     */
+    @Test
+    void testIsUpToDateWithRecompiledImport() throws IOException {
+        var sourceFile = createModuleSource("MyModule");
+        var libFile    = tempDir.resolve("Lib.xtc").toFile();
+        var xtcFile    = tempDir.resolve("MyModule.xtc");
+        Files.writeString(libFile.toPath(), "compiled");
+        Files.writeString(xtcFile, "compiled");
+        setTimestampOneYearAgo(sourceFile.toFile());
+        setTimestampOneYearAgo(libFile);
+        BuildManifest.store(new ModuleInfo(sourceFile.toFile(), false), Map.of("Lib", libFile));
+
+        assertTrue(new ModuleInfo(sourceFile.toFile(), false).isUpToDate());
+
+        assertTrue(libFile.setLastModified(System.currentTimeMillis()));
+        assertFalse(new ModuleInfo(sourceFile.toFile(), false).isUpToDate());
+    }
+
     // ----- toString test -------------------------------------------------------------------------
 
     /**
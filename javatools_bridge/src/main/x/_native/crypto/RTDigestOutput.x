@@ -0,0 +1,61 @@
+/**
+ * The base for the native [OutputSigner](libcrypto.Signer.OutputSigner) and
+ * [OutputVerifier](libcrypto.Verifier.OutputVerifier) implementations: a [BinaryOutput] that feeds
+ * all the data written to (or through) it to a native streaming hash, MAC or signature operation.
+ * The data is passed to the native operation in chunks, so writing individual bytes doesn't
+ * require a native call per byte.
+ */
+@Abstract class RTDigestOutput(BinaryOutput? destination)
+        implements BinaryOutput {
+
+    /**
+     * The size of the chunks passed to the native operation.
+     */
+    static Int CHUNK_SIZE = 8192;
+
+    /**
+     * The data that has not been passed to the native operation yet.
+     */
+    private Byte[] buffer = new Byte[](CHUNK_SIZE);
+
+    @Override
+    void writeByte(Byte value) {
+        destination?.writeByte(value);
+
+        buffer.add(value);
+        if (buffer.size >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    void writeBytes(Byte[] bytes, Int offset, Int count) {
+        destination?.writeBytes(bytes, offset, count);
+
+        Byte[] chunk = bytes[offset ..< offset + count];
+        if (count >= CHUNK_SIZE) {
+            flush();
+            update(chunk);
+        } else {
+            buffer.addAll(chunk);
+            if (buffer.size >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Pass all the buffered data to the native operation.
+     */
+    protected void flush() {
+        if (!buffer.empty) {
+            update(buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Pass the next chunk of data to the native operation.
+     */
+    protected @Abstract void update(Byte[] data);
+}
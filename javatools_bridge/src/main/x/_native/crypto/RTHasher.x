@@ -59,10 +59,17 @@ service RTHasher(String name, Int signatureSize)
         return new Signature(algorithm.name, digest(hasher, data));
     }
 
+    @Override
+    Signature[] signAll(Byte[][] data) {
+        Byte[][] hashes = digestAll(hasher, data);
+        return new Signature[hashes.size](i -> new Signature(algorithm.name, hashes[i]));
+    }
+
     @Override
     OutputSigner createOutputSigner(BinaryOutput? destination = Null,
                                     Annotations?  annotations = Null) {
-        TODO
+        OutputSigner signer = new HashingOutput(destination, startDigest(hasher));
+        return &signer.maskAs(OutputSigner);
     }
 
 
@@ -80,15 +87,24 @@ service RTHasher(String name, Int signatureSize)
 
     @Override
     Boolean verify(Digest signature, Byte[] data) {
-        Byte[] bytes = signature.is(Signature) ? signature.bytes : signature;
-        return bytes == digest(hasher, data);
+        return bytesOf(signature) == digest(hasher, data);
+    }
+
+    @Override
+    Boolean[] verifyAll(Digest[] signatures, Byte[][] data) {
+        assert:arg signatures.size == data.size;
+
+        Byte[][] hashes = digestAll(hasher, data);
+        return new Boolean[hashes.size](i -> bytesOf(signatures[i]) == hashes[i]);
     }
 
     @Override
     OutputVerifier createOutputVerifier(Digest        signature,
                                         BinaryOutput? destination = Null,
                                         Annotations?  annotations = Null) {
-        TODO
+        OutputVerifier verifier =
+                new HashingOutput(destination, startDigest(hasher), bytesOf(signature));
+        return &verifier.maskAs(OutputVerifier);
     }
 
     @Override
@@ -108,7 +124,41 @@ service RTHasher(String name, Int signatureSize)
         return $"{name.quoted()} algorithm with {signatureSize} bytes digest";
     }
 
+    // ----- HashingOutput class -------------------------------------------------------------------
+
+    /**
+     * The [OutputSigner] and [OutputVerifier] implementation that hashes the data as it is written.
+     */
+    class HashingOutput(BinaryOutput? destination, Object stream, Byte[] expected = [])
+            extends RTDigestOutput(destination)
+            implements OutputSigner, OutputVerifier {
+
+        @Override
+        protected void update(Byte[] data) = updateStream(stream, data);
+
+        @Override
+        Signature sign() {
+            flush();
+            return new Signature(algorithm.name, finishStream(stream));
+        }
+
+        @Override
+        Boolean signatureMatches() {
+            flush();
+            return finishStream(stream) == expected;
+        }
+    }
+
+    private static Byte[] bytesOf(Digest signature) {
+        return signature.is(Signature) ? signature.bytes : signature;
+    }
+
+
     // ----- native methods ------------------------------------------------------------------------
 
-    private Byte[] digest(Object digest, Byte[] data) {TODO("Native");}
+    private Byte[]   digest(Object digest, Byte[] data)       {TODO("Native");}
+    private Byte[][] digestAll(Object digest, Byte[][] data)  {TODO("Native");}
+    private Object   startDigest(Object digest)               {TODO("Native");}
+    private void     updateStream(Object stream, Byte[] data) {TODO("Native");}
+    private Byte[]   finishStream(Object stream)              {TODO("Native");}
 }
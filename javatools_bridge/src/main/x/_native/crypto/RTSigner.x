@@ -28,17 +28,21 @@ service RTSigner
 
     @Override
     Signature sign(Byte[] data) {
-        if (Object secret := RTKeyStore.extractSecret(privateKey)) {
-            return new Signature(algorithm.name, sign(signer, secret, data));
-        }
+        return new Signature(algorithm.name, sign(signer, secretOf(privateKey), data));
+    }
 
-        throw new IllegalState($"Unsupported key {privateKey}");
+    @Override
+    Signature[] signAll(Byte[][] data) {
+        Byte[][] signatures = signAllImpl(signer, secretOf(privateKey), data);
+        return new Signature[signatures.size](i -> new Signature(algorithm.name, signatures[i]));
     }
 
     @Override
     OutputSigner createOutputSigner(BinaryOutput? destination = Null,
                                     Annotations?  annotations = Null) {
-        TODO
+        OutputSigner outputSigner =
+                new SigningOutput(destination, startSign(signer, secretOf(privateKey)));
+        return &outputSigner.maskAs(OutputSigner);
     }
 
     @Override
@@ -47,7 +51,32 @@ service RTSigner
     }
 
 
+    // ----- SigningOutput class -------------------------------------------------------------------
+
+    /**
+     * The [OutputSigner] implementation that feeds the data to the native signer as it is written.
+     */
+    class SigningOutput(BinaryOutput? destination, Object stream)
+            extends RTDigestOutput(destination)
+            implements OutputSigner {
+
+        @Override
+        protected void update(Byte[] data) = updateStream(stream, data);
+
+        @Override
+        Signature sign() {
+            flush();
+            return new Signature(algorithm.name, finishStream(stream));
+        }
+    }
+
+
     // ----- native helpers ------------------------------------------------------------------------
 
     protected Byte[] sign(Object signer, Object secret, Byte[] data) {TODO("Native");}
+
+    protected Byte[][] signAllImpl(Object signer, Object secret, Byte[][] data) {TODO("Native");}
+
+    protected Object startSign(Object signer, Object secret) {TODO("Native");}
+    protected Byte[] finishStream(Object stream)             {TODO("Native");}
 }
@@ -35,26 +35,24 @@ service RTVerifier
 
     @Override
     Boolean verify(Digest signature, Byte[] data) {
-        Object secret;
-        if (!(secret := RTKeyStore.extractSecret(publicKey))) {
-            throw new IllegalState($"Unsupported key {publicKey}");
-        }
+        return verify(signer, secretOf(publicKey), bytesOf(signature), data);
+    }
 
-        Byte[] signatureBytes;
-        if (signature.is(Signature)) {
-            assert signature.algorithm == algorithm.name;
-            signatureBytes = signature.bytes;
-        } else {
-            signatureBytes = signature;
-        }
-        return verify(signer, secret, signatureBytes, data);
+    @Override
+    Boolean[] verifyAll(Digest[] signatures, Byte[][] data) {
+        assert:arg signatures.size == data.size;
+
+        Byte[][] signatureBytes = new Array<Byte[]>(signatures.size, i -> bytesOf(signatures[i]));
+        return verifyAllImpl(signer, secretOf(publicKey), signatureBytes, data);
     }
 
     @Override
     OutputVerifier createOutputVerifier(Digest        signature,
                                         BinaryOutput? destination = Null,
                                         Annotations?  annotations = Null) {
-        TODO
+        OutputVerifier verifier = new VerifyingOutput(destination,
+                startVerify(signer, secretOf(publicKey)), bytesOf(signature));
+        return &verifier.maskAs(OutputVerifier);
     }
 
     @Override
@@ -72,7 +70,59 @@ service RTVerifier
     }
 
 
+    // ----- VerifyingOutput class -----------------------------------------------------------------
+
+    /**
+     * The [OutputVerifier] implementation that feeds the data to the native verifier as it is
+     * written.
+     */
+    class VerifyingOutput(BinaryOutput? destination, Object stream, Byte[] signature)
+            extends RTDigestOutput(destination)
+            implements OutputVerifier {
+
+        @Override
+        protected void update(Byte[] data) = updateStream(stream, data);
+
+        @Override
+        Boolean signatureMatches() {
+            flush();
+            return verifyStream(stream, signature);
+        }
+    }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * @return the native secret for the specified key
+     */
+    protected Object secretOf(CryptoKey key) {
+        if (Object secret := RTKeyStore.extractSecret(key)) {
+            return secret;
+        }
+        throw new IllegalState($"Unsupported key {key}");
+    }
+
+    /**
+     * @return the signature bytes for the specified digest
+     */
+    protected Byte[] bytesOf(Digest signature) {
+        if (signature.is(Signature)) {
+            assert signature.algorithm == algorithm.name;
+            return signature.bytes;
+        }
+        return signature;
+    }
+
+
     // ----- native helpers ------------------------------------------------------------------------
 
     protected Boolean verify(Object signer, Object secret, Byte[] signature, Byte[] data) {TODO("Native");}
+
+    protected Boolean[] verifyAllImpl(Object signer, Object secret, Byte[][] signatures,
+                                      Byte[][] data) {TODO("Native");}
+
+    protected Object  startVerify(Object signer, Object secret)     {TODO("Native");}
+    protected void    updateStream(Object stream, Byte[] data)      {TODO("Native");}
+    protected Boolean verifyStream(Object stream, Byte[] signature) {TODO("Native");}
 }
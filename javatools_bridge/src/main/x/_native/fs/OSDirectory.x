@@ -73,5 +73,5 @@ const OSDirectory
     Cancellable watch(FileWatcher watcher) = store.watchDir(this, watcher);
 
     @Override
-    Cancellable watchRecursively(FileWatcher watcher) { TODO("native"); }
+    Cancellable watchRecursively(FileWatcher watcher) = store.watchDirRecursively(this, watcher);
 }
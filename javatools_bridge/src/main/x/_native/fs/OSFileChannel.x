@@ -40,6 +40,19 @@ service OSFileChannel
     @Override
     void flush() = rawChannel.flush();
 
+    @Override
+    immutable Byte[] readAt(Int offset, Int count) = rawChannel.readAt(offset, count);
+
+    @Override
+    void writeAt(Int offset, Byte[] bytes) = rawChannel.writeAt(offset, bytes);
+
+    @Override
+    immutable Byte[][] readScatteredAt(Int offset, Int[] counts) =
+            rawChannel.readScatteredAt(offset, counts);
+
+    @Override
+    void writeGatheredAt(Int offset, Byte[][] buffers) = rawChannel.writeGatheredAt(offset, buffers);
+
     @Override
     String toString() = "FileChannel";
 }
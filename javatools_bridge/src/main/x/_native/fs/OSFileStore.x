@@ -92,6 +92,9 @@ class OSFileStore
 
     Cancellable watchDir(OSDirectory dir, FileWatcher watcher) = storage.watchDir(dir.path, watcher);
 
+    Cancellable watchDirRecursively(OSDirectory dir, FileWatcher watcher) =
+            storage.watchDir(dir.path, watcher, recursive=True);
+
 
     // ----- native --------------------------------------------------------------------------------
 
@@ -35,12 +35,20 @@ service OSStorage {
         }
     }
 
-    FileStore.Cancellable watchDir(Path dirPath, FileWatcher watcher) {
-        String pathString = dirPath.toString();
+    /**
+     * Watch the specified directory.
+     *
+     * @param dirPath    the directory path
+     * @param watcher    the watcher to report the events to
+     * @param recursive  if True, report the events for everything nested under the directory
+     */
+    FileStore.Cancellable watchDir(Path dirPath, FileWatcher watcher, Boolean recursive = False) {
+        String                      pathString     = dirPath.toString();
+        Map<String, FileWatcher?[]> watchersByPath = recursive ? recursiveWatchers : allWatchers;
 
         FileWatcher?[] watchers;
         Int            index;
-        if (watchers := allWatchers.get(pathString)) {
+        if (watchers := watchersByPath.get(pathString)) {
             index = watchers.size;
 
             findEmpty:
@@ -52,49 +60,82 @@ service OSStorage {
             }
         } else {
             // add the native watch
-            watch(pathString);
+            watch(pathString, recursive);
 
             watchers = new FileWatcher?[];
             index    = 0;
 
-            allWatchers.put(pathString, watchers);
+            watchersByPath.put(pathString, watchers);
         }
         watchers[index] = watcher;
 
-        // return () -> removeWatch(pathString, index, watcher);
-        return &removeWatch(pathString, index, watcher);
+        return &removeWatch(pathString, recursive, index, watcher);
     }
 
     /**
      * Remove the watcher for the specified directory.
      */
-    private void removeWatch(String pathString, Int index, FileWatcher watcher) {
-        if (FileWatcher?[] watchers := allWatchers.get(pathString)) {
-            if (watchers[index] == watcher) {
+    private void removeWatch(String pathString, Boolean recursive, Int index, FileWatcher watcher) {
+        Map<String, FileWatcher?[]> watchersByPath = recursive ? recursiveWatchers : allWatchers;
+        if (FileWatcher?[] watchers := watchersByPath.get(pathString)) {
+            if (index < watchers.size && watchers[index] == watcher) {
                 watchers[index] = Null;
 
-                // TODO: cleanup if no one watches anymore
+                if (watchers.all(w -> w == Null)) {
+                    // no one watches anymore
+                    watchersByPath.remove(pathString);
+                    unwatch(pathString, recursive);
+                }
             }
         }
     }
 
-    // called natively
-    private void onEvent(String pathStringDir, String pathStringNode, Boolean isFile, Int eventId) {
-        FileWatcher.Event event = FileWatcher.Event.values[eventId];
-
-        if (FileWatcher?[] watchers := allWatchers.get(pathStringDir)) {
+    /**
+     * Called natively with the events collected for a watched directory. The events for any given
+     * node have already been coalesced, so there is at most one event per node.
+     *
+     * @param pathStringDir    the watched directory path
+     * @param recursive        True iff the events are for a recursive watch
+     * @param pathStringNodes  the paths of the nodes the events are for
+     * @param events           for each node, the `FileWatcher.Event` ordinal, combined with the
+     *                         `DIRECTORY_EVENT` flag if the node is a directory
+     * @param overflow         True iff some events have been lost
+     */
+    private void onEvents(String pathStringDir, Boolean recursive, String[] pathStringNodes,
+                          Byte[] events, Boolean overflow) {
+        Map<String, FileWatcher?[]> watchersByPath = recursive ? recursiveWatchers : allWatchers;
+        if (FileWatcher?[] watchers := watchersByPath.get(pathStringDir)) {
             findWatcher:
             for (FileWatcher? watcher : watchers) {
-                if (watcher != Null) {
+                if (watcher == Null) {
+                    continue;
+                }
+
+                Int index = findWatcher.count;
+                if (overflow) {
+                    @Future Boolean cancel = watcher.eventsDiscarded();
+                    &cancel.whenComplete((cancelled, exception) -> {
+                        if (cancelled? || exception != Null) {
+                            removeWatch(pathStringDir, recursive, index, watcher);
+                        }
+                    });
+                }
+
+                for (Int i : 0 ..< pathStringNodes.size) {
+                    String            pathStringNode = pathStringNodes[i];
+                    Byte              flags          = events[i];
+                    Boolean           isFile         = (flags & DIRECTORY_EVENT) == 0;
+                    FileWatcher.Event event          =
+                            FileWatcher.Event.values[(flags & ~DIRECTORY_EVENT).toInt64()];
+
                     @Future Boolean cancel = isFile
                         ? watcher.onEvent(event, fileStore.fileFor(pathStringNode))
                         : watcher.onEvent(event, fileStore.dirFor(pathStringNode));
 
-                    Int index = findWatcher.count;
                     &cancel.whenComplete((cancelled, exception) -> {
                         if (cancelled? || exception != Null) {
-                            removeWatch(pathStringDir, index, watcher);
-                        } else if (!isFile && event == Created) {
+                            removeWatch(pathStringDir, recursive, index, watcher);
+                        } else if (!isFile && !recursive && event == Created) {
                             // we had a request to watch a directory that has just been created
                             watchDir(new Path(pathStringNode), watcher);
                         }
@@ -104,7 +145,13 @@ service OSStorage {
         }
     }
 
-    private Map<String, FileWatcher?[]> allWatchers = new HashMap();
+    /**
+     * The flag combined with the event ordinal by the native watch for directory events.
+     */
+    private static Byte DIRECTORY_EVENT = 0x04;
+
+    private Map<String, FileWatcher?[]> allWatchers       = new HashMap();
+    private Map<String, FileWatcher?[]> recursiveWatchers = new HashMap();
 
     @Override
     String toString() = "Storage";
@@ -129,8 +176,8 @@ service OSStorage {
     Boolean  createDir(String pathString)  {TODO("Native");}
     Boolean  createFile(String pathString) {TODO("Native");}
     Boolean  delete(String pathString)     {TODO("Native");}
-    void     watch(String pathStringDir)   {TODO("Native");}
-    void     unwatch(String pathStringDir) {TODO("Native");}
+    void     watch(String pathStringDir, Boolean recursive)   {TODO("Native");}
+    void     unwatch(String pathStringDir, Boolean recursive) {TODO("Native");}
 
     static OSStorage instance() {TODO("Native");}
 }
@@ -23,4 +23,11 @@ service RawOSFileChannel
      * Ensure all the changes are written to the underlying storage medium.
      */
     void flush() = TODO("native");
+
+    // ----- positional I/O (see FileChannel) ------------------------------------------------------
+
+    immutable Byte[]   readAt(Int offset, Int count)                 = TODO("native");
+    void               writeAt(Int offset, Byte[] bytes)             = TODO("native");
+    immutable Byte[][] readScatteredAt(Int offset, Int[] counts)     = TODO("native");
+    void               writeGatheredAt(Int offset, Byte[][] buffers) = TODO("native");
 }
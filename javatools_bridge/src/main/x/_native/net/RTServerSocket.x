@@ -1,6 +1,3 @@
-import ecstasy.io.IOClosed;
-import ecstasy.io.Channel;
-
 import libnet.IPAddress;
 import libnet.Socket;
 import libnet.SocketAddress;
@@ -8,29 +5,32 @@ import libnet.ServerSocket;
 
 /**
  * Implements a native [ServerSocket].
+ *
+ * Each accepted connection is a new [RTSocket] service, so the accepting loop can hand the sockets
+ * over to any number of services without funneling their I/O through this one.
  */
 service RTServerSocket(SocketAddress localAddress)
         implements ServerSocket {
     /**
      * Constructor from native land.
      *
-     * @param name            the name of this network interface
-     * @param addressesBytes  the byte array for each address of this network interface
+     * @param localAddressBytes  the bytes of the local address the server socket is bound to
+     * @param localPort          the local port the server socket is bound to
      */
     construct(Byte[] localAddressBytes, UInt16 localPort) {
         construct RTServerSocket((new IPAddress(localAddressBytes), localPort));
     }
 
-    // ----- Socket methods ------------------------------------------------------------------------
+    // ----- ServerSocket methods ------------------------------------------------------------------
 
     @Override
     public/private SocketAddress localAddress;
 
     @Override
-    Socket accept() {TODO("Native");}
+    Socket accept() = acceptImpl();
 
     @Override
-    void close(Exception? cause = Null) {TODO("Native");}
+    void close(Exception? cause = Null) = closeImpl();
 
     @Override
     String toString() {
@@ -40,5 +40,7 @@ service RTServerSocket(SocketAddress localAddress)
 
     // ----- internal ------------------------------------------------------------------------------
 
-    // TODO
+    private Socket acceptImpl() {TODO("Native");}
+
+    private void closeImpl() {TODO("Native");}
 }
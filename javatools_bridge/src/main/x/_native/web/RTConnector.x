@@ -1,4 +1,5 @@
 import libweb.Client;
+import libweb.Client.Connector.ResponseBody;
 
 /**
  * The native Client.Connector implementation.
@@ -13,4 +14,15 @@ service RTConnector
     (Int statusCode, String[] responseHeaderNames, String[] responseHeaderValues, Byte[] responseBytes)
         sendRequest(String method, String uri,
                     String[] headerNames, String[] headerValues, Byte[] bytes) = TODO("native");
+
+    @Override
+    (Int statusCode, String[] responseHeaderNames, String[] responseHeaderValues, ResponseBody responseBody)
+        sendStreamingRequest(String method, String uri,
+                             String[] headerNames, String[] headerValues, Byte[] bytes) = TODO("native");
+
+    @Override
+    Byte[] readResponseBody(ResponseBody responseBody, Int maxSize) = TODO("native");
+
+    @Override
+    void closeResponseBody(ResponseBody responseBody) = TODO("native");
 }
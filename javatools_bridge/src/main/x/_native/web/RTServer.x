@@ -1,5 +1,9 @@
+import ecstasy.fs.File;
+
 import ecstasy.io.BinaryInput;
 
+import fs.OSFile;
+
 import libcrypto.Algorithm;
 import libcrypto.CryptoKey;
 import libcrypto.Decryptor;
@@ -16,6 +20,8 @@ import libweb.Protocol;
 import libweb.Scheme;
 
 import libweb.http.HostInfo;
+import libweb.http.TlsSettings;
+import libweb.http.TlsStats;
 
 /**
  * The native HttpServer service implementation.
@@ -32,7 +38,7 @@ service RTServer
     // ----- network bindings ----------------------------------------------------------------------
 
     @Override
-    void bind(HostInfo binding, ProxyCheck reverseProxy=NoTrustedProxies) {
+    void bind(HostInfo binding, ProxyCheck reverseProxy=NoTrustedProxies, TlsSettings? tls=Null) {
         // at the moment we only support a single mapping
         assert bindings.empty as "Multiple bindings are not supported";
 
@@ -41,7 +47,9 @@ service RTServer
             bindAddr = bindAddr.toString();
         }
 
-        bindImpl(binding, bindAddr, binding.httpPort, binding.httpsPort);
+        tls ?:= new TlsSettings();
+        bindImpl(binding, bindAddr, binding.httpPort, binding.httpsPort,
+                 tls.sessionCacheSize, tls.sessionTimeout.seconds, tls.applicationProtocols);
         bindings = bindings.put(binding, reverseProxy);
         assert bindings.is(immutable);
     }
@@ -59,6 +67,13 @@ service RTServer
     @Override
     public/private Map<HostInfo, ProxyCheck> bindings = [];
 
+    @Override
+    TlsStats tlsStats.get() {
+        (Int full, Int resumed, Int failed, Int totalNanos, Int maxNanos) = tlsStatsImpl();
+        return new TlsStats(full, resumed, failed,
+                Duration.ofNanos(totalNanos), Duration.ofNanos(maxNanos));
+    }
+
     // ----- host routes ---------------------------------------------------------------------------
 
     /**
@@ -125,7 +140,7 @@ service RTServer
             handler.configure(decryptor);
         }
 
-        addRouteImpl(hostName, httpPort, httpsPort, new HandlerWrapper(handler), keystore, tlsKey);
+        addRouteImpl(hostName, httpPort, httpsPort, createWrappers(handler), keystore, tlsKey);
 
         routes = routes.put(route, handler);
         assert routes.is(immutable);
@@ -141,7 +156,7 @@ service RTServer
             hostName = route.host.toString();
         }
         if (routes.contains(route)) {
-            if (replaceRouteImpl(hostName, new HandlerWrapper(handler))) {
+            if (replaceRouteImpl(hostName, createWrappers(handler))) {
                 routes = routes.put(route, handler);
                 assert routes.is(immutable);
                 return True;
@@ -180,6 +195,20 @@ service RTServer
         }
     }
 
+    /**
+     * Create the wrappers for the specified handler. If the handler is a [HandlerPool], the native
+     * server spreads the requests across all the pooled handlers.
+     */
+    private HandlerWrapper[] createWrappers(Handler handler) {
+        if (handler.is(HandlerPool)) {
+            Int count = handler.poolSize;
+            if (count > 0) {
+                return new HandlerWrapper[count](i -> new HandlerWrapper(handler.pooledHandler(i)));
+            }
+        }
+        return [new HandlerWrapper(handler)];
+    }
+
     // ----- request handling ----------------------------------------------------------------------
 
     /**
@@ -213,14 +242,18 @@ service RTServer
         void setHeaders(Int status, String[] headerNames, String[] headerValues, Int responseLength);
         void setBodyBytes(Byte[] bytes);
         void streamBodyBytes(BinaryInput source);
+        void sendFile(File file, Range<Int> region);
     }
 
     // ----- native implementations all run on the service context ---------------------------------
 
-    private void bindImpl(HostInfo binding, String bindAddr, UInt16 httpPort, UInt16 httpsPort)      = TODO("Native");
+    private void bindImpl(HostInfo binding, String bindAddr, UInt16 httpPort, UInt16 httpsPort,
+                          Int sessionCacheSize, Int sessionTimeout,
+                          String[] applicationProtocols)                                             = TODO("Native");
+    private (Int, Int, Int, Int, Int) tlsStatsImpl()                                                 = TODO("Native");
     private void addRouteImpl(String hostName, UInt16 httpPort, UInt16 httpsPort,
-                              HandlerWrapper wrapper, KeyStore? keystore, String? tlsKey)            = TODO("Native");
-    private Boolean replaceRouteImpl(String hostName, HandlerWrapper wrapper)                        = TODO("Native");
+                              HandlerWrapper[] wrappers, KeyStore? keystore, String? tlsKey)         = TODO("Native");
+    private Boolean replaceRouteImpl(String hostName, HandlerWrapper[] wrappers)                     = TODO("Native");
     private void removeRouteImpl(String hostName)                                                    = TODO("Native");
     (Byte[], UInt16) getReceivedAtAddress(RequestContext context)                                    = TODO("Native");
     (Byte[], UInt16) getReceivedFromAddress(RequestContext context)                                  = TODO("Native");
@@ -233,6 +266,7 @@ service RTServer
     void setHeaders(RequestContext context, Int status, String[] headerNames, String[] headerValues,
                     Int responseLength)                                                              = TODO("Native");
     void setBodyBytes(RequestContext context, Byte[] bytes, Boolean final)                           = TODO("Native");
+    void sendFile(RequestContext context, OSFile file, Int offset, Int length)                       = TODO("Native");
     private void closeImpl()                                                                         = TODO("Native");
 
     // ----- internal classes ----------------------------------------------------------------------
@@ -269,9 +303,10 @@ service RTServer
 
         static ProxyCheck NoTrustedProxies = _ -> False;
 
-        void bind(HostInfo binding, ProxyCheck reverseProxy=NoTrustedProxies);
+        void bind(HostInfo binding, ProxyCheck reverseProxy=NoTrustedProxies, TlsSettings? tls=Null);
         Boolean unbind(HostInfo binding);
         @RO Map<HostInfo, ProxyCheck> bindings;
+        @RO TlsStats tlsStats;
 
         void addRoute(HostInfo|String route, Handler handler, KeyStore? keystore = Null,
                       String? tlsKey = Null, String? cookieKey = Null);
@@ -286,4 +321,13 @@ service RTServer
     static interface DecryptorAware {
         void configure(Decryptor decryptor);
     }
+
+    /**
+     * This interface is used to duck-type to [xenia.HttpServer.Handler] service that is backed by a
+     * number of handler services; the native server spreads the requests across them.
+     */
+    static interface HandlerPool {
+        @RO Int poolSize;
+        Handler pooledHandler(Int index);
+    }
 }
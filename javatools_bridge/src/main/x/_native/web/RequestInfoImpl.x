@@ -10,12 +10,16 @@ import libweb.Scheme;
 
 import libweb.http.HostInfo;
 
+import fs.OSFile;
+
 import RTServer.HttpServer.ProxyCheck;
 import RTServer.RequestContext;
 import RTServer.RequestInfo;
 
 import ecstasy.collections.CaseInsensitive;
 
+import ecstasy.fs.File;
+
 import ecstasy.io.BinaryInput;
 import ecstasy.io.PrefetchBinaryInput;
 
@@ -445,14 +449,27 @@ service RequestInfoImpl(RTServer       server,
 
     @Override
     void streamBodyBytes(BinaryInput source) {
+        // the chunks are bounded, so that a response of any size is never fully held in memory;
+        // each chunk is sent before the next one is read from the source
         do {
-            Int     chunkSize = source.available.notLessThan(1Kib);
+            Int     chunkSize = source.available.notLessThan(1Kib).notGreaterThan(64Kib);
             Byte[]  chunk     = source.readBytes(chunkSize);
             Boolean final     = chunk.size < chunkSize;
             server.setBodyBytes(context, chunk, final);
         } while (!final);
     }
 
+    @Override
+    void sendFile(File file, Range<Int> region) {
+        if (OSFile osFile := &file.revealAs(OSFile)) {
+            // the native server transfers the file content directly to the connection
+            server.sendFile(context, osFile, region.effectiveLowerBound, region.size);
+        } else {
+            // e.g. a file embedded into a module, which is already in memory
+            server.setBodyBytes(context, file.read(region), final=True);
+        }
+    }
+
     /**
      * Notify the observers and clear the observers list.
      */
@@ -36,6 +36,18 @@ public abstract class nObject
         return $ctx().xvm;
     }
 
+    /**
+     * (Helper)
+     *
+     * @param ctx  the current context, if available
+     *
+     * @return the XVM that this object exists within, avoiding the context lookup if the context
+     *         was passed in
+     */
+    public static Xvm $xvm(Ctx ctx) {
+        return ctx == null ? $xvm() : ctx.xvm;
+    }
+
     /**
      * A bunch of "header bits" used to encode information about this object, including:
      *
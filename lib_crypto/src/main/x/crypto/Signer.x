@@ -31,6 +31,18 @@ interface Signer
      */
     Signature sign(Byte[] data);
 
+    /**
+     * Produce signatures for a number of arrays at once. An implementation may produce the
+     * signatures in parallel, which makes this method preferable to calling [sign] in a loop.
+     *
+     * @param data  the arrays of bytes to produce [Signature]s for
+     *
+     * @return the [Signature]s that correspond to the contents of the `Byte` arrays
+     */
+    Signature[] signAll(Byte[][] data) {
+        return new Signature[data.size](i -> sign(data[i]));
+    }
+
     /**
      * Create an output stream that will produce a signature from all of the data written to (or
      * through) it.
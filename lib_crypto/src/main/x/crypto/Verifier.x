@@ -53,6 +53,21 @@ interface Verifier
      */
     Boolean verify(Digest signature, Byte[] data);
 
+    /**
+     * Verify a number of signatures at once. An implementation may verify the signatures in
+     * parallel, which makes this method preferable to calling [verify] in a loop.
+     *
+     * @param signatures  the previously generated [Signature]s (or `Byte[]`s)
+     * @param data        the arrays of bytes that were supposedly used to create the corresponding
+     *                    signatures
+     *
+     * @return for each signature, True iff it is valid for the corresponding array of bytes
+     */
+    Boolean[] verifyAll(Digest[] signatures, Byte[][] data) {
+        assert:arg signatures.size == data.size;
+        return new Boolean[signatures.size](i -> verify(signatures[i], data[i]));
+    }
+
     /**
      * Create an output stream that will verify a signature using all of the data written to (or
      * through) the stream. In theory, this allows a massive amount of signed data to be streamed
@@ -61,6 +61,7 @@ import ecstasy.annotations.Operator         as Op;
 import ecstasy.annotations.Override;
 import ecstasy.annotations.RO;
 import ecstasy.annotations.Soft;
+import ecstasy.annotations.Specialized;
 import ecstasy.annotations.Synchronized;
 import ecstasy.annotations.Test;
 import ecstasy.annotations.Transient;
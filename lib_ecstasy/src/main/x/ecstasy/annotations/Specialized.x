@@ -0,0 +1,12 @@
+/**
+ * `Specialized` is a compile-time annotation that marks a generic class as a candidate for the
+ * specialization by the JIT: when the class is used with primitive type arguments (e.g.
+ * `HashMap<Int, Int>`), the JIT produces a dedicated implementation that stores and passes the
+ * primitive values without boxing them. The specialization is inherited by the subclasses of the
+ * annotated class; the classes without it use the general (boxing) implementation.
+ *
+ * The annotation is a hint; it has no effect on the semantics of the class.
+ */
+annotation Specialized
+        into Class {
+}
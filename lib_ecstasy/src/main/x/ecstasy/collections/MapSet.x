@@ -4,7 +4,7 @@ import maps.CopyableMap;
  * The MapSet is simple implementation of the [Set] interface that uses an underlying [Map] instance
  * as its storage.
  */
-class MapSet<Element>
+@Specialized class MapSet<Element>
         implements Duplicable
         implements Set<Element>
         incorporates conditional MapSetFreezer<Element extends Shareable>
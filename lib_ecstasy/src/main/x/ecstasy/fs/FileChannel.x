@@ -25,5 +25,51 @@ interface FileChannel
      */
     void flush();
 
+    // ----- positional I/O ------------------------------------------------------------------------
+
+    /**
+     * Read the bytes at the specified offset in the file. Unlike the [Channel] reads, this
+     * operation neither uses nor changes the [position], which makes it suitable for random access
+     * to a file that is kept open.
+     *
+     * @param offset  the offset in the file to read from
+     * @param count   the number of bytes to read
+     *
+     * @return the bytes; fewer than `count` bytes are returned only if the end of the file has been
+     *         reached
+     */
+    immutable Byte[] readAt(Int offset, Int count);
+
+    /**
+     * Write the bytes at the specified offset in the file, growing the file if necessary. This
+     * operation neither uses nor changes the [position].
+     *
+     * @param offset  the offset in the file to write to
+     * @param bytes   the bytes to write
+     */
+    void writeAt(Int offset, Byte[] bytes);
+
+    /**
+     * Read a number of adjacent regions starting at the specified offset in the file with a single
+     * operation (a "scattering" read). This operation neither uses nor changes the [position].
+     *
+     * @param offset  the offset in the file to read from
+     * @param counts  the number of bytes to read for each region
+     *
+     * @return the bytes for each of the regions; only at the end of the file could the regions be
+     *         shorter than requested (or even empty)
+     */
+    immutable Byte[][] readScatteredAt(Int offset, Int[] counts);
+
+    /**
+     * Write a number of byte arrays one after another starting at the specified offset in the file
+     * with a single operation (a "gathering" write). This operation neither uses nor changes the
+     * [position].
+     *
+     * @param offset   the offset in the file to write to
+     * @param buffers  the byte arrays to write
+     */
+    void writeGatheredAt(Int offset, Byte[][] buffers);
+
     // TODO: modes and attributes...
 }
@@ -46,7 +46,7 @@ import iterators.EmptyIterator;
  * * will not return entries removed during iteration;
  * * will not throw [ConcurrentModification].
  */
-class HasherMap<Key, Value>
+@Specialized class HasherMap<Key, Value>
         implements HasherReplicable<Key>
         implements CopyableMap<Key, Value>
         implements Hashable
@@ -174,6 +174,29 @@ interface Client {
      */
     ResponseIn send(RequestOut request, PasswordCallback? callback = Null, Int redirectLimit = 16);
 
+    /**
+     * Send a request, and receive the response body as a stream.
+     *
+     * The response is returned as soon as its headers have been received, and the response body is
+     * read from the connection by its [Body.bodyReader] (or [Body.streamBodyTo]) as it arrives, so
+     * it doesn't have to be held in memory. The redirects are followed, but no authentication is
+     * attempted.
+     *
+     * The body should be fully read (or its reader closed) to make the connection available to
+     * other requests.
+     *
+     * @param request        the request to send
+     * @param redirectLimit  (optional) the maximum number of times the request can be resent to a
+     *                       new location if the server reports that the requested page has moved;
+     *                       pass zero to disable the redirects altogether
+     *
+     * @return the response
+     *
+     * @throws TimedOut   if the request has timed out
+     * @throws Exception  if the request failed to be sent or get a response for any other reason
+     */
+    ResponseIn sendStreaming(RequestOut request, Int redirectLimit = 16) = send(request, Null, redirectLimit);
+
     /**
      * Represents a low-level web Connector.
      */
@@ -189,5 +212,34 @@ interface Client {
         (Int statusCode, String[] responseHeaderNames, String[] responseHeaderValues, Byte[] responseBytes)
                 sendRequest(String method, String uri,
                             String[] headerNames, String[] headerValues, Byte[] bytes);
+
+        /**
+         * An opaque handle to a response body that is being received by the connector.
+         */
+        typedef immutable Object as ResponseBody;
+
+        /**
+         * Send a request, and return as soon as the response headers have been received; the
+         * response body must then be read by [readResponseBody] until the end, or closed by
+         * [closeResponseBody].
+         */
+        (Int statusCode, String[] responseHeaderNames, String[] responseHeaderValues, ResponseBody responseBody)
+                sendStreamingRequest(String method, String uri,
+                                     String[] headerNames, String[] headerValues, Byte[] bytes);
+
+        /**
+         * Read the next chunk of a response body.
+         *
+         * @param responseBody  the response body handle
+         * @param maxSize       the max number of bytes to read
+         *
+         * @return the bytes read (up to `maxSize`); an empty array indicates the end of the body
+         */
+        Byte[] readResponseBody(ResponseBody responseBody, Int maxSize);
+
+        /**
+         * Close a response body, discarding the bytes that have not been read.
+         */
+        void closeResponseBody(ResponseBody responseBody);
     }
 }
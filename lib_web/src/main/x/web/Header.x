@@ -17,6 +17,7 @@ interface Header
     static String AcceptCharset          = "Accept-Charset";
     static String AcceptEncoding         = "Accept-Encoding";
     static String AcceptLanguage         = "Accept-Language";
+    static String AcceptRanges           = "Accept-Ranges";
     static String Authorization          = "Authorization";
     static String AuthorizationResponse  = "Authorization-Response";
     static String CacheControl           = "Cache-Control";
@@ -25,6 +26,7 @@ interface Header
     static String ContentLanguage        = "Content-Language";
     static String ContentLength          = "Content-Length";
     static String ContentLocation        = "Content-Location";
+    static String ContentRange           = "Content-Range";
     static String ContentType            = "Content-Type";
     static String CORSAllowCredentials   = "Access-Control-Allow-Credentials";
     static String CORSAllowHeaders       = "Access-Control-Allow-Headers";
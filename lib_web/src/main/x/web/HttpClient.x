@@ -7,8 +7,11 @@ import convert.formats.Base64Format;
 
 import ecstasy.collections.CaseInsensitive;
 
+import ecstasy.io.PrefetchBinaryInput;
+
 import net.Uri;
 
+import Client.Connector.ResponseBody;
 import Header.Entry;
 
 
@@ -47,6 +50,24 @@ const HttpClient
 
     @Override
     ResponseIn send(RequestOut request, PasswordCallback? callback = Null, Int redirectLimit = 16) {
+        (String[] headerNames, String[] headerValues) = collectHeaders(request);
+
+        return sendAsync^(request, request.uri, headerNames, headerValues, callback,
+                          redirectLimit, 0);
+    }
+
+    @Override
+    ResponseIn sendStreaming(RequestOut request, Int redirectLimit = 16) {
+        (String[] headerNames, String[] headerValues) = collectHeaders(request);
+
+        return sendStreamingAsync^(request, request.uri, headerNames, headerValues,
+                                   redirectLimit, 0);
+    }
+
+    /**
+     * Collect the request headers into the arrays of names and values.
+     */
+    private (String[] headerNames, String[] headerValues) collectHeaders(RequestOut request) {
         List<Entry> entries = request.header.entries;
 
         Int      headerCount  = entries.size;
@@ -58,11 +79,49 @@ const HttpClient
             headerNames  += entry[0];
             headerValues += entry[1];
         }
-        headerNames .freeze(inPlace=True);
-        headerValues.freeze(inPlace=True);
+        return headerNames.freeze(inPlace=True), headerValues.freeze(inPlace=True);
+    }
 
-        return sendAsync^(request, request.uri, headerNames, headerValues, callback,
-                          redirectLimit, 0);
+    /**
+     * Send the request asynchronously (non-blocking), receiving the response body as a stream.
+     */
+    private ResponseIn sendStreamingAsync(RequestOut request, Uri uri,
+            String[] headerNames, String[] headerValues, Int redirectLimit, Int redirectCount) {
+
+        (Int          statusCode,
+         String[]     responseHeaderNames,
+         String[]     responseHeaderValues,
+         ResponseBody responseBody) =
+            connector.sendStreamingRequest^(request.method.name, uri.toString(),
+                                            headerNames, headerValues, request.body?.bytes : []);
+
+        @Future ResponseIn response;
+        &statusCode.whenComplete((status, exception) -> {
+            if (exception == Null) {
+                assert status != Null;
+                try {
+                    if (300 <= status < 400 && redirectCount < redirectLimit,
+                            Int index := responseHeaderNames.indexOf(
+                                    CaseInsensitive.areEqual(_, "Location"))) {
+                        connector.closeResponseBody(responseBody);
+
+                        Uri redirect = uri.apply(new Uri(responseHeaderValues[index]));
+                        response = sendStreamingAsync^(request, redirect, headerNames, headerValues,
+                                                       redirectLimit, redirectCount + 1);
+                    } else {
+                        Header     header = new ResponseHeader(responseHeaderNames, responseHeaderValues);
+                        ResponseIn result = new StreamingResponse(registry, HttpStatus.of(status),
+                                &header.maskAs(Header), connector, responseBody);
+                        response = &result.maskAs(ResponseIn);
+                    }
+                    return;
+                } catch (Exception e) {
+                    exception = e;
+                }
+            }
+            &response.completeExceptionally(exception);
+        });
+        return response;
     }
 
     /**
@@ -326,6 +385,107 @@ const HttpClient
         }
     }
 
+    /**
+     * A response which body is received from the connector as a stream.
+     *
+     * Note: the body can be consumed only once, either by [bodyReader] (or [streamBodyTo]), or by
+     * the [bytes] property.
+     */
+    static const StreamingResponse(Registry registry, HttpStatus status, Header header,
+                                   Client.Connector connector, ResponseBody responseBody)
+            implements ResponseIn
+            implements Body {
+        // ----- ResponseIn interface --------------------------------------------------------------
+
+        @Override
+        <Result> conditional Result to(Type<Result> type) {
+            if (status == OK) {
+                if (Codec<Result> codec := registry.findCodec(mediaType, Result)) {
+                    try {
+                        Result result = codec.decode(bytes);
+                        return True, result;
+                    } catch (Exception ignore) {}
+                }
+            }
+            return False;
+        }
+
+        @Override
+        @RO Body body.get() = this;
+
+        @Override
+        Body ensureBody(MediaType mediaType, Boolean streaming = False) {
+            throw new ReadOnly();
+        }
+
+        // ----- Body interface --------------------------------------------------------------------
+
+        @Override
+        MediaType mediaType.get() {
+            if (String    mediaTypeName := header.valuesOf(Header.ContentType).first(),
+                MediaType mediaType     := MediaType.of(mediaTypeName)) {
+                return mediaType;
+            }
+            throw new IllegalState("MediaType is not supplied");
+        }
+
+        @Override
+        conditional Int knownSize() {
+            if (String length := header.firstOf(Header.ContentLength), Int size := Int.parse(length)) {
+                return True, size;
+            }
+            return False;
+        }
+
+        @Override
+        @Lazy Byte[] bytes.calc() = connector.readResponseBody(responseBody, MaxValue);
+
+        @Override
+        @RO Boolean streaming.get() = True;
+
+        @Override
+        Body from(Object content) {
+            throw new Unsupported();
+        }
+
+        @Override
+        BinaryInput bodyReader() = new ResponseBodyInput(connector, responseBody);
+
+        @Override
+        void streamBodyTo(BinaryOutput receiver) {
+            using (BinaryInput input = bodyReader()) {
+                input.pipeTo(receiver);
+            }
+        }
+
+        @Override
+        String toString() = status.toString();
+    }
+
+    /**
+     * The `BinaryInput` that reads a response body from the connector; closing the input discards
+     * the rest of the body.
+     */
+    static class ResponseBodyInput
+            extends PrefetchBinaryInput {
+
+        construct(Client.Connector connector, ResponseBody responseBody) {
+            construct PrefetchBinaryInput(connector.&readResponseBody(responseBody, 8Kib));
+
+            this.connector    = connector;
+            this.responseBody = responseBody;
+        }
+
+        private Client.Connector connector;
+        private ResponseBody     responseBody;
+
+        @Override
+        void close(Exception? cause = Null) {
+            super(cause);
+            connector.closeResponseBody(responseBody);
+        }
+    }
+
     static const Response(Registry registry, HttpStatus status, Header header, Byte[] bytes)
             implements ResponseIn
             implements Body {
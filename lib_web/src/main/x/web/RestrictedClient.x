@@ -58,6 +58,13 @@ const RestrictedClient(Client underlying)
                 : new responses.SimpleResponse(Forbidden);
     }
 
+    @Override
+    ResponseIn sendStreaming(RequestOut request, Int redirectLimit = 16) {
+        return allowed(request.uri)
+                ? underlying.sendStreaming(request, redirectLimit)
+                : new responses.SimpleResponse(Forbidden);
+    }
+
     /**
      * @return True if the specified Uri is allowed to be connected to
      */
@@ -1,11 +1,14 @@
 import ecstasy.fs.FileNode;
 
+import responses.FileResponse;
 import responses.SimpleResponse;
 
 /**
  * An annotation that represents a static content.
  *
- * The content can be a single file or a directory of files.
+ * The content can be a single file or a directory of files. The files are served by the
+ * [FileResponse], which supports the conditional (`If-None-Match`, `If-Modified-Since`) and range
+ * requests, and lets the server send the file content without reading it into memory.
  */
 annotation StaticContent(String path, FileNode fileNode, MediaType? mediaType = Null,
                          String defaultPage = "index.html")
@@ -58,7 +61,7 @@ annotation StaticContent(String path, FileNode fileNode, MediaType? mediaType =
                 }
                 return mediaType == Null
                     ? new SimpleResponse(UnsupportedMediaType, $"Unknown media type for {file.name}")
-                    : new SimpleResponse(OK, mediaType, file.contents);
+                    : new FileResponse(file, mediaType, request);
             }
 
             if (path == "") {
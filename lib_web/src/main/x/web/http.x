@@ -140,6 +140,57 @@ package http {
         }
     }
 
+    /**
+     * `TlsSettings` represents the TLS session configuration of an HTTP server binding. A client
+     * that reconnects within the session timeout can resume its TLS session, which avoids the cost
+     * of a full handshake (the certificate exchange and the key agreement).
+     *
+     * @param sessionCacheSize      the max number of TLS sessions kept by the server for the
+     *                              resumption; zero means no limit
+     * @param sessionTimeout        the amount of time after which a TLS session can no longer be
+     *                              resumed
+     * @param applicationProtocols  the ALPN protocol names (e.g. "http/1.1") to negotiate, in the
+     *                              order of preference; if empty, no ALPN negotiation takes place
+     */
+    const TlsSettings(Int      sessionCacheSize     = 20480,
+                      Duration sessionTimeout       = Duration:24H,
+                      String[] applicationProtocols = []) {
+        assert() {
+            assert:arg sessionCacheSize >= 0;
+            assert:arg sessionTimeout.seconds > 0;
+        }
+    }
+
+    /**
+     * `TlsStats` represents the TLS handshake statistics of an HTTP server since it was bound.
+     *
+     * Not every server implementation can observe the handshakes it performs. For example, the
+     * default (JDK based) engine of the native server only sees the certificate selections, so it
+     * reports the number of those as the `fullHandshakes`, and reports zero for all the other
+     * values; the complete statistics require the "virtual" engine (see the `--http-engine`
+     * launcher option).
+     *
+     * @param fullHandshakes     the number of completed handshakes that required the certificate
+     *                           exchange
+     * @param resumedHandshakes  the number of completed handshakes that resumed a cached session
+     * @param failedHandshakes   the number of handshakes that failed or were abandoned by the client
+     * @param handshakeTime      the total time spent by the completed handshakes
+     * @param maxHandshakeTime   the longest time spent by a completed handshake
+     */
+    const TlsStats(Int      fullHandshakes,
+                   Int      resumedHandshakes,
+                   Int      failedHandshakes,
+                   Duration handshakeTime,
+                   Duration maxHandshakeTime) {
+        /**
+         * The average time spent by a completed handshake.
+         */
+        Duration averageHandshakeTime.get() {
+            Int completed = fullHandshakes + resumedHandshakes;
+            return completed == 0 ? Duration.None : handshakeTime / completed;
+        }
+    }
+
     /**
      * Validate the passed string as a file extension. This is based on the HTTP token definition,
      * as illustrated in [validToken], but with a reduced set of non-alpha-numeric characters, based
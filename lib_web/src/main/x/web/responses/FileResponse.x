@@ -0,0 +1,222 @@
+import ecstasy.fs.File;
+
+/**
+ * The representation of an HTTP response that sends the content of a [File].
+ *
+ * The response doesn't read the file into memory; a server that is aware of this response type
+ * sends the [region] of the [file] directly to the connection, while any other consumer can still
+ * obtain the content using the [Body] API.
+ *
+ * The validators (`ETag` and `Last-Modified`) are computed from the file size and the modification
+ * time when the response is created, and are used to answer the conditional and range requests
+ * (a single `bytes` range is supported; a malformed range or a request for multiple ranges gets
+ * the entire file).
+ */
+@AutoFreezable
+class FileResponse
+        implements ResponseIn
+        implements ResponseOut
+        implements Header
+        implements Body {
+
+    construct(File file, MediaType mediaType, Request? request = Null) {
+        request ?:= this:service.is(WebService)?.request : Null;
+
+        Int        size         = file.size;
+        Int128     picos        = file.modified.epochPicos;
+        String     etag         = $"\"{size}-{picos}\"";
+        Time       modified     = new Time(picos - picos % Duration.PicosPerSecond); // whole sec
+        String     lastModified = http.formatImfFixDate(modified);
+        HttpStatus status       = OK;
+        Range<Int> region       = 0 ..< size;
+        String?    contentRange = Null;
+
+        if (request != Null) {
+            Header header = request.header;
+            if (String match := header.firstOf(IfNoneMatch)) {
+                if (matchesETag(match, etag)) {
+                    status = NotModified;
+                }
+            } else if (request.method == GET || request.method == HEAD,
+                    String since    := header.firstOf(IfModifiedSince),
+                    Time   sinceTime := http.parseImfFixDate(since),
+                    modified <= sinceTime) {
+                status = NotModified;
+            }
+
+            // a range request is only honored if the "If-Range" validator (if any) is current
+            Boolean rangeAllowed = status == HttpStatus.OK && request.method == GET;
+            if (rangeAllowed, String validator := header.firstOf(IfRange)) {
+                rangeAllowed = validator == etag || validator == lastModified;
+            }
+
+            // a malformed or unsupported "Range" is ignored and the entire file is sent
+            if (rangeAllowed, String ranges := header.firstOf("Range"),
+                    Range<Int>? range := parseRange(ranges, size)) {
+                if (range != Null) {
+                    status       = PartialContent;
+                    region       = range;
+                    contentRange = $"bytes {range.effectiveLowerBound}-{range.effectiveUpperBound}/{size}";
+                } else {
+                    // a valid range that doesn't overlap the file
+                    status       = RequestedRangeNotSatisfiable;
+                    region       = 0 ..< 0;
+                    contentRange = $"bytes */{size}";
+                }
+            }
+        }
+
+        this.request   = request;
+        this.status    = status;
+        this.mediaType = mediaType;
+        this.file      = file;
+        this.region    = region;
+        this.entries   = new Entry[];
+
+        this.entries.add((ETag, etag));
+        this.entries.add((LastModified, lastModified));
+        this.entries.add((AcceptRanges, "bytes"));
+        if (contentRange != Null) {
+            this.entries.add((ContentRange, contentRange));
+        }
+    } finally {
+        if (this.status == HttpStatus.OK || this.status == HttpStatus.PartialContent) {
+            this.body = this;
+        }
+    }
+
+    /**
+     * The file to send.
+     */
+    public/private File file;
+
+    /**
+     * The region of the [file] to send.
+     */
+    public/private Range<Int> region;
+
+    // ----- HttpMessage interface -----------------------------------------------------------------
+
+    @Override
+    Header header.get() = this;
+
+    @Override
+    Body? body;
+
+    @Override
+    Body ensureBody(MediaType mediaType, Boolean streaming = True) {
+        assert:arg mediaType == this.mediaType as "FileResponse media type cannot be changed";
+        return this;
+    }
+
+    // ----- Response interface --------------------------------------------------------------------
+
+    @Override
+    Request? request;
+
+    @Override
+    HttpStatus status;
+
+    // ----- Header interface ----------------------------------------------------------------------
+
+    @Override
+    @RO Boolean isRequest.get() = False;
+
+    @Override
+    List<Entry> entries;
+
+    // ----- Body interface ------------------------------------------------------------------------
+
+    @Override
+    MediaType mediaType;
+
+    @Override
+    conditional Int knownSize() = (True, region.size);
+
+    @Override
+    Byte[] bytes.get() = region.size == 0 ? [] : file.read(region);
+
+    @Override
+    Boolean streaming.get() = True;
+
+    @Override
+    Body from(Object content) = throw new Unsupported();
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Check if any of the entity tags in the specified "If-None-Match" header value matches the
+     * specified entity tag.
+     */
+    static Boolean matchesETag(String match, String etag) {
+        for (String tag : match.split(',', trim=True)) {
+            if (tag == "*" || tag == etag || tag.startsWith("W/") && tag.substring(2) == etag) {
+                return True;
+            }
+        }
+        return False;
+    }
+
+    /**
+     * Parse a "Range" header value that specifies a single `bytes` range.
+     *
+     * @param ranges  the "Range" header value, e.g. "bytes=0-499", "bytes=500-" or "bytes=-500"
+     * @param size    the size of the file
+     *
+     * @return True iff the value is a well-formed single `bytes` range
+     * @return (conditional) the range of bytes to send, or `Null` if the range doesn't overlap the
+     *         file
+     */
+    static conditional Range<Int>? parseRange(String ranges, Int size) {
+        if (!ranges.startsWith("bytes=") || ranges.indexOf(',')) {
+            return False;
+        }
+
+        String spec = ranges.substring(6).trim();
+        if (Int dash := spec.indexOf('-')) {
+            String first = spec[0 ..< dash].trim();
+            String last  = spec.substring(dash + 1).trim();
+            if (first.empty) {
+                // the suffix range: the last N bytes
+                if (Int count := parsePosition(last)) {
+                    return True, count > 0 && size > 0
+                            ? size - count.notGreaterThan(size) ..< size
+                            : Null;
+                }
+                return False;
+            }
+
+            if (Int start := parsePosition(first)) {
+                if (last.empty) {
+                    return True, start < size ? start ..< size : Null;
+                }
+                if (Int lastPos := parsePosition(last), lastPos >= start) {
+                    return True, start < size
+                            ? start ..< lastPos.notGreaterThan(size - 1) + 1
+                            : Null;
+                }
+            }
+        }
+        return False;
+    }
+
+    /**
+     * Parse a byte position of a range, which must consist of decimal digits only.
+     */
+    static conditional Int parsePosition(String digits) {
+        if (digits.empty) {
+            return False;
+        }
+        for (Char ch : digits) {
+            if (!ch.asciiDigit()) {
+                return False;
+            }
+        }
+        return Int.parse(digits, 10);
+    }
+
+    // ----- debugging support ---------------------------------------------------------------------
+
+    @Override
+    String toString() = $"{status} : {file}";
+}
@@ -81,6 +81,9 @@ class StreamResponse
     @Override
     MediaType mediaType;
 
+    @Override
+    conditional Int knownSize() = False;
+
     @Override
     Byte[] bytes.get() = throw new Unsupported("Only streaming is supported");
 
@@ -93,6 +96,11 @@ class StreamResponse
     @Override
     BinaryInput bodyReader() = source ?: assert as "The source has not been set";
 
+    @Override
+    void streamBodyTo(BinaryOutput receiver) {
+        bodyReader().pipeTo(receiver);
+    }
+
     @Override
     void streamBodyFrom(BinaryInput source) {
         assert this.source == Null as "The source has been already set";
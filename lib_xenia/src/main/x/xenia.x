@@ -26,6 +26,7 @@ module xenia.xtclang.org {
     import web.WebService;
 
     import web.http.HostInfo;
+    import web.http.TlsSettings;
 
     /**
      * The clock used within this module.
@@ -98,6 +99,7 @@ module xenia.xtclang.org {
      *                   specified, the first key pair will be used
      * @param extras     (optional) a map of WebService classes for processing requests for the
      *                   corresponding paths (see [HttpHandler])
+     * @param tls        (optional) the TLS session settings for the server binding
      *
      * @return a function that allows to shutdown the server
      */
@@ -108,11 +110,12 @@ module xenia.xtclang.org {
                                   String?                   tlsKey         = Null,
                                   HttpHandler.CatalogExtras extras         = [],
                                   HttpServer.ProxyCheck     isTrustedProxy = HttpServer.NoTrustedProxies,
+                                  TlsSettings?              tls            = Null,
                                  ) {
         @Inject HttpServer server;
         binding ?:= route;
         try {
-            server.bind(binding, isTrustedProxy);
+            server.bind(binding, isTrustedProxy, tls);
 
             EnsureKeystore:
             if (keystore == Null) {
@@ -4,11 +4,13 @@ import Catalog.WebServiceInfo;
 
 import HttpServer.RequestInfo;
 
+import web.Body;
 import web.ErrorHandler;
 import web.Header;
 import web.HttpStatus;
 import web.RequestAborted;
 
+import web.responses.FileResponse;
 import web.responses.SimpleResponse;
 
 import web.security.Authenticator;
@@ -217,16 +219,20 @@ service Dispatcher {
             (Int status, String[] names, String[] values, Int responseLength) =
                 Http1Response.prepare(requestInfo.method, r);
             try {
-                if (responseLength > 0) {
-                    // fixed size body
-                    requestInfo.respond(status, names, values, r.body?.bytes) : assert;
-                } else if (responseLength < 0) {
+                if (responseLength < 0) {
                     // no body
                     requestInfo.respond(status, names, values, []);
+                } else if (Body body ?= r.body, body.streaming) {
+                    requestInfo.setHeaders(status, names, values, responseLength);
+                    if (body.is(FileResponse)) {
+                        // the server sends the file content directly
+                        requestInfo.sendFile(body.file, body.region);
+                    } else {
+                        requestInfo.streamBodyBytes(body.bodyReader());
+                    }
                 } else {
-                    // streaming
-                    requestInfo.setHeaders(status, names, values, 0);
-                    requestInfo.streamBodyBytes(r.body?.bodyReader());
+                    // fixed size body
+                    requestInfo.respond(status, names, values, r.body?.bytes) : assert;
                 }
             } catch (Exception ex) {
                 // while we were sending a response the connection was severed (e.g. "curl" command
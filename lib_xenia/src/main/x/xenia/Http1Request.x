@@ -340,6 +340,20 @@ const Http1Request(RequestInfo   info,
     @Override
     MediaType mediaType;
 
+    @Override
+    conditional Int knownSize() {
+        if (!streaming) {
+            return super();
+        }
+
+        // the streamed body is not buffered; only the declared length is known
+        if (String[] values := info.getHeaderValuesForName(Header.ContentLength),
+                Int size := Int.parse(values[0])) {
+            return True, size;
+        }
+        return False;
+    }
+
     @Override
     Byte[] bytes.get() = streaming ? throw new IllegalState("Streaming only") : super();
 
@@ -37,11 +37,19 @@ const Http1Response {
         if (Body body ?= response.body) {
             headerNames  += Header.ContentType;
             headerValues += body.mediaType.text;
-            if (body.streaming) {
-                responseLength = 0;
-                headerNames   += Header.TransferEncoding;
-                headerValues  += "chunked";
-            } else if (method != HEAD) {
+            if (method == HEAD) {
+                // no body
+            } else if (body.streaming) {
+                if (Int size := body.knownSize(), size > 0) {
+                    // a streaming body of a known size (e.g. a file) is sent with a fixed length
+                    responseLength = size;
+                    headerNames   += Header.ContentLength;
+                    headerValues  += size.toString();
+                } else {
+                    // the server picks the transfer coding (e.g. "chunked" for HTTP/1.1 clients)
+                    responseLength = 0;
+                }
+            } else {
                 responseLength = body.bytes.size;
                 headerNames   += Header.ContentLength;
                 headerValues  += responseLength.toString();
@@ -45,6 +45,30 @@ service HttpHandler
         registry.registerResource("catalog"       , this.catalog);
     }
 
+    /**
+     * Construct a worker HttpHandler that shares the application state with the primary one.
+     *
+     * @param route           the HostInfo that routes to the primary handler
+     * @param catalog         the primary handler's Catalog
+     * @param bundlePool      the primary handler's BundlePool
+     * @param sessionManager  the primary handler's SessionManager
+     * @param authenticator   the primary handler's Authenticator
+     * @param maxCount        the max number of dispatchers for the worker
+     */
+    construct(HostInfo route, Catalog catalog, BundlePool bundlePool,
+              SessionManager sessionManager, Authenticator authenticator, Int maxCount) {
+        this.route          = route;
+        this.catalog        = catalog;
+        this.dispatchers    = new Dispatcher[];
+        this.busy           = new Boolean[];
+        this.bundlePool     = bundlePool;
+        this.sessionManager = sessionManager;
+        this.authenticator  = authenticator;
+        this.maxCount       = maxCount;
+        this.poolSize       = 0;
+        this.worker         = True;
+    }
+
     typedef Map<Class<WebService>, WebService.Constructor> as CatalogExtras;
 
     /**
@@ -92,11 +116,32 @@ service HttpHandler
      */
     Int maxCount = 32;
 
+    /**
+     * The number of worker handlers that the server spreads the requests across; each worker has
+     * its own dispatchers (up to `maxCount / poolSize` of them), but they all share the catalog,
+     * the bundle pool and the session manager of this handler. Zero disables the pooling.
+     */
+    Int poolSize = 4;
+
+    /**
+     * The worker handlers; created lazily by [pooledHandler].
+     */
+    protected HttpHandler[] workers = [];
+
+    /**
+     * True iff this is a worker handler.
+     */
+    protected Boolean worker;
+
     /**
      * The total number of pending requests.
      */
     Int pendingRequests.get() {
-        return dispatchers.map(Dispatcher.pendingRequests).reduce(new aggregate.Sum<Int>());
+        Int pending = dispatchers.map(Dispatcher.pendingRequests).reduce(new aggregate.Sum<Int>());
+        for (HttpHandler handler : workers) {
+            pending += handler.pendingRequests;
+        }
+        return pending;
     }
 
 
@@ -146,6 +191,27 @@ service HttpHandler
         sessionManager.configureEncryption(decryptor);
     }
 
+    /**
+     * Obtain one of the worker handlers that the native server spreads the requests across (see
+     * [poolSize]).
+     *
+     * @param index  the worker index in the range `[0 ..< poolSize)`
+     *
+     * @return the worker handler
+     */
+    Handler pooledHandler(Int index) {
+        HttpHandler[] workers = this.workers;
+        if (workers.empty) {
+            Int size  = poolSize;
+            Int count = (maxCount / size).notLessThan(1);
+
+            workers = new HttpHandler[size](_ ->
+                    new HttpHandler(route, catalog, bundlePool, sessionManager, authenticator, count));
+            this.workers = workers;
+        }
+        return workers[index];
+    }
+
     /**
      * Shutdown this HttpHandler; it will stop accepting any new requests.
      *
@@ -154,7 +220,12 @@ service HttpHandler
     @Synchronized
     Boolean shutdown() {
         closing = True;
-        sessionManager.close();
+        for (HttpHandler handler : workers) {
+            handler.shutdown();
+        }
+        if (!worker) {
+            sessionManager.close();
+        }
         return pendingRequests == 0;
     }
 
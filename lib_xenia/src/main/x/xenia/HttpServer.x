@@ -1,3 +1,5 @@
+import ecstasy.fs.File;
+
 import ecstasy.io.BinaryInput;
 
 import net.Host;
@@ -10,6 +12,8 @@ import web.Protocol;
 import web.Scheme;
 
 import web.http.HostInfo;
+import web.http.TlsSettings;
+import web.http.TlsStats;
 
 /**
  * An injectable HTTP/HTTPS server.
@@ -43,8 +47,10 @@ interface HttpServer
      *                      proxies, but only if the server cannot be reached by a client without
      *                      going through these reverse proxies; the default is that there are no
      *                      trusted reverse proxies (or that a client can reach the server directly)
+     * @param tls           (optional) the TLS session settings for the HTTPS port of the binding;
+     *                      the default is the [TlsSettings] defaults
      */
-    void bind(HostInfo binding, ProxyCheck reverseProxy = NoTrustedProxies);
+    void bind(HostInfo binding, ProxyCheck reverseProxy = NoTrustedProxies, TlsSettings? tls = Null);
 
     /**
      * Unbind the server from the specified address and ports.
@@ -60,10 +66,21 @@ interface HttpServer
      */
     @RO Map<HostInfo, ProxyCheck> bindings;
 
+    /**
+     * The TLS handshake statistics of the server, which allow to verify the effectiveness of the
+     * TLS session resumption (see [TlsSettings]). Note that some server implementations only
+     * report a subset of the statistics (see [TlsStats]).
+     */
+    @RO TlsStats tlsStats;
+
     // ----- host routes ---------------------------------------------------------------------------
 
     /**
      * An HTTP request handler that the HttpServer can deliver requests to.
+     *
+     * A handler service may also expose an `Int poolSize` property and a
+     * `Handler pooledHandler(Int index)` method (see [HttpHandler]); in that case the server
+     * spreads the requests across the pooled handlers instead of delivering all of them to this one.
      */
     static interface Handler extends Closeable {
         /**
@@ -377,5 +394,24 @@ interface HttpServer
          *                    does **not** indicate a successful response to a client
          */
         void streamBodyBytes(BinaryInput source);
+
+        /**
+         * Instruct the server to send the specified region of a file as the body of a response to
+         * a previously received request. The headers must have been added by [setHeaders] with the
+         * `responseLength` equal to the region size.
+         *
+         * A server that supports it transfers the file content directly to the connection, without
+         * reading it into memory.
+         *
+         * @param file    the file to send
+         * @param region  the region of the file to send
+         *
+         * @throws Exception  if a response cannot be sent for any reason, this call _may_ raise an
+         *                    exception; it is important to understand that the lack of an exception
+         *                    does **not** indicate a successful response to a client
+         */
+        void sendFile(File file, Range<Int> region) {
+            setBodyBytes(file.read(region));
+        }
     }
 }
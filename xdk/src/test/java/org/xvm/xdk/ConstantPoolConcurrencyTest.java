@@ -0,0 +1,74 @@
+package org.xvm.xdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.xvm.asm.Constant;
+import org.xvm.asm.ConstantPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Stress test for registering constants with the shared Ecstasy {@link ConstantPool} from many
+ * threads at the same time (see {@link ConstantPool#register}).
+ */
+class ConstantPoolConcurrencyTest {
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testConcurrentRegistration() throws Exception {
+        ConstantPool pool     = XdkLibraries.loadEcstasy().getConstantPool();
+        int          cThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+        int          cValues  = 10_000;
+        var          barrier  = new CyclicBarrier(cThreads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(cThreads);
+        try {
+            List<Future<List<Constant>>> listFutures = new ArrayList<>();
+            for (int i = 0; i < cThreads; i++) {
+                int nThread = i;
+                listFutures.add(executor.submit(() -> {
+                    List<Constant> listConst = new ArrayList<>(2 * cValues);
+                    barrier.await();
+                    // every thread registers the same values, but starting at a different offset
+                    for (int j = 0; j < cValues; j++) {
+                        int n = (j + nThread * (cValues / cThreads)) % cValues;
+                        listConst.add(pool.ensureStringConstant("contended-" + n));
+                        listConst.add(pool.ensureIntConstant(1_000_000_000L + n));
+                    }
+                    return listConst;
+                }));
+            }
+
+            List<List<Constant>> listResults = new ArrayList<>();
+            for (var future : listFutures) {
+                listResults.add(future.get());
+            }
+
+            // every thread must have gotten the same (interned) constant for every value, and
+            // every constant must be found at its position in the pool
+            for (int j = 0; j < cValues; j++) {
+                Constant constStr = pool.ensureStringConstant("contended-" + j);
+                Constant constInt = pool.ensureIntConstant(1_000_000_000L + j);
+                assertSame(constStr, pool.getConstant(constStr.getPosition()));
+                assertSame(constInt, pool.getConstant(constInt.getPosition()));
+            }
+            for (var listConst : listResults) {
+                assertEquals(2 * cValues, listConst.size());
+                for (Constant constant : listConst) {
+                    assertSame(constant, pool.getConstant(constant));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.xvm.xdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.xvm.asm.DirRepository;
+import org.xvm.asm.FileStructure;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the module index of the {@link DirRepository}: the parallel reading of the module
+ * files, the persistent cache, its invalidation, and the directory watch.
+ */
+class DirRepositoryTest {
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testParallelScan(@TempDir final Path tempDir) throws IOException {
+        File[]             files = copyLibraries(tempDir);
+        CountingRepository repo  = new CountingRepository(tempDir.toFile());
+        Set<String>        names = new HashSet<>();
+        for (File file : files) {
+            names.add(new FileStructure(file).getModule().getIdentityConstant().getName());
+        }
+
+        // every file is read exactly once, and each module is found under its own name
+        assertEquals(names, repo.getModuleNames());
+        assertEquals(files.length, repo.created.get());
+        for (String name : names) {
+            assertEquals(name, repo.loadModule(name).getIdentityConstant().getName());
+        }
+        assertEquals(names, repo.getModuleNames());
+        assertEquals(files.length, repo.created.get());
+        repo.release();
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testCacheRoundTrip(@TempDir final Path tempDir) throws IOException {
+        copyLibraries(tempDir);
+        DirRepository repoFresh = new DirRepository(tempDir.toFile(), true);
+        Set<String>   names     = repoFresh.getModuleNames();
+
+        // a new repository for the same directory reads the module index from the cache
+        CountingRepository repoCached = new CountingRepository(tempDir.toFile());
+        assertEquals(names, repoCached.getModuleNames());
+        assertEquals(0, repoCached.created.get());
+
+        for (String name : names) {
+            // the modules without versions are resolved the same way as without the cache
+            assertEquals(repoFresh.getAvailableVersions(name),
+                    repoCached.getAvailableVersions(name), name);
+            assertNotNull(repoCached.loadModule(name), name);
+        }
+        assertNull(repoCached.getAvailableVersions("unknown.xtclang.org"));
+
+        repoFresh.release();
+        repoCached.release();
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testCacheInvalidation(@TempDir final Path tempDir) throws IOException {
+        File[]        files = copyLibraries(tempDir);
+        DirRepository repo  = new DirRepository(tempDir.toFile(), true);
+        Set<String>   names = repo.getModuleNames();
+        repo.release();
+
+        // only the modified file is read again, and the deleted one is gone
+        File   fileTouched = files[0];
+        File   fileDeleted = files[1];
+        String nameDeleted = new FileStructure(fileDeleted).getModule().getIdentityConstant()
+                .getName();
+        assertTrue(fileTouched.setLastModified(fileTouched.lastModified() - 10_000));
+        Files.delete(fileDeleted.toPath());
+
+        CountingRepository repoChanged = new CountingRepository(tempDir.toFile());
+        Set<String>        namesLeft   = repoChanged.getModuleNames();
+        assertEquals(1, repoChanged.created.get());
+        assertEquals(names.size() - 1, namesLeft.size());
+        assertFalse(namesLeft.contains(nameDeleted));
+        repoChanged.release();
+
+        // the cache has been rewritten with the changes
+        CountingRepository repoCached = new CountingRepository(tempDir.toFile());
+        assertEquals(namesLeft, repoCached.getModuleNames());
+        assertEquals(0, repoCached.created.get());
+        repoCached.release();
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testRelease(@TempDir final Path tempDir) throws IOException {
+        File[]        files = copyLibraries(tempDir);
+        DirRepository repo1 = new DirRepository(tempDir.toFile(), true);
+        DirRepository repo2 = new DirRepository(tempDir.toFile(), true);
+        Set<String>   names = repo1.getModuleNames();
+        assertEquals(names, repo2.getModuleNames());
+        if (!repo1.isWatching()) {
+            // the file system cannot be watched; the repositories scan instead
+            return;
+        }
+
+        // the watch is shared, so releasing one repository doesn't affect the other one
+        repo1.release();
+        assertFalse(repo1.isWatching());
+        assertTrue(repo2.isWatching());
+
+        // a released repository still sees the changes, and watches again once it's used
+        Files.delete(files[0].toPath());
+        assertEquals(names.size() - 1, repo1.getModuleNames().size());
+        assertTrue(repo1.isWatching());
+
+        repo1.release();
+        repo2.release();
+        assertFalse(repo2.isWatching());
+    }
+
+    /**
+     * Copy the library modules of the installed XDK into the specified directory.
+     *
+     * @return the copied module files
+     */
+    private static File[] copyLibraries(Path dir) throws IOException {
+        File[] filesLib = new File(XdkLibraries.xdkBuildDir(), "lib")
+                .listFiles(DirRepository.ModulesOnly);
+        assertNotNull(filesLib);
+        assertTrue(filesLib.length >= 4, "too few modules: " + filesLib.length);
+
+        File[] files = new File[filesLib.length];
+        for (int i = 0; i < filesLib.length; i++) {
+            Path path = filesLib[i].toPath();
+            files[i] = Files.copy(path, dir.resolve(path.getFileName())).toFile();
+        }
+        return files;
+    }
+
+    /**
+     * A repository that counts the module files it reads.
+     */
+    private static class CountingRepository extends DirRepository {
+        CountingRepository(File dir) {
+            super(dir, true);
+        }
+
+        @Override
+        protected ModuleInfo createModuleInfo(File file) {
+            created.incrementAndGet();
+            return super.createModuleInfo(file);
+        }
+
+        final AtomicInteger created = new AtomicInteger();
+    }
+}
@@ -0,0 +1,64 @@
+package org.xvm.xdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.ModuleStructure;
+import org.xvm.asm.constants.TypeConstant;
+import org.xvm.javajit.SpecializationPolicy;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the default ("annotated") decisions of the {@link SpecializationPolicy} for the Ecstasy
+ * library classes.
+ */
+class SpecializationPolicyTest {
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testAnnotatedClasses() {
+        ModuleStructure      moduleEcstasy = XdkLibraries.loadEcstasy();
+        ConstantPool         pool          = moduleEcstasy.getConstantPool();
+        SpecializationPolicy policy        = SpecializationPolicy.INSTANCE;
+
+        try (var ignore = ConstantPool.withPool(pool)) {
+            TypeConstant typeInt = pool.typeInt64();
+
+            // annotated directly
+            ClassStructure clzHasherMap = findClass(moduleEcstasy, "maps.HasherMap");
+            assertTrue(policy.isSpecialized(clzHasherMap, mapOf(clzHasherMap, typeInt)));
+
+            // extends an annotated class
+            ClassStructure clzHashMap = findClass(moduleEcstasy, "maps.HashMap");
+            assertTrue(policy.isSpecialized(clzHashMap, mapOf(clzHashMap, typeInt)));
+
+            // not annotated
+            ClassStructure clzListMap = findClass(moduleEcstasy, "maps.ListMap");
+            assertFalse(policy.isSpecialized(clzListMap, mapOf(clzListMap, typeInt)));
+
+            // primitive arrays are always specialized
+            ClassStructure clzArray = (ClassStructure) pool.clzArray().getComponent();
+            assertTrue(policy.isSpecialized(clzArray, pool.ensureArrayType(typeInt)));
+        }
+    }
+
+    /**
+     * @return the class at the specified path within the module
+     */
+    private static ClassStructure findClass(ModuleStructure module, String sPath) {
+        return (ClassStructure) module.getChildByPath(sPath);
+    }
+
+    /**
+     * @return the type of the specified map class with the specified key and value type
+     */
+    private static TypeConstant mapOf(ClassStructure clz, TypeConstant type) {
+        ConstantPool pool = clz.getConstantPool();
+        return pool.ensureParameterizedTypeConstant(
+                pool.ensureTerminalTypeConstant(clz.getIdentityConstant()), type, type);
+    }
+}
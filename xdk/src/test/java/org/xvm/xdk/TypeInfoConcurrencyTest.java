@@ -0,0 +1,81 @@
+package org.xvm.xdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.xvm.asm.ErrorList;
+import org.xvm.asm.ModuleStructure;
+import org.xvm.asm.constants.TypeConstant;
+import org.xvm.asm.constants.TypeInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test for building {@link TypeInfo}s of the Ecstasy library types from many threads at
+ * the same time (see {@link TypeConstant#ensureTypeInfo()}).
+ */
+class TypeInfoConcurrencyTest {
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testConcurrentTypeInfoBuilding() throws Exception {
+        ModuleStructure    moduleEcstasy = XdkLibraries.loadEcstasy();
+        List<TypeConstant> listTypes     = XdkLibraries.collectTypes(moduleEcstasy);
+        assertTrue(listTypes.size() > 100, "too few types: " + listTypes.size());
+
+        int cThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+        var barrier  = new CyclicBarrier(cThreads);
+        ExecutorService executor = Executors.newFixedThreadPool(cThreads);
+        try {
+            List<Future<Map<TypeConstant, TypeInfo>>> listFutures = new ArrayList<>();
+            for (int i = 0; i < cThreads; i++) {
+                long lSeed = i;
+                listFutures.add(executor.submit(() -> {
+                    List<TypeConstant> listShuffled = new ArrayList<>(listTypes);
+                    Collections.shuffle(listShuffled, new Random(lSeed));
+
+                    Map<TypeConstant, TypeInfo> mapInfos = new HashMap<>();
+                    ErrorList errs = new ErrorList(100);
+                    barrier.await();
+                    for (TypeConstant type : listShuffled) {
+                        mapInfos.put(type, type.ensureTypeInfo(errs));
+                    }
+                    assertFalse(errs.hasSeriousErrors(), errs::toString);
+                    return mapInfos;
+                }));
+            }
+
+            List<Map<TypeConstant, TypeInfo>> listResults = new ArrayList<>();
+            for (var future : listFutures) {
+                listResults.add(future.get());
+            }
+
+            // every thread must have gotten a complete and equivalent TypeInfo for every type
+            for (TypeConstant type : listTypes) {
+                TypeInfo infoFirst = listResults.getFirst().get(type);
+                for (var mapInfos : listResults) {
+                    TypeInfo info = mapInfos.get(type);
+                    assertTrue(TypeConstant.isComplete(info), "incomplete TypeInfo for " + type);
+                    assertEquals(infoFirst.getType(), info.getType());
+                    assertEquals(infoFirst.getMethods().keySet(), info.getMethods().keySet());
+                    assertEquals(infoFirst.getProperties().keySet(), info.getProperties().keySet());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
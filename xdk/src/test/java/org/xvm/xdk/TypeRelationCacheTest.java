@@ -0,0 +1,179 @@
+package org.xvm.xdk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.ModuleStructure;
+import org.xvm.asm.TypeRelationCache;
+import org.xvm.asm.constants.TypeConstant;
+import org.xvm.asm.constants.TypeConstant.Relation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that the {@link TypeRelationCache} restores the stored relations into a pool built the
+ * same way, and only as long as the content of the module files stays the same.
+ */
+class TypeRelationCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String tmpDirSaved;
+
+    @BeforeEach
+    void redirectCache() {
+        // keep the cache files out of the real per-user cache directory
+        tmpDirSaved = System.getProperty("java.io.tmpdir");
+        System.setProperty("java.io.tmpdir", tempDir.toString());
+    }
+
+    @AfterEach
+    void restoreCache() {
+        System.setProperty("java.io.tmpdir", tmpDirSaved);
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testRoundTrip() throws IOException {
+        List<File>     files    = writeFiles(tempDir.resolve("a"));
+        List<Relation> listNone = relationsOf(XdkLibraries.loadEcstasy(), null);
+        List<Relation> listCalc = calculateAndStore(files);
+        assertNotEquals(listNone, listCalc);
+
+        // a pool built the same way gets the relations restored
+        assertEquals(listCalc, relationsOf(XdkLibraries.loadEcstasy(), files));
+
+        // the files can be copied and touched, as long as their content is the same
+        List<File> filesCopy = new ArrayList<>();
+        for (File file : files) {
+            File fileCopy = Files.copy(file.toPath(),
+                    Files.createDirectories(tempDir.resolve("b")).resolve(file.getName())).toFile();
+            assertTrue(fileCopy.setLastModified(file.lastModified() - 10_000));
+            filesCopy.add(fileCopy);
+        }
+        assertEquals(listCalc, relationsOf(XdkLibraries.loadEcstasy(), filesCopy));
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testInvalidation() throws IOException {
+        List<File>     files    = writeFiles(tempDir.resolve("a"));
+        List<Relation> listNone = relationsOf(XdkLibraries.loadEcstasy(), null);
+        calculateAndStore(files);
+
+        // a change of the content invalidates the cache, even if the size and time stay the same
+        File   file      = files.get(1);
+        long   lModified = file.lastModified();
+        byte[] ab        = Files.readAllBytes(file.toPath());
+        ab[0]++;
+        Files.write(file.toPath(), ab);
+        assertTrue(file.setLastModified(lModified));
+
+        assertEquals(listNone, relationsOf(XdkLibraries.loadEcstasy(), files));
+    }
+
+    /**
+     * Calculate the relations between the sampled types of a new pool, and store them in the cache
+     * for the specified module files.
+     *
+     * @return the calculated relations of the sampled type pairs
+     */
+    private static List<Relation> calculateAndStore(List<File> files) {
+        ModuleStructure   moduleEcstasy = XdkLibraries.loadEcstasy();
+        ConstantPool      pool          = moduleEcstasy.getConstantPool();
+        int               cBase         = pool.size();
+        TypeRelationCache cache         = TypeRelationCache.load(pool, files);
+        assertNotNull(cache);
+
+        List<TypeConstant> listTypes = sampleTypes(moduleEcstasy, cBase);
+        try (var ignore = ConstantPool.withPool(pool)) {
+            for (TypeConstant typeRight : listTypes) {
+                for (TypeConstant typeLeft : listTypes) {
+                    typeRight.isA(typeLeft);
+                }
+            }
+        }
+        cache.store();
+        return collectRelations(listTypes);
+    }
+
+    /**
+     * Restore the relations from the cache for the specified module files (unless null) into the
+     * pool of the specified module, and collect the relations of the sampled type pairs.
+     *
+     * @return the relations of the sampled type pairs (null for the ones not calculated)
+     */
+    private static List<Relation> relationsOf(ModuleStructure moduleEcstasy, List<File> files) {
+        ConstantPool pool  = moduleEcstasy.getConstantPool();
+        int          cBase = pool.size();
+        if (files != null) {
+            assertNotNull(TypeRelationCache.load(pool, files));
+        }
+        return collectRelations(sampleTypes(moduleEcstasy, cBase));
+    }
+
+    /**
+     * @return the relations of all pairs of the specified types (null for the ones not calculated)
+     */
+    private static List<Relation> collectRelations(List<TypeConstant> listTypes) {
+        List<Relation> listRelations = new ArrayList<>();
+        for (TypeConstant typeRight : listTypes) {
+            for (TypeConstant typeLeft : listTypes) {
+                listRelations.add(typeRight.getCalculatedRelations().get(typeLeft));
+            }
+        }
+        return listRelations;
+    }
+
+    /**
+     * @return the types to calculate the relations between; only the types that were in the pool
+     *         when it was built can have their relations cached
+     */
+    private static List<TypeConstant> sampleTypes(ModuleStructure moduleEcstasy, int cBase) {
+        List<TypeConstant> listTypes = new ArrayList<>();
+        for (TypeConstant type : XdkLibraries.collectTypes(moduleEcstasy)) {
+            int nPos = type.getPosition();
+            if (nPos >= 0 && nPos < cBase && !type.containsAutoNarrowing(true)) {
+                listTypes.add(type);
+                if (listTypes.size() == 50) {
+                    break;
+                }
+            }
+        }
+        assertTrue(listTypes.size() > 10, "too few types: " + listTypes.size());
+        return listTypes;
+    }
+
+    /**
+     * Write the files standing for the module files the pool is built from; the cache only hashes
+     * their content.
+     *
+     * @return the files
+     */
+    private static List<File> writeFiles(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        List<File> files = new ArrayList<>();
+        for (String name : List.of("ecstasy.xtc", "turtle.xtc", "native.xtc")) {
+            files.add(Files.writeString(dir.resolve(name), "content of " + name,
+                    StandardCharsets.UTF_8).toFile());
+        }
+        return files;
+    }
+}
@@ -0,0 +1,47 @@
+package org.xvm.xdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.ModuleStructure;
+import org.xvm.asm.constants.TypeConstant;
+import org.xvm.asm.constants.TypeConstant.Relation;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that the cached "isA" answers (see {@link TypeConstant#isA}) agree with the full
+ * relation calculation for the Ecstasy library types.
+ */
+class TypeRelationMatrixTest {
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "RUN_INTEGRATION_TESTS", matches = "true",
+        disabledReason = "Requires the installed XDK; enable with RUN_INTEGRATION_TESTS=true")
+    void testCachedIsA() {
+        ModuleStructure    moduleEcstasy = XdkLibraries.loadEcstasy();
+        ConstantPool       pool          = moduleEcstasy.getConstantPool();
+        List<TypeConstant> listTypes     = XdkLibraries.collectTypes(moduleEcstasy);
+        listTypes = listTypes.subList(0, Math.min(200, listTypes.size()));
+        assertTrue(listTypes.size() > 50, "too few types: " + listTypes.size());
+
+        try (var ignore = ConstantPool.withPool(pool)) {
+            // the first pass fills the matrix, the second one reads from it
+            for (int iPass = 0; iPass < 2; iPass++) {
+                for (TypeConstant typeRight : listTypes) {
+                    for (TypeConstant typeLeft : listTypes) {
+                        assertEquals(typeRight.calculateRelation(typeLeft) != Relation.INCOMPATIBLE,
+                                typeRight.isA(typeLeft), typeRight + " isA " + typeLeft);
+                    }
+                }
+            }
+
+            assertTrue(pool.typeInt64().isA(pool.typeObject()));
+            assertTrue(pool.typeInt64().isA(pool.typeInt64()));
+            assertTrue(pool.typeString().isA(pool.typeString()));
+        }
+    }
+}
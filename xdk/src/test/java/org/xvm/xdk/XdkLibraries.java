@@ -0,0 +1,86 @@
+package org.xvm.xdk;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.Component;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.Constants;
+import org.xvm.asm.DirRepository;
+import org.xvm.asm.LinkedRepository;
+import org.xvm.asm.ModuleStructure;
+import org.xvm.asm.PackageStructure;
+import org.xvm.asm.constants.TypeConstant;
+import org.xvm.compiler.BuildRepository;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The shared fixture for the tests that work directly with the Ecstasy library modules of the
+ * installed XDK.
+ */
+final class XdkLibraries {
+
+    private XdkLibraries() {
+    }
+
+    /**
+     * @return the directory of the installed XDK
+     */
+    static File xdkBuildDir() {
+        return new File(System.getProperty("user.dir"), "build/install/xdk");
+    }
+
+    /**
+     * Load and link the Ecstasy and the turtle modules of the installed XDK, and inject the
+     * NakedRef type into the Ecstasy constant pool (as the compiler does).
+     *
+     * @return the linked Ecstasy module
+     */
+    static ModuleStructure loadEcstasy() {
+        File xdkBuildDir = xdkBuildDir();
+        var repo = new LinkedRepository(true,
+            new BuildRepository(),
+            new DirRepository(new File(xdkBuildDir, "lib"), true),
+            new DirRepository(new File(xdkBuildDir, "javatools"), true));
+
+        ModuleStructure moduleEcstasy = repo.loadModule(Constants.ECSTASY_MODULE);
+        ModuleStructure moduleTurtle  = repo.loadModule(Constants.TURTLE_MODULE);
+        assertNotNull(moduleEcstasy, "ecstasy.xtc not found in " + xdkBuildDir);
+        assertNotNull(moduleTurtle, "the turtle module not found in " + xdkBuildDir);
+        assertNull(moduleEcstasy.getFileStructure().linkModules(repo, false));
+        assertNull(moduleTurtle.getFileStructure().linkModules(repo, false));
+
+        TypeConstant typeNakedRef;
+        try (var ignore = ConstantPool.withPool(moduleTurtle.getConstantPool())) {
+            typeNakedRef = ((ClassStructure) moduleTurtle.getChild("NakedRef")).getFormalType();
+        }
+        moduleEcstasy.getConstantPool().setNakedRefType(typeNakedRef);
+        return moduleEcstasy;
+    }
+
+    /**
+     * Collect the canonical types of the classes in the specified module or package (recursing
+     * into the nested packages).
+     *
+     * @return the list of the canonical types
+     */
+    static List<TypeConstant> collectTypes(Component parent) {
+        List<TypeConstant> listTypes = new ArrayList<>();
+        collectTypes(parent, listTypes);
+        return listTypes;
+    }
+
+    private static void collectTypes(Component parent, List<TypeConstant> listTypes) {
+        for (Component child : parent.children()) {
+            if (child instanceof PackageStructure) {
+                collectTypes(child, listTypes);
+            } else if (child instanceof ClassStructure clz) {
+                listTypes.add(clz.getCanonicalType());
+            }
+        }
+    }
+}